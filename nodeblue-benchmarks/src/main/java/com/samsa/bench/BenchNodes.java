@@ -0,0 +1,49 @@
+package com.samsa.bench;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.samsa.core.InNode;
+import com.samsa.core.InOutNode;
+import com.samsa.core.Message;
+import com.samsa.core.OutNode;
+
+/**
+ * 벤치마크에서 흐름을 구성할 때 사용하는 최소한의 노드들입니다.
+ */
+final class BenchNodes {
+
+    private BenchNodes() {
+    }
+
+    /**
+     * 벤치마크 메서드가 직접 메시지를 내보내는 시작 노드입니다.
+     */
+    static final class Source extends OutNode {
+    }
+
+    /**
+     * 받은 메시지를 그대로 다음 노드로 보내는 노드입니다.
+     */
+    static final class Pass extends InOutNode {
+        @Override
+        public void onMessage(Message message) {
+            emit(message);
+        }
+    }
+
+    /**
+     * 받은 메시지를 Blackhole로 소비하여 JIT이 전달 경로를 제거하지 못하게 하는 끝 노드입니다.
+     */
+    static final class Sink extends InNode {
+        private final Blackhole blackhole;
+
+        Sink(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void onMessage(Message message) {
+            blackhole.consume(message);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.samsa.bench;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.samsa.core.Message;
+import com.samsa.node.inout.ChangeNode;
+import com.samsa.node.inout.ChangeRule;
+import com.samsa.pipeline.Pipeline;
+
+/**
+ * {@link ChangeNode}의 변경 방식별 비용을 측정합니다.
+ * <ul>
+ * <li>METADATA: 메타데이터 키 하나 설정</li>
+ * <li>PAYLOAD: 페이로드 최상위 키 하나 설정</li>
+ * <li>NESTED: 중첩 경로 설정</li>
+ * </ul>
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChangeNodeBenchmark {
+    @Param({ "METADATA", "PAYLOAD", "NESTED" })
+    public String mode;
+
+    private BenchNodes.Source source;
+    private Pipeline pipeline;
+    private Message message;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        ChangeNode node = switch (mode) {
+            case "METADATA" -> new ChangeNode(UUID.randomUUID(), "status", "active", true);
+            case "PAYLOAD" -> new ChangeNode(UUID.randomUUID(), "status", "active", false);
+            default -> new ChangeNode(UUID.randomUUID(),
+                    List.of(ChangeRule.set(ChangeRule.Target.PAYLOAD, "sensor.readings[1].unit", "C")));
+        };
+        source = new BenchNodes.Source();
+        pipeline = new Pipeline("change");
+        pipeline.connect(source, node);
+        pipeline.connect(node, new BenchNodes.Sink(blackhole));
+        pipeline.start();
+        message = new Message(Map.of(
+                "sensor", Map.of("id", "plc-1", "readings", List.of(Map.of("value", 1), Map.of("value", 2))),
+                "site", "line-3"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pipeline.stop();
+    }
+
+    @Benchmark
+    public void change() {
+        source.emit(message);
+    }
+}
@@ -0,0 +1,83 @@
+package com.samsa.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+
+import com.samsa.core.Message;
+import com.samsa.pipeline.Pipeline;
+import com.samsa.trace.TraceRecorder;
+import com.samsa.trace.TraceSampler;
+
+/**
+ * {@link com.samsa.core.OutNode#emit}의 비용을 로깅 레벨과 추적 샘플링 간격별로 측정합니다.
+ * INFO는 노드의 INFO 로그가 켜진 상태, WARN은 꺼진 상태입니다. 로그는 파일로 기록됩니다.
+ * sampleEvery가 0이면 추적을 끄고, N이면 N개 중 하나의 메시지를 추적합니다.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EmitBenchmark {
+    @Param({ "INFO", "WARN" })
+    public String level;
+
+    @Param({ "0", "1", "100" })
+    public int sampleEvery;
+
+    private Logger logger;
+    private Level previousLevel;
+    private BenchNodes.Source source;
+    private Pipeline pipeline;
+    private Message message;
+    private TraceRecorder recorder;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        logger = (Logger) LoggerFactory.getLogger("com.samsa");
+        previousLevel = logger.getLevel();
+        logger.setLevel(Level.toLevel(level));
+        source = new BenchNodes.Source();
+        pipeline = new Pipeline("emit");
+        pipeline.connect(source, new BenchNodes.Sink(blackhole));
+        if (sampleEvery > 0) {
+            recorder = new TraceRecorder(TraceRecorder.DEFAULT_CAPACITY, TraceRecorder.DEFAULT_FLUSH_INTERVAL_MILLIS,
+                    TimeUnit.MILLISECONDS, events -> { });
+            pipeline.enableTracing(TraceSampler.everyNth(sampleEvery), recorder);
+        }
+        pipeline.start();
+        message = new Message("payload");
+    }
+
+    @TearDown
+    public void tearDown() {
+        pipeline.stop();
+        if (recorder != null) {
+            recorder.close();
+        }
+        logger.setLevel(previousLevel);
+    }
+
+    @Benchmark
+    public void emit() {
+        source.emit(message);
+    }
+}
@@ -0,0 +1,62 @@
+package com.samsa.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.samsa.core.Message;
+import com.samsa.core.Metadata;
+
+/**
+ * {@link Message} 생성 비용을 측정합니다. (ID 생성, 메타데이터 복사 포함)
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageBenchmark {
+    private Map<String, Object> metadataMap;
+    private Metadata metadata;
+    private final Object payload = "payload";
+
+    @Setup
+    public void setUp() {
+        metadataMap = new HashMap<>();
+        metadataMap.put("topic", "sensors/plc-1");
+        metadataMap.put("qos", 1);
+        metadata = Metadata.copyOf(metadataMap);
+    }
+
+    @Benchmark
+    public Message payloadOnly() {
+        return new Message(payload);
+    }
+
+    @Benchmark
+    public Message withMetadataMap() {
+        return new Message(payload, metadataMap);
+    }
+
+    @Benchmark
+    public Message withSharedMetadata() {
+        return new Message(payload, metadata);
+    }
+
+    @Benchmark
+    public String formattedId() {
+        return new Message(payload).getId();
+    }
+}
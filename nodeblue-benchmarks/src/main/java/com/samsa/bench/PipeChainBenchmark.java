@@ -0,0 +1,70 @@
+package com.samsa.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.samsa.core.Message;
+import com.samsa.core.Node;
+import com.samsa.pipeline.Pipeline;
+
+/**
+ * 동기 {@link com.samsa.core.Pipe#send} 체인의 전달 비용을 깊이와 팬아웃별로 측정합니다.
+ * 시작 노드 → depth개의 전달 노드 → fanout개의 끝 노드로 구성됩니다.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PipeChainBenchmark {
+    @Param({ "1", "4", "16" })
+    public int depth;
+
+    @Param({ "1", "4" })
+    public int fanout;
+
+    private BenchNodes.Source source;
+    private Pipeline pipeline;
+    private Message message;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        source = new BenchNodes.Source();
+        pipeline = new Pipeline("pipe-chain");
+        Node previous = source;
+        for (int i = 0; i < depth; i++) {
+            BenchNodes.Pass pass = new BenchNodes.Pass();
+            pipeline.connect(previous, pass);
+            previous = pass;
+        }
+        for (int i = 0; i < fanout; i++) {
+            pipeline.connect(previous, new BenchNodes.Sink(blackhole));
+        }
+        pipeline.start();
+        message = new Message("payload");
+    }
+
+    @TearDown
+    public void tearDown() {
+        pipeline.stop();
+    }
+
+    @Benchmark
+    public void send() {
+        source.emit(message);
+    }
+}
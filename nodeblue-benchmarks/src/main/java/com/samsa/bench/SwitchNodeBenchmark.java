@@ -0,0 +1,80 @@
+package com.samsa.bench;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.samsa.core.Message;
+import com.samsa.core.Metadata;
+import com.samsa.node.inout.SwitchNode;
+import com.samsa.node.inout.SwitchRule;
+import com.samsa.pipeline.Pipeline;
+
+/**
+ * {@link SwitchNode}의 라우팅 비용을 해시 방식과 규칙 방식으로 나누어 측정합니다.
+ * 메시지는 8개의 장치 값을 순환하며 4개의 출력으로 분기됩니다.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SwitchNodeBenchmark {
+    private static final int OUTPUTS = 4;
+
+    @Param({ "HASH", "RULES" })
+    public String mode;
+
+    private BenchNodes.Source source;
+    private Pipeline pipeline;
+    private Message[] messages;
+    private int next;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        SwitchNode node = mode.equals("HASH")
+                ? new SwitchNode(UUID.randomUUID(), "device")
+                : new SwitchNode(UUID.randomUUID(), List.of(
+                        SwitchRule.equalsTo(SwitchRule.Source.METADATA, "device", "plc-0", 0),
+                        SwitchRule.startsWith(SwitchRule.Source.METADATA, "device", "plc-", 1),
+                        SwitchRule.matches(SwitchRule.Source.METADATA, "device", "sensor-\\d+", 2),
+                        SwitchRule.otherwise(3)), SwitchNode.MatchMode.FIRST_MATCH);
+        source = new BenchNodes.Source();
+        pipeline = new Pipeline("switch");
+        pipeline.connect(source, node);
+        for (int i = 0; i < OUTPUTS; i++) {
+            pipeline.connect(node, new BenchNodes.Sink(blackhole));
+        }
+        pipeline.start();
+        messages = new Message[8];
+        for (int i = 0; i < messages.length; i++) {
+            String device = (i % 2 == 0 ? "plc-" : "sensor-") + i;
+            messages[i] = new Message("payload", Metadata.empty().with("device", device));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        pipeline.stop();
+    }
+
+    @Benchmark
+    public void route() {
+        source.emit(messages[next++ & (messages.length - 1)]);
+    }
+}
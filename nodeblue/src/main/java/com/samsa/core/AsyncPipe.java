@@ -0,0 +1,282 @@
+package com.samsa.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 메시지를 고정 크기 링 버퍼에 넣고 전용 소비자 스레드에서 대상 노드로 전달하는 비동기 파이프입니다.
+ * 송신 측은 버퍼에 넣는 즉시 반환되므로 느린 하위 노드가 상위 노드(예: MQTT 수신 콜백 스레드)를 막지 않습니다.
+ * 버퍼가 가득 찼을 때의 동작은 {@link OverflowPolicy}로 지정합니다.
+ *
+ * <p>소비자 스레드는 첫 send 또는 {@link #start()} 호출 시 시작되며, {@link #close()}로 남은 메시지를 전달한 뒤 종료합니다.
+ * 닫힌 뒤의 send는 거부되며, 닫히기 전에 시작된 send가 넣은 메시지는 소비자가 종료 전에 모두 전달합니다.
+ */
+@Slf4j
+public class AsyncPipe extends Pipe {
+    /** 기본 버퍼 용량 */
+    public static final int DEFAULT_CAPACITY = 1024;
+    /** close()가 남은 메시지의 전달을 기다리는 기본 최대 시간 */
+    public static final long DEFAULT_CLOSE_TIMEOUT_MILLIS = 5000;
+
+    /** 소비자가 대기 상태로 들어가기 전 바쁜 대기 횟수 */
+    private static final int SPIN_LIMIT = 100;
+    /** 대기 중 깨어나 버퍼를 다시 확인하는 최대 간격 */
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    /** BLOCK 정책에서 생산자가 빈 공간을 다시 확인하는 간격 */
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /** 메시지 버퍼 */
+    private final RingBuffer<Message> buffer;
+    /** 버퍼가 가득 찼을 때의 처리 정책 */
+    private final OverflowPolicy overflowPolicy;
+    /** 버려진 메시지 수 */
+    private final LongAdder dropped = new LongAdder();
+
+    /** 소비자 스레드 시작 여부 */
+    private final AtomicBoolean started = new AtomicBoolean();
+    /** 종료 요청 여부 */
+    private volatile boolean closed;
+    /** send를 진행 중인 생산자 수, 소비자는 이 값이 0이 된 뒤에 종료합니다 */
+    private final AtomicInteger producers = new AtomicInteger();
+    /** 소비자가 대기 중인지 여부 */
+    private volatile boolean consumerWaiting;
+    /** 소비자 스레드 */
+    private volatile Thread consumer;
+
+    /**
+     * 기본 용량과 BLOCK 정책으로 비동기 파이프를 생성합니다.
+     *
+     * @param id 파이프의 고유 식별자
+     * @param node 이 파이프가 연결될 소스 노드
+     */
+    public AsyncPipe(String id, Node node) {
+        this(id, node, DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * 비동기 파이프를 생성합니다.
+     *
+     * @param id 파이프의 고유 식별자
+     * @param node 이 파이프가 연결될 소스 노드
+     * @param capacity 버퍼 용량 (2의 거듭제곱으로 올림됩니다)
+     * @param overflowPolicy 버퍼가 가득 찼을 때의 처리 정책
+     */
+    public AsyncPipe(String id, Node node, int capacity, OverflowPolicy overflowPolicy) {
+        super(id, node);
+        if (overflowPolicy == null) {
+            throw new NullPointerException("overflowPolicy");
+        }
+        this.buffer = new RingBuffer<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * 소비자 스레드를 시작합니다. 이미 시작된 경우 아무 동작도 하지 않습니다.
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(this::drainLoop, "async-pipe-" + getId());
+        thread.setDaemon(true);
+        consumer = thread;
+        thread.start();
+        log.info("AsyncPipe[{}] started - capacity: {}, policy: {}", getId(), buffer.capacity(), overflowPolicy);
+    }
+
+    /**
+     * 메시지를 버퍼에 넣고 즉시 반환합니다.
+     * 파이프가 연결되어 있지 않거나 닫힌 경우 메시지는 전송되지 않습니다.
+     *
+     * @param message 전송할 메시지
+     */
+    @Override
+    public void send(Message message) {
+        if (!isConnected()) {
+            return;
+        }
+        // 생산자 수를 먼저 늘린 뒤 closed를 확인하므로, 소비자가 닫힘을 보고 생산자가 없음을 확인했다면 이후의 send는 반드시 닫힘을 봅니다.
+        producers.incrementAndGet();
+        try {
+            if (closed) {
+                return;
+            }
+            if (!started.get()) {
+                start();
+            }
+            if (!buffer.offer(message)) {
+                handleOverflow(message);
+            }
+        } finally {
+            producers.decrementAndGet();
+        }
+        if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private void handleOverflow(Message message) {
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                while (!buffer.offer(message)) {
+                    if (closed) {
+                        dropped.increment();
+                        return;
+                    }
+                    LockSupport.unpark(consumer);
+                    LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!buffer.offer(message)) {
+                    if (buffer.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+            }
+            case DROP_NEWEST -> dropped.increment();
+        }
+    }
+
+    private void drainLoop() {
+        int idle = 0;
+        while (true) {
+            Message message = buffer.poll();
+            if (message != null) {
+                idle = 0;
+                awaitDownstreamDemand();
+                dispatch(message);
+                continue;
+            }
+            if (closed && producers.get() == 0) {
+                // 더 이상 메시지를 넣을 생산자가 없으므로 남은 메시지를 전달하고 종료합니다.
+                while ((message = buffer.poll()) != null) {
+                    dispatch(message);
+                }
+                return;
+            }
+            if (++idle < SPIN_LIMIT) {
+                Thread.onSpinWait();
+                continue;
+            }
+            consumerWaiting = true;
+            if (buffer.isEmpty() && !closed) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            consumerWaiting = false;
+        }
+    }
+
+    /**
+     * 대상 노드의 수요가 없으면 생길 때까지 전달을 미룹니다.
+     * 그동안 버퍼가 차면서 이 파이프의 수요도 줄어들어 상위 노드로 포화 상태가 전달됩니다.
+     */
+    private void awaitDownstreamDemand() {
+        long backoff = BLOCK_PARK_NANOS;
+        while (!closed && super.demand() <= 0) {
+            LockSupport.parkNanos(this, backoff);
+            backoff = Math.min(backoff << 1, PARK_NANOS);
+        }
+    }
+
+    private void dispatch(Message message) {
+        try {
+            deliver(message);
+        } catch (Exception e) {
+            log.error("AsyncPipe[{}] delivery failed: {}", getId(), e.getMessage());
+            Pipe target = getConnectedPipe();
+            if (target != null) {
+                target.getNode().handleError(e);
+            }
+        }
+    }
+
+    /**
+     * 새 메시지 수신을 중단하고, 버퍼에 남은 메시지를 모두 전달한 뒤 소비자 스레드를 종료합니다.
+     * 남은 메시지의 전달을 최대 {@value #DEFAULT_CLOSE_TIMEOUT_MILLIS}ms 동안 기다립니다.
+     *
+     * @throws InterruptedException 종료를 기다리는 중 인터럽트된 경우
+     */
+    public void close() throws InterruptedException {
+        close(DEFAULT_CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 새 메시지 수신을 중단하고, 버퍼에 남은 메시지를 모두 전달한 뒤 소비자 스레드를 종료합니다.
+     * 제한 시간 안에 전달이 끝나지 않으면 소비자 스레드는 남은 메시지를 계속 전달하며 이 메서드만 반환합니다.
+     *
+     * @param timeout 최대 대기 시간
+     * @param unit 대기 시간 단위
+     * @return 제한 시간 안에 소비자 스레드가 종료되었으면 true
+     * @throws InterruptedException 종료를 기다리는 중 인터럽트된 경우
+     */
+    public boolean close(long timeout, TimeUnit unit) throws InterruptedException {
+        closed = true;
+        Thread thread = consumer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join(Math.max(1, unit.toMillis(timeout)));
+            if (thread.isAlive()) {
+                log.warn("AsyncPipe[{}] close timed out with {} message(s) pending", getId(), buffer.size());
+                return false;
+            }
+        }
+        log.info("AsyncPipe[{}] closed - dropped: {}", getId(), dropped.sum());
+        return true;
+    }
+
+    /**
+     * 버퍼의 남은 공간을 수요로 반환합니다.
+     * 대상 노드의 수요는 소비자 스레드가 전달 시 대기하며 흡수하므로 여기에 포함하지 않습니다.
+     *
+     * @return 버퍼의 남은 공간
+     */
+    @Override
+    public long demand() {
+        return buffer.capacity() - buffer.size();
+    }
+
+    /**
+     * 현재 버퍼에 대기 중인 메시지 수를 반환합니다.
+     *
+     * @return 대기 중인 메시지 수
+     */
+    @Override
+    public int getQueueSize() {
+        return buffer.size();
+    }
+
+    /**
+     * 버퍼 용량을 반환합니다.
+     *
+     * @return 버퍼 용량
+     */
+    @Override
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * 버퍼가 가득 차서 버려진 메시지 수를 반환합니다.
+     *
+     * @return 버려진 메시지 수
+     */
+    @Override
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 버퍼가 가득 찼을 때의 처리 정책을 반환합니다.
+     *
+     * @return 처리 정책
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+}
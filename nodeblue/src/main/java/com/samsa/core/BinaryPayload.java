@@ -0,0 +1,270 @@
+package com.samsa.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 외부에서 받은 원본 바이트를 복사하지 않고 감싸는 메시지 페이로드입니다.
+ * 문자열(UTF-8)이나 JSON 트리 등의 보기는 노드가 실제로 내용을 검사할 때 처음 한 번만 디코딩되며,
+ * 결과는 캐시되어 이후의 모든 노드가 공유합니다.
+ * 내용을 검사하지 않는 흐름(예: MQTT 수신 → 메타데이터 기반 분기 → MQTT 발행)에서는 디코딩이나 재인코딩이 일어나지 않습니다.
+ *
+ * <p>감싼 바이트 배열과 캐시된 JSON 트리는 여러 메시지와 노드가 공유하므로 수정해서는 안 됩니다.
+ */
+public final class BinaryPayload {
+    /** JSON 보기를 만들 때 사용하는 공유 매퍼 */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    /** 캐시된 UTF-8 문자열 보기 */
+    private volatile String text;
+    /** 캐시된 JSON 트리 보기 */
+    private volatile JsonNode tree;
+    /** 내용이 JSON이 아니면 처음 파싱할 때의 실패 원인, 다시 파싱하지 않도록 캐시합니다 */
+    private volatile IOException jsonFailure;
+
+    private BinaryPayload(byte[] bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * 바이트 배열 전체를 복사하지 않고 감쌉니다.
+     *
+     * @param bytes 원본 바이트 (이후 수정하지 않아야 함)
+     * @return 바이너리 페이로드
+     */
+    public static BinaryPayload wrap(byte[] bytes) {
+        return new BinaryPayload(Objects.requireNonNull(bytes, "bytes"), 0, bytes.length);
+    }
+
+    /**
+     * 바이트 배열의 일부를 복사하지 않고 감쌉니다.
+     *
+     * @param bytes 원본 바이트 (이후 수정하지 않아야 함)
+     * @param offset 시작 위치
+     * @param length 길이
+     * @return 바이너리 페이로드
+     */
+    public static BinaryPayload wrap(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        return new BinaryPayload(bytes, offset, length);
+    }
+
+    /**
+     * 버퍼의 남은 내용을 감쌉니다. 힙 버퍼는 복사하지 않고 배경 배열을 공유하며, 다이렉트 버퍼는 한 번 복사합니다.
+     * 버퍼의 위치는 변경되지 않습니다.
+     *
+     * @param buffer 원본 버퍼
+     * @return 바이너리 페이로드
+     */
+    public static BinaryPayload wrap(ByteBuffer buffer) {
+        if (buffer.hasArray() && !buffer.isReadOnly()) {
+            return new BinaryPayload(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        byte[] copy = new byte[buffer.remaining()];
+        buffer.duplicate().get(copy);
+        return new BinaryPayload(copy, 0, copy.length);
+    }
+
+    /**
+     * 문자열을 UTF-8로 인코딩한 페이로드를 만듭니다. 문자열 보기는 처음부터 캐시됩니다.
+     *
+     * @param text 문자열
+     * @return 바이너리 페이로드
+     */
+    public static BinaryPayload ofString(String text) {
+        byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+        BinaryPayload payload = new BinaryPayload(encoded, 0, encoded.length);
+        payload.text = text;
+        return payload;
+    }
+
+    /**
+     * 바이트 길이를 반환합니다.
+     *
+     * @return 길이
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * 원본 바이트를 반환합니다. 배열 전체를 감싼 경우 복사 없이 원본 배열을 그대로 반환하므로 수정해서는 안 됩니다.
+     *
+     * @return 바이트 배열
+     */
+    public byte[] bytes() {
+        if (offset == 0 && length == bytes.length) {
+            return bytes;
+        }
+        return Arrays.copyOfRange(bytes, offset, offset + length);
+    }
+
+    /**
+     * 원본 바이트를 복사 없이 읽기 전용 버퍼로 반환합니다.
+     *
+     * @return 읽기 전용 버퍼
+     */
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(bytes, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * 원본 바이트를 읽는 스트림을 엽니다.
+     *
+     * @return 입력 스트림
+     */
+    public InputStream openStream() {
+        return new ByteArrayInputStream(bytes, offset, length);
+    }
+
+    /**
+     * 원본 바이트를 출력 스트림에 씁니다.
+     *
+     * @param out 출력 스트림
+     * @throws IOException 쓰기에 실패한 경우
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, offset, length);
+    }
+
+    /**
+     * 원본 바이트를 버퍼의 현재 위치에 복사합니다.
+     *
+     * @param target 대상 버퍼
+     * @throws java.nio.BufferOverflowException 대상 버퍼에 공간이 모자란 경우
+     */
+    void writeTo(ByteBuffer target) {
+        target.put(bytes, offset, length);
+    }
+
+    /**
+     * UTF-8 문자열 보기를 반환합니다. 처음 호출할 때 디코딩하고 결과를 캐시합니다.
+     *
+     * @return 문자열
+     */
+    public String asString() {
+        String cached = text;
+        if (cached == null) {
+            cached = new String(bytes, offset, length, StandardCharsets.UTF_8);
+            text = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * 내용이 올바른 JSON인지 확인합니다. 처음 호출할 때 파싱하며, 성공하면 트리를, 실패하면 실패했다는 사실을 캐시하므로
+     * 일반 텍스트 같은 페이로드도 한 번만 파싱합니다.
+     *
+     * @return JSON이면 true
+     */
+    public boolean isJson() {
+        return parse() != null;
+    }
+
+    /**
+     * JSON 트리 보기를 반환합니다. 처음 호출할 때 파싱하고 결과를 캐시합니다.
+     * 반환된 트리는 공유되므로 수정해서는 안 됩니다.
+     *
+     * @return JSON 트리
+     * @throws UncheckedIOException 내용이 올바른 JSON이 아닌 경우
+     */
+    public JsonNode asJson() {
+        JsonNode json = parse();
+        if (json == null) {
+            throw new UncheckedIOException("Payload is not valid JSON", jsonFailure);
+        }
+        return json;
+    }
+
+    /**
+     * 캐시된 JSON 트리를 반환하며, 아직 파싱하지 않았으면 파싱합니다.
+     *
+     * @return JSON 트리, 내용이 JSON이 아니면 null
+     */
+    private JsonNode parse() {
+        JsonNode cached = tree;
+        if (cached == null && jsonFailure == null) {
+            try {
+                cached = MAPPER.readTree(bytes, offset, length);
+                tree = cached;
+            } catch (IOException e) {
+                jsonFailure = e;
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * 내용을 변경 가능한 Java 객체(Map, List, String, Number, Boolean)로 변환합니다.
+     * 호출할 때마다 새 객체를 만들며, 페이로드를 수정하는 노드가 사용합니다.
+     *
+     * @return 변환된 객체
+     * @throws UncheckedIOException 내용이 올바른 JSON이 아닌 경우
+     */
+    public Object asObject() {
+        try {
+            return MAPPER.treeToValue(asJson(), Object.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Payload is not valid JSON", e);
+        }
+    }
+
+    /**
+     * 원본 바이트를 읽는 새 JSON 스트리밍 파서를 만듭니다. 트리를 만들지 않고 필요한 부분만 읽을 때 사용하며,
+     * 사용 후 닫아야 합니다.
+     *
+     * @return JSON 파서
+     * @throws IOException 파서 생성에 실패한 경우
+     */
+    public JsonParser parser() throws IOException {
+        return MAPPER.getFactory().createParser(bytes, offset, length);
+    }
+
+    /**
+     * 두 페이로드의 바이트 내용이 같은지 비교합니다.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BinaryPayload other)) {
+            return false;
+        }
+        return Arrays.equals(bytes, offset, offset + length, other.bytes, other.offset, other.offset + other.length);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = offset; i < offset + length; i++) {
+            result = 31 * result + bytes[i];
+        }
+        return result;
+    }
+
+    /**
+     * UTF-8 문자열 보기를 반환합니다.
+     */
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
@@ -0,0 +1,643 @@
+package com.samsa.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 메시지를 메모리 매핑된 세그먼트 파일에 기록하고 전용 소비자 스레드에서 대상 노드로 전달하는 내구성 파이프입니다.
+ * 하위 노드가 느리거나 재시작 중이어도 메시지는 힙이 아닌 디스크에 쌓이며, JVM이 재시작되면 확인되지 않은 메시지부터 다시 전달합니다.
+ *
+ * <p>레코드 형식: {@code [길이 int][메시지][CRC32C int]}이며, 메시지는 {@link MessageCodec}으로 레코드마다 독립적으로 인코딩합니다. 소비자는 대상 노드가 메시지 처리를
+ * 마친 뒤(우편함이 있는 노드는 우편함에서 꺼내 onMessage가 끝난 뒤) 다음 레코드의 위치를 확인 위치(checkpoint) 파일에 기록하므로,
+ * 우편함에 들어가 있던 메시지도 비정상 종료 후 다시 전달됩니다. 처리 직후 비정상 종료되면 이미 처리된 메시지가 한 번 더 전달될 수 있습니다(at-least-once).
+ * 세그먼트가 가득 차면 새 세그먼트로 넘어가고, 레코드가 모두 확인된 세그먼트는 삭제됩니다.
+ *
+ * <p>기본적으로 기록은 운영체제 페이지 캐시에 맡기므로 프로세스가 비정상 종료되어도 데이터는 남지만,
+ * 전원 장애까지 대비하려면 {@link #setSyncOnWrite(boolean)}을 켜야 합니다.
+ */
+@Slf4j
+public class DurablePipe extends Pipe {
+    /** 기본 세그먼트 크기 */
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    /** 레코드의 길이 필드와 CRC 필드 크기 */
+    private static final int FRAME_OVERHEAD = 8;
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "consumer.ack";
+    /** 확인 위치 파일 형식: [세그먼트 번호 long][위치 int][CRC32C int] */
+    private static final int CHECKPOINT_SIZE = 16;
+
+    /** 소비자가 대기 상태로 들어가기 전 바쁜 대기 횟수 */
+    private static final int SPIN_LIMIT = 100;
+    /** 대기 중 깨어나 새 레코드를 다시 확인하는 최대 간격 */
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    /** 대상 노드의 수요를 다시 확인하는 최소 간격 */
+    private static final long DEMAND_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    /** 생산자 스레드별 인코더, 인코딩 버퍼를 재사용합니다 */
+    private static final ThreadLocal<MessageCodec> ENCODERS = ThreadLocal.withInitial(MessageCodec::new);
+
+    private final Path directory;
+    private final int segmentSize;
+    private volatile boolean syncOnWrite;
+    /** 유지할 최대 세그먼트 수, 0이면 제한 없음 */
+    private volatile int maxSegments;
+
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final FileChannel checkpointChannel;
+    private final MappedByteBuffer checkpoint;
+    /** 오래된 것부터 정렬된 세그먼트, 마지막이 기록 중인 세그먼트 (this로 보호) */
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private long nextSegmentId;
+
+    /** 소비자가 읽을 세그먼트 (소비자 스레드 전용) */
+    private Segment readSegment;
+    /** 소비자가 다음에 읽을 위치 (소비자 스레드 전용) */
+    private int readPosition;
+    /** 대상 노드에 넘겼지만 아직 확인 위치에 기록하지 않은 레코드, 넘긴 순서대로 (소비자 스레드 전용) */
+    private final Deque<Ack> unacknowledged = new ArrayDeque<>();
+    /** 확인 위치가 가리키는 세그먼트 번호 (소비자 스레드 전용) */
+    private long ackedSegment;
+
+    /** 기록되었지만 아직 확인되지 않은 메시지 수 */
+    private final AtomicLong pending = new AtomicLong();
+    /** 버려진 메시지 수 */
+    private final LongAdder dropped = new LongAdder();
+
+    /** 레코드 디코더 (소비자 스레드 전용) */
+    private final MessageCodec decoder = new MessageCodec();
+
+    /** 소비자 스레드 시작 여부 */
+    private final AtomicBoolean started = new AtomicBoolean();
+    /** 종료 요청 여부 */
+    private volatile boolean closed;
+    /** 소비자가 대기 중인지 여부 */
+    private volatile boolean consumerWaiting;
+    /** 소비자 스레드 */
+    private volatile Thread consumer;
+
+    /**
+     * 기본 세그먼트 크기로 내구성 파이프를 생성합니다.
+     *
+     * @param id 파이프의 고유 식별자
+     * @param node 이 파이프가 연결될 소스 노드
+     * @param directory 세그먼트와 확인 위치를 저장할 디렉터리
+     * @throws UncheckedIOException 디렉터리를 열 수 없거나 다른 파이프가 사용 중인 경우
+     */
+    public DurablePipe(String id, Node node, Path directory) {
+        this(id, node, directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * 내구성 파이프를 생성합니다. 디렉터리에 이전에 기록된 메시지가 있으면 확인된 위치부터 이어서 전달합니다.
+     *
+     * @param id 파이프의 고유 식별자
+     * @param node 이 파이프가 연결될 소스 노드
+     * @param directory 세그먼트와 확인 위치를 저장할 디렉터리
+     * @param segmentSize 세그먼트 파일 크기 (이보다 큰 메시지는 전용 세그먼트에 기록)
+     * @throws UncheckedIOException 디렉터리를 열 수 없거나 다른 파이프가 사용 중인 경우
+     */
+    public DurablePipe(String id, Node node, Path directory, int segmentSize) {
+        super(id, node);
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("segmentSize must be at least 1024: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        try {
+            Files.createDirectories(directory);
+            lockChannel = FileChannel.open(directory.resolve(".lck"), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            FileLock acquired;
+            try {
+                acquired = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // 같은 JVM 안에서 이미 잠근 경우
+                acquired = null;
+            }
+            if (acquired == null) {
+                lockChannel.close();
+                throw new IOException("Directory already in use: " + directory);
+            }
+            lock = acquired;
+            checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            checkpoint = checkpointChannel.map(FileChannel.MapMode.READ_WRITE, 0, CHECKPOINT_SIZE);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("DurablePipe[{}] opened {} - segments: {}, pending: {}", id, directory, segments.size(),
+                pending.get());
+    }
+
+    /**
+     * 세그먼트를 순서대로 열어 유효한 레코드의 끝을 찾고, 확인 위치 이전의 세그먼트를 지웁니다.
+     */
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        for (Path file : files) {
+            Segment previous = segments.peekLast();
+            if (previous != null) {
+                previous.sealed = true;
+            }
+            Segment segment = Segment.open(file, segmentIdOf(file), 0);
+            segment.limit = scan(segment);
+            segments.addLast(segment);
+            nextSegmentId = segment.id + 1;
+        }
+        if (segments.isEmpty()) {
+            roll(0);
+        }
+
+        long ackedSegment = checkpoint.getLong(0);
+        int ackedPosition = checkpoint.getInt(8);
+        boolean valid = checkpoint.getInt(12) == checkpointCrc(ackedSegment, ackedPosition);
+        while (valid && segments.size() > 1 && segments.peekFirst().id < ackedSegment) {
+            segments.pollFirst().delete();
+        }
+        readSegment = segments.peekFirst();
+        readPosition = valid && readSegment.id == ackedSegment ? Math.min(ackedPosition, readSegment.limit) : 0;
+        this.ackedSegment = readSegment.id;
+
+        long count = 0;
+        int position = readPosition;
+        for (Segment segment : segments) {
+            while (position < segment.limit) {
+                position += FRAME_OVERHEAD + segment.buffer.getInt(position);
+                count++;
+            }
+            position = 0;
+        }
+        pending.set(count);
+    }
+
+    private static long segmentIdOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * 세그먼트의 레코드를 처음부터 검사하여 유효한 마지막 레코드의 끝 위치를 반환합니다.
+     * CRC가 맞지 않는 레코드(기록 중 중단)부터는 무시합니다.
+     */
+    private static int scan(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + FRAME_OVERHEAD < buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + FRAME_OVERHEAD + length > buffer.capacity()
+                    || buffer.getInt(position + 4 + length) != crc(buffer, position + 4, length)) {
+                break;
+            }
+            position += FRAME_OVERHEAD + length;
+        }
+        return position;
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private static int checkpointCrc(long segmentId, int position) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(12).putLong(segmentId).putInt(position).flip());
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 레코드를 기록할 때마다 디스크에 강제로 쓸지 설정합니다. 기본값은 false입니다.
+     *
+     * @param syncOnWrite 기록마다 디스크에 쓰려면 true
+     */
+    public void setSyncOnWrite(boolean syncOnWrite) {
+        this.syncOnWrite = syncOnWrite;
+    }
+
+    /**
+     * 유지할 최대 세그먼트 수를 설정합니다. 세그먼트가 모두 차 있으면 새 메시지는 버려집니다.
+     *
+     * @param maxSegments 최대 세그먼트 수, 0이면 제한 없음 (기본값)
+     */
+    public void setMaxSegments(int maxSegments) {
+        if (maxSegments < 0) {
+            throw new IllegalArgumentException("maxSegments must not be negative: " + maxSegments);
+        }
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * 소비자 스레드를 시작합니다. 이미 시작된 경우 아무 동작도 하지 않습니다.
+     * 재시작 후 남아 있는 메시지를 바로 전달하려면 연결한 뒤 호출합니다.
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(this::drainLoop, "durable-pipe-" + getId());
+        thread.setDaemon(true);
+        consumer = thread;
+        thread.start();
+        log.info("DurablePipe[{}] started - pending: {}", getId(), pending.get());
+    }
+
+    /**
+     * 메시지를 세그먼트에 기록하고 즉시 반환합니다.
+     * 파이프가 연결되어 있지 않거나 닫힌 경우, 또는 인코딩할 수 없는 값이 있는 경우 메시지는 기록되지 않습니다.
+     *
+     * @param message 전송할 메시지
+     */
+    @Override
+    public void send(Message message) {
+        if (closed || !isConnected()) {
+            return;
+        }
+        if (!started.get()) {
+            start();
+        }
+        ByteBuffer record;
+        try {
+            record = ENCODERS.get().encode(message);
+        } catch (IllegalArgumentException e) {
+            log.error("DurablePipe[{}] cannot encode message: {}", getId(), e.getMessage());
+            dropped.increment();
+            return;
+        }
+        if (!append(record)) {
+            dropped.increment();
+            return;
+        }
+        if (consumerWaiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    private synchronized boolean append(ByteBuffer record) {
+        if (closed) {
+            return false;
+        }
+        try {
+            int length = record.remaining();
+            Segment segment = reserve(FRAME_OVERHEAD + length);
+            if (segment == null) {
+                return false;
+            }
+            MappedByteBuffer buffer = segment.buffer;
+            int start = segment.limit;
+            buffer.put(start + 4, record, record.position(), length);
+            buffer.putInt(start + 4 + length, crc(buffer, start + 4, length));
+            buffer.putInt(start, length);
+            if (syncOnWrite) {
+                buffer.force();
+            }
+            pending.incrementAndGet();
+            // 소비자는 limit까지만 읽으므로 레코드를 모두 쓴 뒤 공개합니다.
+            segment.limit = start + FRAME_OVERHEAD + length;
+            return true;
+        } catch (IOException e) {
+            log.error("DurablePipe[{}] write failed: {}", getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 레코드를 쓸 공간이 있는 세그먼트를 반환합니다. 공간이 없으면 새 세그먼트로 넘어가며,
+     * 최대 세그먼트 수에 도달했으면 null을 반환합니다.
+     */
+    private Segment reserve(int frameLength) throws IOException {
+        Segment segment = segments.peekLast();
+        if (segment.limit + frameLength <= segment.buffer.capacity()) {
+            return segment;
+        }
+        int limit = maxSegments;
+        if (limit > 0 && segments.size() >= limit) {
+            return null;
+        }
+        segment.buffer.force();
+        Segment next = roll(frameLength);
+        segment.sealed = true;
+        return next;
+    }
+
+    private Segment roll(int minimumSize) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", nextSegmentId, SEGMENT_SUFFIX));
+        Segment segment = Segment.open(file, nextSegmentId++, Math.max(segmentSize, minimumSize));
+        segments.addLast(segment);
+        return segment;
+    }
+
+    private void drainLoop() {
+        int idle = 0;
+        while (!closed) {
+            Message message = poll();
+            if (message != null) {
+                idle = 0;
+                awaitDownstreamDemand();
+                if (closed) {
+                    // 확인하지 않은 메시지는 다음에 열 때 다시 전달합니다.
+                    break;
+                }
+                dispatch(message);
+                acknowledgeProcessed();
+                continue;
+            }
+            acknowledgeProcessed();
+            if (++idle < SPIN_LIMIT) {
+                Thread.onSpinWait();
+                continue;
+            }
+            consumerWaiting = true;
+            if (!closed && !hasRecord()) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            consumerWaiting = false;
+        }
+        // 닫히기 전에 처리가 끝난 메시지까지는 확인합니다.
+        acknowledgeProcessed();
+    }
+
+    private boolean hasRecord() {
+        Segment segment = readSegment;
+        return readPosition < segment.limit || segment.sealed;
+    }
+
+    /**
+     * 다음 레코드를 읽습니다. 현재 세그먼트를 다 읽었고 더 이상 기록되지 않으면 다음 세그먼트로 넘어갑니다.
+     * 읽은 위치는 대상 노드가 처리를 마친 뒤 {@link #acknowledgeProcessed()}가 확인 위치로 기록합니다.
+     *
+     * @return 메시지, 읽을 레코드가 없으면 null
+     */
+    private Message poll() {
+        while (true) {
+            Segment segment = readSegment;
+            boolean sealed = segment.sealed;
+            if (readPosition < segment.limit) {
+                break;
+            }
+            if (!sealed) {
+                return null;
+            }
+            readSegment = next(segment);
+            readPosition = 0;
+        }
+        ByteBuffer buffer = readSegment.buffer;
+        int length = buffer.getInt(readPosition);
+        int start = readPosition + 4;
+        readPosition += FRAME_OVERHEAD + length;
+        try {
+            return decoder.decode(buffer.slice(start, length));
+        } catch (IllegalArgumentException e) {
+            log.error("DurablePipe[{}] skipped unreadable record: {}", getId(), e.getMessage());
+            Ack ack = new Ack(readSegment.id, readPosition);
+            ack.processed = true;
+            unacknowledged.addLast(ack);
+            return null;
+        }
+    }
+
+    private synchronized Segment next(Segment segment) {
+        Iterator<Segment> iterator = segments.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() == segment) {
+                return iterator.next();
+            }
+        }
+        throw new IllegalStateException("Segment not found: " + segment.file);
+    }
+
+    /**
+     * 확인 위치보다 앞선 세그먼트를 지웁니다. 확인되지 않은 레코드가 남은 세그먼트는 다시 전달할 수 있도록 남겨 둡니다.
+     */
+    private synchronized void reclaim() {
+        while (segments.peekFirst().id < ackedSegment) {
+            Segment oldest = segments.pollFirst();
+            try {
+                oldest.delete();
+            } catch (IOException e) {
+                log.warn("DurablePipe[{}] failed to delete segment {}: {}", getId(), oldest.file, e.getMessage());
+            }
+            log.debug("DurablePipe[{}] reclaimed segment {}", getId(), oldest.file);
+        }
+    }
+
+    /**
+     * 대상 노드가 처리를 마친 레코드들 중 넘긴 순서대로 이어진 것까지를 확인 위치로 기록합니다.
+     * 확인 위치가 다음 세그먼트로 넘어가면 앞선 세그먼트를 지웁니다.
+     */
+    private void acknowledgeProcessed() {
+        Ack last = null;
+        int count = 0;
+        while (!unacknowledged.isEmpty() && unacknowledged.peekFirst().processed) {
+            last = unacknowledged.pollFirst();
+            count++;
+        }
+        if (last == null) {
+            return;
+        }
+        checkpoint.putLong(0, last.segmentId);
+        checkpoint.putInt(8, last.position);
+        checkpoint.putInt(12, checkpointCrc(last.segmentId, last.position));
+        if (syncOnWrite) {
+            checkpoint.force();
+        }
+        pending.addAndGet(-count);
+        if (last.segmentId != ackedSegment) {
+            ackedSegment = last.segmentId;
+            reclaim();
+        }
+    }
+
+    /**
+     * 대상 노드의 수요가 없으면 생길 때까지 전달을 미룹니다. 그동안 메시지는 디스크에 쌓입니다.
+     */
+    private void awaitDownstreamDemand() {
+        long backoff = DEMAND_PARK_NANOS;
+        while (!closed && super.demand() <= 0) {
+            LockSupport.parkNanos(this, backoff);
+            backoff = Math.min(backoff << 1, PARK_NANOS);
+        }
+    }
+
+    private void dispatch(Message message) {
+        Ack ack = new Ack(readSegment.id, readPosition);
+        unacknowledged.addLast(ack);
+        try {
+            if (!deliver(message, ack)) {
+                // 연결이 끊겨 전달하지 못한 메시지는 버립니다.
+                ack.processed = true;
+            }
+        } catch (Exception e) {
+            ack.processed = true;
+            log.error("DurablePipe[{}] delivery failed: {}", getId(), e.getMessage());
+            Pipe target = getConnectedPipe();
+            if (target != null) {
+                target.getNode().handleError(e);
+            }
+        }
+    }
+
+    /**
+     * 새 메시지 수신을 중단하고 소비자 스레드를 종료한 뒤 파일을 닫습니다.
+     * 아직 전달하지 않은 메시지는 디스크에 남아 같은 디렉터리로 다시 열 때 전달됩니다.
+     *
+     * @throws InterruptedException 종료를 기다리는 중 인터럽트된 경우
+     */
+    public void close() throws InterruptedException {
+        closed = true;
+        Thread thread = consumer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join();
+        }
+        synchronized (this) {
+            try {
+                for (Segment segment : segments) {
+                    segment.close();
+                }
+                segments.clear();
+                checkpoint.force();
+                checkpointChannel.close();
+                lock.release();
+                lockChannel.close();
+            } catch (IOException e) {
+                log.warn("DurablePipe[{}] close failed: {}", getId(), e.getMessage());
+            }
+        }
+        log.info("DurablePipe[{}] closed - pending: {}, dropped: {}", getId(), pending.get(), dropped.sum());
+    }
+
+    /**
+     * 디스크에 공간이 있으면 제한 없는 수요를 반환합니다.
+     * 최대 세그먼트 수를 설정한 경우 세그먼트 수가 최대에 도달하면 0을 반환합니다.
+     *
+     * @return 수요
+     */
+    @Override
+    public long demand() {
+        int limit = maxSegments;
+        return limit > 0 && getSegmentCount() >= limit ? 0 : Long.MAX_VALUE;
+    }
+
+    /**
+     * 기록되었지만 아직 전달이 확인되지 않은 메시지 수를 반환합니다.
+     *
+     * @return 대기 중인 메시지 수
+     */
+    @Override
+    public int getQueueSize() {
+        return (int) Math.min(pending.get(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * 기록할 수 없어 버려진 메시지 수를 반환합니다.
+     *
+     * @return 버려진 메시지 수
+     */
+    @Override
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 세그먼트 개수를 반환합니다.
+     *
+     * @return 세그먼트 개수
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * 대상 노드에 넘긴 레코드 하나의 확인 정보입니다. 대상 노드가 처리를 마치면 실행되어 소비자를 깨웁니다.
+     */
+    private final class Ack implements Runnable {
+        /** 레코드가 있는 세그먼트 번호 */
+        final long segmentId;
+        /** 레코드 다음 위치 */
+        final int position;
+        /** 대상 노드가 처리를 마쳤는지 여부 */
+        volatile boolean processed;
+
+        Ack(long segmentId, int position) {
+            this.segmentId = segmentId;
+            this.position = position;
+        }
+
+        @Override
+        public void run() {
+            processed = true;
+            if (consumerWaiting) {
+                LockSupport.unpark(consumer);
+            }
+        }
+    }
+
+    /**
+     * 메모리 매핑된 세그먼트 파일 하나입니다.
+     * limit과 sealed는 기록 스레드가 쓰고 소비자 스레드가 읽으며, sealed는 마지막 limit을 쓴 뒤에 설정됩니다.
+     */
+    private static final class Segment {
+        final Path file;
+        final long id;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        /** 기록이 끝난 레코드의 끝 위치 */
+        volatile int limit;
+        /** 더 이상 기록되지 않는지 여부 */
+        volatile boolean sealed;
+
+        private Segment(Path file, long id, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.id = id;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        /**
+         * 세그먼트 파일을 열어 매핑합니다. size가 0이면 기존 파일 크기를 사용합니다.
+         */
+        static Segment open(Path file, long id, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long length = size > 0 ? size : channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            return new Segment(file, id, channel, buffer);
+        }
+
+        void close() throws IOException {
+            buffer.force();
+            channel.close();
+        }
+
+        void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.samsa.core;
+
+/**
+ * {@link NodeRuntime}이 노드의 우편함을 처리할 때 사용할 스레드 모델입니다.
+ */
+public enum ExecutionMode {
+    /** 우편함 처리 작업마다 가상 스레드를 사용합니다. 가상 스레드를 지원하지 않는 JVM에서는 WORK_STEALING으로 대체됩니다. */
+    VIRTUAL_THREADS,
+    /** 코어 수만큼의 스레드를 가진 공유 work-stealing 풀을 사용합니다. */
+    WORK_STEALING
+}
@@ -0,0 +1,213 @@
+package com.samsa.core;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 출력 파이프들로 메시지를 병렬로 보내는 팬아웃입니다. {@link OutNode}와 {@link InOutNode}가 병렬 팬아웃을 켰을 때 사용합니다.
+ *
+ * <p>출력 파이프마다 차선(lane)을 두고 실행기에서 비웁니다. 서로 다른 파이프는 동시에 전달되므로 동기 파이프로 연결된
+ * 분기들의 지연 시간은 가장 느린 분기의 시간이 되며, 같은 파이프로 가는 메시지는 {@link Mailbox}처럼 한 번에 하나씩
+ * 보낸 순서대로 전달되므로 하위 노드는 여전히 단일 스레드에서 순서대로 메시지를 받습니다.
+ *
+ * <p>분기들이 같은 메시지를 동시에 읽으므로 보내기 전에 {@link Message#freeze()}로 페이로드를 수정할 수 없게 만듭니다.
+ * 차선에 남은 메시지는 주인 노드의 처리 중인 메시지로 세므로 {@link Node#stop()}은 모든 분기에 전달될 때까지 기다립니다.
+ */
+@Slf4j
+final class FanOut {
+    /** 차선 한 번의 실행에서 전달할 최대 메시지 수 */
+    private static final int THROUGHPUT = 64;
+
+    private final Node owner;
+    private final Executor executor;
+    /** 파이프별 차선 */
+    private final Map<Pipe, Lane> lanes = new ConcurrentHashMap<>();
+
+    FanOut(Node owner, Executor executor) {
+        this.owner = owner;
+        this.executor = executor;
+    }
+
+    /**
+     * 연결된 모든 파이프로 메시지를 보냅니다. 보낼 파이프가 하나뿐이고 그 차선이 비어 있으면 호출한 스레드에서 바로 보냅니다.
+     *
+     * @param pipes 출력 파이프
+     * @param message 보낼 메시지
+     * @param join 모든 분기의 완료를 알릴 future가 필요하면 true
+     * @return join이 true이면 모든 파이프의 send가 끝날 때 완료되는 future, 아니면 null
+     */
+    CompletableFuture<Void> send(List<Pipe> pipes, Message message, boolean join) {
+        int connected = 0;
+        Pipe single = null;
+        for (Pipe pipe : pipes) {
+            if (pipe.isConnected()) {
+                connected++;
+                single = pipe;
+            }
+        }
+        if (connected == 0) {
+            return join ? CompletableFuture.completedFuture(null) : null;
+        }
+        if (connected == 1) {
+            Lane lane = lanes.get(single);
+            if (lane == null || lane.size.get() == 0) {
+                try {
+                    single.send(message);
+                } catch (RuntimeException e) {
+                    if (!join) {
+                        throw e;
+                    }
+                    return CompletableFuture.failedFuture(e);
+                }
+                return join ? CompletableFuture.completedFuture(null) : null;
+            }
+        }
+        Message frozen = message.freeze();
+        Join completion = join ? new Join(connected) : null;
+        for (Pipe pipe : pipes) {
+            if (pipe.isConnected()) {
+                lanes.computeIfAbsent(pipe, Lane::new).post(new Delivery(frozen, completion));
+            }
+        }
+        return completion == null ? null : completion.future;
+    }
+
+    /**
+     * 가장 밀린 차선의 대기 메시지 수를 반환합니다. 주인 노드의 수요에서 뺍니다.
+     *
+     * @return 대기 메시지 수
+     */
+    int backlog() {
+        int max = 0;
+        for (Lane lane : lanes.values()) {
+            max = Math.max(max, lane.size.get());
+        }
+        return max;
+    }
+
+    /**
+     * 제거된 파이프의 차선을 잊습니다. 이미 넣은 메시지는 그대로 전달됩니다.
+     *
+     * @param pipe 제거된 파이프
+     */
+    void remove(Pipe pipe) {
+        lanes.remove(pipe);
+    }
+
+    /**
+     * 차선에 넣은 메시지와, 완료를 기다리는 경우의 합류 지점입니다.
+     */
+    private record Delivery(Message message, Join join) {
+    }
+
+    /**
+     * 한 메시지의 모든 분기가 끝나면 future를 완료합니다. 분기 중 하나라도 실패하면 첫 실패로 완료합니다.
+     */
+    private static final class Join {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final AtomicInteger remaining;
+        volatile Throwable failure;
+
+        Join(int branches) {
+            this.remaining = new AtomicInteger(branches);
+        }
+
+        void branchDone(Throwable error) {
+            if (error != null && failure == null) {
+                failure = error;
+            }
+            if (remaining.decrementAndGet() == 0) {
+                Throwable first = failure;
+                if (first == null) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(first);
+                }
+            }
+        }
+    }
+
+    /**
+     * 파이프 하나로 가는 메시지를 순서대로 하나씩 전달하는 차선입니다.
+     */
+    private final class Lane implements Runnable {
+        final Pipe pipe;
+        final Queue<Delivery> queue = new ConcurrentLinkedQueue<>();
+        /** 대기 중이거나 전달 중인 메시지 수 */
+        final AtomicInteger size = new AtomicInteger();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Lane(Pipe pipe) {
+            this.pipe = pipe;
+        }
+
+        void post(Delivery delivery) {
+            owner.beginAsyncWork();
+            size.incrementAndGet();
+            queue.offer(delivery);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    // 실행기가 종료되었으면 호출한 스레드에서 비웁니다.
+                    log.warn("Node[{}] fan-out rejected by executor, delivering on caller thread", owner.getId());
+                    run();
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < THROUGHPUT; i++) {
+                    Delivery delivery = queue.poll();
+                    if (delivery == null) {
+                        break;
+                    }
+                    try {
+                        deliver(delivery);
+                    } finally {
+                        // 전달이 끝난 뒤에 줄여야 send()의 빠른 경로가 진행 중인 전달을 앞지르지 않습니다.
+                        size.decrementAndGet();
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+                if (!queue.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        private void deliver(Delivery delivery) {
+            Throwable failure = null;
+            try {
+                pipe.send(delivery.message());
+            } catch (Exception e) {
+                failure = e;
+                if (delivery.join() == null) {
+                    owner.handleError(e);
+                }
+            } finally {
+                owner.endAsyncWork();
+                if (delivery.join() != null) {
+                    delivery.join().branchDone(failure);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.samsa.core;
+
+/**
+ * 파이프라인이 선형 체인으로 융합할 수 있는 노드가 구현하는 인터페이스입니다.
+ * 융합된 체인에서는 파이프와 onMessage를 거치지 않고, 각 노드의 변환이 하나의 {@link MessageDraft}에 직접 적용됩니다.
+ * 구현체는 onMessage와 동일한 변환을 이 메서드로 제공해야 합니다.
+ */
+public interface FusibleNode {
+
+    /**
+     * 메시지 초안에 이 노드의 변환을 적용합니다.
+     *
+     * @param draft 변환을 적용할 메시지 초안
+     * @return 다음 노드로 계속 전달하려면 true, 메시지를 걸러내려면 false
+     */
+    boolean applyTo(MessageDraft draft);
+}
@@ -1,9 +1,9 @@
 package com.samsa.core;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 입력을 받아 처리하는 노드의 추상 클래스입니다.
@@ -11,7 +11,7 @@ import java.util.UUID;
  */
 public abstract class InNode extends Node {
     /** 입력 파이프들의 리스트 */
-    private final List<Pipe> inputPipes = new ArrayList<>();
+    private final List<Pipe> inputPipes = new CopyOnWriteArrayList<>();
 
     public InNode() {
         super();
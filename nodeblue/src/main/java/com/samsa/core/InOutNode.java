@@ -1,9 +1,11 @@
 package com.samsa.core;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 /**
  * 입력을 받아서 처리하고 출력을 생성하는 노드의 추상 클래스입니다.
@@ -11,9 +13,11 @@ import java.util.UUID;
  */
 public abstract class InOutNode extends Node {
     /** 입력 파이프들의 리스트 */
-    private final List<Pipe> inputPipes = new ArrayList<>();
-    /** 출력 파이프들의 리스트 */
-    private final List<Pipe> outputPipes = new ArrayList<>();
+    private final List<Pipe> inputPipes = new CopyOnWriteArrayList<>();
+    /** 출력 파이프들의 리스트 (실행 중 재배포로 바뀔 수 있으므로 복사 후 쓰기 리스트 사용) */
+    private final List<Pipe> outputPipes = new CopyOnWriteArrayList<>();
+    /** 병렬 팬아웃, 켜지 않았으면 null */
+    private volatile FanOut fanOut;
     
 
     public InOutNode() {
@@ -31,10 +35,16 @@ public abstract class InOutNode extends Node {
 
     /**
      * 메시지를 모든 출력 파이프로 전송합니다.
+     * 병렬 팬아웃이 켜져 있으면 분기들을 실행기에 맡기고 바로 반환하며, 분기에서 난 에러는 {@link #handleError(Throwable)}로 처리합니다.
      *
      * @param message 전송할 메시지 객체
      */
     public void emit(Message message) {
+        FanOut parallel = fanOut;
+        if (parallel != null) {
+            parallel.send(outputPipes, message, false);
+            return;
+        }
         for (Pipe pipe : getOutputPipes()) {
             if (pipe.isConnected()) {
                 pipe.send(message);
@@ -42,6 +52,52 @@ public abstract class InOutNode extends Node {
         }
     }
 
+    /**
+     * 메시지를 모든 출력 파이프로 전송하고, 모든 분기의 전송이 끝나면 완료되는 future를 반환합니다.
+     * 병렬 팬아웃이 꺼져 있으면 이 스레드에서 차례로 보낸 뒤 완료된 future를 반환합니다.
+     * 하위 노드가 런타임에 연결되어 있으면 분기의 전송은 하위 노드의 우편함에 넣는 것까지입니다.
+     *
+     * @param message 전송할 메시지 객체
+     * @return 모든 분기가 끝나면 완료되고, 분기 하나라도 실패하면 그 에러로 완료되는 future
+     */
+    public CompletableFuture<Void> emitAndJoin(Message message) {
+        FanOut parallel = fanOut;
+        if (parallel != null) {
+            return parallel.send(outputPipes, message, true);
+        }
+        try {
+            emit(message);
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 병렬 팬아웃을 켜거나 끕니다. 켜면 출력 파이프마다 실행기에서 동시에 메시지를 보내므로, 동기 파이프로 이어진 분기들의
+     * 지연 시간이 합이 아니라 가장 느린 분기의 시간이 됩니다. 같은 파이프로 가는 메시지의 순서는 유지되며,
+     * 분기에 보내는 메시지는 {@link Message#freeze()}로 수정할 수 없게 만듭니다. 보통 {@link NodeRuntime#enableParallelFanOut(Node)}로 켭니다.
+     *
+     * @param executor 분기를 실행할 실행기, null이면 병렬 팬아웃을 끔
+     */
+    public void setFanOutExecutor(Executor executor) {
+        this.fanOut = executor == null ? null : new FanOut(this, executor);
+    }
+
+    /**
+     * 자신의 우편함 수용량과 모든 출력 경로의 수요 중 가장 작은 값을 반환합니다.
+     * 이를 통해 하위 노드의 포화 상태가 상위 소스 노드까지 전달됩니다. 병렬 팬아웃 중이면 가장 밀린 분기의 대기 메시지 수만큼 줄입니다.
+     * 하위 경로의 수요는 출력 파이프마다 캐시되므로 메시지마다 흐름 전체를 따라가지 않으며, 순환 흐름도 파이프에서 멈춥니다.
+     *
+     * @return 수요, 제한이 없으면 Long.MAX_VALUE
+     */
+    @Override
+    public long demand() {
+        long demand = Math.min(super.demand(), Pipe.minDemand(outputPipes));
+        FanOut parallel = fanOut;
+        return parallel == null ? demand : Math.max(0, demand - parallel.backlog());
+    }
+
     public void addInputPipe(Pipe pipe) {
         inputPipes.add(pipe);
     }
@@ -56,6 +112,10 @@ public abstract class InOutNode extends Node {
 
     public void removeOutputPipe(Pipe pipe) {
         outputPipes.remove(pipe);
+        FanOut parallel = fanOut;
+        if (parallel != null) {
+            parallel.remove(pipe);
+        }
     }
 
     protected List<Pipe> getInputPipes() {
@@ -0,0 +1,179 @@
+package com.samsa.core;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 노드 하나에 대응하는 메시지 우편함입니다.
+ * 여러 스레드가 동시에 메시지를 넣을 수 있지만, 우편함을 비우는 작업은 한 번에 하나만 실행되도록 보장합니다.
+ * 따라서 노드의 onMessage는 항상 단일 스레드에서 순서대로 호출되며, 노드 구현체에 별도의 잠금이 필요 없습니다.
+ */
+@Slf4j
+public class Mailbox implements Runnable {
+    /** 우편함의 주인 노드 */
+    private final Node node;
+    /** 우편함을 비우는 작업을 실행할 실행기 */
+    private final Executor executor;
+    /** 한 번의 실행에서 처리할 최대 메시지 수 */
+    private final int throughput;
+    /** 상위 노드에 알리는 수용 한도, 0 이하이면 무제한 */
+    private final int capacity;
+    /** 대기 중인 메시지, 처리 완료를 알려야 하는 메시지는 {@link Tracked}로 감쌉니다 */
+    private final Queue<Object> queue = new ConcurrentLinkedQueue<>();
+    /** 실행기에 작업이 예약되어 있는지 여부 */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * 수용 한도가 없는 우편함을 생성합니다.
+     *
+     * @param node 우편함의 주인 노드
+     * @param executor 우편함을 비우는 작업을 실행할 실행기
+     * @param throughput 한 번의 실행에서 처리할 최대 메시지 수
+     */
+    public Mailbox(Node node, Executor executor, int throughput) {
+        this(node, executor, throughput, 0);
+    }
+
+    /**
+     * 새로운 우편함을 생성합니다.
+     * capacity는 {@link #remainingCapacity()}를 통해 상위 노드에 수요로 전달되는 한도이며,
+     * 수요를 확인하지 않는 송신자의 메시지를 거부하지는 않습니다.
+     *
+     * @param node 우편함의 주인 노드
+     * @param executor 우편함을 비우는 작업을 실행할 실행기
+     * @param throughput 한 번의 실행에서 처리할 최대 메시지 수
+     * @param capacity 수용 한도, 0 이하이면 무제한
+     */
+    public Mailbox(Node node, Executor executor, int throughput, int capacity) {
+        if (throughput < 1) {
+            throw new IllegalArgumentException("throughput must be positive: " + throughput);
+        }
+        this.node = node;
+        this.executor = executor;
+        this.throughput = throughput;
+        this.capacity = capacity;
+    }
+
+    /**
+     * 이 우편함과 같은 실행기와 설정으로 다른 노드의 우편함을 만들어 연결합니다.
+     * 파이프라인이 융합 단계를 구성원 노드와 같은 런타임에서 실행할 때 사용합니다.
+     *
+     * @param other 우편함을 연결할 노드
+     */
+    public void shareWith(Node other) {
+        other.attachMailbox(new Mailbox(other, executor, throughput, capacity));
+    }
+
+    /**
+     * 메시지를 우편함에 넣고, 필요하면 처리 작업을 예약합니다.
+     *
+     * @param message 넣을 메시지
+     */
+    public void post(Message message) {
+        queue.offer(message);
+        schedule();
+    }
+
+    /**
+     * 메시지를 우편함에 넣고, 노드가 처리를 마치면 onProcessed를 실행합니다.
+     *
+     * @param message 넣을 메시지
+     * @param onProcessed 처리가 끝난 뒤 실행할 콜백, 없으면 null
+     */
+    void post(Message message, Runnable onProcessed) {
+        queue.offer(onProcessed == null ? message : new Tracked(message, onProcessed));
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // 실행기가 종료되어 더는 비울 수 없으므로 대기 중인 메시지를 버려 stop()이 기다리지 않게 합니다.
+                int discarded = 0;
+                while (queue.poll() != null) {
+                    discarded++;
+                }
+                node.discardQueued(discarded);
+                scheduled.set(false);
+                log.warn("Mailbox of Node[{}] rejected by executor, discarded {} message(s)", node.getId(), discarded);
+                if (!queue.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+    }
+
+    /**
+     * 우편함에 쌓인 메시지를 최대 throughput개까지 처리합니다.
+     * 처리 후에도 메시지가 남아 있으면 다른 우편함이 실행될 수 있도록 자신을 다시 예약합니다.
+     */
+    @Override
+    public void run() {
+        try {
+            for (int i = 0; i < throughput; i++) {
+                Object entry = queue.poll();
+                if (entry == null) {
+                    break;
+                }
+                Tracked tracked = entry instanceof Tracked t ? t : null;
+                try {
+                    node.process(tracked == null ? (Message) entry : tracked.message());
+                } catch (Exception e) {
+                    node.handleError(e);
+                } finally {
+                    if (tracked != null) {
+                        tracked.onProcessed().run();
+                    }
+                }
+            }
+        } finally {
+            scheduled.set(false);
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * 처리 완료를 알려야 하는 메시지입니다.
+     */
+    private record Tracked(Message message, Runnable onProcessed) {
+    }
+
+    /**
+     * 처리되지 않고 대기 중인 메시지 수를 반환합니다.
+     *
+     * @return 대기 중인 메시지 수
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * 수용 한도까지 더 받을 수 있는 메시지 수를 반환합니다.
+     *
+     * @return 남은 수용량, 한도가 없으면 Long.MAX_VALUE
+     */
+    public long remainingCapacity() {
+        if (capacity <= 0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, capacity - queue.size());
+    }
+
+    /**
+     * 대기 중인 메시지가 없는지 확인합니다.
+     *
+     * @return 비어 있으면 true
+     */
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+}
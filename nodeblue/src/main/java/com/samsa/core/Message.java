@@ -1,20 +1,51 @@
 package com.samsa.core;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
+
+import com.samsa.trace.FlowTrace;
 
 /**
  * 노드 간에 전달되는 메시지를 나타내는 클래스입니다.
  * 메시지는 고유 ID, 페이로드, 그리고 메타데이터를 포함합니다.
+ * ID는 {@link MessageIdGenerator}가 생성한 두 개의 long 값으로 보관하고, 문자열은 getId()가 처음 호출될 때 만듭니다.
+ * 메타데이터는 불변 {@link Metadata}로 보관하므로 복사 없이 여러 메시지와 파이프가 공유할 수 있습니다.
+ * 샘플링되어 추적 중인 메시지는 {@link FlowTrace}를 가지며, 이 메시지로부터 만든 메시지도 같은 추적을 이어받습니다.
  */
 public class Message {
-    /** 메시지의 고유 식별자 */
-    private final String id;
+    /** 새 메시지의 ID를 생성하는 전략 */
+    private static volatile MessageIdGenerator idGenerator = MessageIds.timeOrdered128();
+
+    /** {@link #freeze()}가 다시 복사하지 않는 컬렉션 클래스: freeze가 만든 수정 불가 보기와 List.of 등의 불변 컬렉션 */
+    private static final Set<Class<?>> FROZEN_TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            Collections.unmodifiableMap(new LinkedHashMap<>()).getClass(),
+            Collections.unmodifiableList(new ArrayList<>()).getClass(),
+            Collections.unmodifiableSet(new LinkedHashSet<>()).getClass(),
+            List.of().getClass(), List.of(0).getClass(),
+            Set.of().getClass(), Set.of(0).getClass(),
+            Map.of().getClass(), Map.of(0, 0).getClass())));
+
+    /** ID의 상위 64비트 */
+    private final long idHigh;
+    /** ID의 하위 64비트 */
+    private final long idLow;
+    /** ID를 문자열로 변환할 전략, 문자열 ID로 생성된 경우 null */
+    private final MessageIdGenerator idFormat;
+    /** 메시지의 고유 식별자 (필요할 때 생성) */
+    private String id;
     /** 메시지의 실제 내용 */
     private final Object payload;
     /** 메시지의 부가 정보 */
-    private final Map<String, Object> metadata;
+    private final Metadata metadata;
+    /** 흐름 추적, 추적하지 않는 메시지는 null */
+    private final FlowTrace trace;
 
     /**
      * 기본 메시지를 생성합니다.
@@ -22,28 +53,148 @@ public class Message {
      * @param payload 메시지 내용
      */
     public Message(Object payload) {
-        this.id = UUID.randomUUID().toString();
+        MessageIdGenerator generator = idGenerator;
+        this.idHigh = generator.next();
+        this.idLow = generator.salt();
+        this.idFormat = generator;
         this.payload = payload;
-        this.metadata = new HashMap<>();
+        this.metadata = Metadata.empty();
+        this.trace = null;
     }
 
    // 메타데이터 포함 생성자
    public Message(Object payload, Map<String, Object> metadata) {
-       this.id = UUID.randomUUID().toString();
+       MessageIdGenerator generator = idGenerator;
+       this.idHigh = generator.next();
+       this.idLow = generator.salt();
+       this.idFormat = generator;
        this.payload = payload;
-       this.metadata = new HashMap<>(metadata);  // 메타데이터 복사
+       this.metadata = Metadata.copyOf(metadata);  // Metadata이면 복사하지 않고 공유
+       this.trace = null;
    }
 
    // 전체 지정 생성자 
    public Message(String id, Object payload, Map<String, Object> metadata) {
+       this.idHigh = 0;
+       this.idLow = 0;
+       this.idFormat = null;
        this.id = id;
        this.payload = payload;
-       this.metadata = new HashMap<>(metadata);
+       this.metadata = Metadata.copyOf(metadata);
+       this.trace = null;
    }
 
+   /**
+    * 원본 메시지의 추적을 이어받는 새 메시지를 생성합니다.
+    *
+    * @param payload 메시지 내용
+    * @param metadata 메타데이터
+    * @param trace 이어받을 흐름 추적
+    */
+   Message(Object payload, Metadata metadata, FlowTrace trace) {
+       MessageIdGenerator generator = idGenerator;
+       this.idHigh = generator.next();
+       this.idLow = generator.salt();
+       this.idFormat = generator;
+       this.payload = payload;
+       this.metadata = metadata;
+       this.trace = trace;
+   }
 
+   /**
+    * 저장된 ID 값과 문자열 변환 전략으로 메시지를 복원합니다. {@link MessageCodec}이 디코딩할 때 사용합니다.
+    */
+   Message(long idHigh, long idLow, MessageIdGenerator idFormat, Object payload, Metadata metadata) {
+       this.idHigh = idHigh;
+       this.idLow = idLow;
+       this.idFormat = idFormat;
+       this.payload = payload;
+       this.metadata = metadata;
+       this.trace = null;
+   }
+
+   /**
+    * ID, 페이로드, 메타데이터는 같고 흐름 추적만 다른 메시지를 생성합니다.
+    */
+   private Message(Message source, FlowTrace trace) {
+       this(source, source.payload, trace);
+   }
+
+   /**
+    * ID와 메타데이터는 같고 페이로드와 흐름 추적이 다른 메시지를 생성합니다.
+    */
+   private Message(Message source, Object payload, FlowTrace trace) {
+       this.idHigh = source.idHigh;
+       this.idLow = source.idLow;
+       this.idFormat = source.idFormat;
+       this.id = source.id;
+       this.payload = payload;
+       this.metadata = source.metadata;
+       this.trace = trace;
+   }
+
+
+   /**
+    * 메시지 ID 문자열을 반환합니다. 처음 호출될 때 생성되어 보관됩니다.
+    *
+    * @return 메시지 ID
+    */
    public String getId() {
-       return id;
+       String value = id;
+       if (value == null) {
+           // 여러 스레드가 동시에 만들어도 같은 값이므로 동기화하지 않습니다.
+           value = idFormat.format(idHigh, idLow);
+           id = value;
+       }
+       return value;
+   }
+
+   /**
+    * ID의 상위 64비트를 반환합니다. 문자열 ID로 생성된 메시지는 0입니다.
+    *
+    * @return 상위 64비트
+    */
+   public long getIdHigh() {
+       return idHigh;
+   }
+
+   /**
+    * ID의 하위 64비트를 반환합니다. 문자열 ID로 생성된 메시지는 0입니다.
+    *
+    * @return 하위 64비트
+    */
+   public long getIdLow() {
+       return idLow;
+   }
+
+   /**
+    * ID를 문자열로 변환할 전략을 반환합니다.
+    *
+    * @return ID 전략, 문자열 ID로 생성된 메시지는 null
+    */
+   MessageIdGenerator getIdFormat() {
+       return idFormat;
+   }
+
+   /**
+    * 이후 생성되는 메시지의 ID 생성 전략을 설정합니다.
+    *
+    * @param generator ID 생성 전략
+    */
+   public static void setIdGenerator(MessageIdGenerator generator) {
+       if (generator == null) {
+           throw new NullPointerException("generator");
+       }
+       idGenerator = generator;
+   }
+
+   /**
+    * 현재 ID 생성 전략을 반환합니다.
+    *
+    * @return ID 생성 전략
+    */
+   public static MessageIdGenerator getIdGenerator() {
+       return idGenerator;
    }
 
 
@@ -51,7 +202,85 @@ public class Message {
        return payload;
    }
 
-   public Map<String, Object> getMetadata() {
+   /**
+    * 메시지의 메타데이터를 반환합니다. 반환된 맵은 변경할 수 없습니다.
+    *
+    * @return 메타데이터
+    */
+   public Metadata getMetadata() {
        return metadata;
    }
-}
\ No newline at end of file
+
+   /**
+    * 메타데이터 항목 하나를 설정한 새 메시지를 생성합니다.
+    * 메타데이터는 변경된 경로만 새로 만들고 나머지는 이 메시지와 공유합니다.
+    *
+    * @param key 키
+    * @param value 값
+    * @return 새 ID를 가진 새 메시지
+    */
+   public Message withMetadata(String key, Object value) {
+       return new Message(payload, metadata.with(key, value), trace);
+   }
+
+   /**
+    * 메시지의 흐름 추적을 반환합니다.
+    *
+    * @return 흐름 추적, 추적하지 않는 메시지면 null
+    */
+   public FlowTrace getTrace() {
+       return trace;
+   }
+
+   /**
+    * 페이로드를 수정할 수 없게 만든 메시지를 반환합니다. 여러 스레드가 같은 메시지를 동시에 읽을 때 사용합니다.
+    * 맵, 리스트, 집합 페이로드는 안쪽까지 수정할 수 없는 복사본으로 바꾸며, ID, 메타데이터, 흐름 추적은 그대로 유지합니다.
+    * 문자열, 숫자, {@link BinaryPayload}처럼 바꿀 필요가 없는 페이로드이면 이 메시지를 그대로 반환합니다.
+    * 이미 freeze된 페이로드나 수정할 수 없는 보기, List.of 등의 불변 컬렉션도 복사하지 않으므로, 병렬 팬아웃을 거친 메시지를 다시 보내도 복사하지 않습니다.
+    * 그 밖의 객체(바이트 배열 포함)는 그대로 공유되므로 받는 쪽에서 수정해서는 안 됩니다.
+    *
+    * @return 페이로드를 수정할 수 없는 메시지
+    */
+   public Message freeze() {
+       Object frozen = freezeValue(payload);
+       return frozen == payload ? this : new Message(this, frozen, trace);
+   }
+
+   private static Object freezeValue(Object value) {
+       if (value == null || value instanceof Metadata || FROZEN_TYPES.contains(value.getClass())) {
+           return value;
+       }
+       if (value instanceof Map<?, ?> map) {
+           Map<Object, Object> copy = new LinkedHashMap<>();
+           for (Map.Entry<?, ?> entry : map.entrySet()) {
+               copy.put(entry.getKey(), freezeValue(entry.getValue()));
+           }
+           return Collections.unmodifiableMap(copy);
+       }
+       if (value instanceof List<?> list) {
+           List<Object> copy = new ArrayList<>(list.size());
+           for (Object element : list) {
+               copy.add(freezeValue(element));
+           }
+           return Collections.unmodifiableList(copy);
+       }
+       if (value instanceof Set<?> set) {
+           Set<Object> copy = new LinkedHashSet<>();
+           for (Object element : set) {
+               copy.add(freezeValue(element));
+           }
+           return Collections.unmodifiableSet(copy);
+       }
+       return value;
+   }
+
+   /**
+    * 흐름 추적을 붙인 메시지를 반환합니다. ID, 페이로드, 메타데이터는 그대로 공유합니다.
+    *
+    * @param trace 붙일 흐름 추적
+    * @return 새 메시지
+    */
+   public Message withTrace(FlowTrace trace) {
+       return new Message(this, trace);
+   }
+}
@@ -0,0 +1,562 @@
+package com.samsa.core;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 메시지를 압축된 바이너리 형식으로 인코딩하고 디코딩합니다. {@link DurablePipe}의 디스크 기록과
+ * {@link RemotePipe}/{@link RemoteInlet}의 네트워크 전송에 사용합니다.
+ *
+ * <p>레코드는 {@code [형식 버전][ID][페이로드 값][메타데이터 항목 수][키 값]...}입니다.
+ * <ul>
+ *   <li>기본 ID 생성 전략으로 만든 메시지의 ID는 문자열 대신 long 값으로 기록하고, 디코딩한 메시지도 문자열을 처음 요청할 때 만듭니다.</li>
+ *   <li>정수는 지그재그 varint, 실수는 고정 길이로 기록하며, 길이와 개수도 varint입니다.</li>
+ *   <li>맵 키는 처음 나올 때만 문자열로 기록하고 이후에는 키 표의 번호로 기록합니다.
+ *       키 표는 기본적으로 메시지마다 새로 시작하며, {@link #stream()}으로 만든 코덱은 메시지 사이에 유지하여
+ *       같은 키를 연결에서 한 번만 보냅니다. 키 문자열은 디코딩 측에서도 재사용하므로 매번 새로 만들지 않습니다.</li>
+ * </ul>
+ * 흐름 추적은 기록하지 않습니다. 지원하는 값은 null, 문자열, 불리언, 정수/실수, 바이트 배열과 {@link BinaryPayload},
+ * 그리고 이들로 이루어진 맵과 리스트이며, 바이트 값은 {@link BinaryPayload}로 디코딩됩니다.
+ *
+ * <p>코덱은 인코딩 버퍼와 키 표를 재사용하므로 스레드에 안전하지 않습니다. 스레드나 연결마다 하나씩 사용해야 하며,
+ * 스트림 코덱은 인코딩한 레코드를 같은 순서로 디코딩하는 상대 코덱과 짝을 이루어야 합니다.
+ */
+public final class MessageCodec {
+    /** 레코드 형식 버전 */
+    public static final byte FORMAT_VERSION = 2;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte FLOAT = 5;
+    private static final byte TRUE = 6;
+    private static final byte FALSE = 7;
+    private static final byte BYTES = 8;
+    private static final byte MAP = 9;
+    private static final byte LIST = 10;
+
+    private static final byte ID_STRING = 0;
+    private static final byte ID_128 = 1;
+    private static final byte ID_64 = 2;
+
+    /** 키 표에 담는 최대 키 수, 넘치는 키는 표에 넣지 않고 매번 문자열로 기록합니다 */
+    static final int MAX_KEYS = 4096;
+    /** 디코딩한 키 문자열을 재사용하는 캐시 크기 (2의 거듭제곱) */
+    private static final int KEY_CACHE_SIZE = 256;
+    /** 캐시에 담는 키의 최대 바이트 길이 */
+    private static final int MAX_CACHED_KEY_BYTES = 64;
+    private static final int INITIAL_BUFFER_BYTES = 256;
+
+    /** 메시지 사이에 키 표를 유지하는지 여부 */
+    private final boolean stream;
+
+    /** 인코딩 키 표: 키 번호 순서의 키 */
+    private String[] encodeKeys = new String[16];
+    /** 인코딩 키 표의 해시 슬롯, 키 번호 + 1을 담고 0은 빈 슬롯 */
+    private int[] encodeSlots = new int[32];
+    private int encodeKeyCount;
+
+    /** 디코딩 키 표 */
+    private String[] decodeKeys = new String[16];
+    private int decodeKeyCount;
+    /** 디코딩한 키 문자열 캐시 */
+    private final byte[][] cachedKeyBytes = new byte[KEY_CACHE_SIZE][];
+    private final String[] cachedKeys = new String[KEY_CACHE_SIZE];
+
+    /** {@link #encode(Message)}가 재사용하는 버퍼 */
+    private ByteBuffer encodeBuffer = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+    /** 다이렉트 버퍼에서 문자열을 읽을 때 재사용하는 배열 */
+    private byte[] scratch = new byte[INITIAL_BUFFER_BYTES];
+
+    /**
+     * 메시지마다 독립적으로 디코딩할 수 있는 레코드를 만드는 코덱을 생성합니다.
+     */
+    public MessageCodec() {
+        this(false);
+    }
+
+    private MessageCodec(boolean stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * 키 표를 메시지 사이에 유지하는 스트림 코덱을 생성합니다.
+     * 레코드는 같은 순서로, 처음부터 빠짐없이 디코딩해야 하며 연결이 바뀌면 양쪽 모두 {@link #reset()}해야 합니다.
+     *
+     * @return 스트림 코덱
+     */
+    public static MessageCodec stream() {
+        return new MessageCodec(true);
+    }
+
+    /**
+     * 인코딩과 디코딩 키 표를 비웁니다.
+     */
+    public void reset() {
+        resetEncodeKeys();
+        Arrays.fill(decodeKeys, 0, decodeKeyCount, null);
+        decodeKeyCount = 0;
+    }
+
+    /**
+     * 메시지를 코덱이 재사용하는 버퍼에 인코딩합니다. 버퍼는 필요하면 커지며, 반환된 버퍼는 다음 인코딩 전까지만 유효합니다.
+     *
+     * @param message 인코딩할 메시지
+     * @return 레코드를 위치와 limit 사이에 담은 버퍼
+     * @throws IllegalArgumentException 페이로드나 메타데이터에 지원하지 않는 타입의 값이 있는 경우
+     */
+    public ByteBuffer encode(Message message) {
+        while (true) {
+            encodeBuffer.clear();
+            try {
+                encode(message, encodeBuffer);
+                return encodeBuffer.flip();
+            } catch (BufferOverflowException e) {
+                int capacity = encodeBuffer.capacity();
+                if (capacity >= Integer.MAX_VALUE / 2) {
+                    throw new IllegalArgumentException("Message too large to encode", e);
+                }
+                encodeBuffer = ByteBuffer.allocate(capacity * 2);
+            }
+        }
+    }
+
+    /**
+     * 메시지를 대상 버퍼의 현재 위치부터 인코딩합니다. 공간이 모자라면 버퍼 위치와 키 표를 되돌린 뒤 예외를 던지므로
+     * 더 큰 버퍼로 다시 시도할 수 있습니다.
+     *
+     * @param message 인코딩할 메시지
+     * @param target 대상 버퍼
+     * @throws BufferOverflowException 대상 버퍼에 공간이 모자란 경우
+     * @throws IllegalArgumentException 페이로드나 메타데이터에 지원하지 않는 타입의 값이 있는 경우
+     */
+    public void encode(Message message, ByteBuffer target) {
+        if (!stream) {
+            resetEncodeKeys();
+        }
+        int start = target.position();
+        int keys = encodeKeyCount;
+        try {
+            target.put(FORMAT_VERSION);
+            writeId(target, message);
+            writeValue(target, message.getPayload());
+            Metadata metadata = message.getMetadata();
+            writeVarint(target, metadata.size());
+            for (Map.Entry<String, Object> entry : metadata.entrySet()) {
+                writeKey(target, entry.getKey());
+                writeValue(target, entry.getValue());
+            }
+        } catch (BufferOverflowException | IllegalArgumentException e) {
+            target.position(start);
+            truncateEncodeKeys(keys);
+            throw e;
+        }
+    }
+
+    /**
+     * 버퍼의 남은 바이트에서 메시지 하나를 디코딩합니다. 버퍼의 위치는 레코드 끝으로 이동합니다.
+     * 디코딩한 메시지는 버퍼를 참조하지 않으므로 버퍼는 바로 재사용할 수 있습니다.
+     *
+     * @param buffer 인코딩된 레코드
+     * @return 디코딩된 메시지 (원래 ID를 유지합니다)
+     * @throws IllegalArgumentException 형식이 올바르지 않은 경우
+     */
+    public Message decode(ByteBuffer buffer) {
+        if (!stream) {
+            Arrays.fill(decodeKeys, 0, decodeKeyCount, null);
+            decodeKeyCount = 0;
+        }
+        try {
+            byte version = buffer.get();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported record format: " + version);
+            }
+            byte idType = buffer.get();
+            long high = 0;
+            long low = 0;
+            String id = null;
+            switch (idType) {
+                case ID_128:
+                    high = buffer.getLong();
+                    low = buffer.getLong();
+                    break;
+                case ID_64:
+                    high = buffer.getLong();
+                    break;
+                case ID_STRING:
+                    id = readString(buffer);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown id type: " + idType);
+            }
+            Object payload = readValue(buffer);
+            int size = readLength(buffer);
+            Metadata metadata = Metadata.empty();
+            for (int i = 0; i < size; i++) {
+                String key = readKey(buffer);
+                metadata = metadata.with(key, readValue(buffer));
+            }
+            if (id != null) {
+                return new Message(id, payload, metadata);
+            }
+            return new Message(high, low, idType == ID_128 ? MessageIds.timeOrdered128() : MessageIds.timeOrdered64(),
+                    payload, metadata);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated message record", e);
+        }
+    }
+
+    private static void writeId(ByteBuffer out, Message message) {
+        MessageIdGenerator format = message.getIdFormat();
+        if (format == MessageIds.timeOrdered128() || format == MessageIds.randomUuid()) {
+            out.put(ID_128).putLong(message.getIdHigh()).putLong(message.getIdLow());
+        } else if (format == MessageIds.timeOrdered64()) {
+            out.put(ID_64).putLong(message.getIdHigh());
+        } else {
+            out.put(ID_STRING);
+            writeString(out, message.getId());
+        }
+    }
+
+    private void writeValue(ByteBuffer out, Object value) {
+        if (value == null) {
+            out.put(NULL);
+        } else if (value instanceof String text) {
+            out.put(STRING);
+            writeString(out, text);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.put(INT);
+            writeVarint(out, zigzag(((Number) value).intValue()));
+        } else if (value instanceof Long number) {
+            out.put(LONG);
+            writeVarint(out, zigzag(number));
+        } else if (value instanceof Double number) {
+            out.put(DOUBLE).putDouble(number);
+        } else if (value instanceof Float number) {
+            out.put(FLOAT).putFloat(number);
+        } else if (value instanceof Boolean flag) {
+            out.put(flag ? TRUE : FALSE);
+        } else if (value instanceof byte[] array) {
+            out.put(BYTES);
+            writeVarint(out, array.length);
+            out.put(array);
+        } else if (value instanceof BinaryPayload binary) {
+            out.put(BYTES);
+            writeVarint(out, binary.length());
+            binary.writeTo(out);
+        } else if (value instanceof Map<?, ?> map) {
+            out.put(MAP);
+            writeVarint(out, map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeKey(out, String.valueOf(entry.getKey()));
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof List<?> list) {
+            out.put(LIST);
+            writeVarint(out, list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported value type: " + value.getClass().getName());
+        }
+    }
+
+    private Object readValue(ByteBuffer in) {
+        byte type = in.get();
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INT:
+                return (int) unzigzag(readVarint(in));
+            case LONG:
+                return unzigzag(readVarint(in));
+            case DOUBLE:
+                return in.getDouble();
+            case FLOAT:
+                return in.getFloat();
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case BYTES: {
+                byte[] bytes = new byte[readLength(in)];
+                in.get(bytes);
+                return BinaryPayload.wrap(bytes);
+            }
+            case MAP: {
+                int size = readLength(in);
+                Map<String, Object> map = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    String key = readKey(in);
+                    map.put(key, readValue(in));
+                }
+                return map;
+            }
+            case LIST: {
+                int size = readLength(in);
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown value type: " + type);
+        }
+    }
+
+    /**
+     * 키를 기록합니다. 표에 있는 키는 {@code 번호 << 1 | 1}, 새 키는 {@code 바이트 길이 << 1}과 UTF-8 바이트입니다.
+     * 새 키는 표가 가득 차지 않았으면 표에 추가되며, 디코딩 측도 같은 규칙으로 표를 채웁니다.
+     */
+    private void writeKey(ByteBuffer out, String key) {
+        int hash = spread(key.hashCode());
+        int mask = encodeSlots.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = encodeSlots[slot]) != 0) {
+            if (encodeKeys[entry - 1].equals(key)) {
+                writeVarint(out, (long) (entry - 1) << 1 | 1);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int length = utf8Length(key);
+        writeVarint(out, (long) length << 1);
+        writeUtf8(out, key, length);
+        if (encodeKeyCount < MAX_KEYS) {
+            addEncodeKey(key, slot);
+        }
+    }
+
+    private void addEncodeKey(String key, int slot) {
+        if (encodeKeyCount == encodeKeys.length) {
+            encodeKeys = Arrays.copyOf(encodeKeys, encodeKeyCount * 2);
+        }
+        encodeKeys[encodeKeyCount++] = key;
+        encodeSlots[slot] = encodeKeyCount;
+        if (encodeKeyCount * 2 > encodeSlots.length) {
+            rehashEncodeKeys(encodeSlots.length * 2);
+        }
+    }
+
+    private void rehashEncodeKeys(int slots) {
+        encodeSlots = new int[slots];
+        for (int i = 0; i < encodeKeyCount; i++) {
+            int slot = spread(encodeKeys[i].hashCode()) & (slots - 1);
+            while (encodeSlots[slot] != 0) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            encodeSlots[slot] = i + 1;
+        }
+    }
+
+    /**
+     * 인코딩 중 실패했을 때 그 레코드에서 추가한 키를 표에서 지웁니다.
+     * 나중에 추가한 키부터 지우므로 선형 탐사 순서가 깨지지 않습니다.
+     */
+    private void truncateEncodeKeys(int count) {
+        int mask = encodeSlots.length - 1;
+        while (encodeKeyCount > count) {
+            String key = encodeKeys[--encodeKeyCount];
+            encodeKeys[encodeKeyCount] = null;
+            int slot = spread(key.hashCode()) & mask;
+            while (encodeSlots[slot] != encodeKeyCount + 1) {
+                slot = (slot + 1) & mask;
+            }
+            encodeSlots[slot] = 0;
+        }
+    }
+
+    private void resetEncodeKeys() {
+        if (encodeKeyCount > 0) {
+            truncateEncodeKeys(0);
+        }
+    }
+
+    private String readKey(ByteBuffer in) {
+        long header = readVarint(in);
+        if ((header & 1) != 0) {
+            long index = header >>> 1;
+            if (index >= decodeKeyCount) {
+                throw new IllegalArgumentException("Unknown key reference: " + index);
+            }
+            return decodeKeys[(int) index];
+        }
+        int length = checkLength(in, header >>> 1);
+        String key = length <= MAX_CACHED_KEY_BYTES ? readCachedKey(in, length) : readUtf8(in, length);
+        if (decodeKeyCount < MAX_KEYS) {
+            if (decodeKeyCount == decodeKeys.length) {
+                decodeKeys = Arrays.copyOf(decodeKeys, decodeKeyCount * 2);
+            }
+            decodeKeys[decodeKeyCount++] = key;
+        }
+        return key;
+    }
+
+    /**
+     * 최근에 디코딩한 같은 바이트의 키가 있으면 그 문자열을 재사용합니다.
+     */
+    private String readCachedKey(ByteBuffer in, int length) {
+        int position = in.position();
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + in.get(position + i);
+        }
+        int slot = spread(hash) & (KEY_CACHE_SIZE - 1);
+        byte[] cached = cachedKeyBytes[slot];
+        if (cached != null && cached.length == length) {
+            int i = 0;
+            while (i < length && cached[i] == in.get(position + i)) {
+                i++;
+            }
+            if (i == length) {
+                in.position(position + length);
+                return cachedKeys[slot];
+            }
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        String key = new String(bytes, StandardCharsets.UTF_8);
+        cachedKeyBytes[slot] = bytes;
+        cachedKeys[slot] = key;
+        return key;
+    }
+
+    private static void writeString(ByteBuffer out, String text) {
+        int length = utf8Length(text);
+        writeVarint(out, length);
+        writeUtf8(out, text, length);
+    }
+
+    private String readString(ByteBuffer in) {
+        return readUtf8(in, readLength(in));
+    }
+
+    private String readUtf8(ByteBuffer in, int length) {
+        if (in.hasArray()) {
+            int position = in.position();
+            String text = new String(in.array(), in.arrayOffset() + position, length, StandardCharsets.UTF_8);
+            in.position(position + length);
+            return text;
+        }
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        in.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 문자열의 UTF-8 바이트 길이를 계산합니다. 짝이 없는 서로게이트는 {@link String#getBytes}처럼 '?' 한 바이트로 셉니다.
+     */
+    private static int utf8Length(String text) {
+        int length = text.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 2;
+                i++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 문자열을 중간 배열 없이 버퍼에 UTF-8로 씁니다.
+     */
+    private static void writeUtf8(ByteBuffer out, String text, int utf8Length) {
+        if (out.remaining() < utf8Length) {
+            throw new BufferOverflowException();
+        }
+        int length = text.length();
+        if (utf8Length == length) {
+            for (int i = 0; i < length; i++) {
+                out.put((byte) text.charAt(i));
+            }
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int code = Character.toCodePoint(c, text.charAt(++i));
+                out.put((byte) (0xF0 | code >> 18)).put((byte) (0x80 | code >> 12 & 0x3F))
+                        .put((byte) (0x80 | code >> 6 & 0x3F)).put((byte) (0x80 | code & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    private static void writeVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static int readLength(ByteBuffer in) {
+        return checkLength(in, readVarint(in));
+    }
+
+    /**
+     * 길이나 개수가 남은 바이트 수를 넘지 않는지 확인합니다. 모든 항목은 최소 한 바이트이므로 개수에도 같은 상한을 적용합니다.
+     */
+    private static int checkLength(ByteBuffer in, long length) {
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Invalid length: " + length);
+        }
+        return (int) length;
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+
+    private static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    private static int spread(int hash) {
+        return hash ^ hash >>> 16;
+    }
+}
@@ -0,0 +1,95 @@
+package com.samsa.core;
+
+/**
+ * 여러 노드의 변환을 연달아 적용하는 동안 사용하는 변경 가능한 메시지 초안입니다.
+ * 융합된 노드 체인은 중간 단계마다 {@link Message}를 만들지 않고 하나의 초안을 차례로 수정한 뒤,
+ * 마지막에 한 번만 {@link #toMessage()}로 메시지를 만듭니다.
+ * 메타데이터는 불변 {@link Metadata}이므로 수정할 때 변경된 경로만 새로 만들어지고 복사는 일어나지 않습니다.
+ *
+ * <p>초안은 하나의 스레드에서만 사용해야 합니다.
+ */
+public final class MessageDraft {
+    /** 초안의 원본 메시지 */
+    private final Message source;
+    /** 현재 페이로드 */
+    private Object payload;
+    /** 현재 메타데이터 */
+    private Metadata metadata;
+    /** 원본에서 변경되었는지 여부 */
+    private boolean modified;
+
+    /**
+     * 메시지로부터 초안을 생성합니다.
+     *
+     * @param source 원본 메시지
+     */
+    public MessageDraft(Message source) {
+        this.source = source;
+        this.payload = source.getPayload();
+        this.metadata = source.getMetadata();
+    }
+
+    /**
+     * 현재 페이로드를 반환합니다.
+     *
+     * @return 페이로드
+     */
+    public Object getPayload() {
+        return payload;
+    }
+
+    /**
+     * 페이로드를 교체합니다.
+     *
+     * @param payload 새 페이로드
+     */
+    public void setPayload(Object payload) {
+        this.payload = payload;
+        this.modified = true;
+    }
+
+    /**
+     * 현재 메타데이터를 반환합니다.
+     *
+     * @return 메타데이터
+     */
+    public Metadata getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * 메타데이터 항목을 설정합니다.
+     *
+     * @param key 키
+     * @param value 값
+     */
+    public void putMetadata(String key, Object value) {
+        Metadata updated = metadata.with(key, value);
+        if (updated != metadata) {
+            metadata = updated;
+            modified = true;
+        }
+    }
+
+    /**
+     * 메타데이터 항목을 제거합니다.
+     *
+     * @param key 키
+     */
+    public void removeMetadata(String key) {
+        Metadata updated = metadata.without(key);
+        if (updated != metadata) {
+            metadata = updated;
+            modified = true;
+        }
+    }
+
+    /**
+     * 초안을 메시지로 만듭니다. 변경된 내용이 없으면 원본 메시지를 그대로 반환합니다.
+     *
+     * @return 메시지
+     */
+    public Message toMessage() {
+        return modified ? new Message(payload, metadata, source.getTrace()) : source;
+    }
+}
@@ -0,0 +1,36 @@
+package com.samsa.core;
+
+/**
+ * 메시지 ID 생성 전략입니다.
+ * ID는 두 개의 long 값(상위/하위 64비트)으로 메시지에 저장되며, 문자열은 {@link Message#getId()}가 처음 호출될 때
+ * {@link #format(long, long)}으로 한 번만 만들어집니다.
+ *
+ * <p>구현체는 스레드별 상태만 사용하여 스레드 간 경합 없이 ID를 생성해야 합니다.
+ * 기본 구현은 {@link MessageIds}에 있습니다.
+ */
+public interface MessageIdGenerator {
+
+    /**
+     * 호출한 스레드에서 새 ID의 상위 64비트를 생성합니다.
+     *
+     * @return 상위 64비트
+     */
+    long next();
+
+    /**
+     * 호출한 스레드의 하위 64비트를 반환합니다.
+     * {@link #next()}와 함께 호출되어 ID를 이룹니다.
+     *
+     * @return 하위 64비트
+     */
+    long salt();
+
+    /**
+     * 저장된 ID를 문자열로 변환합니다.
+     *
+     * @param high 상위 64비트
+     * @param low 하위 64비트
+     * @return ID 문자열
+     */
+    String format(long high, long low);
+}
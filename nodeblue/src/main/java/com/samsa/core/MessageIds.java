@@ -0,0 +1,222 @@
+package com.samsa.core;
+
+import java.lang.ref.Cleaner;
+import java.util.BitSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 기본 {@link MessageIdGenerator} 구현들을 제공합니다.
+ * 모든 구현은 스레드별 상태만 사용하므로 동시에 여러 스레드에서 호출해도 경합이 없고, SecureRandom을 사용하지 않습니다.
+ */
+public final class MessageIds {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final MessageIdGenerator TIME_ORDERED_128 = new TimeOrdered128();
+    private static final MessageIdGenerator TIME_ORDERED_64 = new TimeOrdered64();
+    private static final MessageIdGenerator RANDOM_UUID = new RandomUuid();
+
+    private MessageIds() {
+    }
+
+    /**
+     * UUID 버전 7 형식의 128비트 시간순 ID를 생성하는 전략을 반환합니다.
+     * 상위 비트는 밀리초 타임스탬프와 스레드별 순번, 하위 비트는 스레드마다 고정된 62비트 난수입니다.
+     * 같은 스레드에서는 엄격하게 증가하며, 결과 문자열은 기존 UUID 문자열과 같은 36자 형식입니다.
+     *
+     * @return 128비트 시간순 ID 전략
+     */
+    public static MessageIdGenerator timeOrdered128() {
+        return TIME_ORDERED_128;
+    }
+
+    /**
+     * 64비트 시간순 ID를 생성하는 전략을 반환합니다.
+     * 41비트 밀리초 타임스탬프, 10비트 스레드 슬롯, 12비트 순번으로 구성되며 16자리 16진수 문자열로 표현됩니다.
+     *
+     * <p>스레드 슬롯은 1024개이며, ID를 처음 생성하는 스레드가 비어 있는 슬롯을 차지합니다. 스레드가 종료되어
+     * 가비지 컬렉션되면 슬롯이 반환되고, 그 슬롯을 다시 쓰는 스레드는 이전 스레드가 마지막으로 쓴 밀리초 다음부터 시작하므로
+     * 스레드 풀처럼 스레드가 계속 바뀌어도 ID가 겹치지 않습니다. 다만 ID를 생성한 스레드 중 아직 수거되지 않은 스레드가
+     * 1024개를 넘으면 이후 스레드들은 슬롯을 나눠 쓰며, 슬롯을 나눠 쓰는 스레드끼리는 같은 밀리초에 같은 ID를 만들 수 있습니다.
+     *
+     * @return 64비트 시간순 ID 전략
+     */
+    public static MessageIdGenerator timeOrdered64() {
+        return TIME_ORDERED_64;
+    }
+
+    /**
+     * UUID 버전 4 형식의 임의 ID를 생성하는 전략을 반환합니다. SecureRandom 대신 ThreadLocalRandom을 사용합니다.
+     *
+     * @return 임의 UUID 전략
+     */
+    public static MessageIdGenerator randomUuid() {
+        return RANDOM_UUID;
+    }
+
+    /**
+     * 128비트 값을 8-4-4-4-12 형식의 UUID 문자열로 변환합니다.
+     */
+    static String formatUuid(long high, long low) {
+        char[] chars = new char[36];
+        writeHex(chars, 0, high >>> 32, 8);
+        chars[8] = '-';
+        writeHex(chars, 9, high >>> 16, 4);
+        chars[13] = '-';
+        writeHex(chars, 14, high, 4);
+        chars[18] = '-';
+        writeHex(chars, 19, low >>> 48, 4);
+        chars[23] = '-';
+        writeHex(chars, 24, low, 12);
+        return new String(chars);
+    }
+
+    private static void writeHex(char[] chars, int offset, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            chars[offset + i] = HEX[(int) value & 0xF];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * 스레드별 시간순 순번 상태입니다.
+     */
+    static final class Clock {
+        /** 마지막으로 사용한 밀리초 */
+        long lastMillis;
+        /** 같은 밀리초 안에서의 순번 */
+        long sequence;
+        /** 스레드마다 고정된 값 (하위 비트 또는 스레드 슬롯) */
+        final long salt;
+
+        Clock(long salt) {
+            this.salt = salt;
+        }
+
+        /**
+         * 다음 (밀리초, 순번)을 구합니다. 순번이 maxSequence를 넘으면 다음 밀리초를 미리 사용합니다.
+         *
+         * @return 밀리초와 순번을 합친 값 (순번은 sequenceBits 비트)
+         */
+        long tick(int sequenceBits) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                sequence = 0;
+            } else if (++sequence >>> sequenceBits != 0) {
+                lastMillis++;
+                sequence = 0;
+            }
+            return (lastMillis << sequenceBits) | sequence;
+        }
+    }
+
+    private static final class TimeOrdered128 implements MessageIdGenerator {
+        /** 버전 7 */
+        private static final long VERSION = 0x7000L;
+        /** RFC 4122 variant (10xx) */
+        private static final long VARIANT = 0x8000_0000_0000_0000L;
+
+        private final ThreadLocal<Clock> clocks = ThreadLocal.withInitial(
+                () -> new Clock((ThreadLocalRandom.current().nextLong() >>> 2) | VARIANT));
+
+        @Override
+        public long next() {
+            long tick = clocks.get().tick(12);
+            // 48비트 밀리초 | 4비트 버전 | 12비트 순번
+            return ((tick >>> 12) << 16) | VERSION | (tick & 0xFFF);
+        }
+
+        @Override
+        public long salt() {
+            return clocks.get().salt;
+        }
+
+        @Override
+        public String format(long high, long low) {
+            return formatUuid(high, low);
+        }
+    }
+
+    static final class TimeOrdered64 implements MessageIdGenerator {
+        /** 2024-01-01T00:00:00Z, 41비트 타임스탬프가 약 69년 동안 유효하도록 하는 기준 시각 */
+        static final long EPOCH = 1704067200000L;
+        /** 스레드 슬롯 수 (10비트) */
+        private static final int SLOT_COUNT = 1024;
+        /** 종료된 스레드의 슬롯을 반환하는 정리기 */
+        private static final Cleaner CLEANER = Cleaner.create();
+        /** 사용 중인 슬롯 */
+        private static final BitSet USED = new BitSet(SLOT_COUNT);
+        /** 슬롯별로 마지막 스레드가 사용한 밀리초 */
+        private static final long[] LAST_MILLIS = new long[SLOT_COUNT];
+        /** 모든 슬롯이 사용 중일 때 나눠 쓸 슬롯을 고르는 순번 */
+        private static int shared;
+
+        private final ThreadLocal<Clock> clocks = ThreadLocal.withInitial(TimeOrdered64::acquire);
+
+        /**
+         * 현재 스레드에 비어 있는 슬롯을 할당합니다. 스레드가 수거되면 슬롯을 반환합니다.
+         */
+        private static Clock acquire() {
+            int slot;
+            long lastMillis;
+            synchronized (USED) {
+                slot = USED.nextClearBit(0);
+                if (slot >= SLOT_COUNT) {
+                    return new Clock(shared++ & (SLOT_COUNT - 1));
+                }
+                USED.set(slot);
+                lastMillis = LAST_MILLIS[slot];
+            }
+            Clock clock = new Clock(slot);
+            // 같은 밀리초에 이전 스레드가 남긴 순번과 겹치지 않도록 다음 tick이 다음 밀리초로 넘어가게 합니다.
+            clock.lastMillis = lastMillis;
+            clock.sequence = 0xFFF;
+            CLEANER.register(Thread.currentThread(), () -> release(slot, clock));
+            return clock;
+        }
+
+        private static void release(int slot, Clock clock) {
+            synchronized (USED) {
+                LAST_MILLIS[slot] = clock.lastMillis;
+                USED.clear(slot);
+            }
+        }
+
+        @Override
+        public long next() {
+            Clock clock = clocks.get();
+            long tick = clock.tick(12);
+            // 41비트 밀리초 | 10비트 스레드 슬롯 | 12비트 순번
+            return ((tick >>> 12) - EPOCH) << 22 | clock.salt << 12 | (tick & 0xFFF);
+        }
+
+        @Override
+        public long salt() {
+            return 0;
+        }
+
+        @Override
+        public String format(long high, long low) {
+            char[] chars = new char[16];
+            writeHex(chars, 0, high, 16);
+            return new String(chars);
+        }
+    }
+
+    private static final class RandomUuid implements MessageIdGenerator {
+        @Override
+        public long next() {
+            return ThreadLocalRandom.current().nextLong() & ~0xF000L | 0x4000L;
+        }
+
+        @Override
+        public long salt() {
+            return ThreadLocalRandom.current().nextLong() >>> 2 | 0x8000_0000_0000_0000L;
+        }
+
+        @Override
+        public String format(long high, long low) {
+            return formatUuid(high, low);
+        }
+    }
+}
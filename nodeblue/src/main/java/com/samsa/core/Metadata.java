@@ -0,0 +1,523 @@
+package com.samsa.core;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * 메시지의 메타데이터를 담는 불변(persistent) 맵입니다.
+ * {@link #with(String, Object)}와 {@link #without(String)}는 원본을 바꾸지 않고 새 맵을 반환하며, 변경되지 않은 부분은 원본과 공유합니다.
+ * 따라서 메시지를 여러 파이프로 나누어 보내도 안전하고, 읽을 때 복사가 필요 없습니다.
+ *
+ * <p>키가 {@value #SMALL_LIMIT}개 이하일 때는 키와 값을 번갈아 담은 작은 배열을 사용하고,
+ * 그보다 많아지면 HAMT(Hash Array Mapped Trie)로 전환하여 갱신 비용이 O(log32 n)이 되도록 합니다.
+ * 키는 null일 수 없으며 값은 null일 수 있습니다.
+ */
+public final class Metadata extends AbstractMap<String, Object> {
+    /** 작은 배열 표현을 사용하는 최대 키 개수 */
+    static final int SMALL_LIMIT = 8;
+
+    /** 찾는 키가 없음을 나타내는 표식 (값으로 null을 허용하기 위해 사용) */
+    private static final Object NOT_FOUND = new Object();
+    private static final Object[] NO_ENTRIES = new Object[0];
+    private static final Metadata EMPTY = new Metadata(NO_ENTRIES, null, 0);
+
+    /** 작은 표현: 키와 값을 번갈아 담은 배열 (root가 null일 때 사용) */
+    private final Object[] entries;
+    /** 큰 표현: HAMT의 루트 노드 */
+    private final Trie root;
+    /** 항목 수 */
+    private final int size;
+
+    private Metadata(Object[] entries, Trie root, int size) {
+        this.entries = entries;
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * 빈 메타데이터를 반환합니다.
+     *
+     * @return 빈 메타데이터
+     */
+    public static Metadata empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 주어진 맵과 같은 내용의 메타데이터를 반환합니다. 이미 Metadata이면 그대로 반환합니다.
+     *
+     * @param map 원본 맵
+     * @return 메타데이터
+     */
+    public static Metadata copyOf(Map<String, ?> map) {
+        if (map instanceof Metadata metadata) {
+            return metadata;
+        }
+        if (map.isEmpty()) {
+            return EMPTY;
+        }
+        if (map.size() <= SMALL_LIMIT) {
+            Object[] entries = new Object[map.size() * 2];
+            int i = 0;
+            for (Map.Entry<String, ?> entry : map.entrySet()) {
+                entries[i++] = Objects.requireNonNull(entry.getKey(), "metadata key");
+                entries[i++] = entry.getValue();
+            }
+            return new Metadata(entries, null, map.size());
+        }
+        Metadata result = EMPTY;
+        for (Map.Entry<String, ?> entry : map.entrySet()) {
+            result = result.with(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * 키의 값을 설정한 새 메타데이터를 반환합니다. 원본은 변경되지 않습니다.
+     *
+     * @param key 키
+     * @param value 값
+     * @return 새 메타데이터, 이미 같은 값(동일 객체)이 있으면 this
+     */
+    public Metadata with(String key, Object value) {
+        Objects.requireNonNull(key, "metadata key");
+        if (root != null) {
+            boolean[] added = new boolean[1];
+            Trie newRoot = root.assoc(0, hash(key), key, value, added);
+            return newRoot == root ? this : new Metadata(NO_ENTRIES, newRoot, added[0] ? size + 1 : size);
+        }
+        int index = indexOf(key);
+        if (index >= 0) {
+            if (entries[index + 1] == value) {
+                return this;
+            }
+            Object[] copy = entries.clone();
+            copy[index + 1] = value;
+            return new Metadata(copy, null, size);
+        }
+        if (size < SMALL_LIMIT) {
+            Object[] copy = Arrays.copyOf(entries, entries.length + 2);
+            copy[entries.length] = key;
+            copy[entries.length + 1] = value;
+            return new Metadata(copy, null, size + 1);
+        }
+        // 작은 표현의 한도를 넘으면 HAMT로 전환합니다.
+        boolean[] added = new boolean[1];
+        Trie trie = BitmapNode.EMPTY;
+        for (int i = 0; i < entries.length; i += 2) {
+            String existing = (String) entries[i];
+            trie = trie.assoc(0, hash(existing), existing, entries[i + 1], added);
+        }
+        trie = trie.assoc(0, hash(key), key, value, added);
+        return new Metadata(NO_ENTRIES, trie, size + 1);
+    }
+
+    /**
+     * 키를 제거한 새 메타데이터를 반환합니다. 원본은 변경되지 않습니다.
+     *
+     * @param key 키
+     * @return 새 메타데이터, 키가 없으면 this
+     */
+    public Metadata without(String key) {
+        if (key == null) {
+            return this;
+        }
+        if (root != null) {
+            Trie newRoot = root.dissoc(0, hash(key), key);
+            if (newRoot == root) {
+                return this;
+            }
+            return newRoot == null ? EMPTY : new Metadata(NO_ENTRIES, newRoot, size - 1);
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return this;
+        }
+        if (size == 1) {
+            return EMPTY;
+        }
+        Object[] copy = new Object[entries.length - 2];
+        System.arraycopy(entries, 0, copy, 0, index);
+        System.arraycopy(entries, index + 2, copy, index, entries.length - index - 2);
+        return new Metadata(copy, null, size - 1);
+    }
+
+    private int indexOf(Object key) {
+        for (int i = 0; i < entries.length; i += 2) {
+            if (key.equals(entries[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Object find(Object key) {
+        if (key == null) {
+            return NOT_FOUND;
+        }
+        if (root != null) {
+            return root.find(0, hash(key), key);
+        }
+        int index = indexOf(key);
+        return index < 0 ? NOT_FOUND : entries[index + 1];
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public Object get(Object key) {
+        Object value = find(key);
+        return value == NOT_FOUND ? null : value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) != NOT_FOUND;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Object> action) {
+        if (root != null) {
+            root.forEach(action);
+            return;
+        }
+        for (int i = 0; i < entries.length; i += 2) {
+            action.accept((String) entries[i], entries[i + 1]);
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return root != null ? new TrieIterator(root) : new ArrayIterator(entries);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * HAMT의 노드입니다.
+     */
+    private abstract static class Trie {
+        /** 키의 값을 찾습니다. 없으면 NOT_FOUND를 반환합니다. */
+        abstract Object find(int shift, int hash, Object key);
+
+        /** 키의 값을 설정한 새 노드를 반환합니다. 새 키가 추가되면 added[0]을 true로 설정합니다. */
+        abstract Trie assoc(int shift, int hash, String key, Object value, boolean[] added);
+
+        /** 키를 제거한 새 노드를 반환합니다. 키가 없으면 this, 노드가 비면 null을 반환합니다. */
+        abstract Trie dissoc(int shift, int hash, Object key);
+
+        abstract void forEach(BiConsumer<? super String, ? super Object> action);
+    }
+
+    /**
+     * 32개의 자식 자리 중 사용 중인 자리를 비트맵으로 표시하는 노드입니다.
+     * array에는 자리마다 (키, 값) 또는 (null, 하위 노드) 쌍이 순서대로 저장됩니다.
+     */
+    private static final class BitmapNode extends Trie {
+        static final BitmapNode EMPTY = new BitmapNode(0, NO_ENTRIES);
+
+        final int bitmap;
+        final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private static int bit(int shift, int hash) {
+            return 1 << ((hash >>> shift) & 31);
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1)) * 2;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int bit = bit(shift, hash);
+            if ((bitmap & bit) == 0) {
+                return NOT_FOUND;
+            }
+            int index = index(bit);
+            Object existing = array[index];
+            if (existing == null) {
+                return ((Trie) array[index + 1]).find(shift + 5, hash, key);
+            }
+            return key.equals(existing) ? array[index + 1] : NOT_FOUND;
+        }
+
+        @Override
+        Trie assoc(int shift, int hash, String key, Object value, boolean[] added) {
+            int bit = bit(shift, hash);
+            int index = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[array.length + 2];
+                System.arraycopy(array, 0, copy, 0, index);
+                copy[index] = key;
+                copy[index + 1] = value;
+                System.arraycopy(array, index, copy, index + 2, array.length - index);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            Object existingKey = array[index];
+            Object existingValue = array[index + 1];
+            if (existingKey == null) {
+                Trie child = (Trie) existingValue;
+                Trie newChild = child.assoc(shift + 5, hash, key, value, added);
+                return newChild == child ? this : set(index + 1, newChild);
+            }
+            if (key.equals(existingKey)) {
+                return existingValue == value ? this : set(index + 1, value);
+            }
+            added[0] = true;
+            Trie child = pair(shift + 5, (String) existingKey, existingValue, hash, key, value);
+            Object[] copy = array.clone();
+            copy[index] = null;
+            copy[index + 1] = child;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private BitmapNode set(int index, Object value) {
+            Object[] copy = array.clone();
+            copy[index] = value;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        /** 같은 자리에서 충돌한 두 항목을 담는 하위 노드를 만듭니다. */
+        private static Trie pair(int shift, String key1, Object value1, int hash2, String key2, Object value2) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+            }
+            boolean[] ignored = new boolean[1];
+            return EMPTY.assoc(shift, hash1, key1, value1, ignored).assoc(shift, hash2, key2, value2, ignored);
+        }
+
+        @Override
+        Trie dissoc(int shift, int hash, Object key) {
+            int bit = bit(shift, hash);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit);
+            Object existingKey = array[index];
+            if (existingKey == null) {
+                Trie child = (Trie) array[index + 1];
+                Trie newChild = child.dissoc(shift + 5, hash, key);
+                if (newChild == child) {
+                    return this;
+                }
+                if (newChild != null) {
+                    return set(index + 1, newChild);
+                }
+            } else if (!key.equals(existingKey)) {
+                return this;
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, index);
+            System.arraycopy(array, index + 2, copy, index, array.length - index - 2);
+            return new BitmapNode(bitmap ^ bit, copy);
+        }
+
+        @Override
+        void forEach(BiConsumer<? super String, ? super Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Trie) array[i + 1]).forEach(action);
+                } else {
+                    action.accept((String) array[i], array[i + 1]);
+                }
+            }
+        }
+    }
+
+    /**
+     * 해시값 32비트가 모두 같은 키들을 담는 노드입니다.
+     */
+    private static final class CollisionNode extends Trie {
+        final int hash;
+        final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        Object find(int shift, int hash, Object key) {
+            int index = indexOf(key);
+            return index < 0 ? NOT_FOUND : array[index + 1];
+        }
+
+        @Override
+        Trie assoc(int shift, int hash, String key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                // 다른 해시의 키가 들어오면 이 노드를 비트맵 노드 아래로 내립니다.
+                BitmapNode parent = new BitmapNode(1 << ((this.hash >>> shift) & 31), new Object[] { null, this });
+                return parent.assoc(shift, hash, key, value, added);
+            }
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (array[index + 1] == value) {
+                    return this;
+                }
+                Object[] copy = array.clone();
+                copy[index + 1] = value;
+                return new CollisionNode(hash, copy);
+            }
+            Object[] copy = Arrays.copyOf(array, array.length + 2);
+            copy[array.length] = key;
+            copy[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        Trie dissoc(int shift, int hash, Object key) {
+            int index = indexOf(key);
+            if (index < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, index);
+            System.arraycopy(array, index + 2, copy, index, array.length - index - 2);
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        void forEach(BiConsumer<? super String, ? super Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept((String) array[i], array[i + 1]);
+            }
+        }
+    }
+
+    /**
+     * 작은 배열 표현의 항목을 순회합니다.
+     */
+    private static final class ArrayIterator implements Iterator<Map.Entry<String, Object>> {
+        private final Object[] entries;
+        private int index;
+
+        ArrayIterator(Object[] entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return index < entries.length;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (index >= entries.length) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Object> entry = new SimpleImmutableEntry<>((String) entries[index], entries[index + 1]);
+            index += 2;
+            return entry;
+        }
+    }
+
+    /**
+     * HAMT의 항목을 깊이 우선으로 순회합니다.
+     */
+    private static final class TrieIterator implements Iterator<Map.Entry<String, Object>> {
+        /** 순회 중인 노드의 배열과 다음 위치 */
+        private final Deque<Object[]> arrays = new ArrayDeque<>();
+        private final Deque<int[]> positions = new ArrayDeque<>();
+        private Map.Entry<String, Object> next;
+
+        TrieIterator(Trie root) {
+            push(root);
+            advance();
+        }
+
+        private void push(Trie node) {
+            arrays.push(node instanceof BitmapNode bitmap ? bitmap.array : ((CollisionNode) node).array);
+            positions.push(new int[1]);
+        }
+
+        private void advance() {
+            next = null;
+            while (!arrays.isEmpty()) {
+                Object[] array = arrays.peek();
+                int[] position = positions.peek();
+                if (position[0] >= array.length) {
+                    arrays.pop();
+                    positions.pop();
+                    continue;
+                }
+                Object key = array[position[0]];
+                Object value = array[position[0] + 1];
+                position[0] += 2;
+                if (key == null) {
+                    push((Trie) value);
+                } else {
+                    next = new SimpleImmutableEntry<>((String) key, value);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, Object> entry = next;
+            advance();
+            return entry;
+        }
+    }
+}
@@ -1,20 +1,52 @@
 package com.samsa.core;
 
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+import com.samsa.metrics.NodeMetrics;
+import com.samsa.metrics.NodeMetricsSnapshot;
+import com.samsa.trace.FlowTrace;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * 모든 노드의 기본 추상 클래스입니다.
  * 노드의 생명주기와 기본적인 에러 처리를 관리합니다.
+ *
+ * <p>상태 전이는 원자적으로 이루어지며, {@link #isActive()}는 volatile 읽기 한 번으로 끝나므로 메시지마다 호출해도 됩니다.
+ * {@link #stop()}은 노드를 STOPPING으로 바꾼 뒤 처리 중이거나 우편함에 쌓인 메시지가 모두 처리될 때까지 기다렸다가 STOPPED로 바꿉니다.
  */
 @Slf4j
 public abstract class Node {
     /** 노드의 고유 식별자 */
     protected UUID id;
     
+    /** stop()이 처리 중인 메시지를 기다리는 기본 최대 시간 */
+    public static final long DEFAULT_STOP_TIMEOUT_MILLIS = 5000;
+
+    private static final AtomicReferenceFieldUpdater<Node, NodeStatus> STATUS =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, NodeStatus.class, "status");
+
+    /** 처리 중인 메시지가 모두 소진되었는지 다시 확인하는 최대 간격 */
+    private static final long DRAIN_MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
     /** 노드의 현재 상태 */
-    protected NodeStatus status = NodeStatus.CREATED;
+    protected volatile NodeStatus status = NodeStatus.CREATED;
+
+    /** 전달받았지만 아직 처리가 끝나지 않은 메시지 수 (우편함에 대기 중인 메시지 포함) */
+    private final AtomicLong inFlight = new AtomicLong();
+
+    /** 런타임에 연결된 경우 메시지를 쌓아두는 우편함 */
+    private volatile Mailbox mailbox;
+
+    /** 받은 메시지 수, 처리 시간, 에러 수 등의 처리 통계 */
+    private final NodeMetrics metrics = new NodeMetrics();
+
+    /** 에러를 통보받는 리스너, 없으면 null */
+    private volatile NodeErrorListener errorListener;
     
 
     public Node() {
@@ -42,32 +74,266 @@ public abstract class Node {
      * @param message 처리할 메시지 객체
      */
     public abstract void onMessage(Message message);
+
+    /**
+     * 파이프로부터 메시지를 받습니다.
+     * 노드가 {@link NodeRuntime}에 연결되어 있으면 우편함에 넣고 즉시 반환하며,
+     * 그렇지 않으면 호출한 스레드에서 바로 {@link #onMessage(Message)}를 실행합니다.
+     *
+     * @param message 받은 메시지
+     */
+    public final void receive(Message message) {
+        receive(message, null);
+    }
+
+    /**
+     * 파이프로부터 메시지를 받고, 처리가 끝나면 onProcessed를 실행합니다.
+     * 우편함에 넣은 메시지는 우편함이 처리한 뒤에 실행하므로 송신자는 메시지가 실제로 처리된 시점을 알 수 있습니다.
+     *
+     * @param message 받은 메시지
+     * @param onProcessed 처리가 끝난 뒤 실행할 콜백, 없으면 null
+     */
+    final void receive(Message message, Runnable onProcessed) {
+        metrics.recordReceived();
+        inFlight.incrementAndGet();
+        Mailbox box = mailbox;
+        if (box != null) {
+            box.post(message, onProcessed);
+        } else {
+            try {
+                process(message);
+            } finally {
+                if (onProcessed != null) {
+                    onProcessed.run();
+                }
+            }
+        }
+    }
+
+    /**
+     * 메시지를 처리하고 처리 시간을 기록한 뒤 처리 중인 메시지 수를 줄입니다.
+     * 추적 중인 메시지이면 이 노드를 지난 홉도 기록합니다.
+     *
+     * @param message 처리할 메시지
+     */
+    final void process(Message message) {
+        FlowTrace trace = message.getTrace();
+        int hop = trace == null ? 0 : trace.beginHop();
+        long start = System.nanoTime();
+        try {
+            onMessage(message);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            metrics.recordLatency(elapsed);
+            if (trace != null) {
+                trace.endHop(hop, this, start, elapsed);
+            }
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * 메시지 처리가 끝난 뒤에도 비동기로 이어지는 작업(병렬 팬아웃 등)을 처리 중인 메시지로 셉니다.
+     * {@link #stop()}은 이 작업이 끝날 때까지도 기다립니다.
+     */
+    void beginAsyncWork() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * {@link #beginAsyncWork()}로 센 작업이 끝났음을 기록합니다.
+     */
+    void endAsyncWork() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 우편함이 처리하지 못하고 버린 메시지를 처리 중인 메시지 수에서 뺍니다.
+     *
+     * @param count 버린 메시지 수
+     */
+    void discardQueued(int count) {
+        inFlight.addAndGet(-count);
+    }
+
+    /**
+     * 이 노드가 지금 더 받아들일 수 있는 메시지 수(수요)를 반환합니다.
+     * reactive-streams의 request(n)과 같은 역할로, 소스 노드는 이 값이 0이면 전송을 늦춰야 합니다.
+     * 기본 구현은 우편함의 남은 수용량이며, 우편함이 없으면 무제한입니다.
+     *
+     * @return 수요, 제한이 없으면 Long.MAX_VALUE
+     */
+    public long demand() {
+        Mailbox box = mailbox;
+        return box == null ? Long.MAX_VALUE : box.remainingCapacity();
+    }
+
+    /**
+     * 노드의 우편함을 설정합니다. null이면 우편함 없이 직접 실행합니다.
+     *
+     * @param mailbox 설정할 우편함
+     */
+    void attachMailbox(Mailbox mailbox) {
+        this.mailbox = mailbox;
+    }
+
+    /**
+     * 노드의 우편함을 반환합니다.
+     *
+     * @return 우편함, 런타임에 연결되어 있지 않으면 null
+     */
+    public Mailbox getMailbox() {
+        return mailbox;
+    }
     
     /**
      * 노드를 시작하고 상태를 RUNNING으로 변경합니다.
      */
     public void start() {
-        status = NodeStatus.RUNNING;
+        NodeStatus previous = STATUS.getAndSet(this, NodeStatus.RUNNING);
+        if (previous == NodeStatus.RUNNING) {
+            log.debug("Node[{}] already running", id);
+            return;
+        }
         log.info("Node[{}] started", id);
     }
 
     /**
-     * 노드를 중지하고 상태를 STOPPED로 변경합니다.
+     * 노드를 중지합니다. 처리 중인 메시지를 최대 {@value #DEFAULT_STOP_TIMEOUT_MILLIS}ms 동안 기다립니다.
      */
     public void stop() {
-        status = NodeStatus.STOPPED;
-        log.info("Node[{}] stopped", id);
+        stop(DEFAULT_STOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 노드를 중지합니다.
+     * 상태를 STOPPING으로 바꾼 뒤 처리 중이거나 우편함에 대기 중인 메시지가 모두 처리될 때까지 최대 timeout 동안 기다리고,
+     * 그 후 상태를 STOPPED로 변경합니다. STOPPING 상태에서도 이미 전달된 메시지는 계속 처리됩니다.
+     *
+     * @param timeout 최대 대기 시간
+     * @param unit 대기 시간 단위
+     * @return 제한 시간 안에 모든 메시지를 처리했으면 true
+     */
+    public boolean stop(long timeout, TimeUnit unit) {
+        NodeStatus current = status;
+        if (current == NodeStatus.STOPPED || !STATUS.compareAndSet(this, current, NodeStatus.STOPPING)) {
+            return status == NodeStatus.STOPPED;
+        }
+        boolean drained = awaitDrained(unit.toNanos(timeout));
+        STATUS.compareAndSet(this, NodeStatus.STOPPING, NodeStatus.STOPPED);
+        if (drained) {
+            log.info("Node[{}] stopped", id);
+        } else {
+            log.warn("Node[{}] stopped with {} message(s) still in flight", id, inFlight.get());
+        }
+        return drained;
+    }
+
+    private boolean awaitDrained(long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        long backoff = 1_000;
+        while (inFlight.get() > 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(this, Math.min(backoff, remaining));
+            backoff = Math.min(backoff << 1, DRAIN_MAX_PARK_NANOS);
+        }
+        return true;
+    }
+
+    /**
+     * 노드가 실행 중인지 확인합니다.
+     *
+     * @return 상태가 RUNNING이면 true
+     */
+    public boolean isRunning() {
+        return status == NodeStatus.RUNNING;
+    }
+
+    /**
+     * 노드가 메시지를 처리해야 하는 상태인지 확인합니다.
+     * RUNNING뿐 아니라 중지 중 이미 전달된 메시지를 소진하는 STOPPING 상태도 포함합니다.
+     *
+     * @return RUNNING 또는 STOPPING이면 true
+     */
+    public boolean isActive() {
+        NodeStatus current = status;
+        return current == NodeStatus.RUNNING || current == NodeStatus.STOPPING;
+    }
+
+    /**
+     * 노드의 현재 상태를 반환합니다.
+     *
+     * @return 현재 상태
+     */
+    public NodeStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * 전달받았지만 아직 처리가 끝나지 않은 메시지 수를 반환합니다.
+     *
+     * @return 처리 중인 메시지 수
+     */
+    public long getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * 노드의 처리 통계를 반환합니다.
+     *
+     * @return 처리 통계
+     */
+    public NodeMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 노드의 현재 통계를 스냅샷으로 만듭니다.
+     *
+     * @return 통계 스냅샷
+     */
+    public NodeMetricsSnapshot getMetricsSnapshot() {
+        Mailbox box = mailbox;
+        return new NodeMetricsSnapshot(id, getClass().getSimpleName(), status.name(),
+                metrics.getReceived(), metrics.getEmitted(), metrics.getErrors(), inFlight.get(),
+                box == null ? 0 : box.size(), metrics.getLatency().snapshot());
     }
 
     /**
      * 노드에서 발생한 에러를 처리합니다.
-     * 에러 발생 시 노드의 상태를 ERROR로 변경합니다.
+     * 에러 발생 시 노드의 상태를 ERROR로 변경하고, 에러 리스너가 있으면 통보합니다.
      *
      * @param error 발생한 에러 객체
      */
     public void handleError(Throwable error) {
-        status = NodeStatus.ERROR;
+        metrics.recordError();
+        STATUS.set(this, NodeStatus.ERROR);
         log.error("Error in Node[{}]: ", id, error);
+        NodeErrorListener listener = errorListener;
+        if (listener != null) {
+            listener.onError(this, error);
+        }
+    }
+
+    /**
+     * 이 노드의 에러를 통보받을 리스너를 설정합니다. 파이프라인이 노드를 추가할 때 자신의 에러 버스를 설정합니다.
+     *
+     * @param errorListener 에러 리스너, null이면 통보하지 않음
+     */
+    public void setErrorListener(NodeErrorListener errorListener) {
+        this.errorListener = errorListener;
+    }
+
+    /**
+     * 이 노드의 에러 리스너를 반환합니다.
+     *
+     * @return 에러 리스너, 없으면 null
+     */
+    public NodeErrorListener getErrorListener() {
+        return errorListener;
     }
 
     
@@ -80,16 +346,3 @@ public abstract class Node {
     }   
 }
 
-/**
- * 노드의 상태를 나타내는 열거형입니다.
- */
-enum NodeStatus {
-    /** 노드가 생성된 초기 상태 */
-    CREATED,
-    /** 노드가 실행 중인 상태 */
-    RUNNING,
-    /** 노드가 중지된 상태 */
-    STOPPED,
-    /** 노드에 에러가 발생한 상태 */
-    ERROR
-}
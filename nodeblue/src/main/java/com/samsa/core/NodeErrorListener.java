@@ -0,0 +1,18 @@
+package com.samsa.core;
+
+/**
+ * 노드에서 발생한 에러를 통보받는 리스너입니다.
+ * {@link Node#handleError(Throwable)}가 노드 상태를 바꾸고 기록한 뒤 에러가 발생한 스레드에서 호출하므로,
+ * 구현체는 오래 걸리는 작업을 하지 말고 즉시 반환해야 합니다.
+ */
+@FunctionalInterface
+public interface NodeErrorListener {
+
+    /**
+     * 노드에서 에러가 발생했음을 알립니다.
+     *
+     * @param node 에러가 발생한 노드
+     * @param error 발생한 에러
+     */
+    void onError(Node node, Throwable error);
+}
@@ -0,0 +1,178 @@
+package com.samsa.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 노드의 우편함을 처리하는 실행 환경입니다.
+ * 노드를 런타임에 연결하면 그 노드로 들어오는 메시지는 우편함에 쌓이고, 런타임의 실행기가 우편함을 비웁니다.
+ * 노드 하나는 한 번에 하나의 스레드에서만 실행되지만, 서로 다른 노드들은 모든 코어에서 병렬로 실행됩니다.
+ */
+@Slf4j
+public class NodeRuntime implements AutoCloseable {
+    /** 우편함 한 번 실행당 기본 처리 메시지 수 */
+    public static final int DEFAULT_THROUGHPUT = 64;
+
+    /** 요청된 실행 모드 */
+    private final ExecutionMode mode;
+    /** 우편함을 처리하는 실행기 */
+    private final ExecutorService executor;
+    /** 우편함 한 번 실행당 처리 메시지 수 */
+    private final int throughput;
+    /** 우편함별 수용 한도, 0 이하이면 무제한 */
+    private volatile int mailboxCapacity;
+
+    /**
+     * 지정된 실행 모드로 런타임을 생성합니다.
+     *
+     * @param mode 실행 모드
+     */
+    public NodeRuntime(ExecutionMode mode) {
+        this(mode, Runtime.getRuntime().availableProcessors(), DEFAULT_THROUGHPUT);
+    }
+
+    /**
+     * 런타임을 생성합니다.
+     *
+     * @param mode 실행 모드
+     * @param parallelism WORK_STEALING 모드에서 사용할 스레드 수
+     * @param throughput 우편함 한 번 실행당 처리할 최대 메시지 수
+     */
+    public NodeRuntime(ExecutionMode mode, int parallelism, int throughput) {
+        if (throughput < 1) {
+            throw new IllegalArgumentException("throughput must be positive: " + throughput);
+        }
+        this.mode = mode;
+        this.throughput = throughput;
+        ExecutorService virtual = mode == ExecutionMode.VIRTUAL_THREADS ? newVirtualThreadExecutor() : null;
+        if (virtual != null) {
+            this.executor = virtual;
+        } else {
+            if (mode == ExecutionMode.VIRTUAL_THREADS) {
+                log.warn("Virtual threads are not available on this JVM, falling back to {}", ExecutionMode.WORK_STEALING);
+            }
+            this.executor = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        }
+        log.info("NodeRuntime created - mode: {}, parallelism: {}, throughput: {}", mode, parallelism, throughput);
+    }
+
+    /**
+     * JDK 21 이상에서만 존재하는 Executors.newVirtualThreadPerTaskExecutor를 찾아 호출합니다.
+     *
+     * @return 가상 스레드 실행기, 지원하지 않으면 null
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * 노드를 이 런타임에 연결합니다.
+     * 이후 파이프를 통해 들어오는 메시지는 노드의 우편함을 거쳐 런타임 스레드에서 처리됩니다.
+     *
+     * <p>{@link PartitionedNode}는 자신 대신 복제본마다 우편함을 붙여 복제본들이 병렬로 실행되게 합니다.
+     *
+     * @param node 연결할 노드
+     */
+    public void attach(Node node) {
+        if (node instanceof PartitionedNode partitioned) {
+            for (Node replica : partitioned.getReplicas()) {
+                attach(replica);
+            }
+            return;
+        }
+        node.attachMailbox(new Mailbox(node, executor, throughput, mailboxCapacity));
+    }
+
+    /**
+     * 노드를 런타임에서 분리합니다.
+     * 이후 메시지는 송신 스레드에서 직접 처리됩니다.
+     *
+     * @param node 분리할 노드
+     */
+    public void detach(Node node) {
+        if (node instanceof PartitionedNode partitioned) {
+            for (Node replica : partitioned.getReplicas()) {
+                detach(replica);
+            }
+            return;
+        }
+        node.attachMailbox(null);
+    }
+
+    /**
+     * 노드의 병렬 팬아웃을 켜서 출력 파이프마다 이 런타임의 실행기에서 동시에 메시지를 보내게 합니다.
+     * 노드를 우편함으로 연결하는 {@link #attach(Node)}와는 별개이며, 둘 다 적용할 수 있습니다.
+     *
+     * @param node 출력이 있는 노드 (OutNode 또는 InOutNode)
+     * @throws IllegalArgumentException 출력 파이프를 가질 수 없는 노드인 경우
+     */
+    public void enableParallelFanOut(Node node) {
+        if (node instanceof InOutNode inOut) {
+            inOut.setFanOutExecutor(executor);
+        } else if (node instanceof OutNode out) {
+            out.setFanOutExecutor(executor);
+        } else {
+            throw new IllegalArgumentException("Node[" + node.getId() + "] has no output pipes");
+        }
+    }
+
+    /**
+     * 이후 연결되는 노드의 우편함 수용 한도를 설정합니다.
+     * 한도에 다다른 노드는 상위 노드에 수요가 없다고 알리므로, 수요를 확인하는 소스 노드는 전송을 늦춥니다.
+     *
+     * @param mailboxCapacity 우편함별 수용 한도, 0 이하이면 무제한
+     */
+    public void setMailboxCapacity(int mailboxCapacity) {
+        this.mailboxCapacity = mailboxCapacity;
+    }
+
+    /**
+     * 런타임의 실행기를 반환합니다.
+     *
+     * @return 실행기
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 요청된 실행 모드를 반환합니다.
+     *
+     * @return 실행 모드
+     */
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    /**
+     * 실행기를 종료하고, 이미 예약된 우편함 작업이 끝날 때까지 최대 timeout 동안 기다립니다.
+     *
+     * @param timeout 최대 대기 시간
+     * @param unit 대기 시간 단위
+     * @return 제한 시간 안에 모든 작업이 끝났으면 true
+     * @throws InterruptedException 대기 중 인터럽트된 경우
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        executor.shutdown();
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
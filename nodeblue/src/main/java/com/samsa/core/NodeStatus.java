@@ -0,0 +1,22 @@
+package com.samsa.core;
+
+/**
+ * 노드의 상태를 나타내는 열거형입니다.
+ *
+ * <pre>
+ * CREATED ─start()→ RUNNING ─stop()→ STOPPING ─(처리 중인 메시지 소진)→ STOPPED ─start()→ RUNNING
+ *                       └─handleError()→ ERROR
+ * </pre>
+ */
+public enum NodeStatus {
+    /** 노드가 생성된 초기 상태 */
+    CREATED,
+    /** 노드가 실행 중인 상태 */
+    RUNNING,
+    /** 중지 요청을 받아 처리 중인 메시지를 소진하고 있는 상태 */
+    STOPPING,
+    /** 노드가 중지된 상태 */
+    STOPPED,
+    /** 노드에 에러가 발생한 상태 */
+    ERROR
+}
@@ -1,9 +1,16 @@
 package com.samsa.core;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.samsa.trace.FlowTrace;
+import com.samsa.trace.Tracer;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -13,8 +20,19 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 public abstract class OutNode extends Node {
-    /** 출력 파이프들의 리스트 */
-    private final List<Pipe> outputPipes = new ArrayList<>();
+    /** 출력 파이프들의 리스트 (실행 중 재배포로 바뀔 수 있으므로 복사 후 쓰기 리스트 사용) */
+    private final List<Pipe> outputPipes = new CopyOnWriteArrayList<>();
+
+    /** 파이프라인의 추적 설정, 추적하지 않으면 null */
+    private volatile Tracer tracer;
+
+    /** 병렬 팬아웃, 켜지 않았으면 null */
+    private volatile FanOut fanOut;
+
+    /** 수요를 기다릴 때 처음 대기하는 시간 */
+    private static final long MIN_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+    /** 수요를 기다릴 때 한 번에 대기하는 최대 시간 */
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
 
     public OutNode() {
         super();
@@ -31,17 +49,115 @@ public abstract class OutNode extends Node {
 
     /**
      * 메시지를 연결된 모든 출력 파이프로 전송합니다.
+     * 추적 설정이 있으면 샘플링된 메시지에 흐름 추적을 붙이며, 추적하지 않는 메시지는 분기 하나의 비용만 듭니다.
+     * 병렬 팬아웃이 켜져 있으면 분기들을 실행기에 맡기고 바로 반환하며, 분기에서 난 에러는 {@link #handleError(Throwable)}로 처리합니다.
      *
      * @param message 전송할 메시지 객체
      */
     public void emit(Message message) {
-        log.info("emit 실행");
+        send(message, false);
+    }
+
+    /**
+     * 메시지를 모든 출력 파이프로 전송하고, 모든 분기의 전송이 끝나면 완료되는 future를 반환합니다.
+     * 병렬 팬아웃이 꺼져 있으면 이 스레드에서 차례로 보낸 뒤 완료된 future를 반환합니다.
+     *
+     * @param message 전송할 메시지 객체
+     * @return 모든 분기가 끝나면 완료되고, 분기 하나라도 실패하면 그 에러로 완료되는 future
+     */
+    public CompletableFuture<Void> emitAndJoin(Message message) {
+        try {
+            CompletableFuture<Void> done = send(message, true);
+            return done == null ? CompletableFuture.completedFuture(null) : done;
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<Void> send(Message message, boolean join) {
+        Tracer current = tracer;
+        if (current != null) {
+            message = current.start(message);
+        }
+        FlowTrace trace = message.getTrace();
+        if (trace == null) {
+            return dispatch(message, join);
+        }
+        int hop = trace.beginHop();
+        long start = System.nanoTime();
+        CompletableFuture<Void> done = dispatch(message, join);
+        trace.endHop(hop, this, start, System.nanoTime() - start);
+        return done;
+    }
+
+    private CompletableFuture<Void> dispatch(Message message, boolean join) {
+        FanOut parallel = fanOut;
+        if (parallel != null) {
+            return parallel.send(outputPipes, message, join);
+        }
         for (Pipe pipe : getPipes()) {
             if (pipe.isConnected()) {
                 pipe.send(message);
-                log.info("메세지를 보냄");
             }
         }
+        return null;
+    }
+
+    /**
+     * 병렬 팬아웃을 켜거나 끕니다. 켜면 출력 파이프마다 실행기에서 동시에 메시지를 보내므로 소스의 송신 스레드는
+     * 가장 느린 분기를 기다리지 않습니다. 같은 파이프로 가는 메시지의 순서는 유지되며, 분기에 보내는 메시지는
+     * {@link Message#freeze()}로 수정할 수 없게 만듭니다. 보통 {@link NodeRuntime#enableParallelFanOut(Node)}로 켭니다.
+     *
+     * @param executor 분기를 실행할 실행기, null이면 병렬 팬아웃을 끔
+     */
+    public void setFanOutExecutor(Executor executor) {
+        this.fanOut = executor == null ? null : new FanOut(this, executor);
+    }
+
+    /**
+     * 내보내는 메시지의 추적 설정을 지정합니다. 파이프라인이 시작할 때 설정합니다.
+     *
+     * @param tracer 추적 설정, null이면 추적하지 않음
+     */
+    public void setTracer(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * 모든 출력 경로의 수요 중 가장 작은 값을 반환합니다. 병렬 팬아웃 중이면 가장 밀린 분기의 대기 메시지 수만큼 줄입니다.
+     *
+     * @return 수요, 제한이 없으면 Long.MAX_VALUE
+     */
+    @Override
+    public long demand() {
+        long demand = Pipe.minDemand(outputPipes);
+        FanOut parallel = fanOut;
+        return parallel == null ? demand : Math.max(0, demand - parallel.backlog());
+    }
+
+    /**
+     * 하위 경로에 수요가 생길 때까지 최대 timeout 동안 기다립니다.
+     * 대기 간격은 짧게 시작하여 점차 늘어나므로, 포화되지 않은 경우에는 비용이 거의 없습니다.
+     *
+     * @param timeout 최대 대기 시간
+     * @param unit 대기 시간 단위
+     * @return 수요가 생겼으면 true, 제한 시간이 지나거나 인터럽트되면 false
+     */
+    public boolean awaitDemand(long timeout, TimeUnit unit) {
+        if (demand() > 0) {
+            return true;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long backoff = MIN_BACKOFF_NANOS;
+        while (demand() <= 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            LockSupport.parkNanos(this, Math.min(backoff, remaining));
+            backoff = Math.min(backoff << 1, MAX_BACKOFF_NANOS);
+        }
+        return true;
     }
 
     /**
@@ -61,6 +177,10 @@ public abstract class OutNode extends Node {
 
     public void removePipe(Pipe pipe) {
         outputPipes.remove(pipe);
+        FanOut parallel = fanOut;
+        if (parallel != null) {
+            parallel.remove(pipe);
+        }
     }
 
     protected List<Pipe> getPipes() {
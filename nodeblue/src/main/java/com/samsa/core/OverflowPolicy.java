@@ -0,0 +1,13 @@
+package com.samsa.core;
+
+/**
+ * 비동기 파이프의 버퍼가 가득 찼을 때의 처리 정책을 나타내는 열거형입니다.
+ */
+public enum OverflowPolicy {
+    /** 버퍼에 빈 공간이 생길 때까지 송신 스레드를 대기시킵니다. */
+    BLOCK,
+    /** 가장 오래된 메시지를 버리고 새 메시지를 넣습니다. */
+    DROP_OLDEST,
+    /** 새로 들어온 메시지를 버립니다. */
+    DROP_NEWEST
+}
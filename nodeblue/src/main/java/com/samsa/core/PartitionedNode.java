@@ -0,0 +1,190 @@
+package com.samsa.core;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 하나의 논리 노드를 여러 복제본으로 나누어 병렬로 실행하는 노드입니다.
+ *
+ * <p>메시지는 메타데이터의 분할 키 값의 해시로 고른 복제본 하나로 보내지므로, 같은 키의 메시지는 항상 같은 복제본에서
+ * 받은 순서대로 처리됩니다. 키가 없는 메시지는 모두 첫 번째 복제본으로 보냅니다.
+ * 복제본의 출력은 이 노드의 출력 파이프로 합쳐지며, 서로 다른 키 사이의 순서는 보장하지 않습니다.
+ *
+ * <p>{@link NodeRuntime}에 연결하면 이 노드 대신 각 복제본이 우편함을 가지므로 복제본들이 서로 다른 스레드에서 동시에 실행됩니다.
+ * 이 노드는 송신 스레드에서 복제본을 고르기만 합니다. 이때 출력은 여러 스레드에서 동시에 나오므로
+ * 하위 노드도 런타임에 연결되어 있어야 합니다. 런타임에 연결하지 않으면 모든 복제본이 송신 스레드에서 실행됩니다.
+ */
+@Slf4j
+public class PartitionedNode extends InOutNode {
+    /** 복제본을 고를 때 사용할 메타데이터 키 */
+    private final String partitionKey;
+    /** 복제본들 */
+    private final InOutNode[] replicas;
+    /** 복제본별 입력 파이프 */
+    private final Pipe[] routes;
+    /** 복제본의 출력을 이 노드의 출력으로 합치는 노드 */
+    private final Merge merge = new Merge();
+
+    /**
+     * 분할 노드를 생성합니다.
+     *
+     * @param partitionKey 복제본을 고를 때 사용할 메타데이터 키
+     * @param parallelism 복제본 수
+     * @param replicaFactory 복제본을 하나씩 만드는 팩토리 (호출마다 새 노드를 반환해야 함)
+     * @throws IllegalArgumentException 복제본 수가 1보다 작거나 팩토리가 같은 노드를 반환한 경우
+     */
+    public PartitionedNode(String partitionKey, int parallelism, Supplier<? extends InOutNode> replicaFactory) {
+        this(UUID.randomUUID(), partitionKey, parallelism, replicaFactory);
+    }
+
+    /**
+     * 분할 노드를 생성합니다.
+     *
+     * @param id 노드의 고유 식별자
+     * @param partitionKey 복제본을 고를 때 사용할 메타데이터 키
+     * @param parallelism 복제본 수
+     * @param replicaFactory 복제본을 하나씩 만드는 팩토리 (호출마다 새 노드를 반환해야 함)
+     * @throws IllegalArgumentException 복제본 수가 1보다 작거나 팩토리가 같은 노드를 반환한 경우
+     */
+    public PartitionedNode(UUID id, String partitionKey, int parallelism, Supplier<? extends InOutNode> replicaFactory) {
+        super(id);
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.partitionKey = partitionKey;
+        this.replicas = new InOutNode[parallelism];
+        this.routes = new Pipe[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            InOutNode replica = replicaFactory.get();
+            for (int j = 0; j < i; j++) {
+                if (replicas[j] == replica) {
+                    throw new IllegalArgumentException("replicaFactory returned the same node twice");
+                }
+            }
+            replicas[i] = replica;
+            // 분할 노드의 출력 통계에는 복제본이 내보낸 메시지만 세도록 주인 없는 파이프로 보냅니다.
+            Pipe route = new Pipe(id + "->" + replica.getId(), null);
+            Pipe replicaInput = new Pipe(route.getId(), replica);
+            route.connect(replicaInput);
+            replica.addInputPipe(replicaInput);
+            routes[i] = route;
+
+            Pipe output = new Pipe(replica.getId() + "->" + id, replica);
+            Pipe input = new Pipe(output.getId(), merge);
+            output.connect(input);
+            replica.addOutputPipe(output);
+            merge.addPipe(input);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        routes[partitionOf(message)].send(message);
+    }
+
+    /**
+     * 메시지를 처리할 복제본 번호를 반환합니다.
+     *
+     * @param message 메시지
+     * @return 복제본 번호
+     */
+    int partitionOf(Message message) {
+        Object key = partitionKey == null ? null : message.getMetadata().get(partitionKey);
+        if (key == null || replicas.length == 1) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        // 하위 비트만 다른 해시(작은 정수 등)도 고르게 나뉘도록 상위 비트를 섞습니다.
+        return Math.floorMod(hash ^ (hash >>> 16), replicas.length);
+    }
+
+    /**
+     * 출력 경로의 수요와 모든 복제본의 수요 중 가장 작은 값을 반환합니다.
+     * 다음 메시지가 어느 복제본으로 갈지 모르므로 가장 밀린 복제본에 맞춥니다.
+     *
+     * @return 수요, 제한이 없으면 Long.MAX_VALUE
+     */
+    @Override
+    public long demand() {
+        long min = super.demand();
+        for (InOutNode replica : replicas) {
+            min = Math.min(min, replica.demand());
+        }
+        return min;
+    }
+
+    @Override
+    public void start() {
+        merge.start();
+        for (InOutNode replica : replicas) {
+            replica.start();
+        }
+        super.start();
+        log.info("PartitionedNode[{}] started - replicas: {}, partition key: {}", getId(), replicas.length, partitionKey);
+    }
+
+    /**
+     * 에러 리스너를 설정합니다. 복제본의 에러도 이 노드에서 발생한 에러로 통보합니다.
+     *
+     * @param errorListener 에러 리스너, null이면 통보하지 않음
+     */
+    @Override
+    public void setErrorListener(NodeErrorListener errorListener) {
+        super.setErrorListener(errorListener);
+        NodeErrorListener forwarding = errorListener == null ? null : (replica, error) -> errorListener.onError(this, error);
+        for (InOutNode replica : replicas) {
+            replica.setErrorListener(forwarding);
+        }
+    }
+
+    /**
+     * 노드를 중지합니다. 복제본마다 우편함에 쌓인 메시지를 모두 처리할 때까지 기다리며,
+     * 전체 대기 시간은 timeout을 넘지 않습니다.
+     *
+     * @param timeout 최대 대기 시간
+     * @param unit 대기 시간 단위
+     * @return 제한 시간 안에 모든 메시지를 처리했으면 true
+     */
+    @Override
+    public boolean stop(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean drained = super.stop(timeout, unit);
+        for (InOutNode replica : replicas) {
+            drained &= replica.stop(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+        drained &= merge.stop(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        return drained;
+    }
+
+    /**
+     * 복제본들을 반환합니다. 복제본별 통계를 볼 때 사용합니다.
+     *
+     * @return 복제본 목록
+     */
+    public List<InOutNode> getReplicas() {
+        return List.of(replicas);
+    }
+
+    /**
+     * 복제본을 고를 때 사용하는 메타데이터 키를 반환합니다.
+     *
+     * @return 분할 키
+     */
+    public String getPartitionKey() {
+        return partitionKey;
+    }
+
+    /**
+     * 복제본의 출력을 받아 분할 노드의 출력 파이프로 내보냅니다. 복제본의 스레드에서 그대로 실행됩니다.
+     */
+    private final class Merge extends InNode {
+        @Override
+        public void onMessage(Message message) {
+            emit(message);
+        }
+    }
+}
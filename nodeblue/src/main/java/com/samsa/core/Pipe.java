@@ -1,10 +1,20 @@
 package com.samsa.core;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.samsa.metrics.PipeMetricsSnapshot;
+
 /**
  * 노드 간의 연결을 담당하는 파이프 클래스입니다.
  * 메시지를 한 노드에서 다른 노드로 전달하는 역할을 합니다.
  */
 public class Pipe {
+    /** 대상 노드의 수요를 다시 계산하기 전까지 캐시한 값을 쓰는 시간 */
+    private static final long DEMAND_CACHE_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
     /** 파이프의 고유 식별자 */
     private final String id;
     
@@ -12,7 +22,17 @@ public class Pipe {
     private final Node node;
     
     /** 이 파이프와 연결된 대상 파이프 */
-    private Pipe connectedPipe;
+    private volatile Pipe connectedPipe;
+
+    /** 대상 노드에 전달한 메시지 수 */
+    private final LongAdder delivered = new LongAdder();
+
+    /** 마지막으로 계산한 대상 노드의 수요 */
+    private volatile long cachedDemand = Long.MAX_VALUE;
+    /** cachedDemand를 계산한 시각, 아직 계산하지 않았으면 0 */
+    private volatile long demandComputedAt;
+    /** 대상 노드의 수요를 계산 중인 스레드 */
+    private final AtomicReference<Thread> demandOwner = new AtomicReference<>();
 
     /**
      * 새로운 파이프를 생성합니다.
@@ -52,6 +72,15 @@ public class Pipe {
         this.connectedPipe = pipe;
     }
 
+    /**
+     * 이 파이프와 연결된 대상 파이프를 반환합니다.
+     *
+     * @return 대상 파이프, 연결되어 있지 않으면 null
+     */
+    public Pipe getConnectedPipe() {
+        return connectedPipe;
+    }
+
     /**
      * 현재 연결된 파이프와의 연결을 해제합니다.
      */
@@ -68,6 +97,61 @@ public class Pipe {
         return connectedPipe != null;
     }
 
+    /**
+     * 이 파이프가 지금 더 받아들일 수 있는 메시지 수(수요)를 반환합니다.
+     * 동기 파이프는 자체 버퍼가 없으므로 대상 노드의 수요를 전달합니다.
+     *
+     * <p>대상 노드의 수요는 하위 경로 전체를 따라 계산되므로, 메시지마다 다시 계산하지 않고 짧은 시간(50µs) 동안 캐시합니다.
+     * 여러 경로가 같은 노드로 모이는 흐름에서도 캐시 덕분에 각 노드는 한 번만 계산됩니다. 수요는 송신을 늦추기 위한 신호이므로
+     * 그동안의 오차는 우편함이 흡수합니다. 계산 중인 파이프로 되돌아오는 순환 경로는 제한 없음으로 보고 멈춥니다.
+     *
+     * @return 수요, 제한이 없으면 Long.MAX_VALUE
+     */
+    public long demand() {
+        Pipe target = connectedPipe;
+        if (target == null) {
+            return Long.MAX_VALUE;
+        }
+        long now = System.nanoTime();
+        long computedAt = demandComputedAt;
+        if (computedAt != 0 && now - computedAt < DEMAND_CACHE_NANOS) {
+            return cachedDemand;
+        }
+        Thread current = Thread.currentThread();
+        if (!demandOwner.compareAndSet(null, current)) {
+            // 같은 스레드이면 순환 경로이고, 다른 스레드이면 그 계산이 끝날 때까지 이전 값을 씁니다.
+            return demandOwner.get() == current ? Long.MAX_VALUE : cachedDemand;
+        }
+        try {
+            long demand = target.getNode().demand();
+            cachedDemand = demand;
+            // 하위 경로를 계산하는 데 걸린 시간만큼 캐시가 짧아지지 않도록 계산이 끝난 시각을 기록합니다.
+            long computed = System.nanoTime();
+            demandComputedAt = computed == 0 ? 1 : computed;
+            return demand;
+        } finally {
+            demandOwner.set(null);
+        }
+    }
+
+    /**
+     * 여러 출력 파이프 중 가장 작은 수요를 반환합니다.
+     * 출력이 여러 개인 노드는 가장 느린 하위 경로에 맞춰 전송해야 합니다.
+     *
+     * @param pipes 출력 파이프 목록
+     * @return 연결된 파이프들의 최소 수요, 연결된 파이프가 없으면 Long.MAX_VALUE
+     */
+    static long minDemand(List<Pipe> pipes) {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < pipes.size(); i++) {
+            Pipe pipe = pipes.get(i);
+            if (pipe.isConnected()) {
+                min = Math.min(min, pipe.demand());
+            }
+        }
+        return min;
+    }
+
     /**
      * 메시지를 연결된 파이프를 통해 다음 노드로 전송합니다.
      * 파이프가 연결되어 있지 않으면 메시지는 전송되지 않습니다.
@@ -75,8 +159,87 @@ public class Pipe {
      * @param message 전송할 메시지
      */
     public void send(Message message) {
-        if (isConnected()) {
-            connectedPipe.getNode().onMessage(message);
+        deliver(message);
+    }
+
+    /**
+     * 연결된 대상 노드에 메시지를 전달합니다.
+     * 대상 노드가 런타임에 연결되어 있으면 우편함에 넣고, 아니면 현재 스레드에서 onMessage를 호출합니다.
+     * 하위 클래스는 버퍼링 후 이 메서드를 통해 실제 전달을 수행합니다.
+     *
+     * @param message 전달할 메시지
+     * @return 대상에 전달했으면 true, 연결되어 있지 않으면 false
+     */
+    protected boolean deliver(Message message) {
+        return deliver(message, null);
+    }
+
+    /**
+     * 연결된 대상 노드에 메시지를 전달하고, 대상 노드가 메시지 처리를 마치면 onProcessed를 실행합니다.
+     * 우편함이 있는 노드는 우편함을 비우는 스레드에서, 아니면 이 메서드를 호출한 스레드에서 실행되며,
+     * onMessage가 예외를 던져도 실행됩니다. 전달하지 못한 경우에는 실행되지 않습니다.
+     *
+     * @param message 전달할 메시지
+     * @param onProcessed 처리가 끝난 뒤 실행할 콜백, 없으면 null
+     * @return 대상에 전달했으면 true, 연결되어 있지 않으면 false
+     */
+    protected boolean deliver(Message message, Runnable onProcessed) {
+        Pipe target = connectedPipe;
+        if (target == null) {
+            return false;
+        }
+        delivered.increment();
+        if (node != null) {
+            node.getMetrics().recordEmitted();
         }
+        target.getNode().receive(message, onProcessed);
+        return true;
+    }
+
+    /**
+     * 대상 노드에 전달한 메시지 수를 반환합니다.
+     *
+     * @return 전달한 메시지 수
+     */
+    public long getDeliveredCount() {
+        return delivered.sum();
+    }
+
+    /**
+     * 버퍼에 대기 중인 메시지 수를 반환합니다. 동기 파이프는 버퍼가 없으므로 항상 0입니다.
+     *
+     * @return 대기 중인 메시지 수
+     */
+    public int getQueueSize() {
+        return 0;
+    }
+
+    /**
+     * 버퍼 용량을 반환합니다. 동기 파이프는 버퍼가 없으므로 0입니다.
+     *
+     * @return 버퍼 용량
+     */
+    public int getCapacity() {
+        return 0;
+    }
+
+    /**
+     * 버퍼가 가득 차서 버려진 메시지 수를 반환합니다. 동기 파이프는 메시지를 버리지 않으므로 0입니다.
+     *
+     * @return 버려진 메시지 수
+     */
+    public long getDroppedCount() {
+        return 0;
+    }
+
+    /**
+     * 파이프의 현재 통계를 스냅샷으로 만듭니다.
+     *
+     * @return 통계 스냅샷
+     */
+    public PipeMetricsSnapshot getMetricsSnapshot() {
+        Pipe target = connectedPipe;
+        return new PipeMetricsSnapshot(id, node == null ? null : node.getId(), target == null ? null : target.getNode().getId(),
+                getDeliveredCount(), getQueueSize(), getCapacity(), getDroppedCount());
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.samsa.core;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * {@link RemotePipe}와 {@link RemoteInlet} 사이의 프레임 형식입니다.
+ *
+ * <p>모든 프레임은 {@code [길이 int][종류 byte][본문]}이며, 길이는 종류와 본문을 합한 바이트 수입니다.
+ * <ul>
+ *   <li>HELLO (송신 → 수신): {@code [MAGIC int][VERSION byte][파이프 ID UTF-8]} - 연결 직후 한 번 보냅니다.</li>
+ *   <li>MESSAGE (송신 → 수신): {@link MessageCodec#stream()} 코덱으로 인코딩한 메시지 하나. 키 표는 연결마다 새로 시작합니다.</li>
+ *   <li>CREDIT (수신 → 송신): {@code [메시지 수 int]} - 송신 측이 더 보낼 수 있는 메시지 수를 늘립니다.</li>
+ * </ul>
+ */
+final class RemoteFrames {
+    /** 프로토콜 식별자 ("NBRP") */
+    static final int MAGIC = 0x4E425250;
+    static final byte VERSION = 2;
+
+    static final byte HELLO = 1;
+    static final byte MESSAGE = 2;
+    static final byte CREDIT = 3;
+
+    /** 길이와 종류 필드 크기 */
+    static final int HEADER_SIZE = 5;
+    /** CREDIT 프레임 전체 크기 */
+    static final int CREDIT_FRAME_SIZE = HEADER_SIZE + 4;
+    /** 허용하는 최대 프레임 크기 */
+    static final int MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+    private RemoteFrames() {
+    }
+
+    /**
+     * 버퍼의 남은 바이트를 모두 씁니다.
+     */
+    static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * 버퍼가 가득 찰 때까지 읽습니다.
+     *
+     * @throws EOFException 그 전에 연결이 닫힌 경우
+     */
+    static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("Connection closed by peer");
+            }
+        }
+    }
+
+    /**
+     * 프레임 길이 필드를 검증합니다.
+     *
+     * @throws IOException 길이가 올바르지 않은 경우
+     */
+    static int checkLength(int length) throws IOException {
+        if (length < 1 || length > MAX_FRAME_SIZE) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        return length;
+    }
+}
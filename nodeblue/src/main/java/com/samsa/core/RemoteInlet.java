@@ -0,0 +1,286 @@
+package com.samsa.core;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link RemotePipe}가 보낸 메시지를 TCP로 받아 이 프로세스의 대상 노드로 전달하는 수신 측 파이프입니다.
+ * 다른 파이프처럼 대상 노드의 입력 파이프에 {@link #connect(Pipe)}로 연결하며, 소스 노드는 없습니다.
+ *
+ * <p>연결마다 전용 스레드가 프레임을 다이렉트 버퍼로 읽고, 버퍼 안에서 바로 메시지를 디코딩합니다.
+ * 연결 직후 윈도 크기만큼의 크레딧을 보내고, 메시지를 대상 노드에 전달할 때마다 크레딧을 돌려줍니다.
+ * 대상 노드에 수요가 없으면 전달을 미루므로 크레딧도 돌아가지 않아 송신 측이 멈춥니다.
+ *
+ * <p>여러 송신 측이 동시에 연결할 수 있으며, 대상 노드에는 한 번에 하나의 메시지만 전달합니다. 순서는 연결 안에서만 유지됩니다.
+ */
+@Slf4j
+public class RemoteInlet extends Pipe {
+    /** 연결당 기본 크레딧 윈도 (메시지 수) */
+    public static final int DEFAULT_WINDOW = 1024;
+
+    /** 연결별 읽기 버퍼의 기본 크기 */
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    /** 대상 노드의 수요를 다시 확인하는 최소 간격과 최대 간격 */
+    private static final long DEMAND_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long MAX_DEMAND_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final InetSocketAddress bindAddress;
+    /** 연결당 크레딧 윈도 */
+    private final int window;
+    /** 대상 노드에 한 번에 하나씩 전달하기 위한 잠금 */
+    private final Object deliverLock = new Object();
+    /** 열린 연결 */
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+
+    private volatile ServerSocketChannel server;
+    private volatile Thread acceptor;
+    private volatile boolean closed;
+
+    /**
+     * 모든 인터페이스의 지정된 포트에서 기본 윈도로 받는 수신 측을 생성합니다.
+     *
+     * @param id 파이프의 고유 식별자
+     * @param port 수신 포트, 0이면 사용 가능한 포트를 고름
+     */
+    public RemoteInlet(String id, int port) {
+        this(id, new InetSocketAddress(port), DEFAULT_WINDOW);
+    }
+
+    /**
+     * 수신 측을 생성합니다.
+     *
+     * @param id 파이프의 고유 식별자
+     * @param bindAddress 수신 주소
+     * @param window 연결당 크레딧 윈도 (메시지 수)
+     */
+    public RemoteInlet(String id, InetSocketAddress bindAddress, int window) {
+        super(id, null);
+        if (window < 2) {
+            throw new IllegalArgumentException("window must be at least 2: " + window);
+        }
+        this.bindAddress = bindAddress;
+        this.window = window;
+    }
+
+    /**
+     * 수신 포트를 열고 연결을 받기 시작합니다. 이미 시작된 경우 아무 동작도 하지 않습니다.
+     *
+     * @throws IOException 포트를 열 수 없는 경우
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        ServerSocketChannel opened = ServerSocketChannel.open();
+        opened.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        opened.bind(bindAddress);
+        server = opened;
+        Thread thread = new Thread(this::acceptLoop, "remote-inlet-" + getId());
+        thread.setDaemon(true);
+        acceptor = thread;
+        thread.start();
+        log.info("RemoteInlet[{}] listening on {} - window: {}", getId(), opened.getLocalAddress(), window);
+    }
+
+    /**
+     * 실제 수신 포트를 반환합니다.
+     *
+     * @return 포트, 시작하지 않았으면 -1
+     */
+    public int getPort() {
+        ServerSocketChannel current = server;
+        return current == null ? -1 : current.socket().getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            SocketChannel accepted;
+            try {
+                accepted = server.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                log.warn("RemoteInlet[{}] accept failed: {}", getId(), e.getMessage());
+                continue;
+            }
+            connections.add(accepted);
+            Thread reader = new Thread(() -> readLoop(accepted), "remote-inlet-" + getId() + "-" + connections.size());
+            reader.setDaemon(true);
+            reader.start();
+        }
+    }
+
+    private void readLoop(SocketChannel channel) {
+        String peer = "unknown";
+        try {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            peer = String.valueOf(channel.getRemoteAddress());
+            ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES);
+            ByteBuffer credit = ByteBuffer.allocateDirect(RemoteFrames.CREDIT_FRAME_SIZE);
+            MessageCodec codec = MessageCodec.stream();
+            String sender = readHello(channel, buffer);
+            log.info("RemoteInlet[{}] accepted RemotePipe[{}] from {}", getId(), sender, peer);
+            grant(channel, credit, window);
+
+            int consumed = 0;
+            while (!closed) {
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+                buffer.flip();
+                while (buffer.remaining() >= RemoteFrames.HEADER_SIZE) {
+                    int length = RemoteFrames.checkLength(buffer.getInt(buffer.position()));
+                    if (buffer.remaining() < 4 + length) {
+                        break;
+                    }
+                    buffer.getInt();
+                    byte type = buffer.get();
+                    if (type != RemoteFrames.MESSAGE) {
+                        throw new IOException("Unexpected frame type: " + type);
+                    }
+                    int end = buffer.position() + length - 1;
+                    int limit = buffer.limit();
+                    buffer.limit(end);
+                    Message message = codec.decode(buffer);
+                    buffer.limit(limit).position(end);
+                    dispatch(message);
+                    if (++consumed >= window / 2) {
+                        grant(channel, credit, consumed);
+                        consumed = 0;
+                    }
+                }
+                buffer = prepareForRead(buffer);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            if (!closed) {
+                log.warn("RemoteInlet[{}] connection from {} failed: {}", getId(), peer, e.getMessage());
+            }
+        } finally {
+            connections.remove(channel);
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // 이미 끊긴 연결
+            }
+            log.info("RemoteInlet[{}] connection from {} closed", getId(), peer);
+        }
+    }
+
+    /**
+     * 처리하지 않은 바이트를 버퍼 앞으로 옮깁니다. 다음 프레임이 버퍼보다 크면 그 크기의 버퍼로 바꿉니다.
+     */
+    private static ByteBuffer prepareForRead(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() >= 4) {
+            int frameSize = 4 + RemoteFrames.checkLength(buffer.getInt(buffer.position()));
+            if (frameSize > buffer.capacity()) {
+                ByteBuffer larger = ByteBuffer.allocateDirect(frameSize);
+                larger.put(buffer);
+                return larger;
+            }
+        }
+        buffer.compact();
+        return buffer;
+    }
+
+    private String readHello(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.clear().limit(RemoteFrames.HEADER_SIZE);
+        RemoteFrames.readFully(channel, buffer);
+        buffer.flip();
+        int length = RemoteFrames.checkLength(buffer.getInt());
+        byte type = buffer.get();
+        if (type != RemoteFrames.HELLO || length < 6 || length > buffer.capacity()) {
+            throw new IOException("Expected HELLO frame but got type " + type);
+        }
+        buffer.clear().limit(length - 1);
+        RemoteFrames.readFully(channel, buffer);
+        buffer.flip();
+        if (buffer.getInt() != RemoteFrames.MAGIC) {
+            throw new IOException("Not a RemotePipe connection");
+        }
+        byte version = buffer.get();
+        if (version != RemoteFrames.VERSION) {
+            throw new IOException("Unsupported protocol version: " + version);
+        }
+        String sender = StandardCharsets.UTF_8.decode(buffer).toString();
+        buffer.clear();
+        return sender;
+    }
+
+    private static void grant(SocketChannel channel, ByteBuffer credit, int count) throws IOException {
+        credit.clear();
+        credit.putInt(5).put(RemoteFrames.CREDIT).putInt(count).flip();
+        RemoteFrames.writeFully(channel, credit);
+    }
+
+    /**
+     * 대상 노드에 수요가 생길 때까지 기다린 뒤 메시지를 전달합니다.
+     */
+    private void dispatch(Message message) {
+        long backoff = DEMAND_PARK_NANOS;
+        while (!closed && super.demand() <= 0) {
+            LockSupport.parkNanos(this, backoff);
+            backoff = Math.min(backoff << 1, MAX_DEMAND_PARK_NANOS);
+        }
+        synchronized (deliverLock) {
+            try {
+                deliver(message);
+            } catch (Exception e) {
+                log.error("RemoteInlet[{}] delivery failed: {}", getId(), e.getMessage());
+                Pipe target = getConnectedPipe();
+                if (target != null) {
+                    target.getNode().handleError(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 수신 포트와 모든 연결을 닫습니다. 읽는 중이던 메시지는 전달되지 않을 수 있으며, 송신 측은 다시 연결을 시도합니다.
+     *
+     * @throws InterruptedException 종료를 기다리는 중 인터럽트된 경우
+     */
+    public void close() throws InterruptedException {
+        closed = true;
+        ServerSocketChannel current = server;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                log.debug("RemoteInlet[{}] close failed: {}", getId(), e.getMessage());
+            }
+        }
+        for (SocketChannel connection : connections) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                // 이미 끊긴 연결
+            }
+        }
+        Thread thread = acceptor;
+        if (thread != null) {
+            thread.join();
+        }
+        log.info("RemoteInlet[{}] closed - delivered: {}", getId(), getDeliveredCount());
+    }
+
+    /**
+     * 열린 연결 수를 반환합니다.
+     *
+     * @return 연결 수
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+}
@@ -0,0 +1,506 @@
+package com.samsa.core;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 메시지를 TCP로 다른 프로세스의 {@link RemoteInlet}에 보내는 파이프입니다. 파이프라인을 여러 프로세스나 호스트로 나눌 때 사용합니다.
+ *
+ * <p>송신 측은 메시지를 링 버퍼에 넣고 즉시 반환하며, 전용 송신 스레드가 메시지를 길이 접두 프레임으로 인코딩해
+ * 다이렉트 버퍼에 모았다가 한 번의 write로 보냅니다. 하나의 지속 연결만 사용하므로 메시지 순서가 유지됩니다.
+ *
+ * <p>흐름 제어는 크레딧 방식입니다. 수신 측은 연결 시 보낼 수 있는 메시지 수(윈도)를 알려 주고, 메시지를 대상 노드에 전달할 때마다
+ * 크레딧을 돌려줍니다. 크레딧이 없으면 송신 스레드는 보내지 않고 기다리며, {@link #demand()}도 남은 크레딧을 반영하므로
+ * 원격 하위 노드의 포화 상태가 이 파이프의 상위 노드까지 전달됩니다.
+ *
+ * <p>연결이 끊기면 점점 긴 간격으로 다시 연결합니다. 그동안 메시지는 버퍼에 쌓이며, 버퍼가 가득 찼을 때의 동작은 {@link OverflowPolicy}로 지정합니다.
+ * 연결이 끊길 때 이미 보냈지만 수신 측이 받지 못한 메시지는 잃을 수 있습니다(at-most-once).
+ */
+@Slf4j
+public class RemotePipe extends Pipe {
+    /** 기본 버퍼 용량 */
+    public static final int DEFAULT_CAPACITY = 1024;
+    /** 한 번에 쓰는 프레임 묶음의 기본 크기 */
+    public static final int DEFAULT_BATCH_BYTES = 64 * 1024;
+    /** 연결을 기다리는 기본 최대 시간 (밀리초) */
+    public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 3000;
+
+    /** 송신 스레드가 대기 상태로 들어가기 전 바쁜 대기 횟수 */
+    private static final int SPIN_LIMIT = 100;
+    /** 대기 중 깨어나 버퍼를 다시 확인하는 최대 간격 */
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    /** BLOCK 정책에서 생산자가 빈 공간을 다시 확인하는 간격 */
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    /** 재연결 간격의 최소값과 최대값 */
+    private static final long MIN_RECONNECT_MILLIS = 100;
+    private static final long MAX_RECONNECT_MILLIS = 5000;
+    /** close()가 남은 메시지를 보내기 위해 기다리는 최대 시간 */
+    private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final InetSocketAddress address;
+    /** 메시지 버퍼 */
+    private final RingBuffer<Message> buffer;
+    /** 버퍼가 가득 찼을 때의 처리 정책 */
+    private final OverflowPolicy overflowPolicy;
+    /** 프레임을 모아 한 번에 쓰는 버퍼 (송신 스레드 전용) */
+    private final ByteBuffer batch;
+    /** 묶음 버퍼보다 큰 프레임의 헤더 버퍼 (송신 스레드 전용) */
+    private final ByteBuffer header = ByteBuffer.allocateDirect(RemoteFrames.HEADER_SIZE);
+    /** 메시지 인코더, 연결마다 키 표를 새로 시작합니다 (송신 스레드 전용) */
+    private final MessageCodec codec = MessageCodec.stream();
+    /** 이전 묶음에 들어가지 못해 다음에 보낼 메시지 (송신 스레드 전용) */
+    private Message carried;
+
+    /** 수신 측이 허락한 남은 메시지 수 */
+    private final AtomicLong credits = new AtomicLong();
+    /** 보낸 메시지 수 */
+    private final LongAdder sent = new LongAdder();
+    /** 버려진 메시지 수 */
+    private final LongAdder dropped = new LongAdder();
+
+    /** 송신 스레드 시작 여부 */
+    private final AtomicBoolean started = new AtomicBoolean();
+    /** 종료 요청 여부 */
+    private volatile boolean closed;
+    /** 송신 스레드가 대기 중인지 여부 */
+    private volatile boolean writerWaiting;
+    /** 송신 스레드 */
+    private volatile Thread writer;
+    /** 현재 연결, 연결되어 있지 않으면 null */
+    private volatile SocketChannel channel;
+    /** 연결을 기다리는 최대 시간 (밀리초) */
+    private volatile int connectTimeoutMillis = DEFAULT_CONNECT_TIMEOUT_MILLIS;
+
+    /**
+     * 기본 용량과 BLOCK 정책으로 원격 파이프를 생성합니다.
+     *
+     * @param id 파이프의 고유 식별자
+     * @param node 이 파이프가 연결될 소스 노드
+     * @param host 수신 측 호스트
+     * @param port 수신 측 포트
+     */
+    public RemotePipe(String id, Node node, String host, int port) {
+        this(id, node, new InetSocketAddress(host, port), DEFAULT_CAPACITY, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * 원격 파이프를 생성합니다.
+     *
+     * @param id 파이프의 고유 식별자
+     * @param node 이 파이프가 연결될 소스 노드
+     * @param address 수신 측 주소
+     * @param capacity 버퍼 용량 (2의 거듭제곱으로 올림됩니다)
+     * @param overflowPolicy 버퍼가 가득 찼을 때의 처리 정책
+     */
+    public RemotePipe(String id, Node node, InetSocketAddress address, int capacity, OverflowPolicy overflowPolicy) {
+        super(id, node);
+        if (overflowPolicy == null) {
+            throw new NullPointerException("overflowPolicy");
+        }
+        this.address = address;
+        this.buffer = new RingBuffer<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.batch = ByteBuffer.allocateDirect(DEFAULT_BATCH_BYTES);
+    }
+
+    /**
+     * 연결을 기다리는 최대 시간을 설정합니다. 응답하지 않는 호스트에 연결하는 동안 송신 스레드가
+     * 이 시간보다 오래 멈추지 않으며, 시간이 지나면 실패로 보고 다시 연결합니다.
+     *
+     * @param connectTimeoutMillis 최대 대기 시간 (밀리초, 기본값 {@value #DEFAULT_CONNECT_TIMEOUT_MILLIS})
+     */
+    public void setConnectTimeout(int connectTimeoutMillis) {
+        if (connectTimeoutMillis < 1) {
+            throw new IllegalArgumentException("connectTimeoutMillis must be positive: " + connectTimeoutMillis);
+        }
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    /**
+     * 송신 스레드를 시작합니다. 연결은 송신 스레드가 맺습니다. 이미 시작된 경우 아무 동작도 하지 않습니다.
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(this::writeLoop, "remote-pipe-" + getId());
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+        log.info("RemotePipe[{}] started - remote: {}, capacity: {}, policy: {}", getId(), address,
+                buffer.capacity(), overflowPolicy);
+    }
+
+    /**
+     * 메시지를 버퍼에 넣고 즉시 반환합니다. 닫힌 경우 메시지는 전송되지 않습니다.
+     *
+     * @param message 전송할 메시지
+     */
+    @Override
+    public void send(Message message) {
+        if (closed) {
+            return;
+        }
+        if (!started.get()) {
+            start();
+        }
+        if (!buffer.offer(message)) {
+            handleOverflow(message);
+        }
+        if (writerWaiting) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void handleOverflow(Message message) {
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                while (!buffer.offer(message)) {
+                    if (closed) {
+                        dropped.increment();
+                        return;
+                    }
+                    LockSupport.unpark(writer);
+                    LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!buffer.offer(message)) {
+                    if (buffer.poll() != null) {
+                        dropped.increment();
+                    }
+                }
+            }
+            case DROP_NEWEST -> dropped.increment();
+        }
+    }
+
+    private void writeLoop() {
+        long reconnectMillis = MIN_RECONNECT_MILLIS;
+        long closeDeadline = 0;
+        int idle = 0;
+        while (true) {
+            if (closed) {
+                if (closeDeadline == 0) {
+                    closeDeadline = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
+                }
+                if (buffer.isEmpty() && carried == null || System.nanoTime() - closeDeadline > 0) {
+                    break;
+                }
+            }
+            SocketChannel current = channel;
+            if (current == null) {
+                current = connect();
+                if (current == null) {
+                    LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(reconnectMillis));
+                    reconnectMillis = Math.min(reconnectMillis * 2, MAX_RECONNECT_MILLIS);
+                    continue;
+                }
+                reconnectMillis = MIN_RECONNECT_MILLIS;
+            }
+            int written;
+            try {
+                written = writeBatch(current);
+            } catch (IOException e) {
+                log.warn("RemotePipe[{}] connection to {} lost: {}", getId(), address, e.getMessage());
+                disconnect(current);
+                continue;
+            }
+            if (written > 0) {
+                idle = 0;
+                continue;
+            }
+            if (++idle < SPIN_LIMIT) {
+                Thread.onSpinWait();
+                continue;
+            }
+            writerWaiting = true;
+            if ((buffer.isEmpty() && carried == null || credits.get() <= 0) && !closed) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            writerWaiting = false;
+        }
+        disconnect(channel);
+        dropped.add(buffer.size() + (carried == null ? 0 : 1));
+    }
+
+    /**
+     * 크레딧과 묶음 크기가 허락하는 만큼 버퍼의 메시지를 프레임으로 모아 한 번에 씁니다.
+     * 묶음에 들어가지 않는 프레임은 다음 묶음으로 넘기며, 묶음 버퍼보다 큰 프레임은 따로 씁니다.
+     *
+     * @return 보낸 메시지 수
+     */
+    private int writeBatch(SocketChannel current) throws IOException {
+        batch.clear();
+        int count = 0;
+        while (credits.get() > 0) {
+            Message message = carried;
+            carried = null;
+            if (message == null) {
+                message = buffer.poll();
+                if (message == null) {
+                    break;
+                }
+            }
+            int start = batch.position();
+            if (batch.remaining() <= RemoteFrames.HEADER_SIZE) {
+                carried = message;
+                break;
+            }
+            try {
+                batch.position(start + RemoteFrames.HEADER_SIZE);
+                codec.encode(message, batch);
+            } catch (BufferOverflowException e) {
+                batch.position(start);
+                if (count > 0) {
+                    carried = message;
+                    break;
+                }
+                return writeLarge(current, message);
+            } catch (IllegalArgumentException e) {
+                batch.position(start);
+                dropMalformed(message, e);
+                continue;
+            }
+            batch.putInt(start, batch.position() - start - 4).put(start + 4, RemoteFrames.MESSAGE);
+            credits.decrementAndGet();
+            count++;
+        }
+        if (count > 0) {
+            batch.flip();
+            try {
+                RemoteFrames.writeFully(current, batch);
+            } catch (IOException e) {
+                // 일부가 이미 전송되었을 수 있으므로 다시 보내지 않고 버린 것으로 셉니다.
+                dropped.add(count);
+                throw e;
+            }
+            recordSent(count);
+        }
+        return count;
+    }
+
+    /**
+     * 묶음 버퍼보다 큰 메시지를 코덱의 버퍼에 인코딩하여 따로 씁니다.
+     *
+     * @return 보낸 메시지 수
+     */
+    private int writeLarge(SocketChannel current, Message message) throws IOException {
+        ByteBuffer body;
+        try {
+            body = codec.encode(message);
+        } catch (IllegalArgumentException e) {
+            dropMalformed(message, e);
+            return 0;
+        }
+        if (body.remaining() >= RemoteFrames.MAX_FRAME_SIZE) {
+            // 인코딩으로 키 표에 추가된 키가 있을 수 있으므로 연결을 다시 맺어 양쪽 키 표를 맞춥니다.
+            dropMalformed(message, new IllegalArgumentException("Message exceeds frame limit: " + body.remaining() + " bytes"));
+            throw new IOException("Discarded oversized message");
+        }
+        header.clear();
+        header.putInt(body.remaining() + 1).put(RemoteFrames.MESSAGE).flip();
+        try {
+            RemoteFrames.writeFully(current, header);
+            RemoteFrames.writeFully(current, body);
+        } catch (IOException e) {
+            dropped.increment();
+            throw e;
+        }
+        credits.decrementAndGet();
+        recordSent(1);
+        return 1;
+    }
+
+    private void dropMalformed(Message message, IllegalArgumentException e) {
+        dropped.increment();
+        log.error("RemotePipe[{}] dropped message {}: {}", getId(), message.getId(), e.getMessage());
+    }
+
+    private void recordSent(int count) {
+        sent.add(count);
+        Node owner = getNode();
+        if (owner != null) {
+            owner.getMetrics().recordEmitted(count);
+        }
+    }
+
+    /**
+     * 수신 측에 연결하고 HELLO 프레임을 보낸 뒤 크레딧을 읽는 스레드를 시작합니다.
+     *
+     * @return 연결된 채널, 실패하면 null
+     */
+    private SocketChannel connect() {
+        SocketChannel opened = null;
+        try {
+            opened = SocketChannel.open();
+            opened.socket().connect(address, connectTimeoutMillis);
+            opened.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            byte[] id = getId().getBytes(StandardCharsets.UTF_8);
+            ByteBuffer hello = ByteBuffer.allocate(RemoteFrames.HEADER_SIZE + 5 + id.length);
+            hello.putInt(1 + 5 + id.length).put(RemoteFrames.HELLO)
+                    .putInt(RemoteFrames.MAGIC).put(RemoteFrames.VERSION).put(id).flip();
+            RemoteFrames.writeFully(opened, hello);
+        } catch (IOException e) {
+            log.debug("RemotePipe[{}] cannot connect to {}: {}", getId(), address, e.getMessage());
+            closeQuietly(opened);
+            return null;
+        }
+        credits.set(0);
+        codec.reset();
+        channel = opened;
+        SocketChannel connected = opened;
+        Thread reader = new Thread(() -> readCredits(connected), "remote-pipe-" + getId() + "-credits");
+        reader.setDaemon(true);
+        reader.start();
+        log.info("RemotePipe[{}] connected to {}", getId(), address);
+        return opened;
+    }
+
+    /**
+     * 연결이 끊길 때까지 수신 측이 보낸 크레딧을 읽습니다.
+     */
+    private void readCredits(SocketChannel current) {
+        ByteBuffer frame = ByteBuffer.allocateDirect(RemoteFrames.CREDIT_FRAME_SIZE);
+        try {
+            while (true) {
+                frame.clear();
+                RemoteFrames.readFully(current, frame);
+                frame.flip();
+                int length = frame.getInt();
+                byte type = frame.get();
+                if (length != 5 || type != RemoteFrames.CREDIT) {
+                    throw new IOException("Unexpected frame type " + type + " with length " + length);
+                }
+                credits.addAndGet(frame.getInt());
+                Thread thread = writer;
+                if (writerWaiting && thread != null) {
+                    LockSupport.unpark(thread);
+                }
+            }
+        } catch (IOException e) {
+            if (channel == current && !closed) {
+                log.warn("RemotePipe[{}] connection to {} lost: {}", getId(), address, e.getMessage());
+            }
+            disconnect(current);
+        }
+    }
+
+    private void disconnect(SocketChannel current) {
+        if (current == null) {
+            return;
+        }
+        if (channel == current) {
+            channel = null;
+            credits.set(0);
+        }
+        closeQuietly(current);
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private static void closeQuietly(SocketChannel current) {
+        if (current == null) {
+            return;
+        }
+        try {
+            current.close();
+        } catch (IOException e) {
+            // 이미 끊긴 연결
+        }
+    }
+
+    /**
+     * 새 메시지 수신을 중단하고, 연결되어 있으면 버퍼에 남은 메시지를 최대 5초 동안 보낸 뒤 연결과 송신 스레드를 종료합니다.
+     * 보내지 못한 메시지는 버려진 메시지로 셉니다.
+     *
+     * @throws InterruptedException 종료를 기다리는 중 인터럽트된 경우
+     */
+    public void close() throws InterruptedException {
+        closed = true;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            thread.join();
+        }
+        log.info("RemotePipe[{}] closed - sent: {}, dropped: {}", getId(), sent.sum(), dropped.sum());
+    }
+
+    /**
+     * 닫히기 전까지는 원격 연결 여부와 관계없이 메시지를 받으므로 true를 반환합니다.
+     *
+     * @return 닫히지 않았으면 true
+     */
+    @Override
+    public boolean isConnected() {
+        return !closed;
+    }
+
+    /**
+     * 버퍼의 남은 공간과, 수신 측 크레딧에서 이미 버퍼에 쌓인 메시지를 뺀 값 중 작은 값을 반환합니다.
+     *
+     * @return 수요
+     */
+    @Override
+    public long demand() {
+        int queued = buffer.size();
+        return Math.max(0, Math.min(buffer.capacity() - queued, credits.get() - queued));
+    }
+
+    /**
+     * 원격 수신 측에 연결되어 있는지 확인합니다.
+     *
+     * @return 연결되어 있으면 true
+     */
+    public boolean isRemoteConnected() {
+        return channel != null;
+    }
+
+    /**
+     * 수신 측에 보낸 메시지 수를 반환합니다.
+     *
+     * @return 보낸 메시지 수
+     */
+    @Override
+    public long getDeliveredCount() {
+        return sent.sum();
+    }
+
+    @Override
+    public int getQueueSize() {
+        return buffer.size();
+    }
+
+    @Override
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 수신 측이 허락한 남은 메시지 수를 반환합니다.
+     *
+     * @return 남은 크레딧
+     */
+    public long getCredits() {
+        return credits.get();
+    }
+}
@@ -0,0 +1,125 @@
+package com.samsa.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 고정 크기의 락 프리(lock-free) 링 버퍼입니다.
+ * 여러 생산자와 여러 소비자가 동시에 사용할 수 있으며, 각 슬롯의 시퀀스 번호로 동기화합니다.
+ * 용량은 2의 거듭제곱으로 올림되어 인덱스 계산에 나머지 연산 대신 비트 마스크를 사용합니다.
+ *
+ * @param <E> 버퍼에 저장할 요소 타입
+ */
+public class RingBuffer<E> {
+    /** 요소를 저장하는 슬롯 배열 */
+    private final AtomicReferenceArray<E> slots;
+    /** 슬롯별 시퀀스 번호 */
+    private final AtomicLongArray sequences;
+    /** 인덱스 계산용 비트 마스크 */
+    private final int mask;
+    /** 다음에 쓸 위치 */
+    private final AtomicLong tail = new AtomicLong();
+    /** 다음에 읽을 위치 */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * 새로운 링 버퍼를 생성합니다.
+     *
+     * @param capacity 최소 용량 (2의 거듭제곱으로 올림됩니다)
+     * @throws IllegalArgumentException 용량이 1보다 작거나 2^30보다 큰 경우
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * 요소를 버퍼에 넣습니다.
+     *
+     * @param element 넣을 요소
+     * @return 버퍼가 가득 차서 넣지 못하면 false
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("element");
+        }
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long diff = sequences.get(index) - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 가장 오래된 요소를 꺼냅니다.
+     *
+     * @return 꺼낸 요소, 버퍼가 비어 있으면 null
+     */
+    public E poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) position & mask;
+            long diff = sequences.get(index) - (position + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    E element = slots.get(index);
+                    slots.lazySet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+            } else if (diff < 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 현재 버퍼에 들어 있는 요소의 수를 반환합니다.
+     * 동시 접근 중에는 근사값입니다.
+     *
+     * @return 요소 수
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    /**
+     * 버퍼가 비어 있는지 확인합니다.
+     *
+     * @return 비어 있으면 true
+     */
+    public boolean isEmpty() {
+        return tail.get() == head.get();
+    }
+
+    /**
+     * 버퍼의 실제 용량을 반환합니다.
+     *
+     * @return 용량
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
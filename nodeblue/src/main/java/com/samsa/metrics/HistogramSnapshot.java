@@ -0,0 +1,15 @@
+package com.samsa.metrics;
+
+/**
+ * {@link LatencyHistogram}의 특정 시점 요약입니다. 모든 값의 단위는 나노초입니다.
+ *
+ * @param count 기록 개수
+ * @param mean 평균
+ * @param p50 50번째 백분위수
+ * @param p90 90번째 백분위수
+ * @param p99 99번째 백분위수
+ * @param p999 99.9번째 백분위수
+ * @param max 최댓값
+ */
+public record HistogramSnapshot(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+}
@@ -0,0 +1,113 @@
+package com.samsa.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 나노초 단위 지연 시간을 기록하는 로그-선형(HDR 방식) 히스토그램입니다.
+ * 2의 거듭제곱 구간마다 {@value #SUB_BUCKETS}개의 균등 구간을 두어 상대 오차를 약 3% 이내로 유지합니다.
+ * 기록은 고정된 배열의 원자적 증가만으로 이루어지므로 객체를 할당하지 않으며, 여러 스레드에서 동시에 호출해도 됩니다.
+ * {@value #MAX_TRACKABLE_NANOS}ns(약 68초)를 넘는 값은 최댓값 구간에 기록됩니다.
+ */
+public final class LatencyHistogram {
+    /** 2의 거듭제곱 구간 하나를 나누는 하위 구간 수의 비트 수 */
+    private static final int SUB_BUCKET_BITS = 5;
+    /** 2의 거듭제곱 구간 하나를 나누는 하위 구간 수 */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** 구간을 구분하여 기록할 수 있는 최대 값 */
+    public static final long MAX_TRACKABLE_NANOS = (1L << 36) - 1;
+
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_NANOS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 지연 시간 하나를 기록합니다.
+     *
+     * @param nanos 지연 시간 (나노초, 음수는 0으로 기록)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(Math.min(value, MAX_TRACKABLE_NANOS)));
+        count.increment();
+        total.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    /**
+     * 값이 속하는 구간의 인덱스를 계산합니다.
+     */
+    static int indexOf(long value) {
+        int magnitude = 64 - Long.numberOfLeadingZeros(value | (SUB_BUCKETS - 1)) - SUB_BUCKET_BITS;
+        if (magnitude == 0) {
+            return (int) value;
+        }
+        return (magnitude << SUB_BUCKET_BITS) + (int) (value >>> (magnitude - 1)) - SUB_BUCKETS;
+    }
+
+    /**
+     * 구간에 속하는 가장 큰 값을 계산합니다.
+     */
+    static long highestValueAt(int index) {
+        int magnitude = index >>> SUB_BUCKET_BITS;
+        if (magnitude == 0) {
+            return index;
+        }
+        long lowest = (long) ((index & (SUB_BUCKETS - 1)) + SUB_BUCKETS) << (magnitude - 1);
+        return lowest + (1L << (magnitude - 1)) - 1;
+    }
+
+    /**
+     * 지금까지 기록된 값의 개수를 반환합니다.
+     *
+     * @return 기록 개수
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 현재까지의 분포를 요약한 스냅샷을 만듭니다. 기록과 동시에 호출되면 일부 최신 값이 빠질 수 있습니다.
+     *
+     * @return 스냅샷
+     */
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        long recorded = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+            recorded += copy[i];
+        }
+        long maxValue = max.get();
+        long sum = total.sum();
+        double mean = recorded == 0 ? 0 : (double) sum / count.sum();
+        return new HistogramSnapshot(recorded, mean,
+                valueAt(copy, recorded, 0.50, maxValue),
+                valueAt(copy, recorded, 0.90, maxValue),
+                valueAt(copy, recorded, 0.99, maxValue),
+                valueAt(copy, recorded, 0.999, maxValue),
+                maxValue);
+    }
+
+    private static long valueAt(long[] counts, long recorded, double quantile, long maxValue) {
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * recorded));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+}
@@ -0,0 +1,217 @@
+package com.samsa.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Objects;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import com.samsa.core.Node;
+import com.samsa.core.Pipe;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 노드와 파이프의 통계를 플랫폼 MBean 서버에 등록합니다.
+ * 객체 이름은 {@code com.samsa.nodeblue:type=Node|Pipe,pipeline=<파이프라인 ID>,name=<노드 또는 파이프 ID>} 형식입니다.
+ * 값은 JMX 클라이언트가 조회할 때마다 계산되므로 등록 자체는 메시지 처리에 비용을 더하지 않습니다.
+ */
+@Slf4j
+public final class MetricsJmx {
+    /** MBean 객체 이름의 도메인 */
+    public static final String DOMAIN = "com.samsa.nodeblue";
+
+    private MetricsJmx() {
+    }
+
+    /**
+     * 노드의 통계 MBean을 등록합니다. 같은 이름이 이미 등록되어 있으면 교체합니다.
+     *
+     * @param pipelineId 노드가 속한 파이프라인 ID
+     * @param node 노드
+     */
+    public static void register(String pipelineId, Node node) {
+        register(name("Node", pipelineId, node.getId().toString()), new NodeBean(node));
+    }
+
+    /**
+     * 파이프의 통계 MBean을 등록합니다. 같은 이름이 이미 등록되어 있으면 교체합니다.
+     *
+     * @param pipelineId 파이프가 속한 파이프라인 ID
+     * @param pipe 파이프
+     */
+    public static void register(String pipelineId, Pipe pipe) {
+        register(name("Pipe", pipelineId, pipe.getId()), new PipeBean(pipe));
+    }
+
+    /**
+     * 파이프라인에 속한 모든 통계 MBean의 등록을 해제합니다.
+     *
+     * @param pipelineId 파이프라인 ID
+     */
+    public static void unregisterAll(String pipelineId) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName pattern = new ObjectName(DOMAIN + ":pipeline=" + ObjectName.quote(pipelineId) + ",*");
+            for (ObjectName name : server.queryNames(pattern, null)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            log.warn("Failed to unregister metrics of Pipeline[{}]: {}", pipelineId, e.getMessage());
+        }
+    }
+
+    private static ObjectName name(String type, String pipelineId, String id) {
+        try {
+            return new ObjectName(DOMAIN + ":type=" + type + ",pipeline=" + ObjectName.quote(pipelineId)
+                    + ",name=" + ObjectName.quote(id));
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static void register(ObjectName name, Object bean) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(bean, name);
+        } catch (JMException e) {
+            log.warn("Failed to register metrics MBean {}: {}", name, e.getMessage());
+        }
+    }
+
+    private static final class NodeBean implements NodeMetricsMXBean {
+        private final Node node;
+
+        NodeBean(Node node) {
+            this.node = node;
+        }
+
+        private HistogramSnapshot latency() {
+            return node.getMetrics().getLatency().snapshot();
+        }
+
+        @Override
+        public String getNodeId() {
+            return node.getId().toString();
+        }
+
+        @Override
+        public String getType() {
+            return node.getClass().getSimpleName();
+        }
+
+        @Override
+        public String getStatus() {
+            return node.getStatus().name();
+        }
+
+        @Override
+        public long getReceived() {
+            return node.getMetrics().getReceived();
+        }
+
+        @Override
+        public long getEmitted() {
+            return node.getMetrics().getEmitted();
+        }
+
+        @Override
+        public long getErrors() {
+            return node.getMetrics().getErrors();
+        }
+
+        @Override
+        public long getInFlight() {
+            return node.getInFlightCount();
+        }
+
+        @Override
+        public int getQueueDepth() {
+            return node.getMailbox() == null ? 0 : node.getMailbox().size();
+        }
+
+        @Override
+        public long getLatencyCount() {
+            return node.getMetrics().getLatency().getCount();
+        }
+
+        @Override
+        public double getLatencyMeanNanos() {
+            return latency().mean();
+        }
+
+        @Override
+        public long getLatencyP50Nanos() {
+            return latency().p50();
+        }
+
+        @Override
+        public long getLatencyP90Nanos() {
+            return latency().p90();
+        }
+
+        @Override
+        public long getLatencyP99Nanos() {
+            return latency().p99();
+        }
+
+        @Override
+        public long getLatencyP999Nanos() {
+            return latency().p999();
+        }
+
+        @Override
+        public long getLatencyMaxNanos() {
+            return latency().max();
+        }
+    }
+
+    private static final class PipeBean implements PipeMetricsMXBean {
+        private final Pipe pipe;
+
+        PipeBean(Pipe pipe) {
+            this.pipe = pipe;
+        }
+
+        @Override
+        public String getPipeId() {
+            return pipe.getId();
+        }
+
+        @Override
+        public String getSourceNodeId() {
+            return pipe.getNode() == null ? null : pipe.getNode().getId().toString();
+        }
+
+        @Override
+        public String getTargetNodeId() {
+            Pipe target = pipe.getConnectedPipe();
+            return target == null ? null : Objects.toString(target.getNode().getId());
+        }
+
+        @Override
+        public long getDelivered() {
+            return pipe.getDeliveredCount();
+        }
+
+        @Override
+        public int getQueueDepth() {
+            return pipe.getQueueSize();
+        }
+
+        @Override
+        public int getCapacity() {
+            return pipe.getCapacity();
+        }
+
+        @Override
+        public long getDropped() {
+            return pipe.getDroppedCount();
+        }
+    }
+}
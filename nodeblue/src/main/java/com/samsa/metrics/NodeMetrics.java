@@ -0,0 +1,88 @@
+package com.samsa.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 노드 하나의 처리 통계입니다. 모든 카운터는 {@link LongAdder}이므로 여러 스레드에서 경합 없이 기록할 수 있습니다.
+ */
+public final class NodeMetrics {
+    private final LongAdder received = new LongAdder();
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    /**
+     * 노드가 메시지를 받았음을 기록합니다.
+     */
+    public void recordReceived() {
+        received.increment();
+    }
+
+    /**
+     * 노드가 출력 파이프로 메시지를 전달했음을 기록합니다.
+     */
+    public void recordEmitted() {
+        emitted.increment();
+    }
+
+    /**
+     * 노드가 출력 파이프로 메시지 여러 개를 한꺼번에 전달했음을 기록합니다.
+     *
+     * @param count 전달한 메시지 수
+     */
+    public void recordEmitted(long count) {
+        emitted.add(count);
+    }
+
+    /**
+     * 노드에서 에러가 발생했음을 기록합니다.
+     */
+    public void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * 메시지 하나의 처리 시간을 기록합니다.
+     *
+     * @param nanos 처리 시간 (나노초)
+     */
+    public void recordLatency(long nanos) {
+        latency.record(nanos);
+    }
+
+    /**
+     * 받은 메시지 수를 반환합니다.
+     *
+     * @return 받은 메시지 수
+     */
+    public long getReceived() {
+        return received.sum();
+    }
+
+    /**
+     * 출력 파이프로 전달한 메시지 수를 반환합니다. 여러 출력으로 보낸 메시지는 파이프마다 계산됩니다.
+     *
+     * @return 전달한 메시지 수
+     */
+    public long getEmitted() {
+        return emitted.sum();
+    }
+
+    /**
+     * 발생한 에러 수를 반환합니다.
+     *
+     * @return 에러 수
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * 메시지 처리 시간 히스토그램을 반환합니다.
+     *
+     * @return 처리 시간 히스토그램
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+}
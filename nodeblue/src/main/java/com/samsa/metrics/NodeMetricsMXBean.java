@@ -0,0 +1,36 @@
+package com.samsa.metrics;
+
+/**
+ * JMX로 공개하는 노드 통계입니다. 지연 시간 값의 단위는 나노초입니다.
+ */
+public interface NodeMetricsMXBean {
+    String getNodeId();
+
+    String getType();
+
+    String getStatus();
+
+    long getReceived();
+
+    long getEmitted();
+
+    long getErrors();
+
+    long getInFlight();
+
+    int getQueueDepth();
+
+    long getLatencyCount();
+
+    double getLatencyMeanNanos();
+
+    long getLatencyP50Nanos();
+
+    long getLatencyP90Nanos();
+
+    long getLatencyP99Nanos();
+
+    long getLatencyP999Nanos();
+
+    long getLatencyMaxNanos();
+}
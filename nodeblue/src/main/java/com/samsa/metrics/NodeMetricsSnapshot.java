@@ -0,0 +1,20 @@
+package com.samsa.metrics;
+
+import java.util.UUID;
+
+/**
+ * 노드 하나의 특정 시점 통계입니다.
+ *
+ * @param nodeId 노드 ID
+ * @param type 노드 클래스 이름
+ * @param status 노드 상태
+ * @param received 받은 메시지 수
+ * @param emitted 출력 파이프로 전달한 메시지 수
+ * @param errors 에러 수
+ * @param inFlight 처리 중인 메시지 수 (우편함 대기 포함)
+ * @param queueDepth 우편함에 대기 중인 메시지 수
+ * @param latency 메시지 처리 시간 요약
+ */
+public record NodeMetricsSnapshot(UUID nodeId, String type, String status, long received, long emitted,
+        long errors, long inFlight, int queueDepth, HistogramSnapshot latency) {
+}
@@ -0,0 +1,20 @@
+package com.samsa.metrics;
+
+/**
+ * JMX로 공개하는 파이프 통계입니다.
+ */
+public interface PipeMetricsMXBean {
+    String getPipeId();
+
+    String getSourceNodeId();
+
+    String getTargetNodeId();
+
+    long getDelivered();
+
+    int getQueueDepth();
+
+    int getCapacity();
+
+    long getDropped();
+}
@@ -0,0 +1,18 @@
+package com.samsa.metrics;
+
+import java.util.UUID;
+
+/**
+ * 파이프 하나의 특정 시점 통계입니다. 버퍼가 없는 동기 파이프의 대기 메시지 수와 용량은 0입니다.
+ *
+ * @param pipeId 파이프 ID
+ * @param sourceNodeId 메시지를 보내는 노드 ID
+ * @param targetNodeId 메시지를 받는 노드 ID
+ * @param delivered 대상 노드에 전달한 메시지 수
+ * @param queueDepth 버퍼에 대기 중인 메시지 수
+ * @param capacity 버퍼 용량
+ * @param dropped 버퍼가 가득 차서 버려진 메시지 수
+ */
+public record PipeMetricsSnapshot(String pipeId, UUID sourceNodeId, UUID targetNodeId, long delivered,
+        int queueDepth, int capacity, long dropped) {
+}
@@ -0,0 +1,14 @@
+package com.samsa.metrics;
+
+import java.util.List;
+
+/**
+ * 파이프라인 하나에 속한 노드와 파이프의 특정 시점 통계입니다.
+ *
+ * @param pipelineId 파이프라인 ID
+ * @param nodes 노드별 통계
+ * @param pipes 연결별 파이프 통계
+ */
+public record PipelineMetricsSnapshot(String pipelineId, List<NodeMetricsSnapshot> nodes,
+        List<PipeMetricsSnapshot> pipes) {
+}
@@ -0,0 +1,78 @@
+package com.samsa.modbus;
+
+/**
+ * 레지스터 값을 해석하는 방식입니다.
+ * 32비트 값은 Modbus 관례대로 상위 워드가 먼저 오는 빅엔디언으로 해석합니다.
+ */
+public enum DataType {
+    /** 코일/이산 입력의 비트 (Boolean) */
+    BIT(1),
+    /** 부호 있는 16비트 정수 (Integer) */
+    INT16(1),
+    /** 부호 없는 16비트 정수 (Integer) */
+    UINT16(1),
+    /** 부호 있는 32비트 정수 (Integer) */
+    INT32(2),
+    /** 부호 없는 32비트 정수 (Long) */
+    UINT32(2),
+    /** IEEE 754 단정밀도 실수 (Float) */
+    FLOAT32(2);
+
+    private final int words;
+
+    DataType(int words) {
+        this.words = words;
+    }
+
+    /**
+     * 값 하나가 차지하는 레지스터 수를 반환합니다. BIT는 1입니다.
+     *
+     * @return 레지스터 수
+     */
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * 레지스터 배열의 offset 위치에서 값을 읽습니다.
+     *
+     * @param registers 읽은 레지스터 값
+     * @param offset 값이 시작하는 위치
+     * @return 해석한 값
+     * @throws UnsupportedOperationException BIT인 경우
+     */
+    public Object decode(short[] registers, int offset) {
+        return switch (this) {
+            case INT16 -> (int) registers[offset];
+            case UINT16 -> registers[offset] & 0xFFFF;
+            case INT32 -> int32(registers, offset);
+            case UINT32 -> int32(registers, offset) & 0xFFFFFFFFL;
+            case FLOAT32 -> Float.intBitsToFloat(int32(registers, offset));
+            case BIT -> throw new UnsupportedOperationException("BIT values are not stored in registers");
+        };
+    }
+
+    /**
+     * 값을 레지스터 배열로 변환합니다. 실수를 정수 타입으로 변환할 때는 소수점 이하를 버립니다.
+     *
+     * @param value 변환할 숫자
+     * @return 레지스터 값 ({@link #getWords()} 개)
+     * @throws UnsupportedOperationException BIT인 경우
+     */
+    public short[] encode(Number value) {
+        return switch (this) {
+            case INT16, UINT16 -> new short[] { (short) value.intValue() };
+            case INT32, UINT32 -> split((int) value.longValue());
+            case FLOAT32 -> split(Float.floatToIntBits(value.floatValue()));
+            case BIT -> throw new UnsupportedOperationException("BIT values are not stored in registers");
+        };
+    }
+
+    private static int int32(short[] registers, int offset) {
+        return (registers[offset] << 16) | (registers[offset + 1] & 0xFFFF);
+    }
+
+    private static short[] split(int value) {
+        return new short[] { (short) (value >>> 16), (short) value };
+    }
+}
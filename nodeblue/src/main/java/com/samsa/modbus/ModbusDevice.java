@@ -0,0 +1,113 @@
+package com.samsa.modbus;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+import com.serotonin.modbus4j.ModbusFactory;
+import com.serotonin.modbus4j.ModbusMaster;
+import com.serotonin.modbus4j.ip.IpParameters;
+import com.serotonin.modbus4j.serial.SerialPortWrapper;
+
+/**
+ * Modbus 장치 하나에 대한 연결 설정입니다. TCP 게이트웨이나 RTU 버스 하나에 여러 슬레이브가 있을 수 있으므로
+ * 슬레이브 ID는 장치가 아니라 각 {@link ModbusPoint}에 지정합니다.
+ */
+public final class ModbusDevice {
+    /** 기본 응답 대기 시간 */
+    public static final int DEFAULT_TIMEOUT_MILLIS = 500;
+    /** 기본 재시도 횟수 */
+    public static final int DEFAULT_RETRIES = 1;
+
+    private static final ModbusFactory FACTORY = new ModbusFactory();
+
+    private final String name;
+    private final Function<ModbusFactory, ModbusMaster> connector;
+    private volatile int timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    private volatile int retries = DEFAULT_RETRIES;
+
+    private ModbusDevice(String name, Function<ModbusFactory, ModbusMaster> connector) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.connector = connector;
+    }
+
+    /**
+     * Modbus TCP 장치를 생성합니다.
+     *
+     * @param name 장치 이름 (메시지의 device 메타데이터)
+     * @param host 호스트 이름 또는 주소
+     * @param port 포트 (보통 502)
+     * @return 장치 설정
+     */
+    public static ModbusDevice tcp(String name, String host, int port) {
+        IpParameters parameters = new IpParameters();
+        parameters.setHost(Objects.requireNonNull(host, "host"));
+        parameters.setPort(port);
+        parameters.setEncapsulated(false);
+        return new ModbusDevice(name, factory -> factory.createTcpMaster(parameters, true));
+    }
+
+    /**
+     * Modbus RTU 장치를 생성합니다. 직렬 포트 구현은 사용하는 직렬 통신 라이브러리에 맞게 제공해야 합니다.
+     *
+     * @param name 장치 이름 (메시지의 device 메타데이터)
+     * @param port 직렬 포트
+     * @return 장치 설정
+     */
+    public static ModbusDevice rtu(String name, SerialPortWrapper port) {
+        Objects.requireNonNull(port, "port");
+        return new ModbusDevice(name, factory -> factory.createRtuMaster(port));
+    }
+
+    /**
+     * 응답 대기 시간을 설정합니다.
+     *
+     * @param timeoutMillis 응답 대기 시간 (밀리초)
+     */
+    public void setTimeoutMillis(int timeoutMillis) {
+        if (timeoutMillis < 1) {
+            throw new IllegalArgumentException("timeoutMillis must be positive: " + timeoutMillis);
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 응답이 없을 때 다시 보낼 횟수를 설정합니다.
+     *
+     * @param retries 재시도 횟수
+     */
+    public void setRetries(int retries) {
+        if (retries < 0) {
+            throw new IllegalArgumentException("retries must not be negative: " + retries);
+        }
+        this.retries = retries;
+    }
+
+    /**
+     * 이 장치에 연결할 마스터를 생성합니다. 반환된 마스터는 init()을 호출해야 사용할 수 있습니다.
+     *
+     * @return 초기화되지 않은 마스터
+     */
+    public ModbusMaster createMaster() {
+        ModbusMaster master = connector.apply(FACTORY);
+        master.setTimeout(timeoutMillis);
+        master.setRetries(retries);
+        return master;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,29 @@
+package com.samsa.modbus;
+
+/**
+ * 장치가 Modbus 예외 응답을 보냈을 때 발생하는 예외입니다.
+ */
+public class ModbusDeviceException extends Exception {
+    /** Modbus 예외 코드 */
+    private final int exceptionCode;
+
+    /**
+     * 예외를 생성합니다.
+     *
+     * @param message 예외 메시지
+     * @param exceptionCode Modbus 예외 코드 (예: 2 = 잘못된 데이터 주소)
+     */
+    public ModbusDeviceException(String message, int exceptionCode) {
+        super(message);
+        this.exceptionCode = exceptionCode;
+    }
+
+    /**
+     * Modbus 예외 코드를 반환합니다.
+     *
+     * @return 예외 코드
+     */
+    public int getExceptionCode() {
+        return exceptionCode;
+    }
+}
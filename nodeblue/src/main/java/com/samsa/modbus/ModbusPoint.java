@@ -0,0 +1,135 @@
+package com.samsa.modbus;
+
+import java.util.Objects;
+
+/**
+ * 장치에서 읽거나 쓸 값 하나의 위치와 해석 방식을 나타내는 불변 클래스입니다.
+ * 레지스터 값은 {@link DataType}에 따라 하나 또는 두 개의 연속 레지스터를 차지합니다.
+ */
+public final class ModbusPoint {
+    private final String name;
+    private final int slaveId;
+    private final RegisterType registerType;
+    private final int address;
+    private final DataType dataType;
+    private final double deadband;
+
+    /**
+     * 포인트를 생성합니다.
+     *
+     * @param name 포인트 이름 (메시지의 point 메타데이터)
+     * @param slaveId 슬레이브 ID (0~255)
+     * @param registerType 데이터 영역
+     * @param address 영역 안의 0부터 시작하는 주소
+     * @param dataType 값 해석 방식, 비트 영역은 BIT만 가능
+     * @param deadband 이 값보다 크게 변할 때만 변경으로 보는 폭, 0이면 값이 다르면 변경
+     * @throws IllegalArgumentException 인자가 프로토콜 범위를 벗어나거나 영역과 해석 방식이 맞지 않는 경우
+     */
+    public ModbusPoint(String name, int slaveId, RegisterType registerType, int address, DataType dataType,
+            double deadband) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.registerType = Objects.requireNonNull(registerType, "registerType");
+        this.dataType = Objects.requireNonNull(dataType, "dataType");
+        this.slaveId = slaveId;
+        this.address = address;
+        this.deadband = deadband;
+        if (slaveId < 0 || slaveId > 255) {
+            throw new IllegalArgumentException("slaveId must be between 0 and 255: " + slaveId);
+        }
+        if (address < 0 || address + dataType.getWords() > 65536) {
+            throw new IllegalArgumentException("address out of range: " + address);
+        }
+        if (registerType.isBit() != (dataType == DataType.BIT)) {
+            throw new IllegalArgumentException(registerType + " cannot hold " + dataType + " values");
+        }
+        if (!(deadband >= 0)) {
+            throw new IllegalArgumentException("deadband must not be negative: " + deadband);
+        }
+    }
+
+    /** 코일 포인트를 생성합니다. */
+    public static ModbusPoint coil(String name, int slaveId, int address) {
+        return new ModbusPoint(name, slaveId, RegisterType.COIL, address, DataType.BIT, 0);
+    }
+
+    /** 이산 입력 포인트를 생성합니다. */
+    public static ModbusPoint discreteInput(String name, int slaveId, int address) {
+        return new ModbusPoint(name, slaveId, RegisterType.DISCRETE_INPUT, address, DataType.BIT, 0);
+    }
+
+    /** 홀딩 레지스터 포인트를 생성합니다. */
+    public static ModbusPoint holdingRegister(String name, int slaveId, int address, DataType dataType) {
+        return new ModbusPoint(name, slaveId, RegisterType.HOLDING_REGISTER, address, dataType, 0);
+    }
+
+    /** 입력 레지스터 포인트를 생성합니다. */
+    public static ModbusPoint inputRegister(String name, int slaveId, int address, DataType dataType) {
+        return new ModbusPoint(name, slaveId, RegisterType.INPUT_REGISTER, address, dataType, 0);
+    }
+
+    /**
+     * 변경 감지 폭만 다른 포인트를 생성합니다.
+     *
+     * @param deadband 변경 감지 폭
+     * @return 새 포인트
+     */
+    public ModbusPoint withDeadband(double deadband) {
+        return new ModbusPoint(name, slaveId, registerType, address, dataType, deadband);
+    }
+
+    /**
+     * 새로 읽은 값이 이전 값에 비해 보고할 만큼 변했는지 확인합니다.
+     * 숫자는 변경 감지 폭보다 크게 변했을 때, 그 밖의 값은 같지 않을 때 변경으로 봅니다.
+     *
+     * @param previous 이전에 보고한 값, 없으면 null
+     * @param current 새로 읽은 값
+     * @return 보고해야 하면 true
+     */
+    public boolean isSignificantChange(Object previous, Object current) {
+        if (previous == null) {
+            return true;
+        }
+        if (deadband > 0 && previous instanceof Number before && current instanceof Number after) {
+            return Math.abs(after.doubleValue() - before.doubleValue()) > deadband;
+        }
+        return !previous.equals(current);
+    }
+
+    /**
+     * 포인트가 차지하는 주소 수를 반환합니다.
+     *
+     * @return 비트 영역은 1, 레지스터 영역은 해석 방식의 워드 수
+     */
+    public int length() {
+        return dataType.getWords();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getSlaveId() {
+        return slaveId;
+    }
+
+    public RegisterType getRegisterType() {
+        return registerType;
+    }
+
+    public int getAddress() {
+        return address;
+    }
+
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    public double getDeadband() {
+        return deadband;
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + slaveId + ":" + registerType + "@" + address + " " + dataType + ")";
+    }
+}
@@ -0,0 +1,39 @@
+package com.samsa.modbus;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 모든 Modbus 노드가 함께 사용하는 스케줄러입니다.
+ * 장치마다 스레드를 만들지 않고 적은 수의 데몬 스레드에서 장치별 작업을 실행하므로, 수백 개의 장치를 폴링해도 스레드 수가 늘지 않습니다.
+ * 같은 장치의 작업은 고정 지연(fixed delay)으로 예약되어 느린 장치의 작업이 겹쳐 쌓이지 않습니다.
+ */
+public final class ModbusScheduler {
+
+    private ModbusScheduler() {
+    }
+
+    /**
+     * 공유 스케줄러를 반환합니다. 처음 호출될 때 생성됩니다.
+     *
+     * @return 공유 스케줄러
+     */
+    public static ScheduledExecutorService shared() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        static final ScheduledExecutorService INSTANCE = create();
+
+        private static ScheduledExecutorService create() {
+            AtomicInteger counter = new AtomicInteger();
+            int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+            return Executors.newScheduledThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "modbus-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
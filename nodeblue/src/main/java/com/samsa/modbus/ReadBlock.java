@@ -0,0 +1,148 @@
+package com.samsa.modbus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.serotonin.modbus4j.exception.ModbusTransportException;
+import com.serotonin.modbus4j.msg.ModbusRequest;
+import com.serotonin.modbus4j.msg.ReadResponse;
+
+/**
+ * 한 번의 읽기 요청으로 읽는 연속 주소 구간과 그 안의 포인트들입니다.
+ * {@link #plan(Collection, int, int)}은 같은 슬레이브와 영역의 포인트를 주소 순으로 정렬한 뒤,
+ * 사이의 빈 주소가 허용 간격 이하이고 전체 길이가 프로토콜 한도 이하인 동안 하나의 구간으로 합칩니다.
+ * 빈 주소를 함께 읽는 비용(레지스터당 2바이트)은 요청 하나의 왕복 시간보다 훨씬 작습니다.
+ */
+public final class ReadBlock {
+    private final int slaveId;
+    private final RegisterType registerType;
+    private final int start;
+    private final int count;
+    private final List<ModbusPoint> points;
+
+    private ReadBlock(int slaveId, RegisterType registerType, int start, int count, List<ModbusPoint> points) {
+        this.slaveId = slaveId;
+        this.registerType = registerType;
+        this.start = start;
+        this.count = count;
+        this.points = List.copyOf(points);
+    }
+
+    /**
+     * 포인트들을 가장 적은 수의 읽기 구간으로 묶습니다.
+     *
+     * @param points 읽을 포인트
+     * @param maxRegisterGap 레지스터 영역에서 함께 읽을 수 있는 최대 빈 주소 수
+     * @param maxBitGap 비트 영역에서 함께 읽을 수 있는 최대 빈 주소 수
+     * @return 슬레이브, 영역, 시작 주소 순으로 정렬된 읽기 구간
+     */
+    public static List<ReadBlock> plan(Collection<ModbusPoint> points, int maxRegisterGap, int maxBitGap) {
+        if (maxRegisterGap < 0 || maxBitGap < 0) {
+            throw new IllegalArgumentException("gaps must not be negative: " + maxRegisterGap + ", " + maxBitGap);
+        }
+        Map<String, List<ModbusPoint>> groups = new LinkedHashMap<>();
+        points.stream()
+                .sorted(Comparator.comparingInt(ModbusPoint::getSlaveId)
+                        .thenComparing(ModbusPoint::getRegisterType)
+                        .thenComparingInt(ModbusPoint::getAddress))
+                .forEach(point -> groups.computeIfAbsent(point.getSlaveId() + ":" + point.getRegisterType(),
+                        key -> new ArrayList<>()).add(point));
+
+        List<ReadBlock> blocks = new ArrayList<>();
+        for (List<ModbusPoint> group : groups.values()) {
+            RegisterType type = group.get(0).getRegisterType();
+            int maxGap = type.isBit() ? maxBitGap : maxRegisterGap;
+            int limit = type.getMaxReadCount();
+            List<ModbusPoint> members = new ArrayList<>();
+            int start = 0;
+            int end = 0;
+            for (ModbusPoint point : group) {
+                int pointEnd = point.getAddress() + point.length();
+                if (!members.isEmpty()
+                        && (point.getAddress() - end > maxGap || Math.max(end, pointEnd) - start > limit)) {
+                    blocks.add(new ReadBlock(point.getSlaveId(), type, start, end - start, members));
+                    members.clear();
+                }
+                if (members.isEmpty()) {
+                    start = point.getAddress();
+                    end = pointEnd;
+                }
+                members.add(point);
+                end = Math.max(end, pointEnd);
+            }
+            blocks.add(new ReadBlock(group.get(0).getSlaveId(), type, start, end - start, members));
+        }
+        return blocks;
+    }
+
+    /**
+     * 이 구간을 읽는 요청을 생성합니다.
+     *
+     * @return 읽기 요청
+     * @throws ModbusTransportException 요청 인자가 프로토콜 범위를 벗어난 경우
+     */
+    public ModbusRequest toRequest() throws ModbusTransportException {
+        return registerType.readRequest(slaveId, start, count);
+    }
+
+    /**
+     * 응답에서 index번째 포인트의 값을 읽습니다.
+     *
+     * @param response 이 구간의 읽기 응답
+     * @param index 포인트 위치 ({@link #getPoints()} 기준)
+     * @return 포인트 값
+     */
+    public Object valueOf(ReadResponse response, int index) {
+        ModbusPoint point = points.get(index);
+        int offset = point.getAddress() - start;
+        if (registerType.isBit()) {
+            return response.getBooleanData()[offset];
+        }
+        return point.getDataType().decode(response.getShortData(), offset);
+    }
+
+    /**
+     * 구간 안에 어떤 포인트도 차지하지 않는 주소가 있는지 확인합니다.
+     *
+     * @return 빈 주소가 있으면 true
+     */
+    public boolean hasGaps() {
+        int covered = start;
+        for (ModbusPoint point : points) {
+            if (point.getAddress() > covered) {
+                return true;
+            }
+            covered = Math.max(covered, point.getAddress() + point.length());
+        }
+        return false;
+    }
+
+    public int getSlaveId() {
+        return slaveId;
+    }
+
+    public RegisterType getRegisterType() {
+        return registerType;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public List<ModbusPoint> getPoints() {
+        return points;
+    }
+
+    @Override
+    public String toString() {
+        return slaveId + ":" + registerType + "[" + start + ".." + (start + count - 1) + "] " + points.size() + " point(s)";
+    }
+}
@@ -0,0 +1,66 @@
+package com.samsa.modbus;
+
+import com.serotonin.modbus4j.exception.ModbusTransportException;
+import com.serotonin.modbus4j.msg.ModbusRequest;
+import com.serotonin.modbus4j.msg.ReadCoilsRequest;
+import com.serotonin.modbus4j.msg.ReadDiscreteInputsRequest;
+import com.serotonin.modbus4j.msg.ReadHoldingRegistersRequest;
+import com.serotonin.modbus4j.msg.ReadInputRegistersRequest;
+
+/**
+ * Modbus 데이터 영역의 종류입니다. 영역마다 읽기 함수 코드와 한 요청에서 읽을 수 있는 최대 개수가 다릅니다.
+ */
+public enum RegisterType {
+    /** 코일 (FC 01, 읽기/쓰기 비트) */
+    COIL(true, 2000),
+    /** 이산 입력 (FC 02, 읽기 전용 비트) */
+    DISCRETE_INPUT(true, 2000),
+    /** 홀딩 레지스터 (FC 03, 읽기/쓰기 16비트 워드) */
+    HOLDING_REGISTER(false, 125),
+    /** 입력 레지스터 (FC 04, 읽기 전용 16비트 워드) */
+    INPUT_REGISTER(false, 125);
+
+    private final boolean bit;
+    private final int maxReadCount;
+
+    RegisterType(boolean bit, int maxReadCount) {
+        this.bit = bit;
+        this.maxReadCount = maxReadCount;
+    }
+
+    /**
+     * 비트 단위 영역인지 확인합니다.
+     *
+     * @return 코일 또는 이산 입력이면 true
+     */
+    public boolean isBit() {
+        return bit;
+    }
+
+    /**
+     * 한 번의 읽기 요청으로 읽을 수 있는 최대 개수를 반환합니다.
+     *
+     * @return 비트 영역은 2000, 레지스터 영역은 125
+     */
+    public int getMaxReadCount() {
+        return maxReadCount;
+    }
+
+    /**
+     * 이 영역의 연속 구간을 읽는 요청을 생성합니다.
+     *
+     * @param slaveId 슬레이브 ID
+     * @param start 시작 주소
+     * @param count 읽을 개수
+     * @return 읽기 요청
+     * @throws ModbusTransportException 요청 인자가 프로토콜 범위를 벗어난 경우
+     */
+    public ModbusRequest readRequest(int slaveId, int start, int count) throws ModbusTransportException {
+        return switch (this) {
+            case COIL -> new ReadCoilsRequest(slaveId, start, count);
+            case DISCRETE_INPUT -> new ReadDiscreteInputsRequest(slaveId, start, count);
+            case HOLDING_REGISTER -> new ReadHoldingRegistersRequest(slaveId, start, count);
+            case INPUT_REGISTER -> new ReadInputRegistersRequest(slaveId, start, count);
+        };
+    }
+}
@@ -0,0 +1,466 @@
+package com.samsa.mqtt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import org.eclipse.paho.client.mqttv3.MqttClientPersistence;
+import org.eclipse.paho.client.mqttv3.MqttPersistable;
+import org.eclipse.paho.client.mqttv3.MqttPersistenceException;
+import org.eclipse.paho.client.mqttv3.internal.MqttPersistentData;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 메모리 매핑된 세그먼트 파일에 순차적으로 기록하는 Paho 영속성 저장소입니다.
+ * 기본 파일 영속성은 메시지마다 파일을 만들고 지우지만, 이 저장소는 메시지마다 세그먼트 끝에 레코드를 하나 덧붙이고
+ * 삭제도 작은 삭제 표시(tombstone) 레코드를 덧붙여 처리합니다. 읽기는 메모리의 색인으로 바로 찾습니다.
+ *
+ * <p>레코드 형식: {@code [길이 int][종류 byte][키 길이 short][키][헤더 길이 int][헤더][페이로드][CRC32C int]}.
+ * 열 때 모든 세그먼트를 순서대로 재생하여 색인을 복원하며, CRC가 맞지 않는 레코드(기록 중 중단)부터는 무시합니다.
+ *
+ * <p>세그먼트가 가득 차면 새 세그먼트로 넘어가면서 압축을 수행합니다. 가장 오래된 세그먼트에 살아 있는 레코드가 없으면
+ * 파일을 지우고, 살아 있는 레코드가 적으면 최신 세그먼트로 옮겨 쓴 뒤 지웁니다.
+ * 오래된 세그먼트부터만 지우므로 삭제 표시가 먼저 사라져 지워진 메시지가 되살아나는 일은 없습니다.
+ *
+ * <p>기본적으로 기록은 운영체제 페이지 캐시에 맡기므로 프로세스가 비정상 종료되어도 데이터는 남지만,
+ * 전원 장애까지 대비하려면 {@link #setSyncOnWrite(boolean)}을 켜야 합니다.
+ */
+@Slf4j
+public class MappedLogPersistence implements MqttClientPersistence {
+    /** 기본 세그먼트 크기 */
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    /** 살아 있는 데이터가 이 비율 미만인 가장 오래된 세그먼트는 옮겨 쓴 뒤 지움 */
+    private static final double COMPACTION_RATIO = 0.25;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    /** 레코드의 길이 필드와 CRC 필드 크기 */
+    private static final int FRAME_OVERHEAD = 8;
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path baseDirectory;
+    private final int segmentSize;
+    private boolean syncOnWrite;
+
+    private Path directory;
+    private FileChannel lockChannel;
+    private FileLock lock;
+    /** 오래된 것부터 정렬된 세그먼트, 마지막이 기록 중인 세그먼트 */
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    /** 키별 최신 레코드 위치 */
+    private final Map<String, Location> index = new HashMap<>();
+    private long nextSegmentId;
+    /** 압축 중 옮겨 쓰기로 새 세그먼트가 생겨도 압축이 다시 시작되지 않도록 막음 */
+    private boolean compacting;
+
+    /**
+     * 기본 세그먼트 크기로 저장소를 생성합니다.
+     *
+     * @param directory 클라이언트별 하위 디렉터리를 만들 기본 디렉터리
+     */
+    public MappedLogPersistence(String directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * 저장소를 생성합니다.
+     *
+     * @param directory 클라이언트별 하위 디렉터리를 만들 기본 디렉터리
+     * @param segmentSize 세그먼트 파일 크기 (이보다 큰 레코드는 전용 세그먼트에 기록)
+     */
+    public MappedLogPersistence(String directory, int segmentSize) {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("segmentSize must be at least 1024: " + segmentSize);
+        }
+        this.baseDirectory = Paths.get(directory);
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * 레코드를 기록할 때마다 디스크에 강제로 쓸지 설정합니다. 기본값은 false입니다.
+     *
+     * @param syncOnWrite 기록마다 디스크에 쓰려면 true
+     */
+    public void setSyncOnWrite(boolean syncOnWrite) {
+        this.syncOnWrite = syncOnWrite;
+    }
+
+    @Override
+    public synchronized void open(String clientId, String serverURI) throws MqttPersistenceException {
+        directory = baseDirectory.resolve(sanitize(clientId + "-" + serverURI));
+        try {
+            Files.createDirectories(directory);
+            lockChannel = FileChannel.open(directory.resolve(".lck"), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // 같은 JVM 안에서 이미 잠근 경우
+                lock = null;
+            }
+            if (lock == null) {
+                lockChannel.close();
+                throw new MqttPersistenceException(MqttPersistenceException.REASON_CODE_PERSISTENCE_IN_USE);
+            }
+            List<Path> files;
+            try (Stream<Path> stream = Files.list(directory)) {
+                files = stream.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+            }
+            for (Path file : files) {
+                Segment segment = Segment.open(file, segmentIdOf(file), 0);
+                segments.addLast(segment);
+                replay(segment);
+                nextSegmentId = segment.id + 1;
+            }
+            if (segments.isEmpty()) {
+                roll(0);
+            }
+            compact();
+            log.info("MappedLogPersistence opened {} - segments: {}, entries: {}", directory, segments.size(),
+                    index.size());
+        } catch (IOException e) {
+            throw new MqttPersistenceException(e);
+        }
+    }
+
+    private static String sanitize(String name) {
+        StringBuilder builder = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '-') {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static long segmentIdOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * 세그먼트의 레코드를 처음부터 읽어 색인에 반영하고, 유효한 마지막 레코드 뒤를 기록 위치로 정합니다.
+     */
+    private void replay(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + FRAME_OVERHEAD < buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || position + FRAME_OVERHEAD + length > buffer.capacity()
+                    || buffer.getInt(position + 4 + length) != crc(buffer, position + 4, length)) {
+                break;
+            }
+            byte type = buffer.get(position + 4);
+            int keyLength = buffer.getShort(position + 5);
+            String key = readKey(buffer, position + 7, keyLength);
+            if (type == PUT) {
+                int headerLength = buffer.getInt(position + 7 + keyLength);
+                int payloadLength = length - 1 - 2 - keyLength - 4 - headerLength;
+                index(key, new Location(segment, position, keyLength, headerLength, payloadLength));
+            } else {
+                unindex(key);
+            }
+            position += FRAME_OVERHEAD + length;
+        }
+        segment.position = position;
+    }
+
+    private static String readKey(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private void index(String key, Location location) {
+        unindex(key);
+        index.put(key, location);
+        location.segment.live++;
+        location.segment.liveBytes += location.frameLength();
+    }
+
+    private void unindex(String key) {
+        Location previous = index.remove(key);
+        if (previous != null) {
+            previous.segment.live--;
+            previous.segment.liveBytes -= previous.frameLength();
+        }
+    }
+
+    @Override
+    public synchronized void put(String key, MqttPersistable persistable) throws MqttPersistenceException {
+        byte[] header = persistable.getHeaderBytes();
+        int headerLength = header == null ? 0 : persistable.getHeaderLength();
+        byte[] payload = persistable.getPayloadBytes();
+        int payloadLength = payload == null ? 0 : persistable.getPayloadLength();
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 2 + keyBytes.length + 4 + headerLength + payloadLength;
+
+        Segment segment = reserve(FRAME_OVERHEAD + length);
+        ByteBuffer buffer = segment.buffer;
+        int start = segment.position;
+        int offset = start + 4;
+        buffer.put(offset, PUT);
+        buffer.putShort(offset + 1, (short) keyBytes.length);
+        buffer.put(offset + 3, keyBytes);
+        buffer.putInt(offset + 3 + keyBytes.length, headerLength);
+        if (headerLength > 0) {
+            buffer.put(offset + 7 + keyBytes.length, header, persistable.getHeaderOffset(), headerLength);
+        }
+        if (payloadLength > 0) {
+            buffer.put(offset + 7 + keyBytes.length + headerLength, payload, persistable.getPayloadOffset(),
+                    payloadLength);
+        }
+        commit(segment, start, length);
+        index(key, new Location(segment, start, keyBytes.length, headerLength, payloadLength));
+    }
+
+    @Override
+    public synchronized MqttPersistable get(String key) throws MqttPersistenceException {
+        Location location = index.get(key);
+        if (location == null) {
+            return null;
+        }
+        ByteBuffer buffer = location.segment.buffer;
+        int headerOffset = location.offset + 4 + 7 + location.keyLength;
+        byte[] header = new byte[location.headerLength];
+        buffer.get(headerOffset, header);
+        byte[] payload = new byte[location.payloadLength];
+        buffer.get(headerOffset + location.headerLength, payload);
+        return new MqttPersistentData(key, header, 0, header.length, payload, 0, payload.length);
+    }
+
+    @Override
+    public synchronized void remove(String key) throws MqttPersistenceException {
+        Location location = index.get(key);
+        if (location == null) {
+            return;
+        }
+        unindex(key);
+        Segment oldest = segments.peekFirst();
+        if (location.segment == oldest && oldest.live == 0 && segments.size() > 1) {
+            // 가장 오래된 세그먼트가 비면 삭제 표시 없이 파일째 지웁니다.
+            compact();
+            return;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = 1 + 2 + keyBytes.length;
+        Segment segment = reserve(FRAME_OVERHEAD + length);
+        ByteBuffer buffer = segment.buffer;
+        int start = segment.position;
+        buffer.put(start + 4, REMOVE);
+        buffer.putShort(start + 5, (short) keyBytes.length);
+        buffer.put(start + 7, keyBytes);
+        commit(segment, start, length);
+    }
+
+    /**
+     * 레코드를 쓸 공간이 있는 세그먼트를 반환합니다. 공간이 없으면 새 세그먼트로 넘어가고 압축합니다.
+     */
+    private Segment reserve(int frameLength) throws MqttPersistenceException {
+        Segment segment = segments.peekLast();
+        if (segment.position + frameLength <= segment.buffer.capacity()) {
+            return segment;
+        }
+        try {
+            segment.buffer.force();
+            Segment next = roll(frameLength);
+            compact();
+            return next;
+        } catch (IOException e) {
+            throw new MqttPersistenceException(e);
+        }
+    }
+
+    private void commit(Segment segment, int start, int length) {
+        ByteBuffer buffer = segment.buffer;
+        buffer.putInt(start + 4 + length, crc(buffer, start + 4, length));
+        buffer.putInt(start, length);
+        segment.position = start + FRAME_OVERHEAD + length;
+        if (syncOnWrite) {
+            segment.buffer.force();
+        }
+    }
+
+    private Segment roll(int minimumSize) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", nextSegmentId, SEGMENT_SUFFIX));
+        Segment segment = Segment.open(file, nextSegmentId++, Math.max(segmentSize, minimumSize));
+        segments.addLast(segment);
+        return segment;
+    }
+
+    /**
+     * 가장 오래된 세그먼트부터 비어 있으면 지우고, 살아 있는 데이터가 적으면 최신 세그먼트로 옮겨 쓴 뒤 지웁니다.
+     */
+    private void compact() throws MqttPersistenceException {
+        if (compacting) {
+            return;
+        }
+        compacting = true;
+        try {
+            compactOldest();
+        } finally {
+            compacting = false;
+        }
+    }
+
+    private void compactOldest() throws MqttPersistenceException {
+        while (segments.size() > 1) {
+            Segment oldest = segments.peekFirst();
+            if (oldest.live > 0) {
+                if (oldest.liveBytes >= oldest.buffer.capacity() * COMPACTION_RATIO) {
+                    return;
+                }
+                relocate(oldest);
+            }
+            segments.pollFirst();
+            try {
+                oldest.delete();
+            } catch (IOException e) {
+                throw new MqttPersistenceException(e);
+            }
+            log.debug("MappedLogPersistence reclaimed segment {}", oldest.file);
+        }
+    }
+
+    private void relocate(Segment source) throws MqttPersistenceException {
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, Location> entry : index.entrySet()) {
+            if (entry.getValue().segment == source) {
+                keys.add(entry.getKey());
+            }
+        }
+        for (String key : keys) {
+            put(key, get(key));
+        }
+    }
+
+    @Override
+    public synchronized Enumeration<String> keys() throws MqttPersistenceException {
+        return Collections.enumeration(new ArrayList<>(index.keySet()));
+    }
+
+    @Override
+    public synchronized boolean containsKey(String key) throws MqttPersistenceException {
+        return index.containsKey(key);
+    }
+
+    @Override
+    public synchronized void clear() throws MqttPersistenceException {
+        index.clear();
+        try {
+            for (Segment segment : segments) {
+                segment.delete();
+            }
+            segments.clear();
+            roll(0);
+        } catch (IOException e) {
+            throw new MqttPersistenceException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws MqttPersistenceException {
+        try {
+            for (Segment segment : segments) {
+                segment.close();
+            }
+            segments.clear();
+            index.clear();
+            if (lock != null) {
+                lock.release();
+                lockChannel.close();
+                lock = null;
+            }
+        } catch (IOException e) {
+            throw new MqttPersistenceException(e);
+        }
+    }
+
+    /**
+     * 세그먼트 개수를 반환합니다.
+     *
+     * @return 세그먼트 개수
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * 레코드의 위치입니다.
+     */
+    private record Location(Segment segment, int offset, int keyLength, int headerLength, int payloadLength) {
+        int frameLength() {
+            return FRAME_OVERHEAD + 1 + 2 + keyLength + 4 + headerLength + payloadLength;
+        }
+    }
+
+    /**
+     * 메모리 매핑된 세그먼트 파일 하나입니다.
+     */
+    private static final class Segment {
+        final Path file;
+        final long id;
+        final FileChannel channel;
+        final MappedByteBuffer buffer;
+        /** 다음 레코드를 쓸 위치 */
+        int position;
+        /** 색인이 가리키는 레코드 수 */
+        int live;
+        /** 색인이 가리키는 레코드의 바이트 수 */
+        long liveBytes;
+
+        private Segment(Path file, long id, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.id = id;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        /**
+         * 세그먼트 파일을 열어 매핑합니다. size가 0이면 기존 파일 크기를 사용합니다.
+         */
+        static Segment open(Path file, long id, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long length = size > 0 ? size : channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            return new Segment(file, id, channel, buffer);
+        }
+
+        void close() throws IOException {
+            buffer.force();
+            channel.close();
+        }
+
+        void delete() throws IOException {
+            channel.close();
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.samsa.mqtt;
+
+import org.eclipse.paho.client.mqttv3.MqttClientPersistence;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.eclipse.paho.client.mqttv3.persist.MqttDefaultFilePersistence;
+
+/**
+ * MQTT 노드가 QoS 1/2 메시지를 보관하는 방식입니다.
+ */
+public enum MqttPersistenceMode {
+    /** Paho 기본 파일 영속성 (메시지마다 파일 하나) */
+    DEFAULT,
+    /** 메모리에만 보관 (프로세스가 종료되면 유실) */
+    MEMORY,
+    /** 메모리 매핑된 세그먼트 로그 ({@link MappedLogPersistence}) */
+    MAPPED_LOG;
+
+    /**
+     * 방식에 맞는 영속성 저장소를 생성합니다.
+     *
+     * @param directory 파일을 저장할 디렉터리, null이면 작업 디렉터리 (MEMORY는 무시)
+     * @return 영속성 저장소
+     */
+    public MqttClientPersistence create(String directory) {
+        String base = directory == null ? System.getProperty("user.dir") : directory;
+        return switch (this) {
+            case DEFAULT -> new MqttDefaultFilePersistence(base);
+            case MEMORY -> new MemoryPersistence();
+            case MAPPED_LOG -> new MappedLogPersistence(base);
+        };
+    }
+}
@@ -1,41 +1,262 @@
 package com.samsa.node.in;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
 import com.samsa.core.InNode;
 import com.samsa.core.Message;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * 메시지의 내용을 로그로 출력하는 디버그용 노드입니다.
- * 로깅을 활성화/비활성화할 수 있으며, 메시지의 페이로드를 문자열로 변환하여 출력합니다.
+ * 흐르는 메시지를 들여다보는 디버그용 노드입니다.
+ * 메시지를 받는 스레드는 미리 할당된 고정 크기 링 버퍼에 메시지 참조를 넣기만 하며, 문자열 변환이나 출력은 하지 않습니다.
+ * 별도의 출력 스레드가 설정된 최대 속도(초당 메시지 수) 이하로 버퍼의 메시지를 차례로 출력합니다.
+ * 출력 속도가 유입 속도를 따라가지 못하면 오래된 메시지는 출력되지 않고 덮어쓰이며, 그 수를 버려진 메시지 수로 셉니다.
+ * 최근에 캡처한 메시지는 {@link #recent(int)}로 언제든 조회할 수 있습니다.
  */
 @Slf4j
 public class DebugNode extends InNode {
+    /** 기본 링 버퍼 용량 */
+    public static final int DEFAULT_CAPACITY = 1024;
+    /** 기본 최대 출력 속도 (초당 메시지 수) */
+    public static final int DEFAULT_MAX_OUTPUT_PER_SECOND = 100;
+
+    /** 출력 스레드가 깨어나는 최대 간격 */
+    private static final long MAX_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    /** 버려진 메시지 수를 로그로 알리는 간격 */
+    private static final long DROP_REPORT_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /** 슬롯에 메시지를 쓰는 중임을 나타내는 시퀀스 값 */
+    private static final long WRITING = -1;
+
+    /** 캡처한 메시지 */
+    private final AtomicReferenceArray<Message> slots;
+    /** 슬롯에 들어 있는 메시지의 시퀀스 번호 + 1 (비어 있으면 0, 쓰는 중이면 -1) */
+    private final AtomicLongArray sequences;
+    /** 인덱스 계산용 비트 마스크 */
+    private final int mask;
+    /** 지금까지 캡처한 메시지 수 (다음에 쓸 시퀀스 번호) */
+    private final AtomicLong written = new AtomicLong();
+    /** 출력되지 않고 덮어쓰인 메시지 수 */
+    private final LongAdder dropped = new LongAdder();
+
+    /** 초당 최대 출력 메시지 수 */
+    private final int maxOutputPerSecond;
+    /** 메시지를 출력하는 방법 (출력 스레드에서 호출) */
+    private volatile Consumer<Message> output = this::log;
+    /** 출력 스레드 */
+    private Thread drainer;
+    /** 다음에 출력할 시퀀스 번호 (출력 스레드만 변경하며, 재시작 시 이어서 출력) */
+    private volatile long nextOutput;
 
     /**
-     * 새로운 DebugNode를 생성합니다.
+     * 기본 용량과 출력 속도로 새로운 DebugNode를 생성합니다.
      *
      * @param id 노드의 고유 식별자
      */
     public DebugNode(String id) {
+        this(id, DEFAULT_CAPACITY, DEFAULT_MAX_OUTPUT_PER_SECOND);
+    }
+
+    /**
+     * 새로운 DebugNode를 생성합니다.
+     *
+     * @param id 노드의 고유 식별자
+     * @param capacity 링 버퍼 용량 (2의 거듭제곱으로 올림)
+     * @param maxOutputPerSecond 초당 최대 출력 메시지 수
+     * @throws IllegalArgumentException 용량이나 출력 속도가 1보다 작은 경우
+     */
+    public DebugNode(String id, int capacity, int maxOutputPerSecond) {
         super(id);
+        if (capacity < 1 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30: " + capacity);
+        }
+        if (maxOutputPerSecond < 1) {
+            throw new IllegalArgumentException("maxOutputPerSecond must be positive: " + maxOutputPerSecond);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.maxOutputPerSecond = maxOutputPerSecond;
+    }
+
+    /**
+     * 메시지를 출력하는 방법을 지정합니다. 기본값은 페이로드를 INFO 로그로 기록합니다.
+     * 출력 스레드에서만 호출되므로 메시지를 받는 스레드의 처리량에 영향을 주지 않습니다.
+     *
+     * @param output 메시지 출력 방법
+     */
+    public void setOutput(Consumer<Message> output) {
+        this.output = Objects.requireNonNull(output, "output");
     }
 
     /**
-     * 수신된 메시지를 처리합니다.
-     * 로깅이 활성화된 경우, 메시지의 페이로드를 로그로 출력합니다.
+     * 수신된 메시지를 링 버퍼에 캡처합니다. 가장 오래된 메시지를 덮어쓰며 대기하지 않습니다.
      *
      * @param message 처리할 메시지
      */
     @Override
     public void onMessage(Message message) {
-            String payload = message.getPayload().toString();
-            log.info("Node[{}] - Payload: {}", getId(), payload);
+        long sequence = written.getAndIncrement();
+        int index = (int) sequence & mask;
+        sequences.set(index, WRITING);
+        slots.set(index, message);
+        sequences.set(index, sequence + 1);
+    }
+
+    /**
+     * 최근에 캡처한 메시지를 오래된 것부터 최대 n개 반환합니다.
+     * 조회하는 동안 덮어쓰인 슬롯은 건너뜁니다.
+     *
+     * @param n 최대 개수
+     * @return 최근 메시지 목록
+     */
+    public List<Message> recent(int n) {
+        long end = written.get();
+        long start = Math.max(0, end - Math.min(n, slots.length()));
+        List<Message> messages = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Message message = read(sequence);
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        return Collections.unmodifiableList(messages);
+    }
+
+    /**
+     * 시퀀스 번호의 메시지를 읽습니다. 아직 쓰는 중이거나 이미 덮어쓰였으면 null을 반환합니다.
+     */
+    private Message read(long sequence) {
+        int index = (int) sequence & mask;
+        if (sequences.get(index) != sequence + 1) {
+            return null;
+        }
+        Message message = slots.get(index);
+        return sequences.get(index) == sequence + 1 ? message : null;
+    }
+
+    /**
+     * 지금까지 캡처한 메시지 수를 반환합니다.
+     *
+     * @return 캡처한 메시지 수
+     */
+    public long getCapturedCount() {
+        return written.get();
+    }
+
+    /**
+     * 출력 속도 제한 때문에 출력되지 못하고 덮어쓰인 메시지 수를 반환합니다.
+     *
+     * @return 버려진 메시지 수
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 노드를 시작하고 출력 스레드를 시작합니다.
+     */
+    @Override
+    public synchronized void start() {
+        super.start();
+        if (drainer == null) {
+            drainer = new Thread(this::drainLoop, "debug-" + getId());
+            drainer.setDaemon(true);
+            drainer.start();
+        }
+    }
+
+    /**
+     * 노드를 중지하고 출력 스레드를 멈춥니다. 출력되지 않은 메시지는 {@link #recent(int)}로 계속 조회할 수 있습니다.
+     * {@link #stop()}도 이 메서드로 위임됩니다.
+     *
+     * @param timeout 최대 대기 시간
+     * @param unit 대기 시간 단위
+     * @return 제한 시간 안에 모든 메시지를 처리했으면 true
+     */
+    @Override
+    public synchronized boolean stop(long timeout, TimeUnit unit) {
+        boolean drained = super.stop(timeout, unit);
+        if (drainer != null) {
+            drainer.interrupt();
+            drainer = null;
+        }
+        return drained;
+    }
+
+    /**
+     * 토큰 버킷으로 속도를 제한하며 버퍼의 메시지를 순서대로 출력합니다.
+     * 최대 1초 분량까지 몰아서 출력할 수 있습니다.
+     */
+    private void drainLoop() {
+        long tickNanos = Math.min(MAX_TICK_NANOS, TimeUnit.SECONDS.toNanos(1) / maxOutputPerSecond);
+        long next = nextOutput;
+        double tokens = 0;
+        long last = System.nanoTime();
+        long lastReport = last;
+        long reportedDrops = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(this, tickNanos);
+            long now = System.nanoTime();
+            tokens = Math.min(maxOutputPerSecond, tokens + (now - last) * maxOutputPerSecond / 1e9);
+            last = now;
+
+            long end = written.get();
+            if (end - next > slots.length()) {
+                dropped.add(end - slots.length() - next);
+                next = end - slots.length();
+                nextOutput = next;
+            }
+            while (tokens >= 1 && next < end) {
+                long stamp = sequences.get((int) next & mask);
+                if (stamp == WRITING || (stamp >= 0 && stamp < next + 1)) {
+                    // 시퀀스는 예약되었지만 아직 쓰이지 않았으므로 다음 주기에 다시 확인합니다.
+                    break;
+                }
+                Message message = read(next++);
+                if (message == null) {
+                    dropped.increment();
+                    continue;
+                }
+                tokens--;
+                nextOutput = next;
+                try {
+                    output.accept(message);
+                } catch (RuntimeException e) {
+                    log.warn("Node[{}] - Debug output failed: {}", getId(), e.getMessage());
+                }
+            }
+
+            long drops = dropped.sum();
+            if (drops != reportedDrops && now - lastReport >= DROP_REPORT_NANOS) {
+                log.warn("Node[{}] - {} message(s) dropped by debug output rate limit", getId(), drops - reportedDrops);
+                reportedDrops = drops;
+                lastReport = now;
+            }
+        }
+    }
+
+    private void log(Message message) {
+        log.info("Node[{}] - Payload: {}", getId(), message.getPayload());
     }
 
     /**
      * 노드에서 발생한 에러를 처리합니다.
-     * 로깅이 활성화된 경우, 기본 에러 처리 외에 추가적인 에러 상세 정보를 로그로 출력합니다.
+     * 기본 에러 처리 외에 추가적인 에러 상세 정보를 로그로 출력합니다.
      *
      * @param error 발생한 에러
      */
@@ -44,4 +265,4 @@ public class DebugNode extends InNode {
         super.handleError(error);
         log.error("Node[{}] - Debug error details: {}", getId(), error.getMessage());
     }
-}
\ No newline at end of file
+}
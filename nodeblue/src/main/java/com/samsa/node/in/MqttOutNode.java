@@ -1,23 +1,81 @@
 package com.samsa.node.in;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.paho.client.mqttv3.IMqttActionListener;
+import org.eclipse.paho.client.mqttv3.IMqttToken;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
 import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
-import org.eclipse.paho.client.mqttv3.MqttPersistenceException;
 
+import com.samsa.core.BinaryPayload;
 import com.samsa.core.InNode;
 import com.samsa.core.Message;
+import com.samsa.mqtt.MqttPersistenceMode;
 
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 수신한 메시지를 MQTT 브로커로 발행하는 노드입니다.
+ *
+ * <p>기본 모드는 메시지마다 블로킹 publish를 호출합니다. {@link #setMaxInFlight(int)}로 1 이상의 값을 지정하면
+ * 비동기 클라이언트를 사용하는 파이프라인 모드로 동작하여, 확인 응답을 기다리지 않고 최대 maxInFlight개의 발행을 동시에 진행합니다.
+ * 파이프라인 모드에서는 작은 메시지를 토픽별로 모아 한 번에 발행하는 병합(coalescing)과 메시지별 완료 콜백을 사용할 수 있습니다.
+ * 병합된 묶음은 줄바꿈으로 구분되므로 줄바꿈이 없는 텍스트 페이로드만 병합하며, 그 밖의 메시지는 따로 발행합니다.
+ */
+@Slf4j
 public class MqttOutNode extends InNode{
     // 퍼블리셔
 
+    /** 메타데이터에서 발행 토픽을 지정하는 키 (노드에 토픽이 지정되지 않은 경우 사용) */
+    public static final String TOPIC_KEY = "topic";
+    /** 병합된 메시지 사이에 넣는 구분자 */
+    private static final byte BATCH_DELIMITER = '\n';
+
     private String broker;
     private String clientId;
     private String topic;
     MqttClient mqttClient;
 
+    /** 파이프라인 모드에서 사용하는 비동기 클라이언트 */
+    MqttAsyncClient asyncClient;
+    /** 동시에 진행할 수 있는 최대 발행 수, 0이면 블로킹 모드 */
+    private int maxInFlight;
+    /** 발행 QoS */
+    private int qos = 1;
+    /** 진행 중인 발행 수를 제한하는 세마포어 */
+    private Semaphore window;
+    /** 병합 대상이 되는 최대 메시지 크기와 병합 묶음의 최대 크기(바이트), 0이면 병합하지 않음 */
+    private int maxBatchBytes;
+    /** 병합 묶음을 최대 얼마 동안 모을지 (밀리초) */
+    private long lingerMillis;
+    /** 병합할 토픽들, null이면 모든 토픽 */
+    private Set<String> coalescedTopics;
+    /** 토픽별 병합 묶음 */
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    /** 병합 묶음을 주기적으로 발행하는 스케줄러 */
+    private ScheduledExecutorService flusher;
+    /** 발행 결과를 전달받을 리스너 */
+    private volatile PublishListener publishListener;
+    /** QoS 1/2 메시지를 보관하는 방식 */
+    private MqttPersistenceMode persistenceMode = MqttPersistenceMode.DEFAULT;
+    /** 영속성 파일을 저장할 디렉터리, null이면 작업 디렉터리 */
+    private String persistenceDirectory;
+
     public MqttOutNode(String broker, String clientId) {
         super();
         if(Objects.isNull(broker) || Objects.isNull(clientId)) {
@@ -32,29 +90,387 @@ public class MqttOutNode extends InNode{
         this.topic = topic;
     }
 
+    /**
+     * 동시에 진행할 수 있는 최대 발행 수를 설정합니다.
+     * 1 이상이면 비동기 클라이언트를 사용하는 파이프라인 모드로 동작하며, start() 이전에 호출해야 합니다.
+     *
+     * @param maxInFlight 최대 동시 발행 수, 0이면 블로킹 모드
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 0) {
+            throw new IllegalArgumentException("maxInFlight must not be negative: " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * 파이프라인 모드의 발행 QoS를 설정합니다.
+     *
+     * @param qos 0, 1 또는 2
+     */
+    public void setQos(int qos) {
+        if (qos < 0 || qos > 2) {
+            throw new IllegalArgumentException("qos must be 0, 1 or 2: " + qos);
+        }
+        this.qos = qos;
+    }
+
+    /**
+     * 파이프라인 모드에서 작은 메시지를 토픽별로 모아 하나의 MQTT 메시지로 발행하도록 설정합니다.
+     * maxBatchBytes보다 작고 줄바꿈이 없는 텍스트 메시지만 병합되며, 묶음은 줄바꿈으로 구분되고
+     * lingerMillis가 지나거나 크기가 찼을 때 발행됩니다. 바이트 배열이나 줄바꿈을 포함한 페이로드는 병합하지 않고 따로 발행합니다.
+     *
+     * @param maxBatchBytes 묶음의 최대 크기(바이트), 0이면 병합하지 않음
+     * @param lingerMillis 묶음을 모으는 최대 시간 (밀리초)
+     */
+    public void setCoalescing(int maxBatchBytes, long lingerMillis) {
+        setCoalescing(maxBatchBytes, lingerMillis, null);
+    }
+
+    /**
+     * 지정한 토픽의 메시지만 병합하도록 설정합니다. 나머지 토픽의 메시지는 따로 발행합니다.
+     *
+     * @param maxBatchBytes 묶음의 최대 크기(바이트), 0이면 병합하지 않음
+     * @param lingerMillis 묶음을 모으는 최대 시간 (밀리초)
+     * @param topics 병합할 토픽들, null이면 모든 토픽
+     * @see #setCoalescing(int, long)
+     */
+    public void setCoalescing(int maxBatchBytes, long lingerMillis, Collection<String> topics) {
+        if (maxBatchBytes < 0 || lingerMillis < 1) {
+            throw new IllegalArgumentException("invalid coalescing settings: " + maxBatchBytes + ", " + lingerMillis);
+        }
+        this.maxBatchBytes = maxBatchBytes;
+        this.lingerMillis = lingerMillis;
+        this.coalescedTopics = topics == null ? null : Set.copyOf(topics);
+    }
+
+    /**
+     * 파이프라인 모드의 메시지별 발행 결과를 전달받을 리스너를 설정합니다.
+     *
+     * @param publishListener 리스너, null이면 결과를 전달하지 않음
+     */
+    public void setPublishListener(PublishListener publishListener) {
+        this.publishListener = publishListener;
+    }
+
+    /**
+     * QoS 1/2 메시지를 보관하는 방식을 지정합니다. start() 이전에 호출해야 합니다.
+     *
+     * @param mode 보관 방식 (기본값 DEFAULT)
+     * @param directory 파일을 저장할 디렉터리, null이면 작업 디렉터리
+     */
+    public void setPersistence(MqttPersistenceMode mode, String directory) {
+        this.persistenceMode = Objects.requireNonNull(mode, "mode");
+        this.persistenceDirectory = directory;
+    }
+
     @Override
     public void start() {
         super.start();
+        if (maxInFlight > 0) {
+            startPipelined();
+            return;
+        }
         try{
-            mqttClient = new MqttClient(broker, clientId); // mqtt 클라이언트가 해당 브로커와 연결할 것이라고 알려줘야함.
-            System.out.println("mqttClient create");
+            mqttClient = new MqttClient(broker, clientId, persistenceMode.create(persistenceDirectory)); // mqtt 클라이언트가 해당 브로커와 연결할 것이라고 알려줘야함.
+            log.debug("MqttOutNode[{}] created client {} for {}", getId(), clientId, broker);
             mqttClient.connect(); // 지정된 브로커에 연결을 시도합니다.
 
         }catch(Exception e){
-            e.printStackTrace();
+            log.error("MqttOutNode[{}] failed to connect to {}", getId(), broker, e);
+        }
+    }
+
+    private void startPipelined() {
+        window = new Semaphore(maxInFlight);
+        try {
+            asyncClient = new MqttAsyncClient(broker, clientId, persistenceMode.create(persistenceDirectory));
+            MqttConnectOptions options = new MqttConnectOptions();
+            // Paho의 기본 in-flight 한도(10)가 창 크기를 제한하지 않도록 맞춥니다.
+            options.setMaxInflight(maxInFlight);
+            asyncClient.connect(options).waitForCompletion();
+        } catch (MqttException e) {
+            handleError(e);
+            return;
         }
+        if (maxBatchBytes > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "mqtt-out-flush-" + clientId);
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushAll, lingerMillis, lingerMillis, TimeUnit.MILLISECONDS);
+        }
+        log.info("MqttOutNode[{}] started in pipelined mode - maxInFlight: {}, coalescing: {} bytes",
+                getId(), maxInFlight, maxBatchBytes);
     }
 
     @Override
     public void onMessage(Message message) {
+        if (asyncClient != null) {
+            publishPipelined(message);
+            return;
+        }
         // 브로커한테 날리는 메시지 메서드
         try {
-            mqttClient.publish(topic, new MqttMessage(message.getPayload().toString().getBytes()));
-        } catch (MqttPersistenceException e) {
-            e.printStackTrace();
+            mqttClient.publish(topic, new MqttMessage(toBytes(message)));
         } catch (MqttException e) {
-            e.printStackTrace();
+            log.error("MqttOutNode[{}] failed to publish to {}", getId(), topic, e);
         } // 지정된 주제와 메시지를 MQTT 브로커에 발행합니다. 브로커로 토픽과 메시지(바이트로 변환)를 날림.
     }
-    
+
+    /**
+     * 파이프라인 모드에서는 남은 발행 창의 크기를 수요로 알립니다.
+     *
+     * @return 수요
+     */
+    @Override
+    public long demand() {
+        Semaphore permits = window;
+        if (asyncClient == null || permits == null) {
+            return super.demand();
+        }
+        return Math.min(super.demand(), permits.availablePermits());
+    }
+
+    private void publishPipelined(Message message) {
+        String target = resolveTopic(message);
+        if (target == null) {
+            handleError(new IllegalArgumentException("No topic for message " + message.getId()));
+            return;
+        }
+        byte[] bytes = toBytes(message);
+        if (isCoalescable(target, message, bytes)) {
+            Batch batch = batches.computeIfAbsent(target, Batch::new);
+            List<Message> full = null;
+            byte[] fullBytes = null;
+            synchronized (batch) {
+                if (!batch.messages.isEmpty() && batch.size() + bytes.length + 1 > maxBatchBytes) {
+                    full = batch.messages;
+                    fullBytes = batch.drain();
+                }
+                batch.add(message, bytes);
+            }
+            if (full != null) {
+                publish(target, fullBytes, full);
+            }
+            return;
+        }
+        publish(target, bytes, List.of(message));
+    }
+
+    /**
+     * 메시지를 묶음에 넣을 수 있는지 확인합니다. 받는 쪽이 줄바꿈으로 나누어 원래 메시지를 되찾을 수 있도록
+     * 비어 있지 않고 줄바꿈이 없는 텍스트 페이로드만 병합합니다.
+     */
+    private boolean isCoalescable(String target, Message message, byte[] bytes) {
+        if (maxBatchBytes == 0 || bytes.length == 0 || bytes.length >= maxBatchBytes
+                || message.getPayload() instanceof byte[]) {
+            return false;
+        }
+        Set<String> topics = coalescedTopics;
+        if (topics != null && !topics.contains(target)) {
+            return false;
+        }
+        for (byte b : bytes) {
+            if (b == BATCH_DELIMITER) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 발행 창에 자리가 날 때까지 기다린 뒤 비동기로 발행합니다.
+     * 완료 콜백에서 창을 반환하고, 묶음에 포함된 모든 메시지에 대해 결과를 알립니다.
+     */
+    private void publish(String target, byte[] bytes, List<Message> messages) {
+        try {
+            window.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            notifyFailed(messages, e);
+            return;
+        }
+        MqttMessage mqttMessage = new MqttMessage(bytes);
+        mqttMessage.setQos(qos);
+        try {
+            asyncClient.publish(target, mqttMessage, messages, new IMqttActionListener() {
+                @Override
+                public void onSuccess(IMqttToken token) {
+                    window.release();
+                    notifyDelivered(messages);
+                }
+
+                @Override
+                public void onFailure(IMqttToken token, Throwable cause) {
+                    window.release();
+                    notifyFailed(messages, cause);
+                }
+            });
+        } catch (MqttException e) {
+            window.release();
+            notifyFailed(messages, e);
+        }
+    }
+
+    private void notifyDelivered(List<Message> messages) {
+        PublishListener listener = publishListener;
+        if (listener == null) {
+            return;
+        }
+        for (Message message : messages) {
+            listener.onDelivered(message);
+        }
+    }
+
+    private void notifyFailed(List<Message> messages, Throwable cause) {
+        handleError(cause);
+        PublishListener listener = publishListener;
+        if (listener == null) {
+            return;
+        }
+        for (Message message : messages) {
+            listener.onFailed(message, cause);
+        }
+    }
+
+    /**
+     * 모인 묶음을 모두 발행합니다. 스케줄러 스레드와 stop()에서 호출됩니다.
+     */
+    private void flushAll() {
+        for (Batch batch : batches.values()) {
+            List<Message> messages;
+            byte[] bytes;
+            synchronized (batch) {
+                if (batch.messages.isEmpty()) {
+                    continue;
+                }
+                messages = batch.messages;
+                bytes = batch.drain();
+            }
+            publish(batch.topic, bytes, messages);
+        }
+    }
+
+    private String resolveTopic(Message message) {
+        if (topic != null) {
+            return topic;
+        }
+        Object value = message.getMetadata().get(TOPIC_KEY);
+        return value == null ? null : value.toString();
+    }
+
+    /**
+     * 발행할 바이트를 만듭니다. 바이너리 페이로드는 다시 인코딩하지 않고 원본 바이트를 그대로 사용합니다.
+     */
+    private static byte[] toBytes(Message message) {
+        Object payload = message.getPayload();
+        if (payload instanceof BinaryPayload binary) {
+            return binary.bytes();
+        }
+        if (payload instanceof byte[] bytes) {
+            return bytes;
+        }
+        return payload.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 노드를 중지합니다. 처리 중인 메시지를 기다린 뒤 모인 묶음을 발행하고, 진행 중인 발행이 끝나면 연결을 끊고 클라이언트를 닫습니다.
+     * 전체 대기 시간은 timeout을 넘지 않으며, {@link #stop()}도 이 메서드로 위임됩니다.
+     *
+     * @param timeout 최대 대기 시간
+     * @param unit 대기 시간 단위
+     * @return 제한 시간 안에 모든 메시지를 처리했으면 true
+     */
+    @Override
+    public boolean stop(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean drained = super.stop(timeout, unit);
+        if (asyncClient != null) {
+            if (flusher != null) {
+                flusher.shutdownNow();
+            }
+            flushAll();
+            try {
+                // 진행 중인 발행이 모두 완료될 때까지 기다립니다.
+                if (window.tryAcquire(maxInFlight, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    window.release(maxInFlight);
+                } else {
+                    log.warn("MqttOutNode[{}] stopped with {} publish(es) in flight",
+                            getId(), maxInFlight - window.availablePermits());
+                    drained = false;
+                }
+                if (asyncClient.isConnected()) {
+                    // 연결된 클라이언트는 닫을 수 없으므로 연결이 끊길 때까지 기다립니다.
+                    long remainingMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+                    asyncClient.disconnect(remainingMillis).waitForCompletion(remainingMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (MqttException e) {
+                log.warn("MqttOutNode[{}] failed to disconnect", getId(), e);
+            } finally {
+                close(asyncClient);
+            }
+        } else if (mqttClient != null) {
+            try {
+                if (mqttClient.isConnected()) {
+                    mqttClient.disconnect();
+                }
+            } catch (MqttException e) {
+                log.warn("MqttOutNode[{}] failed to disconnect", getId(), e);
+            } finally {
+                close(mqttClient);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * 클라이언트를 닫아 영속성 저장소를 해제합니다. MAPPED_LOG 저장소는 이때 디렉터리 잠금을 풀므로
+     * 같은 clientId로 다시 시작할 수 있습니다.
+     */
+    private void close(AutoCloseable client) {
+        try {
+            client.close();
+        } catch (Exception e) {
+            log.warn("MqttOutNode[{}] failed to close client", getId(), e);
+        }
+    }
+
+    /**
+     * 한 토픽으로 발행할 작은 메시지들의 묶음입니다.
+     */
+    private static final class Batch {
+        private final String topic;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private List<Message> messages = new ArrayList<>();
+
+        Batch(String topic) {
+            this.topic = topic;
+        }
+
+        int size() {
+            return buffer.size();
+        }
+
+        void add(Message message, byte[] bytes) {
+            if (buffer.size() > 0) {
+                buffer.write(BATCH_DELIMITER);
+            }
+            buffer.writeBytes(bytes);
+            messages.add(message);
+        }
+
+        /**
+         * 묶음의 내용을 반환하고 새 묶음을 시작합니다. 호출 전 messages를 따로 보관해야 합니다.
+         */
+        byte[] drain() {
+            byte[] bytes = buffer.toByteArray();
+            buffer = new ByteArrayOutputStream();
+            messages = new ArrayList<>();
+            return bytes;
+        }
+    }
 }
@@ -0,0 +1,26 @@
+package com.samsa.node.in;
+
+import com.samsa.core.Message;
+
+/**
+ * {@link MqttOutNode}의 비동기 발행 결과를 메시지 단위로 전달받는 리스너입니다.
+ * 콜백은 MQTT 클라이언트의 스레드에서 호출되므로 오래 걸리는 작업을 수행해서는 안 됩니다.
+ */
+public interface PublishListener {
+
+    /**
+     * 메시지가 브로커에 전달되었을 때 호출됩니다.
+     * QoS 0은 클라이언트가 전송을 마친 시점, QoS 1/2는 브로커의 확인 응답을 받은 시점입니다.
+     *
+     * @param message 전달된 메시지
+     */
+    void onDelivered(Message message);
+
+    /**
+     * 메시지 발행에 실패했을 때 호출됩니다.
+     *
+     * @param message 발행에 실패한 메시지
+     * @param cause 실패 원인
+     */
+    void onFailed(Message message, Throwable cause);
+}
@@ -1,33 +1,30 @@
 package com.samsa.node.inout;
 
+import com.samsa.core.FusibleNode;
 import com.samsa.core.InOutNode;
-import com.samsa.core.Node;
 import com.samsa.core.Message;
+import com.samsa.core.MessageDraft;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * 메시지의 페이로드나 메타데이터를 수정하는 노드.
- * 지정된 속성에 새로운 값을 설정하여 메시지를 변경한다.
- * 메시지의 불변성을 유지하기 위해 항상 새로운 Message 객체를 생성한다.
+ * 생성 시 지정된 {@link ChangeRule} 목록을 순서대로 적용하여 중첩 경로의 값을 설정, 제거, 이동, 복사한다.
+ * 메시지의 불변성을 유지하기 위해 항상 새로운 Message 객체를 생성하며, 페이로드는 변경 경로상의 컨테이너만 복사하고
+ * 나머지 하위 구조는 원본 메시지와 공유한다.
+ * 파이프라인에서 다른 융합 가능한 노드와 선형으로 연결되면 하나의 단계로 융합된다.
  */
 @Slf4j
-public class ChangeNode extends InOutNode {
-    /** 변경하려는 속성의 키 값 */
-    private final String propertyName;
-
-    /** 속성에 설정할 새로운 값 */
-    private final Object newValue;
-
-    /** 변경 대상 지정 플래그 (true: 메타데이터, false: 페이로드) */
-    private final boolean isMetadata;
+public class ChangeNode extends InOutNode implements FusibleNode {
+    /** 순서대로 적용할 변경 규칙 */
+    private final ChangeRule[] rules;
 
     /**
      * String UUID로 ChangeNode를 생성한다.
      * 생성 시 노드의 상태는 CREATED이며, 명시적으로 start()를 호출해야 메시지를 처리한다.
+     * 속성 이름은 경로로 해석하지 않고 최상위 키 그대로 사용한다.
      * 
      * @param uuid         노드의 고유 식별자 (UUID 문자열)
      * @param propertyName 변경할 속성의 키 값
@@ -36,17 +33,13 @@ public class ChangeNode extends InOutNode {
      * @throws IllegalArgumentException uuid가 유효하지 않은 경우
      */
     public ChangeNode(String uuid, String propertyName, Object newValue, boolean isMetadata) {
-        super(uuid);
-        this.propertyName = propertyName;
-        this.newValue = newValue;
-        this.isMetadata = isMetadata;
-        log.info("ChangeNode[{}] created - property: {}, target: {}",
-                getId(), propertyName, isMetadata ? "metadata" : "payload");
+        this(uuid, List.of(singleSet(propertyName, newValue, isMetadata)));
     }
 
     /**
      * UUID 객체로 ChangeNode를 생성한다.
      * 생성 시 노드의 상태는 CREATED이며, 명시적으로 start()를 호출해야 메시지를 처리한다.
+     * 속성 이름은 경로로 해석하지 않고 최상위 키 그대로 사용한다.
      * 
      * @param id           노드의 고유 식별자 (UUID 객체)
      * @param propertyName 변경할 속성의 키 값
@@ -54,17 +47,51 @@ public class ChangeNode extends InOutNode {
      * @param isMetadata   true면 메타데이터 변경, false면 페이로드 변경
      */
     public ChangeNode(UUID id, String propertyName, Object newValue, boolean isMetadata) {
+        this(id, List.of(singleSet(propertyName, newValue, isMetadata)));
+    }
+
+    /**
+     * String UUID와 변경 규칙 목록으로 ChangeNode를 생성한다.
+     *
+     * @param uuid  노드의 고유 식별자 (UUID 문자열)
+     * @param rules 순서대로 적용할 변경 규칙
+     * @throws IllegalArgumentException uuid가 유효하지 않은 경우
+     */
+    public ChangeNode(String uuid, List<ChangeRule> rules) {
+        super(uuid);
+        this.rules = rules.toArray(new ChangeRule[0]);
+        log.info("ChangeNode[{}] created - rules: {}", getId(), rules);
+    }
+
+    /**
+     * UUID 객체와 변경 규칙 목록으로 ChangeNode를 생성한다.
+     *
+     * @param id    노드의 고유 식별자 (UUID 객체)
+     * @param rules 순서대로 적용할 변경 규칙
+     */
+    public ChangeNode(UUID id, List<ChangeRule> rules) {
         super(id);
-        this.propertyName = propertyName;
-        this.newValue = newValue;
-        this.isMetadata = isMetadata;
-        log.info("ChangeNode[{}] created - property: {}, target: {}",
-                getId(), propertyName, isMetadata ? "metadata" : "payload");
+        this.rules = rules.toArray(new ChangeRule[0]);
+        log.info("ChangeNode[{}] created - rules: {}", getId(), rules);
+    }
+
+    private static ChangeRule singleSet(String propertyName, Object newValue, boolean isMetadata) {
+        return ChangeRule.set(isMetadata ? ChangeRule.Target.METADATA : ChangeRule.Target.PAYLOAD,
+                PathExpression.ofKey(propertyName), newValue);
+    }
+
+    /**
+     * 노드에 설정된 변경 규칙을 반환한다.
+     *
+     * @return 변경 규칙 목록
+     */
+    public List<ChangeRule> getRules() {
+        return List.of(rules);
     }
 
     /**
      * 메시지를 받아서 처리하는 메서드.
-     * 노드가 RUNNING 상태일 때만 동작하며, 설정에 따라 메타데이터나 페이로드를 수정한다.
+     * 노드가 RUNNING(또는 중지 중인 STOPPING) 상태일 때만 동작하며, 설정에 따라 메타데이터나 페이로드를 수정한다.
      * 메시지의 불변성을 유지하기 위해 새로운 Message 객체를 생성하여 전달한다.
      * 
      * @param message 처리할 메시지 객체
@@ -72,50 +99,16 @@ public class ChangeNode extends InOutNode {
     @Override
     public void onMessage(Message message) {
         try {
-            /** 리플렉션을 사용하여 노드의 상태 필드에 접근 */
-            java.lang.reflect.Field statusField = Node.class.getDeclaredField("status");
-            statusField.setAccessible(true);
-            Object currentStatus = statusField.get(this);
-
-            /** 노드가 실행 중이 아니면 메시지 처리하지 않음 */
-            if (!"RUNNING".equals(currentStatus.toString())) {
+            /** 노드가 실행(또는 중지 중 소진) 상태가 아니면 메시지 처리하지 않음 */
+            if (!isActive()) {
                 log.debug("ChangeNode[{}] skipped message: not in RUNNING state", getId());
                 return;
             }
 
-            if (isMetadata) {
-                /** 메타데이터 변경 로직 */
-                log.debug("ChangeNode[{}] modifying metadata - property: {}, value: {}",
-                        getId(), propertyName, newValue);
-                /** 기존 메타데이터를 복사하여 새로운 Map 생성 */
-                Map<String, Object> newMetadata = new HashMap<>(message.getMetadata());
-                /** 지정된 속성에 새로운 값 설정 */
-                newMetadata.put(propertyName, newValue);
-                /** 새로운 메타데이터를 가진 메시지 생성 및 전송 */
-                emit(new Message(message.getPayload(), newMetadata));
-                log.info("ChangeNode[{}] metadata modified successfully", getId());
-            } else {
-                /** 페이로드 변경 로직 */
-                log.debug("ChangeNode[{}] modifying payload - property: {}, value: {}",
-                        getId(), propertyName, newValue);
-                Map<String, Object> payloadMap = new HashMap<>();
-                Object payload = message.getPayload();
-
-                /** 기존 페이로드가 Map인 경우 데이터 복사 */
-                if (payload instanceof Map<?, ?> map) {
-                    map.forEach((key, value) -> {
-                        if (key instanceof String) {
-                            payloadMap.put((String) key, value);
-                        }
-                    });
-                }
-
-                /** 새로운 값 설정 */
-                payloadMap.put(propertyName, newValue);
-                /** 새로운 페이로드를 가진 메시지 생성 및 전송 */
-                emit(new Message(payloadMap, message.getMetadata()));
-                log.info("ChangeNode[{}] payload modified successfully", getId());
-            }
+            MessageDraft draft = new MessageDraft(message);
+            applyTo(draft);
+            emit(draft.toMessage());
+            log.trace("ChangeNode[{}] message modified successfully", getId());
         } catch (Exception e) {
             /** 예외 발생 시 로그 기록 및 에러 처리 */
             log.error("Error in ChangeNode[{}]: {}", getId(), e.getMessage());
@@ -123,6 +116,21 @@ public class ChangeNode extends InOutNode {
             return;
         }
     }
+
+    /**
+     * 변경 규칙을 순서대로 메시지 초안에 적용한다.
+     *
+     * @param draft 수정할 메시지 초안
+     * @return 항상 true (메시지를 걸러내지 않음)
+     */
+    @Override
+    public boolean applyTo(MessageDraft draft) {
+        for (ChangeRule rule : rules) {
+            log.trace("ChangeNode[{}] applying rule: {}", getId(), rule);
+            rule.applyTo(draft);
+        }
+        return true;
+    }
 }
 
 /**
@@ -152,4 +160,10 @@ public class ChangeNode extends InOutNode {
  * Message message2 = new Message(payload);
  * log.debug("Created test message with payload: {}", payload);
  * payloadNode.onMessage(message2);
+ * 
+ * /** 중첩 경로 규칙 사용
+ * ChangeNode ruleNode = new ChangeNode(UUID.randomUUID(), List.of(
+ *         ChangeRule.set(ChangeRule.Target.PAYLOAD, "sensor.readings[0].unit", "C"),
+ *         ChangeRule.move(ChangeRule.Target.PAYLOAD, "sensor.id", ChangeRule.Target.METADATA, "sensorId"),
+ *         ChangeRule.delete(ChangeRule.Target.PAYLOAD, "debug")));
  */
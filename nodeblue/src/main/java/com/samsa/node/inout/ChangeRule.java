@@ -0,0 +1,212 @@
+package com.samsa.node.inout;
+
+import com.samsa.core.MessageDraft;
+
+import java.util.Objects;
+
+/**
+ * {@link ChangeNode}가 메시지에 적용하는 변경 규칙 하나를 나타내는 불변 클래스입니다.
+ * 규칙의 경로는 생성 시 {@link PathExpression}으로 한 번만 컴파일됩니다.
+ * 메타데이터 경로의 첫 구성 요소는 메타데이터 키이고, 나머지는 그 값 안의 중첩 경로입니다.
+ */
+public final class ChangeRule {
+
+    /**
+     * 규칙의 동작입니다.
+     */
+    public enum Operation {
+        /** 대상 경로에 값을 설정 */
+        SET,
+        /** 대상 경로의 값을 제거 */
+        DELETE,
+        /** 원본 경로의 값을 대상 경로로 옮김 (원본 경로가 없으면 아무것도 하지 않음) */
+        MOVE,
+        /** 원본 경로의 값을 대상 경로로 복사 (원본 경로가 없으면 아무것도 하지 않음) */
+        COPY
+    }
+
+    /**
+     * 경로가 가리키는 메시지의 영역입니다.
+     */
+    public enum Target {
+        /** 페이로드 */
+        PAYLOAD,
+        /** 메타데이터 */
+        METADATA
+    }
+
+    private final Operation operation;
+    private final Target target;
+    private final PathExpression path;
+    private final Object value;
+    private final Target fromTarget;
+    private final PathExpression fromPath;
+
+    private ChangeRule(Operation operation, Target target, PathExpression path, Object value,
+            Target fromTarget, PathExpression fromPath) {
+        this.operation = operation;
+        this.target = Objects.requireNonNull(target, "target");
+        this.path = path;
+        this.value = value;
+        this.fromTarget = fromTarget;
+        this.fromPath = fromPath;
+        requireKey(target, path);
+        if (fromTarget != null) {
+            requireKey(fromTarget, fromPath);
+        }
+    }
+
+    private static void requireKey(Target target, PathExpression path) {
+        if (target == Target.METADATA && (path.length() == 0 || !(path.segment(0) instanceof String))) {
+            throw new IllegalArgumentException("Metadata path must start with a key: '" + path + "'");
+        }
+    }
+
+    /**
+     * 경로에 값을 설정하는 규칙을 만듭니다.
+     *
+     * @param target 대상 영역
+     * @param path 대상 경로
+     * @param value 설정할 값
+     * @return 규칙
+     * @throws IllegalArgumentException 경로의 문법이 올바르지 않은 경우
+     */
+    public static ChangeRule set(Target target, String path, Object value) {
+        return set(target, PathExpression.compile(path), value);
+    }
+
+    /**
+     * 컴파일된 경로에 값을 설정하는 규칙을 만듭니다.
+     *
+     * @param target 대상 영역
+     * @param path 대상 경로
+     * @param value 설정할 값
+     * @return 규칙
+     */
+    public static ChangeRule set(Target target, PathExpression path, Object value) {
+        return new ChangeRule(Operation.SET, target, path, value, null, null);
+    }
+
+    /**
+     * 경로의 값을 제거하는 규칙을 만듭니다.
+     *
+     * @param target 대상 영역
+     * @param path 제거할 경로
+     * @return 규칙
+     * @throws IllegalArgumentException 경로의 문법이 올바르지 않은 경우
+     */
+    public static ChangeRule delete(Target target, String path) {
+        return new ChangeRule(Operation.DELETE, target, PathExpression.compile(path), null, null, null);
+    }
+
+    /**
+     * 값을 다른 경로로 옮기는 규칙을 만듭니다.
+     *
+     * @param fromTarget 원본 영역
+     * @param fromPath 원본 경로
+     * @param target 대상 영역
+     * @param path 대상 경로
+     * @return 규칙
+     * @throws IllegalArgumentException 경로의 문법이 올바르지 않은 경우
+     */
+    public static ChangeRule move(Target fromTarget, String fromPath, Target target, String path) {
+        return new ChangeRule(Operation.MOVE, target, PathExpression.compile(path), null,
+                Objects.requireNonNull(fromTarget, "fromTarget"), PathExpression.compile(fromPath));
+    }
+
+    /**
+     * 값을 다른 경로로 복사하는 규칙을 만듭니다.
+     *
+     * @param fromTarget 원본 영역
+     * @param fromPath 원본 경로
+     * @param target 대상 영역
+     * @param path 대상 경로
+     * @return 규칙
+     * @throws IllegalArgumentException 경로의 문법이 올바르지 않은 경우
+     */
+    public static ChangeRule copy(Target fromTarget, String fromPath, Target target, String path) {
+        return new ChangeRule(Operation.COPY, target, PathExpression.compile(path), null,
+                Objects.requireNonNull(fromTarget, "fromTarget"), PathExpression.compile(fromPath));
+    }
+
+    /**
+     * 규칙을 메시지 초안에 적용합니다.
+     *
+     * @param draft 수정할 메시지 초안
+     */
+    void applyTo(MessageDraft draft) {
+        switch (operation) {
+            case SET -> write(draft, target, path, value);
+            case DELETE -> remove(draft, target, path);
+            case MOVE, COPY -> {
+                Object current = read(draft, fromTarget, fromPath);
+                if (current == PathExpression.MISSING) {
+                    return;
+                }
+                if (operation == Operation.MOVE) {
+                    remove(draft, fromTarget, fromPath);
+                }
+                write(draft, target, path, current);
+            }
+        }
+    }
+
+    private static Object read(MessageDraft draft, Target target, PathExpression path) {
+        return path.find(target == Target.PAYLOAD ? draft.getPayload() : draft.getMetadata());
+    }
+
+    private static void write(MessageDraft draft, Target target, PathExpression path, Object value) {
+        if (target == Target.PAYLOAD) {
+            draft.setPayload(path.set(draft.getPayload(), value));
+            return;
+        }
+        String key = (String) path.segment(0);
+        if (path.length() == 1) {
+            draft.putMetadata(key, value);
+        } else {
+            draft.putMetadata(key, path.tail().set(draft.getMetadata().get(key), value));
+        }
+    }
+
+    private static void remove(MessageDraft draft, Target target, PathExpression path) {
+        if (target == Target.PAYLOAD) {
+            Object payload = draft.getPayload();
+            Object updated = path.delete(payload);
+            if (updated != payload) {
+                draft.setPayload(updated);
+            }
+            return;
+        }
+        String key = (String) path.segment(0);
+        if (path.length() == 1) {
+            draft.removeMetadata(key);
+            return;
+        }
+        Object current = draft.getMetadata().get(key);
+        Object updated = path.tail().delete(current);
+        if (updated != current) {
+            draft.putMetadata(key, updated);
+        }
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public Target getTarget() {
+        return target;
+    }
+
+    public PathExpression getPath() {
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return switch (operation) {
+            case SET -> "SET " + target + ":" + path;
+            case DELETE -> "DELETE " + target + ":" + path;
+            case MOVE, COPY -> operation + " " + fromTarget + ":" + fromPath + " -> " + target + ":" + path;
+        };
+    }
+}
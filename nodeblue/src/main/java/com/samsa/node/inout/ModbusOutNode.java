@@ -0,0 +1,516 @@
+package com.samsa.node.inout;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.samsa.core.BinaryPayload;
+import com.samsa.core.InOutNode;
+import com.samsa.core.Message;
+import com.samsa.modbus.ModbusDevice;
+import com.samsa.modbus.ModbusDeviceException;
+import com.samsa.modbus.ModbusPoint;
+import com.samsa.modbus.ModbusScheduler;
+import com.samsa.modbus.RegisterType;
+import com.serotonin.modbus4j.ModbusMaster;
+import com.serotonin.modbus4j.exception.ModbusInitException;
+import com.serotonin.modbus4j.exception.ModbusTransportException;
+import com.serotonin.modbus4j.msg.ModbusRequest;
+import com.serotonin.modbus4j.msg.ModbusResponse;
+import com.serotonin.modbus4j.msg.WriteCoilRequest;
+import com.serotonin.modbus4j.msg.WriteCoilsRequest;
+import com.serotonin.modbus4j.msg.WriteRegisterRequest;
+import com.serotonin.modbus4j.msg.WriteRegistersRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 메시지의 값을 Modbus 장치의 홀딩 레지스터와 코일에 쓰는 노드입니다.
+ *
+ * <p>쓸 위치는 메타데이터의 point(필요하면 device)로 지정하고 페이로드가 값입니다. point가 없으면 페이로드가
+ * 포인트 이름 → 값 맵이어야 합니다. 메타데이터 키는 {@link com.samsa.node.out.ModbusInNode}와 같으므로 읽은 값을 그대로 쓸 수 있습니다.
+ *
+ * <p>쓰기는 장치별 대기열에 레지스터 단위로 쌓이며, 같은 레지스터에 대한 이전 값은 새 값으로 대체됩니다.
+ * 첫 쓰기가 들어온 뒤 묶음 대기 시간이 지나면 대기열을 한꺼번에 꺼내 같은 슬레이브의 연속 주소를
+ * 한 번의 다중 쓰기(FC 15/16)로 보냅니다. 장치당 쓰기는 한 번에 하나만 진행되므로, 장치가 느린 동안 들어온 쓰기는
+ * 대기열에서 최신 값만 남아 다음 묶음으로 나갑니다.
+ *
+ * <p>처리가 끝난 메시지는 {@link #RESULT_KEY} 메타데이터에 {@link WriteResult}를 붙여 출력으로 내보냅니다.
+ * 실패한 쓰기는 {@link #handleError(Throwable)}로도 보고됩니다.
+ */
+@Slf4j
+public class ModbusOutNode extends InOutNode {
+    /** 장치 이름을 지정하는 메타데이터 키 (장치가 하나면 생략 가능) */
+    public static final String DEVICE_KEY = "device";
+    /** 포인트 이름을 지정하는 메타데이터 키 */
+    public static final String POINT_KEY = "point";
+    /** 쓰기 결과를 저장하는 메타데이터 키 */
+    public static final String RESULT_KEY = "writeResult";
+    /** 실패 사유를 저장하는 메타데이터 키 */
+    public static final String ERROR_KEY = "error";
+
+    /** 기본 묶음 대기 시간 */
+    public static final long DEFAULT_WINDOW_MILLIS = 10;
+    /** 한 번에 쓸 수 있는 최대 레지스터 수 (FC 16) */
+    private static final int MAX_WRITE_REGISTERS = 123;
+    /** 한 번에 쓸 수 있는 최대 코일 수 (FC 15) */
+    private static final int MAX_WRITE_COILS = 1968;
+
+    /**
+     * 메시지 하나의 쓰기 결과입니다.
+     */
+    public enum WriteResult {
+        /** 모든 값을 장치에 썼음 */
+        WRITTEN,
+        /** 보내기 전에 모든 값이 더 새로운 값으로 대체됨 */
+        SUPERSEDED,
+        /** 하나 이상의 값을 쓰지 못함 */
+        FAILED
+    }
+
+    private final Map<String, DeviceWriter> writers = new LinkedHashMap<>();
+    private long windowMillis = DEFAULT_WINDOW_MILLIS;
+    /** 장치로 보낸 쓰기 요청 수 */
+    private final LongAdder requests = new LongAdder();
+
+    public ModbusOutNode() {
+        super();
+    }
+
+    public ModbusOutNode(UUID id) {
+        super(id);
+    }
+
+    public ModbusOutNode(String id) {
+        super(id);
+    }
+
+    /**
+     * 값을 쓸 장치와 포인트를 추가합니다. start() 이전에 호출해야 합니다.
+     *
+     * @param device 장치 연결 설정
+     * @param points 쓸 수 있는 포인트 (코일 또는 홀딩 레지스터)
+     * @throws IllegalArgumentException 쓸 수 없는 영역의 포인트가 있거나 이름이 중복된 경우
+     */
+    public void addDevice(ModbusDevice device, List<ModbusPoint> points) {
+        Map<String, ModbusPoint> byName = new HashMap<>();
+        for (ModbusPoint point : points) {
+            RegisterType type = point.getRegisterType();
+            if (type != RegisterType.COIL && type != RegisterType.HOLDING_REGISTER) {
+                throw new IllegalArgumentException("Point is not writable: " + point);
+            }
+            if (byName.put(point.getName(), point) != null) {
+                throw new IllegalArgumentException("Duplicate point name: " + point.getName());
+            }
+        }
+        writers.put(device.getName(), new DeviceWriter(device, byName));
+    }
+
+    /**
+     * 첫 쓰기 후 묶음을 보내기까지 기다리는 시간을 설정합니다.
+     *
+     * @param windowMillis 묶음 대기 시간 (밀리초), 0이면 바로 보냄
+     */
+    public void setWindowMillis(long windowMillis) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("windowMillis must not be negative: " + windowMillis);
+        }
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        WriteTracker tracker = new WriteTracker(message);
+        try {
+            DeviceWriter writer = resolveWriter(message);
+            Map<ModbusPoint, Object> values = resolveValues(writer, message);
+            writer.enqueue(values, tracker);
+        } catch (IllegalArgumentException e) {
+            tracker.fail(e.getMessage());
+            handleError(e);
+        }
+    }
+
+    private DeviceWriter resolveWriter(Message message) {
+        Object device = message.getMetadata().get(DEVICE_KEY);
+        if (device == null) {
+            if (writers.size() != 1) {
+                throw new IllegalArgumentException("Message has no " + DEVICE_KEY + " metadata");
+            }
+            return writers.values().iterator().next();
+        }
+        DeviceWriter writer = writers.get(device.toString());
+        if (writer == null) {
+            throw new IllegalArgumentException("Unknown device: " + device);
+        }
+        return writer;
+    }
+
+    private static Map<ModbusPoint, Object> resolveValues(DeviceWriter writer, Message message) {
+        Map<ModbusPoint, Object> values = new LinkedHashMap<>();
+        Object point = message.getMetadata().get(POINT_KEY);
+        Object payload = message.getPayload();
+        if (point != null) {
+            values.put(writer.point(point.toString()), payload);
+            return values;
+        }
+        if (payload instanceof BinaryPayload binary) {
+            payload = binary.asObject();
+        }
+        if (!(payload instanceof Map<?, ?> map)) {
+            throw new IllegalArgumentException("Message has no " + POINT_KEY + " metadata and payload is not a map");
+        }
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            values.put(writer.point(String.valueOf(entry.getKey())), entry.getValue());
+        }
+        return values;
+    }
+
+    /**
+     * 노드를 중지하고 장치별 대기열의 쓰기가 끝나면 연결을 닫습니다. 전체 대기 시간은 timeout을 넘지 않으며,
+     * {@link #stop()}도 이 메서드로 위임됩니다.
+     *
+     * @param timeout 최대 대기 시간
+     * @param unit 대기 시간 단위
+     * @return 제한 시간 안에 모든 메시지를 처리했으면 true
+     */
+    @Override
+    public boolean stop(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean drained = super.stop(timeout, unit);
+        for (DeviceWriter writer : writers.values()) {
+            writer.close(Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+        return drained;
+    }
+
+    /**
+     * 장치로 보낸 쓰기 요청 수를 반환합니다.
+     *
+     * @return 쓰기 요청 수
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * 대기열에 있는 레지스터 또는 코일 하나의 값입니다. pointStart는 포인트의 첫 레지스터(코일은 항상)이면 true입니다.
+     */
+    private record PendingWrite(int slaveId, boolean coil, int address, short word, boolean bit, boolean pointStart,
+            WriteTracker tracker) {
+        /**
+         * 슬레이브, 영역, 주소 순으로 정렬되는 키입니다.
+         */
+        long key() {
+            return ((long) slaveId << 17) | ((coil ? 0L : 1L) << 16) | address;
+        }
+
+        boolean continues(PendingWrite previous) {
+            return previous.slaveId == slaveId && previous.coil == coil && previous.address + 1 == address;
+        }
+    }
+
+    /**
+     * 장치 하나의 쓰기 대기열입니다. 대기열은 this로 보호하며, 쓰기 작업은 한 번에 하나만 예약되거나 실행됩니다.
+     */
+    private final class DeviceWriter {
+        private final ModbusDevice device;
+        private final Map<String, ModbusPoint> points;
+        /** 레지스터별 최신 값 */
+        private final TreeMap<Long, PendingWrite> pending = new TreeMap<>();
+        /** 쓰기 작업이 예약되었거나 실행 중인지 여부 */
+        private boolean scheduled;
+        /** 쓰기 작업 스레드만 사용하는 연결 */
+        private ModbusMaster master;
+        private boolean failing;
+
+        DeviceWriter(ModbusDevice device, Map<String, ModbusPoint> points) {
+            this.device = device;
+            this.points = points;
+        }
+
+        ModbusPoint point(String name) {
+            ModbusPoint point = points.get(name);
+            if (point == null) {
+                throw new IllegalArgumentException("Unknown point " + name + " on device " + device.getName());
+            }
+            return point;
+        }
+
+        /**
+         * 값을 레지스터 단위로 나누어 대기열에 넣습니다. 같은 레지스터의 이전 값은 대체됩니다.
+         */
+        void enqueue(Map<ModbusPoint, Object> values, WriteTracker tracker) {
+            List<PendingWrite> writes = new ArrayList<>();
+            for (Map.Entry<ModbusPoint, Object> entry : values.entrySet()) {
+                ModbusPoint point = entry.getKey();
+                if (point.getRegisterType() == RegisterType.COIL) {
+                    writes.add(new PendingWrite(point.getSlaveId(), true, point.getAddress(), (short) 0,
+                            toBoolean(entry.getValue()), true, tracker));
+                    continue;
+                }
+                short[] words = point.getDataType().encode(toNumber(entry.getValue()));
+                for (int i = 0; i < words.length; i++) {
+                    writes.add(new PendingWrite(point.getSlaveId(), false, point.getAddress() + i, words[i], false,
+                            i == 0, tracker));
+                }
+            }
+            tracker.add(writes.size());
+            List<PendingWrite> superseded = new ArrayList<>();
+            synchronized (this) {
+                for (PendingWrite write : writes) {
+                    PendingWrite previous = pending.put(write.key(), write);
+                    if (previous != null) {
+                        superseded.add(previous);
+                    }
+                }
+                if (!scheduled) {
+                    scheduled = true;
+                    ModbusScheduler.shared().schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            tracker.release();
+            for (PendingWrite previous : superseded) {
+                previous.tracker().complete(WriteResult.SUPERSEDED);
+            }
+        }
+
+        /**
+         * 대기열을 모두 꺼내 연속 주소끼리 묶어 씁니다. 그동안 새 값이 들어왔으면 묶음 대기 시간 뒤에 다시 실행합니다.
+         */
+        private void flush() {
+            List<PendingWrite> batch;
+            synchronized (this) {
+                batch = new ArrayList<>(pending.values());
+                pending.clear();
+            }
+            try {
+                write(batch);
+            } finally {
+                synchronized (this) {
+                    if (pending.isEmpty()) {
+                        scheduled = false;
+                        notifyAll();
+                    } else {
+                        ModbusScheduler.shared().schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+                    }
+                }
+            }
+        }
+
+        private void write(List<PendingWrite> batch) {
+            int start = 0;
+            while (start < batch.size()) {
+                int limit = batch.get(start).coil() ? MAX_WRITE_COILS : MAX_WRITE_REGISTERS;
+                int end = start + 1;
+                while (end < batch.size() && end - start <= limit && batch.get(end).continues(batch.get(end - 1))) {
+                    end++;
+                }
+                if (end - start > limit) {
+                    // 여러 레지스터로 된 포인트가 두 요청에 나뉘어 반만 쓰이지 않도록 포인트 경계에서 자릅니다.
+                    end = start + limit;
+                    while (end > start + 1 && !batch.get(end).pointStart()) {
+                        end--;
+                    }
+                }
+                List<PendingWrite> run = batch.subList(start, end);
+                try {
+                    send(run);
+                    for (PendingWrite write : run) {
+                        write.tracker().complete(WriteResult.WRITTEN);
+                    }
+                    if (failing) {
+                        failing = false;
+                        log.info("ModbusOutNode[{}] device {} recovered", getId(), device.getName());
+                    }
+                } catch (ModbusInitException | ModbusTransportException | ModbusDeviceException e) {
+                    // 예외 응답은 장치와 통신이 되는 상태이므로 연결은 유지하고 매번 보고합니다.
+                    boolean connectionError = !(e instanceof ModbusDeviceException);
+                    if (connectionError) {
+                        disconnect();
+                    }
+                    for (PendingWrite write : run) {
+                        write.tracker().fail(e.getMessage());
+                    }
+                    if (!connectionError || !failing) {
+                        handleError(e);
+                    }
+                    failing = connectionError;
+                }
+                start = end;
+            }
+        }
+
+        private void send(List<PendingWrite> run)
+                throws ModbusInitException, ModbusTransportException, ModbusDeviceException {
+            PendingWrite first = run.get(0);
+            ModbusRequest request;
+            if (first.coil()) {
+                if (run.size() == 1) {
+                    request = new WriteCoilRequest(first.slaveId(), first.address(), first.bit());
+                } else {
+                    boolean[] bits = new boolean[run.size()];
+                    for (int i = 0; i < bits.length; i++) {
+                        bits[i] = run.get(i).bit();
+                    }
+                    request = new WriteCoilsRequest(first.slaveId(), first.address(), bits);
+                }
+            } else if (run.size() == 1) {
+                request = new WriteRegisterRequest(first.slaveId(), first.address(), first.word() & 0xFFFF);
+            } else {
+                short[] words = new short[run.size()];
+                for (int i = 0; i < words.length; i++) {
+                    words[i] = run.get(i).word();
+                }
+                request = new WriteRegistersRequest(first.slaveId(), first.address(), words);
+            }
+            ModbusResponse response = connect().send(request);
+            requests.increment();
+            if (response.isException()) {
+                throw new ModbusDeviceException("Device " + device.getName() + " rejected write of " + run.size()
+                        + " value(s) at " + first.slaveId() + ":" + first.address() + ": "
+                        + response.getExceptionMessage(), response.getExceptionCode());
+            }
+        }
+
+        private ModbusMaster connect() throws ModbusInitException {
+            if (master == null) {
+                ModbusMaster created = device.createMaster();
+                try {
+                    created.init();
+                } catch (ModbusInitException e) {
+                    created.destroy();
+                    throw e;
+                }
+                master = created;
+            }
+            return master;
+        }
+
+        private void disconnect() {
+            if (master != null) {
+                master.destroy();
+                master = null;
+            }
+        }
+
+        /**
+         * 대기 중인 쓰기가 끝날 때까지 최대 timeoutMillis 동안 기다린 뒤 연결을 닫습니다.
+         */
+        synchronized void close(long timeoutMillis) {
+            long deadline = System.currentTimeMillis() + timeoutMillis;
+            try {
+                while (scheduled) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        log.warn("ModbusOutNode[{}] closed device {} with {} pending write(s)", getId(),
+                                device.getName(), pending.size());
+                        return;
+                    }
+                    wait(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            disconnect();
+        }
+    }
+
+    private static boolean toBoolean(Object value) {
+        if (value instanceof Boolean flag) {
+            return flag;
+        }
+        if (value instanceof Number number) {
+            return number.doubleValue() != 0;
+        }
+        if (value instanceof String || value instanceof BinaryPayload) {
+            String text = value.toString().trim();
+            if (text.equalsIgnoreCase("true") || text.equals("1")) {
+                return true;
+            }
+            if (text.equalsIgnoreCase("false") || text.equals("0")) {
+                return false;
+            }
+        }
+        throw new IllegalArgumentException("Not a coil value: " + value);
+    }
+
+    private static Number toNumber(Object value) {
+        if (value instanceof Number number) {
+            return number;
+        }
+        if (value instanceof Boolean flag) {
+            return flag ? 1 : 0;
+        }
+        if (value instanceof String || value instanceof BinaryPayload) {
+            try {
+                return Double.parseDouble(value.toString().trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a register value: " + value);
+            }
+        }
+        throw new IllegalArgumentException("Not a register value: " + value);
+    }
+
+    /**
+     * 메시지 하나에서 나온 쓰기들의 진행 상황입니다. 모두 끝나면 결과를 붙인 메시지를 내보냅니다.
+     * 대기열에 넣는 동안 결과가 먼저 나가지 않도록 생성 시 하나를 더 세어 두고 {@link #release()}에서 뺍니다.
+     */
+    private final class WriteTracker {
+        private final Message message;
+        private int remaining = 1;
+        private boolean written;
+        private String error;
+
+        WriteTracker(Message message) {
+            this.message = message;
+        }
+
+        synchronized void add(int count) {
+            remaining += count;
+        }
+
+        void release() {
+            complete(null);
+        }
+
+        /**
+         * 실패 사유를 기록하고 쓰기 하나를 끝냅니다. 대기열에 넣기 전에 실패하면 예약분을 끝내므로 바로 결과가 나갑니다.
+         */
+        void fail(String reason) {
+            synchronized (this) {
+                if (error == null) {
+                    error = reason == null ? "write failed" : reason;
+                }
+            }
+            complete(WriteResult.FAILED);
+        }
+
+        void complete(WriteResult result) {
+            WriteResult outcome;
+            String reason;
+            synchronized (this) {
+                if (result == WriteResult.WRITTEN) {
+                    written = true;
+                }
+                if (--remaining > 0) {
+                    return;
+                }
+                outcome = error != null ? WriteResult.FAILED : written ? WriteResult.WRITTEN : WriteResult.SUPERSEDED;
+                reason = error;
+            }
+            Message completed = message.withMetadata(RESULT_KEY, outcome.name());
+            if (outcome == WriteResult.FAILED) {
+                completed = completed.withMetadata(ERROR_KEY, reason);
+            }
+            emit(completed);
+        }
+    }
+}
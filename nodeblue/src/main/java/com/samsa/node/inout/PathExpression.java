@@ -0,0 +1,432 @@
+package com.samsa.node.inout;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.samsa.core.BinaryPayload;
+
+/**
+ * 중첩된 Map/List 구조 안의 위치를 가리키는 컴파일된 경로 식입니다. (예: {@code a.b[2].c}, {@code ["key.with.dot"]})
+ * 식은 생성 시 한 번만 분해되며, 갱신 연산은 원본을 변경하지 않고 경로상의 컨테이너만 얕게 복사한 새 루트를 반환합니다.
+ * 경로에서 벗어난 하위 구조는 원본과 공유됩니다.
+ *
+ * <p>{@link BinaryPayload}는 읽을 때 캐시된 JSON 트리를 탐색하며, 갱신할 때만 Java 객체로 변환됩니다.
+ * 캐시된 트리는 공유되므로 읽은 값이 Map이나 List이면 트리의 일부가 아니라 새로 변환한 객체를 반환합니다.
+ * 갱신할 때는 경로에 있는 JSON 컨테이너만 Map/List로 복사하고, 경로에서 벗어난 하위 트리는 변환하지 않고
+ * 캐시된 트리를 감싼 읽기 전용 Map/List 보기로 공유합니다.
+ * JSON이 아닌 바이너리 페이로드(일반 텍스트 등)는 하위 경로가 없는 문자열로 취급합니다.
+ */
+public final class PathExpression {
+    /** 값이 없음을 나타내는 표식 (null 값과 구분하기 위해 사용) */
+    static final Object MISSING = new Object();
+    /** JSON 트리를 Java 객체로 변환할 때 사용하는 매퍼 */
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** 원본 식 */
+    private final String expression;
+    /** 경로 구성 요소 (Map 키는 String, List 인덱스는 Integer) */
+    private final Object[] segments;
+
+    private PathExpression(String expression, Object[] segments) {
+        this.expression = expression;
+        this.segments = segments;
+    }
+
+    /**
+     * 경로 식을 컴파일합니다. 빈 문자열은 루트 자체를 가리킵니다.
+     *
+     * @param expression 경로 식
+     * @return 컴파일된 경로
+     * @throws IllegalArgumentException 식의 문법이 올바르지 않은 경우
+     */
+    public static PathExpression compile(String expression) {
+        List<Object> segments = new ArrayList<>();
+        int length = expression.length();
+        int i = 0;
+        boolean expectName = true;
+        while (i < length) {
+            char c = expression.charAt(i);
+            if (c == '[') {
+                int close = expression.indexOf(']', i);
+                if (close < 0) {
+                    throw syntaxError(expression, i, "unclosed '['");
+                }
+                String inner = expression.substring(i + 1, close).trim();
+                segments.add(parseBracket(expression, i, inner));
+                i = close + 1;
+                expectName = false;
+            } else if (c == '.') {
+                if (expectName) {
+                    throw syntaxError(expression, i, "empty segment");
+                }
+                i++;
+                expectName = true;
+                if (i == length) {
+                    throw syntaxError(expression, i, "trailing '.'");
+                }
+            } else {
+                if (!expectName) {
+                    throw syntaxError(expression, i, "expected '.' or '['");
+                }
+                int end = i;
+                while (end < length && expression.charAt(end) != '.' && expression.charAt(end) != '[') {
+                    end++;
+                }
+                segments.add(expression.substring(i, end));
+                i = end;
+                expectName = false;
+            }
+        }
+        return new PathExpression(expression, segments.toArray());
+    }
+
+    private static Object parseBracket(String expression, int position, String inner) {
+        if (inner.length() >= 2 && (inner.charAt(0) == '"' || inner.charAt(0) == '\'')
+                && inner.charAt(inner.length() - 1) == inner.charAt(0)) {
+            return inner.substring(1, inner.length() - 1);
+        }
+        try {
+            int index = Integer.parseInt(inner);
+            if (index < 0) {
+                throw syntaxError(expression, position, "negative index");
+            }
+            return index;
+        } catch (NumberFormatException e) {
+            throw syntaxError(expression, position, "invalid index '" + inner + "'");
+        }
+    }
+
+    private static IllegalArgumentException syntaxError(String expression, int position, String reason) {
+        return new IllegalArgumentException("Invalid path '" + expression + "' at " + position + ": " + reason);
+    }
+
+    /**
+     * 최상위 키 하나만 가리키는 경로를 만듭니다. 키에 포함된 '.'이나 '['는 문법으로 해석하지 않습니다.
+     *
+     * @param key 최상위 키
+     * @return 경로
+     */
+    public static PathExpression ofKey(String key) {
+        return new PathExpression(key, new Object[] { key });
+    }
+
+    /**
+     * 경로 구성 요소의 개수를 반환합니다.
+     *
+     * @return 구성 요소 개수
+     */
+    public int length() {
+        return segments.length;
+    }
+
+    /**
+     * i번째 구성 요소를 반환합니다.
+     *
+     * @param i 위치
+     * @return Map 키(String) 또는 List 인덱스(Integer)
+     */
+    public Object segment(int i) {
+        return segments[i];
+    }
+
+    /**
+     * 첫 구성 요소를 제외한 나머지 경로를 반환합니다.
+     *
+     * @return 나머지 경로
+     */
+    public PathExpression tail() {
+        return new PathExpression(expression, Arrays.copyOfRange(segments, 1, segments.length));
+    }
+
+    /**
+     * 경로의 값을 읽습니다.
+     *
+     * @param root 루트 객체
+     * @return 값, 경로가 없으면 null
+     */
+    public Object get(Object root) {
+        Object value = find(root);
+        return value == MISSING ? null : value;
+    }
+
+    /**
+     * 경로의 값을 읽습니다. 경로가 없으면 {@link #MISSING}을 반환합니다.
+     */
+    Object find(Object root) {
+        Object current = root;
+        for (Object segment : segments) {
+            current = child(current, segment);
+            if (current == MISSING) {
+                return MISSING;
+            }
+        }
+        if (current instanceof JsonNode json) {
+            return toJava(json);
+        }
+        return current;
+    }
+
+    private static Object child(Object container, Object segment) {
+        if (container instanceof BinaryPayload binary) {
+            container = jsonOf(binary);
+            if (container == null) {
+                return MISSING;
+            }
+        }
+        if (container instanceof JsonNode json) {
+            JsonNode child = segment instanceof String key ? json.get(key) : json.get((Integer) segment);
+            return child == null ? MISSING : child;
+        }
+        if (segment instanceof String key) {
+            if (container instanceof Map<?, ?> map && (map.containsKey(key))) {
+                return map.get(key);
+            }
+            return MISSING;
+        }
+        int index = (Integer) segment;
+        if (container instanceof List<?> list && index < list.size()) {
+            return list.get(index);
+        }
+        return MISSING;
+    }
+
+    private static Object scalar(JsonNode json) {
+        if (json.isTextual()) {
+            return json.textValue();
+        }
+        if (json.isNumber()) {
+            return json.numberValue();
+        }
+        if (json.isBoolean()) {
+            return json.booleanValue();
+        }
+        return null;
+    }
+
+    /**
+     * JSON 트리 노드를 Java 객체(Map, List, 스칼라)로 변환합니다. 컨테이너는 항상 새로 만들므로 캐시된 트리와 공유하지 않습니다.
+     */
+    private static Object toJava(JsonNode json) {
+        return json.isValueNode() ? scalar(json) : MAPPER.convertValue(json, Object.class);
+    }
+
+    /**
+     * 바이너리 페이로드의 JSON 트리를 반환합니다.
+     *
+     * @return JSON 트리, 내용이 JSON이 아니면 null
+     */
+    private static JsonNode jsonOf(BinaryPayload binary) {
+        return binary.isJson() ? binary.asJson() : null;
+    }
+
+    /**
+     * 갱신할 컨테이너가 바이너리 페이로드나 JSON 트리이면 읽기 전용 보기로 감쌉니다. 호출한 쪽이 이 한 단계만 복사하므로
+     * 트리 전체를 변환하지 않습니다. JSON이 아닌 바이너리 페이로드는 문자열로 바꾸므로, 그 아래에 값을 설정하면 새 Map으로 대체됩니다.
+     */
+    private static Object mutable(Object node) {
+        if (node instanceof BinaryPayload binary) {
+            JsonNode json = jsonOf(binary);
+            return json == null ? binary.asString() : view(json);
+        }
+        if (node instanceof JsonNode json) {
+            return view(json);
+        }
+        return node;
+    }
+
+    /**
+     * JSON 트리 노드를 읽기 전용 Map/List 보기로 감쌉니다. 스칼라는 바로 변환합니다.
+     */
+    private static Object view(JsonNode json) {
+        if (json.isObject()) {
+            return new JsonObjectView(json);
+        }
+        if (json.isArray()) {
+            return new JsonArrayView(json);
+        }
+        return scalar(json);
+    }
+
+    /**
+     * 경로에 값을 설정한 새 루트를 반환합니다.
+     * 경로상의 컨테이너만 복사하며, 없거나 타입이 맞지 않는 중간 컨테이너는 새로 만듭니다. (키는 Map, 인덱스는 List)
+     * List 인덱스는 기존 요소를 바꾸거나 끝에 하나를 덧붙이는 위치(크기와 같은 인덱스)까지만 허용합니다.
+     *
+     * @param root 원본 루트
+     * @param value 설정할 값
+     * @return 새 루트
+     * @throws IndexOutOfBoundsException List 인덱스가 List의 크기보다 큰 경우
+     */
+    public Object set(Object root, Object value) {
+        if (segments.length == 0) {
+            return value;
+        }
+        return set(root, 0, value);
+    }
+
+    private Object set(Object node, int depth, Object value) {
+        if (depth == segments.length) {
+            return value;
+        }
+        node = mutable(node);
+        Object segment = segments[depth];
+        Object current = child(node, segment);
+        Object updated = set(current == MISSING ? null : current, depth + 1, value);
+        if (segment instanceof String key) {
+            Map<Object, Object> copy = node instanceof Map<?, ?> map ? new LinkedHashMap<>(map) : new LinkedHashMap<>();
+            copy.put(key, updated);
+            return copy;
+        }
+        int index = (Integer) segment;
+        List<Object> copy = node instanceof List<?> list ? new ArrayList<>(list) : new ArrayList<>();
+        if (index > copy.size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range for path '" + expression
+                    + "' (size " + copy.size() + ")");
+        }
+        if (index == copy.size()) {
+            copy.add(updated);
+        } else {
+            copy.set(index, updated);
+        }
+        return copy;
+    }
+
+    /**
+     * 경로의 값을 제거한 새 루트를 반환합니다. 경로가 없으면 원본을 그대로 반환합니다.
+     * List 요소를 제거하면 뒤의 요소들이 앞으로 당겨집니다.
+     *
+     * @param root 원본 루트
+     * @return 새 루트, 루트 자체를 가리키는 경로이면 null
+     */
+    public Object delete(Object root) {
+        if (segments.length == 0) {
+            return null;
+        }
+        return delete(root, 0);
+    }
+
+    private Object delete(Object original, int depth) {
+        Object segment = segments[depth];
+        Object current = child(original, segment);
+        if (current == MISSING) {
+            return original;
+        }
+        Object node = mutable(original);
+        if (depth == segments.length - 1) {
+            if (segment instanceof String key) {
+                Map<?, ?> copy = new LinkedHashMap<>((Map<?, ?>) node);
+                copy.remove(key);
+                return copy;
+            }
+            List<?> copy = new ArrayList<>((List<?>) node);
+            copy.remove((int) (Integer) segment);
+            return copy;
+        }
+        Object updated = delete(current, depth + 1);
+        if (updated == current) {
+            return original;
+        }
+        if (segment instanceof String key) {
+            Map<Object, Object> copy = new LinkedHashMap<>((Map<?, ?>) node);
+            copy.put(key, updated);
+            return copy;
+        }
+        List<Object> copy = new ArrayList<>((List<?>) node);
+        copy.set((Integer) segment, updated);
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    /**
+     * JSON 객체를 감싼 읽기 전용 Map입니다. 값은 읽을 때마다 보기로 감싸거나 스칼라로 변환합니다.
+     */
+    private static final class JsonObjectView extends AbstractMap<String, Object> {
+        private final JsonNode json;
+
+        JsonObjectView(JsonNode json) {
+            this.json = json;
+        }
+
+        @Override
+        public Object get(Object key) {
+            JsonNode child = key instanceof String name ? json.get(name) : null;
+            return child == null ? null : view(child);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String name && json.has(name);
+        }
+
+        @Override
+        public int size() {
+            return json.size();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    Iterator<Entry<String, JsonNode>> fields = json.fields();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return fields.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            Entry<String, JsonNode> field = fields.next();
+                            return new SimpleImmutableEntry<>(field.getKey(), view(field.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return json.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * JSON 배열을 감싼 읽기 전용 List입니다.
+     */
+    private static final class JsonArrayView extends AbstractList<Object> {
+        private final JsonNode json;
+
+        JsonArrayView(JsonNode json) {
+            this.json = json;
+        }
+
+        @Override
+        public Object get(int index) {
+            JsonNode child = json.get(index);
+            if (child == null) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of range (size " + json.size() + ")");
+            }
+            return view(child);
+        }
+
+        @Override
+        public int size() {
+            return json.size();
+        }
+    }
+}
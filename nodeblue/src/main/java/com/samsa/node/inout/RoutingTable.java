@@ -0,0 +1,342 @@
+package com.samsa.node.inout;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import com.samsa.core.BinaryPayload;
+import com.samsa.core.Message;
+
+/**
+ * {@link SwitchRule} 목록을 컴파일한 라우팅 테이블입니다.
+ * 같은 속성을 검사하는 규칙들은 하나의 인덱스로 묶이며, 비교 방식별로 다음 구조를 사용합니다.
+ * <ul>
+ * <li>EQUALS/IN: 값 → 규칙 번호 해시 테이블 (O(1))</li>
+ * <li>RANGE: 모든 범위 경계를 정렬한 배열과 구간별 규칙 번호 (이진 탐색, O(log n))</li>
+ * <li>PREFIX: 접두사 길이별 해시 테이블 (서로 다른 접두사 길이 수만큼 조회)</li>
+ * <li>REGEX: 미리 컴파일된 정규식 (순차 검사)</li>
+ * </ul>
+ * 규칙 번호는 규칙 목록에서의 순서이며, 번호가 작은 규칙이 먼저 일치한 것으로 봅니다.
+ */
+public final class RoutingTable {
+    private static final int[] NO_RULES = new int[0];
+
+    /** 규칙 번호별 출력 인덱스 */
+    private final int[] outputs;
+    /** 속성별 인덱스 */
+    private final PropertyIndex[] indexes;
+    /** 일치하는 규칙이 없을 때 보낼 출력 인덱스, 없으면 -1 */
+    private final int otherwiseOutput;
+
+    /**
+     * 규칙 목록을 컴파일합니다.
+     *
+     * @param rules 순서가 있는 규칙 목록
+     * @throws java.util.regex.PatternSyntaxException 정규식이 올바르지 않은 경우
+     */
+    public RoutingTable(List<SwitchRule> rules) {
+        this.outputs = new int[rules.size()];
+        Map<String, List<Integer>> byProperty = new LinkedHashMap<>();
+        int otherwise = -1;
+        for (int i = 0; i < rules.size(); i++) {
+            SwitchRule rule = rules.get(i);
+            outputs[i] = rule.getOutput();
+            if (rule.getOperator() == SwitchRule.Operator.OTHERWISE) {
+                if (otherwise < 0) {
+                    otherwise = rule.getOutput();
+                }
+                continue;
+            }
+            byProperty.computeIfAbsent(rule.getSource() + ":" + rule.getProperty(), key -> new ArrayList<>()).add(i);
+        }
+        this.otherwiseOutput = otherwise;
+        List<PropertyIndex> compiled = new ArrayList<>();
+        for (List<Integer> ruleNumbers : byProperty.values()) {
+            compiled.add(new PropertyIndex(rules, ruleNumbers));
+        }
+        this.indexes = compiled.toArray(new PropertyIndex[0]);
+    }
+
+    /**
+     * 메시지와 처음으로 일치하는 규칙의 출력 인덱스를 반환합니다.
+     *
+     * @param message 라우팅할 메시지
+     * @return 출력 인덱스, 일치하는 규칙이 없으면 otherwise 출력 또는 -1
+     */
+    public int first(Message message) {
+        int best = Integer.MAX_VALUE;
+        for (PropertyIndex index : indexes) {
+            best = Math.min(best, index.first(message, best));
+        }
+        return best == Integer.MAX_VALUE ? otherwiseOutput : outputs[best];
+    }
+
+    /**
+     * 메시지와 일치하는 모든 규칙의 출력 인덱스를 규칙 순서대로, 중복 없이 반환합니다.
+     *
+     * @param message 라우팅할 메시지
+     * @return 출력 인덱스 배열, 일치하는 규칙이 없으면 otherwise 출력 하나 또는 빈 배열
+     */
+    public int[] all(Message message) {
+        boolean[] matched = new boolean[outputs.length];
+        boolean any = false;
+        for (PropertyIndex index : indexes) {
+            any |= index.collect(message, matched);
+        }
+        if (!any) {
+            return otherwiseOutput < 0 ? NO_RULES : new int[] { otherwiseOutput };
+        }
+        int[] result = new int[outputs.length];
+        int count = 0;
+        for (int rule = 0; rule < matched.length; rule++) {
+            if (matched[rule] && !contains(result, count, outputs[rule])) {
+                result[count++] = outputs[rule];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 숫자는 타입과 관계없이 같은 값이면 같은 키가 되도록 정규화합니다.
+     * 정수 타입은 long으로, 그 밖의 숫자(Float, BigDecimal 등)는 double로 바꾸며 정수 값인 경우에만 long으로 바꿉니다.
+     */
+    static Object normalize(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte
+                || value instanceof AtomicLong || value instanceof AtomicInteger) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof BigInteger big && big.bitLength() < 64) {
+            return big.longValue();
+        }
+        if (value instanceof Number number) {
+            double d = number.doubleValue();
+            if (d == Math.rint(d) && !Double.isInfinite(d) && Math.abs(d) < 0x1p63) {
+                return (long) d;
+            }
+            return d;
+        }
+        return value;
+    }
+
+    /**
+     * 한 속성에 대한 규칙들의 인덱스입니다.
+     */
+    private static final class PropertyIndex {
+        private final PropertyReader reader;
+        /** 정규화된 값 → 일치하는 규칙 번호 (오름차순) */
+        private final Map<Object, int[]> equality = new HashMap<>();
+        /** 범위 경계 (오름차순, 중복 없음) */
+        private final double[] boundaries;
+        /** 구간 [boundaries[i], boundaries[i+1])에 일치하는 규칙 번호 */
+        private final int[][] segments;
+        /** 접두사 길이 (오름차순) */
+        private final int[] prefixLengths;
+        /** 접두사 길이별 접두사 → 규칙 번호 */
+        private final Map<Integer, Map<String, int[]>> prefixes = new HashMap<>();
+        private final Pattern[] patterns;
+        private final int[] patternRules;
+
+        PropertyIndex(List<SwitchRule> rules, List<Integer> ruleNumbers) {
+            SwitchRule firstRule = rules.get(ruleNumbers.get(0));
+            this.reader = new PropertyReader(firstRule.getSource(), firstRule.getProperty());
+
+            Map<Object, List<Integer>> equalityLists = new HashMap<>();
+            Map<Integer, Map<String, List<Integer>>> prefixLists = new TreeMap<>();
+            List<Integer> rangeRules = new ArrayList<>();
+            TreeSet<Double> bounds = new TreeSet<>();
+            List<Pattern> patternList = new ArrayList<>();
+            List<Integer> patternRuleList = new ArrayList<>();
+
+            for (int number : ruleNumbers) {
+                SwitchRule rule = rules.get(number);
+                List<Object> operands = rule.getOperands();
+                switch (rule.getOperator()) {
+                    case EQUALS, IN -> {
+                        for (Object operand : operands) {
+                            equalityLists.computeIfAbsent(normalize(operand), key -> new ArrayList<>()).add(number);
+                        }
+                    }
+                    case RANGE -> {
+                        rangeRules.add(number);
+                        bounds.add(((Number) operands.get(0)).doubleValue());
+                        bounds.add(((Number) operands.get(1)).doubleValue());
+                    }
+                    case PREFIX -> {
+                        String prefix = (String) operands.get(0);
+                        prefixLists.computeIfAbsent(prefix.length(), key -> new HashMap<>())
+                                .computeIfAbsent(prefix, key -> new ArrayList<>()).add(number);
+                    }
+                    case REGEX -> {
+                        patternList.add(Pattern.compile((String) operands.get(0)));
+                        patternRuleList.add(number);
+                    }
+                    case OTHERWISE -> {
+                    }
+                }
+            }
+
+            equalityLists.forEach((value, list) -> equality.put(value, toSortedArray(list)));
+
+            this.boundaries = bounds.stream().mapToDouble(Double::doubleValue).toArray();
+            this.segments = new int[Math.max(0, boundaries.length - 1)][];
+            for (int i = 0; i < segments.length; i++) {
+                List<Integer> covering = new ArrayList<>();
+                for (int number : rangeRules) {
+                    List<Object> operands = rules.get(number).getOperands();
+                    double min = ((Number) operands.get(0)).doubleValue();
+                    double max = ((Number) operands.get(1)).doubleValue();
+                    if (min <= boundaries[i] && boundaries[i + 1] <= max) {
+                        covering.add(number);
+                    }
+                }
+                segments[i] = toSortedArray(covering);
+            }
+
+            this.prefixLengths = prefixLists.keySet().stream().mapToInt(Integer::intValue).toArray();
+            prefixLists.forEach((length, byPrefix) -> {
+                Map<String, int[]> compiled = new HashMap<>();
+                byPrefix.forEach((prefix, list) -> compiled.put(prefix, toSortedArray(list)));
+                prefixes.put(length, compiled);
+            });
+
+            this.patterns = patternList.toArray(new Pattern[0]);
+            this.patternRules = patternRuleList.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private static int[] toSortedArray(List<Integer> list) {
+            return list.stream().mapToInt(Integer::intValue).sorted().toArray();
+        }
+
+        /**
+         * best보다 번호가 작은 규칙 중 처음 일치하는 규칙 번호를 반환합니다.
+         */
+        int first(Message message, int best) {
+            Object value = reader.read(message);
+            if (value == null) {
+                return best;
+            }
+            int[] rules = equality.get(normalize(value));
+            if (rules != null) {
+                best = Math.min(best, rules[0]);
+            }
+            if (segments.length > 0 && value instanceof Number number) {
+                int[] covering = segment(number.doubleValue());
+                if (covering.length > 0) {
+                    best = Math.min(best, covering[0]);
+                }
+            }
+            if (value instanceof String text) {
+                for (int length : prefixLengths) {
+                    if (length > text.length()) {
+                        break;
+                    }
+                    int[] matched = prefixes.get(length).get(text.substring(0, length));
+                    if (matched != null) {
+                        best = Math.min(best, matched[0]);
+                    }
+                }
+                for (int i = 0; i < patterns.length && patternRules[i] < best; i++) {
+                    if (patterns[i].matcher(text).matches()) {
+                        best = patternRules[i];
+                    }
+                }
+            }
+            return best;
+        }
+
+        /**
+         * 일치하는 모든 규칙 번호를 matched에 표시합니다.
+         *
+         * @return 하나라도 일치하면 true
+         */
+        boolean collect(Message message, boolean[] matched) {
+            Object value = reader.read(message);
+            if (value == null) {
+                return false;
+            }
+            boolean any = mark(equality.get(normalize(value)), matched);
+            if (segments.length > 0 && value instanceof Number number) {
+                any |= mark(segment(number.doubleValue()), matched);
+            }
+            if (value instanceof String text) {
+                for (int length : prefixLengths) {
+                    if (length > text.length()) {
+                        break;
+                    }
+                    any |= mark(prefixes.get(length).get(text.substring(0, length)), matched);
+                }
+                for (int i = 0; i < patterns.length; i++) {
+                    if (patterns[i].matcher(text).matches()) {
+                        matched[patternRules[i]] = true;
+                        any = true;
+                    }
+                }
+            }
+            return any;
+        }
+
+        private static boolean mark(int[] rules, boolean[] matched) {
+            if (rules == null || rules.length == 0) {
+                return false;
+            }
+            for (int rule : rules) {
+                matched[rule] = true;
+            }
+            return true;
+        }
+
+        /**
+         * 값이 속한 구간의 규칙 번호를 이진 탐색으로 찾습니다.
+         */
+        private int[] segment(double value) {
+            int position = Arrays.binarySearch(boundaries, value);
+            int index = position >= 0 ? position : -position - 2;
+            if (index < 0 || index >= segments.length) {
+                return NO_RULES;
+            }
+            return segments[index];
+        }
+    }
+
+    /**
+     * 메시지에서 규칙이 검사할 속성 값을 읽습니다. 페이로드 경로는 생성 시 한 번만 분해합니다.
+     */
+    private static final class PropertyReader {
+        private final SwitchRule.Source source;
+        private final String key;
+        private final PathExpression path;
+
+        PropertyReader(SwitchRule.Source source, String property) {
+            this.source = source;
+            this.key = property;
+            this.path = source == SwitchRule.Source.PAYLOAD ? PathExpression.compile(property) : null;
+        }
+
+        Object read(Message message) {
+            if (source == SwitchRule.Source.METADATA) {
+                return message.getMetadata().get(key);
+            }
+            Object value = path.get(message.getPayload());
+            /** 페이로드 전체를 검사하는 규칙만 바이너리 페이로드를 문자열로 디코딩 */
+            return value instanceof BinaryPayload binary ? binary.asString() : value;
+        }
+    }
+}
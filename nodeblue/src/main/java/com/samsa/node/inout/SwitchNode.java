@@ -1,25 +1,42 @@
 package com.samsa.node.inout;
 
 import com.samsa.core.InOutNode;
-import com.samsa.core.Node;
 import com.samsa.core.Message;
 import com.samsa.core.Pipe;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * 메시지의 메타데이터를 기반으로 다른 출력 파이프로 메시지를 라우팅하는 노드.
  * 메타데이터의 특정 속성값을 기준으로 여러 출력 중 하나를 선택하여 메시지를 전달한다.
+ *
+ * 규칙 모드로 생성하면 순서가 있는 {@link SwitchRule} 목록을 생성 시점에 {@link RoutingTable}로 컴파일하고,
+ * 처음 일치하는 규칙 또는 일치하는 모든 규칙의 출력으로 메시지를 보낸다.
  */
 @Slf4j
 public class SwitchNode extends InOutNode {
-    /** 메타데이터에서 검사할 속성의 키 값 */
+
+    /**
+     * 규칙 모드에서 일치하는 규칙이 여러 개일 때의 출력 방식.
+     */
+    public enum MatchMode {
+        /** 처음 일치하는 규칙의 출력으로만 보낸다. */
+        FIRST_MATCH,
+        /** 일치하는 모든 규칙의 출력으로 보낸다. */
+        ALL_MATCHES
+    }
+
+    /** 메타데이터에서 검사할 속성의 키 값 (해시 모드) */
     private final String propertyName;
 
+    /** 컴파일된 라우팅 규칙 (규칙 모드), 해시 모드이면 null */
+    private final RoutingTable routingTable;
+
+    /** 규칙 모드의 출력 방식 */
+    private final MatchMode matchMode;
+
     /**
      * String UUID로 SwitchNode를 생성한다.
      * 
@@ -30,6 +47,8 @@ public class SwitchNode extends InOutNode {
     public SwitchNode(String uuid, String propertyName) {
         super(uuid);
         this.propertyName = propertyName;
+        this.routingTable = null;
+        this.matchMode = MatchMode.FIRST_MATCH;
         log.info("SwitchNode[{}] created with property: {}", getId(), propertyName);
     }
 
@@ -42,27 +61,60 @@ public class SwitchNode extends InOutNode {
     public SwitchNode(UUID id, String propertyName) {
         super(id);
         this.propertyName = propertyName;
+        this.routingTable = null;
+        this.matchMode = MatchMode.FIRST_MATCH;
         log.info("SwitchNode[{}] created with property: {}", getId(), propertyName);
     }
 
+    /**
+     * String UUID로 규칙 모드의 SwitchNode를 생성한다. 규칙은 이 시점에 컴파일된다.
+     *
+     * @param uuid      노드의 고유 식별자 (UUID 문자열)
+     * @param rules     순서가 있는 라우팅 규칙 목록
+     * @param matchMode 일치하는 규칙이 여러 개일 때의 출력 방식
+     * @throws IllegalArgumentException uuid가 유효하지 않거나 규칙이 올바르지 않은 경우
+     */
+    public SwitchNode(String uuid, List<SwitchRule> rules, MatchMode matchMode) {
+        super(uuid);
+        this.propertyName = null;
+        this.routingTable = new RoutingTable(rules);
+        this.matchMode = matchMode;
+        log.info("SwitchNode[{}] created with {} rule(s), mode: {}", getId(), rules.size(), matchMode);
+    }
+
+    /**
+     * UUID 객체로 규칙 모드의 SwitchNode를 생성한다. 규칙은 이 시점에 컴파일된다.
+     *
+     * @param id        노드의 고유 식별자 (UUID 객체)
+     * @param rules     순서가 있는 라우팅 규칙 목록
+     * @param matchMode 일치하는 규칙이 여러 개일 때의 출력 방식
+     * @throws IllegalArgumentException 규칙이 올바르지 않은 경우
+     */
+    public SwitchNode(UUID id, List<SwitchRule> rules, MatchMode matchMode) {
+        super(id);
+        this.propertyName = null;
+        this.routingTable = new RoutingTable(rules);
+        this.matchMode = matchMode;
+        log.info("SwitchNode[{}] created with {} rule(s), mode: {}", getId(), rules.size(), matchMode);
+    }
+
     @Override
     public void onMessage(Message message) {
         try {
-            /** 리플렉션을 사용하여 노드의 상태 필드에 접근 */
-            java.lang.reflect.Field statusField = Node.class.getDeclaredField("status");
-            statusField.setAccessible(true);
-            Object currentStatus = statusField.get(this);
-
-            /** 노드가 실행 중이 아니면 메시지 처리하지 않음 */
-            if (!"RUNNING".equals(currentStatus.toString())) {
+            /** 노드가 실행(또는 중지 중 소진) 상태가 아니면 메시지 처리하지 않음 */
+            if (!isActive()) {
                 log.debug("SwitchNode[{}] skipped message: not in RUNNING state", getId());
                 return;
             }
 
-            /** 메시지의 메타데이터를 안전하게 복사 */
-            Map<String, Object> metadata = new HashMap<>(message.getMetadata());
-            Object value = metadata.get(propertyName);
-            log.debug("SwitchNode[{}] processing message with property value: {}", getId(), value);
+            if (routingTable != null) {
+                routeByRules(message);
+                return;
+            }
+
+            /** 메타데이터는 불변이므로 복사 없이 바로 읽음 */
+            Object value = message.getMetadata().get(propertyName);
+            log.trace("SwitchNode[{}] processing message with property value: {}", getId(), value);
 
             /** 출력 파이프 목록 조회 */
             List<Pipe> outputs = getOutputPipes();
@@ -70,13 +122,13 @@ public class SwitchNode extends InOutNode {
                 // 해시값을 이용해 출력 파이프 인덱스 계산
                 int index = Math.abs(value.hashCode() % outputs.size());
                 if (outputs.get(index).isConnected()) {
-                    log.info("SwitchNode[{}] routing message to output pipe at index: {}", getId(), index);
+                    log.trace("SwitchNode[{}] routing message to output pipe at index: {}", getId(), index);
                     outputs.get(index).send(message);
                 } else {
                     log.warn("SwitchNode[{}] selected output pipe at index {} is not connected", getId(), index);
                 }
             } else {
-                log.info("SwitchNode[{}] using default routing", getId());
+                log.trace("SwitchNode[{}] using default routing", getId());
                 emit(message);
             }
         } catch (Exception e) {
@@ -85,6 +137,35 @@ public class SwitchNode extends InOutNode {
             return;
         }
     }
+
+    /**
+     * 컴파일된 규칙에 따라 메시지를 보낸다. 일치하는 규칙이 없으면 메시지는 버려진다.
+     *
+     * @param message 라우팅할 메시지
+     */
+    private void routeByRules(Message message) {
+        List<Pipe> outputs = getOutputPipes();
+        if (matchMode == MatchMode.FIRST_MATCH) {
+            int index = routingTable.first(message);
+            if (index >= 0) {
+                sendTo(outputs, index, message);
+            } else {
+                log.trace("SwitchNode[{}] no rule matched message {}", getId(), message.getId());
+            }
+            return;
+        }
+        for (int index : routingTable.all(message)) {
+            sendTo(outputs, index, message);
+        }
+    }
+
+    private void sendTo(List<Pipe> outputs, int index, Message message) {
+        if (index < outputs.size() && outputs.get(index).isConnected()) {
+            outputs.get(index).send(message);
+        } else {
+            log.warn("SwitchNode[{}] output pipe at index {} is not connected", getId(), index);
+        }
+    }
 }
 
 /**
@@ -0,0 +1,145 @@
+package com.samsa.node.inout;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link SwitchNode}의 라우팅 규칙 하나를 나타내는 불변 클래스입니다.
+ * 규칙은 메시지의 한 속성(메타데이터 키 또는 페이로드 필드 경로)을 검사하여, 조건을 만족하면 지정된 출력으로 메시지를 보냅니다.
+ * 규칙은 SwitchNode 생성 시 {@link RoutingTable}로 컴파일됩니다.
+ */
+public final class SwitchRule {
+
+    /**
+     * 검사할 속성의 위치입니다.
+     */
+    public enum Source {
+        /** 메타데이터의 키 */
+        METADATA,
+        /** 페이로드의 필드 경로 ({@link PathExpression} 문법, 예: "sensor.id", "readings[0]"). 빈 경로는 페이로드 전체 */
+        PAYLOAD
+    }
+
+    /**
+     * 규칙의 비교 방식입니다.
+     */
+    public enum Operator {
+        /** 값이 같음 (숫자는 타입과 관계없이 값으로 비교) */
+        EQUALS,
+        /** 값이 집합에 포함됨 */
+        IN,
+        /** 숫자 값이 [최소, 최대) 범위에 포함됨 */
+        RANGE,
+        /** 문자열 값이 정규식과 일치함 */
+        REGEX,
+        /** 문자열 값이 접두사로 시작함 */
+        PREFIX,
+        /** 다른 어떤 규칙과도 일치하지 않음 */
+        OTHERWISE
+    }
+
+    private final Source source;
+    private final String property;
+    private final Operator operator;
+    private final List<Object> operands;
+    private final int output;
+
+    /**
+     * 라우팅 규칙을 생성합니다.
+     *
+     * @param source 검사할 속성의 위치
+     * @param property 메타데이터 키 또는 페이로드 필드 경로
+     * @param operator 비교 방식
+     * @param operands 비교 값 (EQUALS/REGEX/PREFIX는 1개, RANGE는 최소/최대 2개, IN은 1개 이상, OTHERWISE는 없음)
+     * @param output 조건을 만족할 때 보낼 출력 파이프의 인덱스
+     * @throws IllegalArgumentException 비교 값의 개수나 타입이 비교 방식과 맞지 않는 경우
+     */
+    public SwitchRule(Source source, String property, Operator operator, List<?> operands, int output) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.property = property == null ? "" : property;
+        this.operator = Objects.requireNonNull(operator, "operator");
+        this.operands = List.copyOf(operands);
+        this.output = output;
+        if (output < 0) {
+            throw new IllegalArgumentException("output must not be negative: " + output);
+        }
+        validate();
+    }
+
+    private void validate() {
+        int expected = switch (operator) {
+            case EQUALS, REGEX, PREFIX -> 1;
+            case RANGE -> 2;
+            case OTHERWISE -> 0;
+            case IN -> -1;
+        };
+        if (expected >= 0 ? operands.size() != expected : operands.isEmpty()) {
+            throw new IllegalArgumentException(operator + " rule has invalid operands: " + operands);
+        }
+        if (operator == Operator.RANGE && !(operands.get(0) instanceof Number && operands.get(1) instanceof Number)) {
+            throw new IllegalArgumentException("RANGE rule requires numeric bounds: " + operands);
+        }
+        if ((operator == Operator.REGEX || operator == Operator.PREFIX) && !(operands.get(0) instanceof String)) {
+            throw new IllegalArgumentException(operator + " rule requires a string operand: " + operands);
+        }
+    }
+
+    /** 값이 같으면 output으로 보내는 규칙을 생성합니다. */
+    public static SwitchRule equalsTo(Source source, String property, Object value, int output) {
+        return new SwitchRule(source, property, Operator.EQUALS, List.of(value), output);
+    }
+
+    /** 값이 집합에 포함되면 output으로 보내는 규칙을 생성합니다. */
+    public static SwitchRule in(Source source, String property, Collection<?> values, int output) {
+        return new SwitchRule(source, property, Operator.IN, List.copyOf(values), output);
+    }
+
+    /** 숫자 값이 [min, max) 범위에 있으면 output으로 보내는 규칙을 생성합니다. */
+    public static SwitchRule between(Source source, String property, double min, double max, int output) {
+        if (!(min < max)) {
+            throw new IllegalArgumentException("min must be less than max: " + min + ", " + max);
+        }
+        return new SwitchRule(source, property, Operator.RANGE, List.of(min, max), output);
+    }
+
+    /** 문자열 값이 정규식과 일치하면 output으로 보내는 규칙을 생성합니다. */
+    public static SwitchRule matches(Source source, String property, String regex, int output) {
+        return new SwitchRule(source, property, Operator.REGEX, List.of(regex), output);
+    }
+
+    /** 문자열 값이 prefix로 시작하면 output으로 보내는 규칙을 생성합니다. */
+    public static SwitchRule startsWith(Source source, String property, String prefix, int output) {
+        return new SwitchRule(source, property, Operator.PREFIX, List.of(prefix), output);
+    }
+
+    /** 다른 어떤 규칙과도 일치하지 않으면 output으로 보내는 규칙을 생성합니다. */
+    public static SwitchRule otherwise(int output) {
+        return new SwitchRule(Source.METADATA, "", Operator.OTHERWISE, List.of(), output);
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public List<Object> getOperands() {
+        return operands;
+    }
+
+    public int getOutput() {
+        return output;
+    }
+
+    @Override
+    public String toString() {
+        return source + ":" + property + " " + operator + " " + operands + " -> " + output;
+    }
+}
@@ -23,6 +23,8 @@ import lombok.extern.slf4j.Slf4j;
 */
 @Slf4j
 public class CatchNode extends OutNode {
+   /** 에러 메시지에 발생 횟수를 담는 메타데이터 키 */
+   public static final String COUNT_KEY = "count";
    
    /**
     * 에러를 캐치할 범위를 정의하는 열거형입니다.
@@ -75,6 +77,15 @@ public class CatchNode extends OutNode {
        targetNodeIds.remove(nodeId);
    }
 
+   /**
+    * 에러를 캐치할 대상 노드들의 ID를 반환합니다.
+    *
+    * @return 대상 노드 ID의 복사본
+    */
+   public Set<String> getTargetNodeIds() {
+       return Set.copyOf(targetNodeIds);
+   }
+
    /**
     * 주어진 노드의 에러를 처리할 수 있는지 확인합니다.
     * 
@@ -97,11 +108,25 @@ public class CatchNode extends OutNode {
     * @param error 발생한 에러 객체
     */
    public void handleNodeError(String sourceNodeId, Throwable error) {
+       handleNodeError(sourceNodeId, error, 1);
+   }
+
+   /**
+    * 같은 에러가 여러 번 발생한 것을 한 번에 처리합니다.
+    * 파이프라인의 에러 버스는 짧은 시간에 반복된 같은 에러를 모아 발생 횟수와 함께 전달하며,
+    * 횟수는 에러 메시지의 {@value #COUNT_KEY} 메타데이터로 전달됩니다.
+    *
+    * @param sourceNodeId 에러가 발생한 노드의 ID
+    * @param error 발생한 에러 객체 (같은 에러 중 마지막 것)
+    * @param count 발생 횟수
+    */
+   public void handleNodeError(String sourceNodeId, Throwable error, long count) {
        // 에러 정보를 메타데이터로 구성
        Map<String, Object> errorInfo = new HashMap<>();
        errorInfo.put("error", error.getMessage());
        errorInfo.put("sourceNode", sourceNodeId);
        errorInfo.put("timestamp", System.currentTimeMillis());
+       errorInfo.put(COUNT_KEY, count);
 
        // 에러 메시지 생성
        Message errorMessage = new Message(error, errorInfo);
@@ -114,7 +139,7 @@ public class CatchNode extends OutNode {
            }
        }
 
-       log.error("Caught error from Node[{}]: {}", sourceNodeId, error.getMessage());
+       log.error("Caught error from Node[{}]: {} (x{})", sourceNodeId, error.getMessage(), count);
    }
 
    /**
@@ -139,8 +164,6 @@ public class CatchNode extends OutNode {
  * CatchNode selectedNodesCatch = new CatchNode("catch2", CatchScope.SELECTED_NODES);
  * selectedNodesCatch.addTargetNode("node1");
  * selectedNodesCatch.addTargetNode("node2");
- * // 에러 발생 시 파이프라인에서
- * if (catchNode.canHandleError(sourceNodeId, currentPipelineId)) {
- * catchNode.handleNodeError(sourceNodeId, error);
-}
+ * // 파이프라인에 추가하면 파이프라인의 에러 버스가 대상 노드의 에러를 비동기로 전달합니다.
+ * pipeline.addNode(selectedNodesCatch);
  */
\ No newline at end of file
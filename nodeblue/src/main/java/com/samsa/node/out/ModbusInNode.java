@@ -0,0 +1,268 @@
+package com.samsa.node.out;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.samsa.core.Message;
+import com.samsa.core.Metadata;
+import com.samsa.core.OutNode;
+import com.samsa.modbus.ModbusDevice;
+import com.samsa.modbus.ModbusDeviceException;
+import com.samsa.modbus.ModbusPoint;
+import com.samsa.modbus.ModbusScheduler;
+import com.samsa.modbus.ReadBlock;
+import com.serotonin.modbus4j.ModbusMaster;
+import com.serotonin.modbus4j.code.ExceptionCode;
+import com.serotonin.modbus4j.exception.ModbusInitException;
+import com.serotonin.modbus4j.exception.ModbusTransportException;
+import com.serotonin.modbus4j.msg.ModbusResponse;
+import com.serotonin.modbus4j.msg.ReadResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Modbus 장치들을 주기적으로 폴링하여 값이 바뀐 포인트만 메시지로 내보내는 소스 노드입니다.
+ *
+ * <p>장치마다 포인트를 {@link ReadBlock}으로 묶어 가까운 주소를 한 번의 요청으로 읽으며,
+ * 폴링은 {@link ModbusScheduler}의 공유 스레드에서 장치별 주기로 실행됩니다.
+ * 값은 포인트마다 하나의 메시지로 내보내며, 페이로드는 값이고 메타데이터에 장치, 포인트, 슬레이브 ID, 주소가 담깁니다.
+ * 이전에 보낸 값에서 변경 감지 폭({@link ModbusPoint#getDeadband()}) 이상 변하지 않은 값은 보내지 않습니다.
+ *
+ * <p>하위 노드에 수요가 없으면 그 주기의 폴링을 건너뛰며, 바뀐 값은 다음 폴링에서 보냅니다.
+ * 연결이 끊기면 다음 주기에 다시 연결하고, 장치가 정상에서 실패로 바뀔 때 한 번 {@link #handleError(Throwable)}를 호출합니다.
+ */
+@Slf4j
+public class ModbusInNode extends OutNode {
+    /** 장치 이름을 저장하는 메타데이터 키 */
+    public static final String DEVICE_KEY = "device";
+    /** 포인트 이름을 저장하는 메타데이터 키 */
+    public static final String POINT_KEY = "point";
+    /** 슬레이브 ID를 저장하는 메타데이터 키 */
+    public static final String SLAVE_KEY = "slaveId";
+    /** 주소를 저장하는 메타데이터 키 */
+    public static final String ADDRESS_KEY = "address";
+
+    /** 레지스터 영역에서 함께 읽을 수 있는 기본 최대 빈 주소 수 */
+    public static final int DEFAULT_MAX_REGISTER_GAP = 16;
+    /** 비트 영역에서 함께 읽을 수 있는 기본 최대 빈 주소 수 */
+    public static final int DEFAULT_MAX_BIT_GAP = 256;
+
+    private final List<DevicePoller> pollers = new ArrayList<>();
+    private int maxRegisterGap = DEFAULT_MAX_REGISTER_GAP;
+    private int maxBitGap = DEFAULT_MAX_BIT_GAP;
+    /** 장치로 보낸 읽기 요청 수 */
+    private final LongAdder requests = new LongAdder();
+
+    public ModbusInNode() {
+        super();
+    }
+
+    public ModbusInNode(UUID id) {
+        super(id);
+    }
+
+    public ModbusInNode(String id) {
+        super(id);
+    }
+
+    /**
+     * 폴링할 장치를 추가합니다. start() 이전에 호출해야 합니다.
+     *
+     * @param device 장치 연결 설정
+     * @param intervalMillis 폴링 주기 (밀리초)
+     * @param points 읽을 포인트
+     */
+    public void addDevice(ModbusDevice device, long intervalMillis, List<ModbusPoint> points) {
+        if (intervalMillis < 1) {
+            throw new IllegalArgumentException("intervalMillis must be positive: " + intervalMillis);
+        }
+        if (points.isEmpty()) {
+            throw new IllegalArgumentException("Device " + device.getName() + " has no points");
+        }
+        pollers.add(new DevicePoller(device, intervalMillis, List.copyOf(points)));
+    }
+
+    /**
+     * 가까운 주소를 한 요청으로 묶을 때 허용할 최대 빈 주소 수를 설정합니다. start() 이전에 호출해야 합니다.
+     *
+     * @param maxRegisterGap 레지스터 영역의 최대 빈 주소 수
+     * @param maxBitGap 비트 영역의 최대 빈 주소 수
+     */
+    public void setMaxGaps(int maxRegisterGap, int maxBitGap) {
+        if (maxRegisterGap < 0 || maxBitGap < 0) {
+            throw new IllegalArgumentException("gaps must not be negative: " + maxRegisterGap + ", " + maxBitGap);
+        }
+        this.maxRegisterGap = maxRegisterGap;
+        this.maxBitGap = maxBitGap;
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        for (DevicePoller poller : pollers) {
+            poller.schedule();
+        }
+    }
+
+    /**
+     * 폴링을 멈춘 뒤 노드를 중지합니다. {@link #stop()}도 이 메서드로 위임됩니다.
+     *
+     * @param timeout 최대 대기 시간
+     * @param unit 대기 시간 단위
+     * @return 제한 시간 안에 모든 메시지를 처리했으면 true
+     */
+    @Override
+    public boolean stop(long timeout, TimeUnit unit) {
+        for (DevicePoller poller : pollers) {
+            poller.cancel();
+        }
+        return super.stop(timeout, unit);
+    }
+
+    /**
+     * 장치로 보낸 읽기 요청 수를 반환합니다.
+     *
+     * @return 읽기 요청 수
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * 장치 하나의 폴링 상태입니다. 같은 장치의 폴링은 고정 지연으로 예약되므로 동시에 실행되지 않습니다.
+     */
+    private final class DevicePoller implements Runnable {
+        private final ModbusDevice device;
+        private final long intervalMillis;
+        private final List<ModbusPoint> points;
+        private volatile List<ReadBlock> blocks;
+        /** 포인트별로 마지막에 보낸 값 */
+        private final Map<ModbusPoint, Object> lastValues = new HashMap<>();
+        private ModbusMaster master;
+        private boolean failing;
+        private ScheduledFuture<?> future;
+
+        DevicePoller(ModbusDevice device, long intervalMillis, List<ModbusPoint> points) {
+            this.device = device;
+            this.intervalMillis = intervalMillis;
+            this.points = points;
+        }
+
+        synchronized void schedule() {
+            if (future != null) {
+                return;
+            }
+            blocks = ReadBlock.plan(points, maxRegisterGap, maxBitGap);
+            log.info("ModbusInNode[{}] polling {} every {}ms - points: {}, requests per poll: {}", getId(),
+                    device.getName(), intervalMillis, points.size(), blocks.size());
+            future = ModbusScheduler.shared().scheduleWithFixedDelay(this, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * 예약을 취소하고 연결을 닫습니다. 실행 중인 폴링이 있으면 끝날 때까지 기다립니다.
+         */
+        synchronized void cancel() {
+            if (future != null) {
+                future.cancel(false);
+                future = null;
+            }
+            disconnect();
+        }
+
+        @Override
+        public synchronized void run() {
+            if (future == null) {
+                return;
+            }
+            if (demand() <= 0) {
+                log.debug("ModbusInNode[{}] skipped polling {} - no downstream demand", getId(), device.getName());
+                return;
+            }
+            try {
+                List<Message> changes = poll();
+                for (Message change : changes) {
+                    emit(change);
+                }
+                if (failing) {
+                    failing = false;
+                    log.info("ModbusInNode[{}] device {} recovered", getId(), device.getName());
+                }
+            } catch (ModbusInitException | ModbusTransportException | ModbusDeviceException e) {
+                disconnect();
+                if (!failing) {
+                    failing = true;
+                    handleError(e);
+                } else {
+                    log.debug("ModbusInNode[{}] device {} still failing: {}", getId(), device.getName(), e.getMessage());
+                }
+            } catch (Exception e) {
+                handleError(e);
+            }
+        }
+
+        private List<Message> poll() throws ModbusInitException, ModbusTransportException, ModbusDeviceException {
+            ModbusMaster current = connect();
+            List<Message> changes = new ArrayList<>();
+            for (ReadBlock block : blocks) {
+                ModbusResponse response = current.send(block.toRequest());
+                requests.increment();
+                if (response.isException()) {
+                    if (response.getExceptionCode() == ExceptionCode.ILLEGAL_DATA_ADDRESS && block.hasGaps()) {
+                        // 빈 주소가 없는 장치이므로 이후로는 포인트가 차지하는 주소만 읽습니다.
+                        log.warn("ModbusInNode[{}] device {} rejected {}, reading exact ranges from now on", getId(),
+                                device.getName(), block);
+                        blocks = ReadBlock.plan(points, 0, 0);
+                        return changes;
+                    }
+                    throw new ModbusDeviceException("Device " + device.getName() + " rejected " + block + ": "
+                            + response.getExceptionMessage(), response.getExceptionCode());
+                }
+                collectChanges(block, (ReadResponse) response, changes);
+            }
+            return changes;
+        }
+
+        private void collectChanges(ReadBlock block, ReadResponse response, List<Message> changes) {
+            List<ModbusPoint> blockPoints = block.getPoints();
+            for (int i = 0; i < blockPoints.size(); i++) {
+                ModbusPoint point = blockPoints.get(i);
+                Object value = block.valueOf(response, i);
+                if (point.isSignificantChange(lastValues.get(point), value)) {
+                    lastValues.put(point, value);
+                    changes.add(new Message(value, Metadata.empty()
+                            .with(DEVICE_KEY, device.getName())
+                            .with(POINT_KEY, point.getName())
+                            .with(SLAVE_KEY, point.getSlaveId())
+                            .with(ADDRESS_KEY, point.getAddress())));
+                }
+            }
+        }
+
+        private ModbusMaster connect() throws ModbusInitException {
+            if (master == null) {
+                ModbusMaster created = device.createMaster();
+                try {
+                    created.init();
+                } catch (ModbusInitException e) {
+                    created.destroy();
+                    throw e;
+                }
+                master = created;
+            }
+            return master;
+        }
+
+        private void disconnect() {
+            if (master != null) {
+                master.destroy();
+                master = null;
+            }
+        }
+    }
+}
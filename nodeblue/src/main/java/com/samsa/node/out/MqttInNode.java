@@ -1,15 +1,22 @@
 package com.samsa.node.out;
 
 import java.util.Objects;
-
-import javax.management.RuntimeErrorException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 import org.eclipse.paho.client.mqttv3.IMqttDeliveryToken;
 import org.eclipse.paho.client.mqttv3.MqttCallback;
 import org.eclipse.paho.client.mqttv3.MqttClient;
+import org.eclipse.paho.client.mqttv3.MqttException;
 import org.eclipse.paho.client.mqttv3.MqttMessage;
 
+import com.samsa.core.BinaryPayload;
 import com.samsa.core.Message;
+import com.samsa.core.Metadata;
+import com.samsa.mqtt.MqttPersistenceMode;
 import com.samsa.core.OutNode;
 
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +31,32 @@ public class MqttInNode extends OutNode{
     private int[] qos;
     MqttClient mqttClient;
 
+    /** 수신한 토픽을 저장하는 메타데이터 키 */
+    public static final String TOPIC_KEY = "topic";
+    /** 하위 노드가 포화되었을 때 보관할 수 있는 최대 메시지 수 */
+    public static final int DEFAULT_MAX_BUFFERED = 1000;
+    /** 수요를 다시 확인하는 간격 */
+    private static final long DEMAND_POLL_MILLIS = 100;
+
+    /** 하위 노드가 포화되었을 때 보관할 수 있는 최대 메시지 수 */
+    private int maxBuffered = DEFAULT_MAX_BUFFERED;
+    /** 수신했지만 아직 하위 노드로 보내지 않은 메시지 */
+    private BlockingQueue<PendingMessage> backlog;
+    /** backlog의 메시지를 수요에 맞춰 하위 노드로 보내는 스레드 */
+    private Thread dispatcher;
+    /** 수신했지만 아직 하위 노드로 보내고 확인 응답까지 마치지 못한 메시지 수 (전송 중인 메시지 포함) */
+    private final AtomicInteger undelivered = new AtomicInteger();
+    /** QoS 1/2 메시지를 보관하는 방식 */
+    private MqttPersistenceMode persistenceMode = MqttPersistenceMode.DEFAULT;
+    /** 영속성 파일을 저장할 디렉터리, null이면 작업 디렉터리 */
+    private String persistenceDirectory;
+
+    /**
+     * 수신했지만 아직 확인 응답(ack)을 보내지 않은 메시지입니다.
+     */
+    private record PendingMessage(Message message, int messageId, int qos) {
+    }
+
     public MqttInNode(String broker, String clientId) {
         super();
         if(Objects.isNull(broker) || Objects.isNull(clientId)) {
@@ -39,32 +72,75 @@ public class MqttInNode extends OutNode{
         this.qos = new int[topics.length];
     }
 
+    /**
+     * 하위 노드가 포화되었을 때 보관할 수 있는 최대 메시지 수를 설정합니다.
+     * 이 한도를 넘으면 MQTT 콜백 스레드가 대기하여 브로커로부터의 수신이 멈춥니다.
+     * start() 이전에 호출해야 합니다.
+     *
+     * @param maxBuffered 최대 보관 메시지 수
+     */
+    public void setMaxBuffered(int maxBuffered) {
+        if (maxBuffered < 1) {
+            throw new IllegalArgumentException("maxBuffered must be positive: " + maxBuffered);
+        }
+        this.maxBuffered = maxBuffered;
+    }
+
+    /**
+     * 보관 중이며 아직 하위 노드로 보내지 않은 메시지 수를 반환합니다.
+     *
+     * @return 보관 중인 메시지 수
+     */
+    public int getBufferedCount() {
+        return backlog == null ? 0 : backlog.size();
+    }
+
+    /**
+     * QoS 1/2 메시지를 보관하는 방식을 지정합니다. start() 이전에 호출해야 합니다.
+     *
+     * @param mode 보관 방식 (기본값 DEFAULT)
+     * @param directory 파일을 저장할 디렉터리, null이면 작업 디렉터리
+     */
+    public void setPersistence(MqttPersistenceMode mode, String directory) {
+        this.persistenceMode = Objects.requireNonNull(mode, "mode");
+        this.persistenceDirectory = directory;
+    }
+
     @Override
     public void start() {
         super.start();
+        backlog = new ArrayBlockingQueue<>(maxBuffered);
+        undelivered.set(0);
+        dispatcher = null;
             try{
-            mqttClient = new MqttClient(broker, clientId); // mqtt 클라이언트가 해당 브로커와 연결할 것이라고 알려줘야함.
-            System.out.println("mqttClient create");
+            mqttClient = new MqttClient(broker, clientId, persistenceMode.create(persistenceDirectory)); // mqtt 클라이언트가 해당 브로커와 연결할 것이라고 알려줘야함.
+            log.debug("MqttInNode[{}] created client {} for {}", getId(), clientId, broker);
+            // 하위 노드로 보낸 뒤에 ack를 보내도록 수동 확인 응답을 사용합니다.
+            // 포화 시 ack가 지연되므로 브로커는 QoS 1/2 메시지를 in-flight 한도 이상 보내지 않습니다.
+            mqttClient.setManualAcks(true);
             mqttClient.connect(); // 지정된 브로커(서버)에 연결을 시도합니다.
             mqttClient.setCallback(new MqttCallback() { // MQTT 클라이언트가 수신한 메시지를 처리하기 위한 콜백 메서드를 정의합니다.
                 // 구독자가 mqtt를 받으면 3가지로 분류해서 응답함.
 
                 @Override
                 public void connectionLost(Throwable cause) { // 브로커와의 연결이 끊어졌을 때 호출됩니다.
-                    System.out.println("Disconnected");
+                    log.warn("MqttInNode[{}] lost connection to {}", getId(), broker, cause);
                 }
 
                 @Override
                 public void messageArrived(String topic, MqttMessage message) throws Exception { // 새 메시지가 도착했을 때 호출됩니다.
-                    // MQTT 메시지 페이로드를 JSON으로 파싱
-                    String payload = new String(message.getPayload());
-                    // JsonNode jsonNode = new ObjectMapper().readTree(payload);
-                    // System.out.println(jsonNode.toString());
-
-
-                    Message msg = new Message(payload);
-                    log.info(msg.getPayload().toString());
-                    emit(msg);
+                    // 페이로드는 디코딩하지 않고 원본 바이트 그대로 감싸며, 내용이 필요한 노드가 처음 읽을 때 디코딩됩니다.
+                    Message msg = new Message(BinaryPayload.wrap(message.getPayload()),
+                            Metadata.empty().with(TOPIC_KEY, topic));
+                    log.trace("MqttInNode[{}] received {} bytes on {}", getId(), message.getPayload().length, topic);
+                    // backlog가 가득 차면 여기서 대기하여 Paho의 수신을 멈춥니다.
+                    undelivered.incrementAndGet();
+                    try {
+                        backlog.put(new PendingMessage(msg, message.getId(), message.getQos()));
+                    } catch (InterruptedException e) {
+                        undelivered.decrementAndGet();
+                        throw e;
+                    }
                 }
 
                 @Override
@@ -72,9 +148,143 @@ public class MqttInNode extends OutNode{
                     // 발행된 메시지가 성공적으로 전달되었을 때 호출됩니다(구독자에서는 거의 사용되지 않음).
                 }
             });
+            // 연결된 뒤에만 전달 스레드를 시작하며, 구독 중에 도착하는 메시지도 바로 전달합니다.
+            dispatcher = new Thread(this::dispatchLoop, "mqtt-in-" + clientId);
+            dispatcher.setDaemon(true);
+            dispatcher.start();
             mqttClient.subscribe(topics, qos); // Sub이 topics을 구독
         }catch(Exception e){
+            // 연결이나 구독에 실패하면 전달 스레드를 멈추고 클라이언트를 정리합니다.
+            stopDispatcher();
+            disconnectAndClose();
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * 전달 스레드를 인터럽트하고 끝날 때까지 잠시 기다립니다.
+     */
+    private void stopDispatcher() {
+        Thread thread = dispatcher;
+        if (thread == null) {
+            return;
+        }
+        thread.interrupt();
+        try {
+            thread.join(DEMAND_POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 하위 노드에 수요가 있을 때만 backlog의 메시지를 보내고, 보낸 뒤 브로커에 확인 응답을 보냅니다.
+     */
+    private void dispatchLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                PendingMessage pending = backlog.take();
+                while (!awaitDemand(DEMAND_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                    log.debug("MqttInNode[{}] waiting for downstream demand, {} message(s) buffered", getId(), backlog.size());
+                }
+                try {
+                    emit(pending.message());
+                } catch (Exception e) {
+                    handleError(e);
+                }
+                acknowledge(pending);
+                undelivered.decrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void acknowledge(PendingMessage pending) {
+        if (pending.qos() == 0) {
+            return;
+        }
+        try {
+            mqttClient.messageArrivedComplete(pending.messageId(), pending.qos());
+        } catch (MqttException e) {
+            handleError(e);
+        }
+    }
+
+    /**
+     * 노드를 중지합니다. 먼저 구독을 해제하여 새 메시지를 받지 않고, 보관 중인 메시지를 수요에 맞춰 하위 노드로 보내며
+     * 확인 응답까지 마칠 때까지 기다린 뒤 연결을 끊고 클라이언트를 닫습니다. 전체 대기 시간은 timeout을 넘지 않으며,
+     * 그 안에 보내지 못한 메시지는 버려집니다. {@link #stop()}도 이 메서드로 위임됩니다.
+     *
+     * @param timeout 최대 대기 시간
+     * @param unit 대기 시간 단위
+     * @return 제한 시간 안에 보관 중인 메시지를 모두 보냈으면 true
+     */
+    @Override
+    public boolean stop(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        if (mqttClient != null && mqttClient.isConnected() && topics != null) {
+            try {
+                mqttClient.unsubscribe(topics);
+            } catch (MqttException e) {
+                log.warn("MqttInNode[{}] failed to unsubscribe", getId(), e);
+            }
+        }
+        boolean drained = awaitDelivered(deadline);
+        if (!drained) {
+            log.warn("MqttInNode[{}] stopped with {} buffered message(s) discarded", getId(), undelivered.get());
+        }
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        disconnectAndClose();
+        return super.stop(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS) && drained;
+    }
+
+    /**
+     * 연결되어 있으면 연결을 끊고 클라이언트를 닫습니다.
+     */
+    private void disconnectAndClose() {
+        try {
+            if (mqttClient != null && mqttClient.isConnected()) {
+                mqttClient.disconnect();
+            }
+        } catch (MqttException e) {
+            log.warn("MqttInNode[{}] failed to disconnect", getId(), e);
+        } finally {
+            closeClient();
+        }
+    }
+
+    /**
+     * 클라이언트를 닫아 영속성 저장소를 해제합니다. MAPPED_LOG 저장소는 이때 디렉터리 잠금을 풀므로
+     * 같은 clientId로 다시 시작할 수 있습니다.
+     */
+    private void closeClient() {
+        if (mqttClient == null) {
+            return;
+        }
+        try {
+            mqttClient.close();
+        } catch (MqttException e) {
+            log.warn("MqttInNode[{}] failed to close client", getId(), e);
+        }
+    }
+
+    /**
+     * 보관 중인 메시지가 모두 하위 노드로 전달될 때까지 deadline까지 기다립니다.
+     */
+    private boolean awaitDelivered(long deadline) {
+        while (undelivered.get() > 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || dispatcher == null || !dispatcher.isAlive()) {
+                return false;
+            }
+            LockSupport.parkNanos(this, Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+        return true;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.samsa.pipeline;
+
+import com.samsa.core.Node;
+import com.samsa.core.Pipe;
+
+/**
+ * 파이프라인 안의 두 노드 사이의 연결을 나타냅니다.
+ * 소스 노드의 출력 파이프와 대상 노드의 입력 파이프 한 쌍으로 이루어집니다.
+ *
+ * @param source 메시지를 보내는 노드
+ * @param target 메시지를 받는 노드
+ * @param outputPipe 소스 노드에 등록된 출력 파이프
+ * @param inputPipe 대상 노드에 등록된 입력 파이프
+ */
+public record Connection(Node source, Node target, Pipe outputPipe, Pipe inputPipe) {
+}
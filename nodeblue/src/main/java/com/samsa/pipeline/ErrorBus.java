@@ -0,0 +1,389 @@
+package com.samsa.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.samsa.core.Node;
+import com.samsa.core.NodeErrorListener;
+import com.samsa.core.RingBuffer;
+import com.samsa.node.out.CatchNode;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 파이프라인 노드에서 발생한 에러를 {@link CatchNode}로 전달하는 에러 버스입니다.
+ * 파이프라인은 노드를 추가할 때 이 버스를 노드의 에러 리스너로 설정합니다.
+ *
+ * <p>에러를 받을 CatchNode는 노드 ID별로 미리 계산한 색인에서 찾습니다. SELECTED_NODES 범위는 대상 노드 ID로,
+ * SAME_PIPELINE 범위는 파이프라인 ID로 색인하므로 에러마다 CatchNode를 하나씩 확인하지 않습니다.
+ * CatchNode 호출은 전용 스레드에서 하므로 에러가 난 노드는 큐에 넣고 바로 반환합니다.
+ *
+ * <p>같은 노드에서 같은 종류와 메시지의 에러가 반복되면 창(window)의 첫 에러만 바로 전달하고, 나머지는 세기만 했다가
+ * 창이 끝날 때 마지막 에러와 횟수를 한 번에 전달합니다. 브로커 장애처럼 초당 수천 번 같은 에러가 나도
+ * CatchNode 이후의 흐름에는 창마다 두 건 이하만 흐릅니다. 큐가 가득 차면 에러는 버려지고 {@link #getDroppedCount()}에 집계됩니다.
+ */
+@Slf4j
+public class ErrorBus implements NodeErrorListener {
+    /** 반복 에러를 모으는 기본 창 크기 */
+    public static final long DEFAULT_WINDOW_MILLIS = 1000;
+    /** 기본 큐 용량 */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** 동시에 추적하는 반복 에러 종류의 최대 수, 넘치면 모으지 않고 바로 전달합니다 */
+    private static final int MAX_BURSTS = 4096;
+    /** 대기 중 깨어나 모은 에러를 확인하는 최대 간격 */
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    /** stop()이 남은 에러를 전달하기 위해 기다리는 최대 시간 */
+    private static final long STOP_TIMEOUT_MILLIS = 5000;
+
+    private final String pipelineId;
+    private final RingBuffer<ErrorEvent> queue;
+    /** 반복 중인 에러 */
+    private final Map<ErrorKey, Burst> bursts = new ConcurrentHashMap<>();
+    private volatile long windowNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_WINDOW_MILLIS);
+
+    /** 노드 ID별 CatchNode 색인 */
+    private volatile Map<String, List<CatchNode>> byNode = Map.of();
+    /** 색인에 없는 노드(파이프라인 밖)의 에러를 받을 SAME_PIPELINE CatchNode */
+    private volatile List<CatchNode> pipelineWide = List.of();
+
+    /** CatchNode에 전달한 건수 */
+    private final LongAdder dispatched = new LongAdder();
+    /** 요약으로 합쳐진 에러 수 */
+    private final LongAdder suppressed = new LongAdder();
+    /** 큐가 가득 차 버려진 에러 수 */
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean closed = true;
+    private volatile boolean dispatcherWaiting;
+    private volatile Thread dispatcher;
+
+    /**
+     * 에러 버스를 생성합니다.
+     *
+     * @param pipelineId 소속 파이프라인의 ID (SAME_PIPELINE 범위의 색인 키)
+     */
+    public ErrorBus(String pipelineId) {
+        this(pipelineId, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * 에러 버스를 생성합니다.
+     *
+     * @param pipelineId 소속 파이프라인의 ID (SAME_PIPELINE 범위의 색인 키)
+     * @param capacity 전달을 기다리는 에러 큐의 용량
+     */
+    public ErrorBus(String pipelineId, int capacity) {
+        this.pipelineId = pipelineId;
+        this.queue = new RingBuffer<>(capacity);
+    }
+
+    /**
+     * 반복 에러를 모으는 창 크기를 설정합니다. 0이면 모으지 않고 모든 에러를 전달합니다.
+     *
+     * @param windowMillis 창 크기 (밀리초)
+     */
+    public void setWindowMillis(long windowMillis) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("windowMillis must not be negative: " + windowMillis);
+        }
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+    }
+
+    /**
+     * 파이프라인의 노드로 CatchNode 색인을 다시 만듭니다. 노드가 추가/제거되거나 파이프라인이 시작될 때 호출되며,
+     * CatchNode의 범위나 대상을 바꾼 뒤에도 호출해야 반영됩니다.
+     *
+     * @param nodes 파이프라인의 모든 노드
+     */
+    public synchronized void index(Collection<Node> nodes) {
+        List<CatchNode> samePipeline = new ArrayList<>();
+        Map<String, List<CatchNode>> selected = new HashMap<>();
+        for (Node node : nodes) {
+            if (!(node instanceof CatchNode catchNode)) {
+                continue;
+            }
+            switch (catchNode.getScope()) {
+                case SAME_PIPELINE -> {
+                    if (Objects.equals(pipelineId, catchNode.getPipelineId())) {
+                        samePipeline.add(catchNode);
+                    }
+                }
+                case SELECTED_NODES -> {
+                    for (String target : catchNode.getTargetNodeIds()) {
+                        selected.computeIfAbsent(target, key -> new ArrayList<>()).add(catchNode);
+                    }
+                }
+            }
+        }
+        Map<String, List<CatchNode>> index = new HashMap<>();
+        for (Node node : nodes) {
+            String nodeId = node.getId().toString();
+            List<CatchNode> targets = new ArrayList<>(samePipeline);
+            for (CatchNode catchNode : selected.getOrDefault(nodeId, List.of())) {
+                if (!targets.contains(catchNode)) {
+                    targets.add(catchNode);
+                }
+            }
+            if (!targets.isEmpty()) {
+                index.put(nodeId, List.copyOf(targets));
+            }
+        }
+        pipelineWide = List.copyOf(samePipeline);
+        byNode = Map.copyOf(index);
+    }
+
+    /**
+     * 노드의 에러를 받아 CatchNode 전달 큐에 넣습니다. 받을 CatchNode가 없거나 CatchNode 자신의 에러이면 무시합니다.
+     *
+     * @param node 에러가 발생한 노드
+     * @param error 발생한 에러
+     */
+    @Override
+    public void onError(Node node, Throwable error) {
+        if (node instanceof CatchNode) {
+            // CatchNode의 에러를 다시 CatchNode로 보내면 끝없이 돌 수 있습니다.
+            return;
+        }
+        String sourceNodeId = node.getId().toString();
+        List<CatchNode> targets = targetsOf(sourceNodeId);
+        if (targets.isEmpty()) {
+            return;
+        }
+        long window = windowNanos;
+        if (window > 0) {
+            ErrorKey key = new ErrorKey(sourceNodeId, error.getClass(), error.getMessage());
+            while (true) {
+                Burst burst = bursts.get(key);
+                if (burst == null) {
+                    if (bursts.size() >= MAX_BURSTS) {
+                        break;
+                    }
+                    burst = bursts.putIfAbsent(key, new Burst(System.nanoTime()));
+                    if (burst == null) {
+                        enqueue(new ErrorEvent(targets, sourceNodeId, error, 1));
+                        return;
+                    }
+                }
+                if (burst.add(error)) {
+                    return;
+                }
+                // flush가 정리한 항목이면 지우고 새 항목을 만듭니다.
+                bursts.remove(key, burst);
+            }
+        }
+        enqueue(new ErrorEvent(targets, sourceNodeId, error, 1));
+    }
+
+    /**
+     * 노드의 에러를 받을 CatchNode를 현재 색인에서 찾습니다.
+     */
+    private List<CatchNode> targetsOf(String sourceNodeId) {
+        return byNode.getOrDefault(sourceNodeId, pipelineWide);
+    }
+
+    private void enqueue(ErrorEvent event) {
+        if (!queue.offer(event)) {
+            dropped.increment();
+            return;
+        }
+        Thread thread = dispatcher;
+        if (dispatcherWaiting && thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * 전달 스레드를 시작합니다. 이미 시작된 경우 아무 동작도 하지 않습니다.
+     */
+    public synchronized void start() {
+        if (!closed) {
+            return;
+        }
+        closed = false;
+        Thread thread = new Thread(this::dispatchLoop, "error-bus-" + pipelineId);
+        thread.setDaemon(true);
+        dispatcher = thread;
+        thread.start();
+    }
+
+    /**
+     * 모아 둔 에러와 큐에 남은 에러를 모두 전달한 뒤 전달 스레드를 멈춥니다.
+     */
+    public synchronized void stop() {
+        Thread thread = dispatcher;
+        if (closed || thread == null) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dispatcher = null;
+    }
+
+    private void dispatchLoop() {
+        long lastFlush = System.nanoTime();
+        while (true) {
+            ErrorEvent event = queue.poll();
+            if (event != null) {
+                dispatch(event);
+                continue;
+            }
+            long now = System.nanoTime();
+            if (closed) {
+                flush(now, true);
+                if (queue.isEmpty()) {
+                    return;
+                }
+                continue;
+            }
+            if (now - lastFlush >= Math.min(windowNanos, PARK_NANOS)) {
+                flush(now, false);
+                lastFlush = now;
+            }
+            dispatcherWaiting = true;
+            if (queue.isEmpty() && !closed) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            dispatcherWaiting = false;
+        }
+    }
+
+    /**
+     * 창이 끝난 반복 에러를 요약으로 전달하고, 창 동안 반복되지 않은 항목은 지웁니다.
+     * 요약을 받을 CatchNode는 전달할 때의 색인에서 찾으므로 창 동안 바뀐 구성도 반영됩니다.
+     */
+    private void flush(long now, boolean all) {
+        long window = windowNanos;
+        for (Map.Entry<ErrorKey, Burst> entry : bursts.entrySet()) {
+            Burst burst = entry.getValue();
+            if (!all && now - burst.windowStart < window) {
+                continue;
+            }
+            long count = burst.count.getAndSet(0);
+            if (count == 0) {
+                // 정리 표시에 성공한 뒤에는 onError가 이 항목에 더하지 않으므로 잃는 에러 없이 지울 수 있습니다.
+                if (burst.retire()) {
+                    bursts.remove(entry.getKey(), burst);
+                }
+                continue;
+            }
+            burst.windowStart = now;
+            String sourceNodeId = entry.getKey().sourceNodeId();
+            List<CatchNode> targets = targetsOf(sourceNodeId);
+            if (!targets.isEmpty()) {
+                suppressed.add(count);
+                enqueue(new ErrorEvent(targets, sourceNodeId, burst.last, count));
+            }
+        }
+    }
+
+    private void dispatch(ErrorEvent event) {
+        for (CatchNode catchNode : event.targets()) {
+            if (!catchNode.isActive()) {
+                continue;
+            }
+            try {
+                catchNode.handleNodeError(event.sourceNodeId(), event.error(), event.count());
+                dispatched.increment();
+            } catch (Exception e) {
+                log.error("ErrorBus[{}] CatchNode[{}] failed: {}", pipelineId, catchNode.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * CatchNode에 전달한 건수를 반환합니다. 요약은 한 건으로 셉니다.
+     *
+     * @return 전달 건수
+     */
+    public long getDispatchedCount() {
+        return dispatched.sum();
+    }
+
+    /**
+     * 창 안에서 반복되어 요약으로 합쳐진 에러 수를 반환합니다.
+     *
+     * @return 합쳐진 에러 수
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    /**
+     * 큐가 가득 차 버려진 에러 수를 반환합니다.
+     *
+     * @return 버려진 에러 수
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 반복 에러를 구분하는 키입니다.
+     */
+    private record ErrorKey(String sourceNodeId, Class<?> type, String message) {
+    }
+
+    /**
+     * CatchNode에 전달할 에러입니다.
+     */
+    private record ErrorEvent(List<CatchNode> targets, String sourceNodeId, Throwable error, long count) {
+    }
+
+    /**
+     * 창 안에서 반복 중인 에러입니다.
+     */
+    private static final class Burst {
+        /** 정리되어 더 이상 에러를 더할 수 없음을 나타내는 횟수 */
+        private static final long RETIRED = -1;
+
+        final AtomicLong count = new AtomicLong();
+        volatile long windowStart;
+        volatile Throwable last;
+
+        Burst(long windowStart) {
+            this.windowStart = windowStart;
+        }
+
+        /**
+         * 반복된 에러를 셉니다.
+         *
+         * @return 이미 정리된 항목이면 false
+         */
+        boolean add(Throwable error) {
+            while (true) {
+                long current = count.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+                last = error;
+                if (count.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * 그동안 반복된 에러가 없으면 항목을 정리된 것으로 표시합니다.
+         *
+         * @return 정리 표시에 성공했으면 true
+         */
+        boolean retire() {
+            return count.compareAndSet(0, RETIRED);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.samsa.pipeline;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 파이프라인 하나를 만드는 플로우 정의입니다. {@link PipelineManager#deploy(FlowDefinition)}로 배포합니다.
+ *
+ * @param id 파이프라인 ID
+ * @param nodes 노드 정의 목록
+ */
+public record FlowDefinition(String id, List<NodeDefinition> nodes) {
+
+    /**
+     * 노드 ID가 중복되지 않고 모든 연결이 정의된 노드를 가리키는지 검증합니다.
+     *
+     * @throws IllegalArgumentException 노드 ID가 중복되거나 없는 노드로 연결된 경우
+     */
+    public FlowDefinition {
+        Objects.requireNonNull(id, "id");
+        nodes = List.copyOf(nodes);
+        Map<String, NodeDefinition> byId = new HashMap<>();
+        for (NodeDefinition node : nodes) {
+            if (byId.put(node.id(), node) != null) {
+                throw new IllegalArgumentException("Flow[" + id + "] has duplicate node id: " + node.id());
+            }
+        }
+        for (NodeDefinition node : nodes) {
+            for (String target : node.wires()) {
+                if (!byId.containsKey(target)) {
+                    throw new IllegalArgumentException("Flow[" + id + "] node " + node.id()
+                            + " is wired to unknown node: " + target);
+                }
+            }
+        }
+    }
+
+    /**
+     * ID로 노드 정의를 찾습니다.
+     *
+     * @param nodeId 노드 ID
+     * @return 노드 정의, 없으면 null
+     */
+    public NodeDefinition node(String nodeId) {
+        for (NodeDefinition node : nodes) {
+            if (node.id().equals(nodeId)) {
+                return node;
+            }
+        }
+        return null;
+    }
+}
@@ -1,5 +1,113 @@
 package com.samsa.pipeline;
 
-public class JsonToPipeline {
-    
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON 플로우 문서를 {@link FlowDefinition}으로 읽습니다.
+ *
+ * <p>문서는 플로우 객체 하나이거나 플로우 객체의 배열입니다. 노드의 id, type, wires를 뺀 나머지 필드는 모두 설정으로 읽습니다.
+ * <pre>
+ * {"id": "line-1", "nodes": [
+ *   {"id": "in", "type": "mqtt in", "broker": "tcp://localhost:1883", "clientId": "line-1-in",
+ *    "topics": ["sensors/#"], "wires": ["debug"]},
+ *   {"id": "debug", "type": "debug"}
+ * ]}
+ * </pre>
+ */
+public final class JsonToPipeline {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private JsonToPipeline() {
+    }
+
+    /**
+     * JSON 문자열에서 플로우 정의들을 읽습니다.
+     *
+     * @param json 플로우 객체 또는 플로우 객체 배열
+     * @return 플로우 정의 목록
+     * @throws IllegalArgumentException JSON 형식이나 정의가 올바르지 않은 경우
+     */
+    public static List<FlowDefinition> parse(String json) {
+        try {
+            return parse(MAPPER.readTree(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid flow JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * JSON 파일에서 플로우 정의들을 읽습니다.
+     *
+     * @param file 플로우 파일
+     * @return 플로우 정의 목록
+     * @throws IllegalArgumentException JSON 형식이나 정의가 올바르지 않은 경우
+     * @throws UncheckedIOException 파일을 읽지 못한 경우
+     */
+    public static List<FlowDefinition> parse(Path file) {
+        try {
+            return parse(Files.readString(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read flow file " + file, e);
+        }
+    }
+
+    private static List<FlowDefinition> parse(JsonNode root) {
+        List<FlowDefinition> flows = new ArrayList<>();
+        if (root.isArray()) {
+            for (JsonNode flow : root) {
+                flows.add(toFlow(flow));
+            }
+        } else {
+            flows.add(toFlow(root));
+        }
+        return flows;
+    }
+
+    private static FlowDefinition toFlow(JsonNode flow) {
+        String id = text(flow, "id", "flow");
+        List<NodeDefinition> nodes = new ArrayList<>();
+        for (JsonNode node : flow.path("nodes")) {
+            nodes.add(toNode(node));
+        }
+        return new FlowDefinition(id, nodes);
+    }
+
+    private static NodeDefinition toNode(JsonNode node) {
+        String id = text(node, "id", "node");
+        String type = text(node, "type", "node " + id);
+        Map<String, Object> config = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String key = field.getKey();
+            if (!key.equals("id") && !key.equals("type") && !key.equals("wires")) {
+                config.put(key, MAPPER.convertValue(field.getValue(), Object.class));
+            }
+        }
+        List<String> wires = new ArrayList<>();
+        for (JsonNode wire : node.path("wires")) {
+            wires.add(wire.asText());
+        }
+        return new NodeDefinition(id, type, config, wires);
+    }
+
+    private static String text(JsonNode node, String field, String owner) {
+        JsonNode value = node.get(field);
+        if (value == null || !value.isValueNode()) {
+            throw new IllegalArgumentException("Missing " + field + " in " + owner);
+        }
+        return value.asText();
+    }
 }
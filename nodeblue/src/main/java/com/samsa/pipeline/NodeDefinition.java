@@ -0,0 +1,83 @@
+package com.samsa.pipeline;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 플로우 정의 안의 노드 하나입니다.
+ * 종류와 설정이 같으면 같은 노드로 보므로, 재배포 시 종류나 설정이 바뀐 노드만 새로 만듭니다.
+ *
+ * @param id 플로우 안에서 노드를 구분하는 식별자
+ * @param type {@link NodeRegistry}에 등록된 노드 종류
+ * @param config 노드 설정
+ * @param wires 출력이 연결될 노드 ID, 목록 순서가 출력 파이프의 순서
+ */
+public record NodeDefinition(String id, String type, Map<String, Object> config, List<String> wires) {
+
+    public NodeDefinition {
+        Objects.requireNonNull(id, "id");
+        Objects.requireNonNull(type, "type");
+        config = config == null ? Map.of() : Collections.unmodifiableMap(new LinkedHashMap<>(config));
+        wires = wires == null ? List.of() : List.copyOf(wires);
+    }
+
+    /**
+     * 노드 자체가 같은지 확인합니다. 출력 연결(wires)은 비교하지 않습니다.
+     *
+     * @param other 비교할 정의
+     * @return 종류와 설정이 같으면 true
+     */
+    public boolean sameNode(NodeDefinition other) {
+        return type.equals(other.type) && config.equals(other.config);
+    }
+
+    /**
+     * 문자열 설정값을 반환합니다.
+     *
+     * @param key 설정 키
+     * @param defaultValue 값이 없을 때 사용할 값
+     * @return 설정값
+     */
+    public String getString(String key, String defaultValue) {
+        Object value = config.get(key);
+        return value == null ? defaultValue : value.toString();
+    }
+
+    /**
+     * 정수 설정값을 반환합니다.
+     *
+     * @param key 설정 키
+     * @param defaultValue 값이 없을 때 사용할 값
+     * @return 설정값
+     * @throws IllegalArgumentException 값이 정수가 아닌 경우
+     */
+    public int getInt(String key, int defaultValue) {
+        Object value = config.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        try {
+            return Integer.parseInt(value.toString().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Node[" + id + "] " + key + " is not an integer: " + value);
+        }
+    }
+
+    /**
+     * 논리값 설정값을 반환합니다.
+     *
+     * @param key 설정 키
+     * @param defaultValue 값이 없을 때 사용할 값
+     * @return 설정값
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Object value = config.get(key);
+        return value == null ? defaultValue : Boolean.parseBoolean(value.toString());
+    }
+}
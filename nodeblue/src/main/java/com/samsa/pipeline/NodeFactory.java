@@ -0,0 +1,19 @@
+package com.samsa.pipeline;
+
+import com.samsa.core.Node;
+
+/**
+ * 노드 정의로부터 노드를 만드는 팩토리입니다. 노드 종류마다 {@link NodeRegistry}에 등록합니다.
+ */
+@FunctionalInterface
+public interface NodeFactory {
+
+    /**
+     * 새 노드를 만듭니다. 노드 ID는 배포 시 플로우와 노드 정의 ID로부터 다시 지정됩니다.
+     *
+     * @param definition 노드 정의
+     * @return 시작하지 않은 새 노드
+     * @throws IllegalArgumentException 설정이 올바르지 않은 경우
+     */
+    Node create(NodeDefinition definition);
+}
@@ -0,0 +1,114 @@
+package com.samsa.pipeline;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.samsa.core.InOutNode;
+import com.samsa.core.Node;
+import com.samsa.core.PartitionedNode;
+import com.samsa.node.in.DebugNode;
+import com.samsa.node.in.MqttOutNode;
+import com.samsa.node.inout.ChangeNode;
+import com.samsa.node.out.MqttInNode;
+
+/**
+ * 노드 종류 이름과 {@link NodeFactory}를 연결하는 등록부입니다.
+ * {@link #withDefaults()}는 기본 제공 노드(debug, change, mqtt in, mqtt out)를 등록한 등록부를 만듭니다.
+ *
+ * <p>입력과 출력이 있는 노드는 설정에 {@link #PARALLELISM_KEY}를 2 이상으로 주면 그 수만큼 복제본을 만들어
+ * {@link PartitionedNode}로 감쌉니다. 복제본은 {@link #PARTITION_KEY_KEY} 설정이 가리키는 메타데이터 값으로 고릅니다.
+ */
+public class NodeRegistry {
+    /** 복제본 수를 지정하는 설정 키 */
+    public static final String PARALLELISM_KEY = "parallelism";
+    /** 복제본을 고를 메타데이터 키를 지정하는 설정 키 */
+    public static final String PARTITION_KEY_KEY = "partitionKey";
+
+    /** 종류 이름별 팩토리 */
+    private final Map<String, NodeFactory> factories = new ConcurrentHashMap<>();
+
+    /**
+     * 기본 제공 노드를 등록한 등록부를 만듭니다.
+     *
+     * @return 새 등록부
+     */
+    public static NodeRegistry withDefaults() {
+        NodeRegistry registry = new NodeRegistry();
+        registry.register("debug", definition -> new DebugNode(UUID.randomUUID().toString(),
+                definition.getInt("capacity", DebugNode.DEFAULT_CAPACITY),
+                definition.getInt("maxOutputPerSecond", DebugNode.DEFAULT_MAX_OUTPUT_PER_SECOND)));
+        registry.register("change", definition -> new ChangeNode(UUID.randomUUID(),
+                required(definition, "property"), definition.config().get("value"),
+                definition.getBoolean("metadata", false)));
+        registry.register("mqtt in", definition -> new MqttInNode(required(definition, "broker"),
+                required(definition, "clientId"), topics(definition)));
+        registry.register("mqtt out", definition -> new MqttOutNode(required(definition, "broker"),
+                required(definition, "clientId"), required(definition, "topic")));
+        return registry;
+    }
+
+    /**
+     * 노드 종류를 등록합니다. 같은 이름이 있으면 교체합니다.
+     *
+     * @param type 노드 종류 이름
+     * @param factory 노드 팩토리
+     */
+    public void register(String type, NodeFactory factory) {
+        factories.put(type, factory);
+    }
+
+    /**
+     * 정의에 맞는 새 노드를 만듭니다.
+     *
+     * @param definition 노드 정의
+     * @return 시작하지 않은 새 노드
+     * @throws IllegalArgumentException 등록되지 않은 종류이거나 설정이 올바르지 않은 경우,
+     *         또는 입력과 출력이 없는 노드에 복제본 수를 지정한 경우
+     */
+    public Node create(NodeDefinition definition) {
+        NodeFactory factory = factories.get(definition.type());
+        if (factory == null) {
+            throw new IllegalArgumentException("Unknown node type " + definition.type() + " for node " + definition.id());
+        }
+        int parallelism = definition.getInt(PARALLELISM_KEY, 1);
+        if (parallelism <= 1) {
+            return factory.create(definition);
+        }
+        return new PartitionedNode(definition.getString(PARTITION_KEY_KEY, null), parallelism, () -> {
+            Node replica = factory.create(definition);
+            if (!(replica instanceof InOutNode inOut)) {
+                throw new IllegalArgumentException("Node[" + definition.id() + "] of type " + definition.type()
+                        + " cannot be partitioned");
+            }
+            return inOut;
+        });
+    }
+
+    /**
+     * 등록된 노드 종류 이름을 반환합니다.
+     *
+     * @return 종류 이름들
+     */
+    public Set<String> getTypes() {
+        return Set.copyOf(factories.keySet());
+    }
+
+    private static String required(NodeDefinition definition, String key) {
+        String value = definition.getString(key, null);
+        if (value == null) {
+            throw new IllegalArgumentException("Node[" + definition.id() + "] requires " + key);
+        }
+        return value;
+    }
+
+    private static String[] topics(NodeDefinition definition) {
+        Object value = definition.config().get("topics");
+        if (value instanceof List<?> list) {
+            return list.stream().map(String::valueOf).toArray(String[]::new);
+        }
+        return required(definition, "topics").trim().split("\\s*,\\s*");
+    }
+}
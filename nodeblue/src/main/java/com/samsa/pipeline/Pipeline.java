@@ -1,5 +1,572 @@
 package com.samsa.pipeline;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import com.samsa.core.FusibleNode;
+import com.samsa.core.InNode;
+import com.samsa.core.InOutNode;
+import com.samsa.core.Mailbox;
+import com.samsa.core.Node;
+import com.samsa.core.OutNode;
+import com.samsa.core.Pipe;
+import com.samsa.metrics.NodeMetricsSnapshot;
+import com.samsa.metrics.PipeMetricsSnapshot;
+import com.samsa.metrics.PipelineMetricsSnapshot;
+import com.samsa.node.out.CatchNode;
+import com.samsa.trace.TraceRecorder;
+import com.samsa.trace.TraceSampler;
+import com.samsa.trace.Tracer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 노드와 노드 사이의 연결로 이루어진 하나의 플로우입니다.
+ * 노드를 추가하고 연결한 뒤 start()를 호출하면 모든 노드를 시작합니다.
+ *
+ * <p>체인 융합이 켜져 있으면(기본값) 시작 시 입력과 출력이 하나씩뿐인 {@link FusibleNode}들이
+ * 동기 파이프로 선형 연결된 구간을 찾아 하나의 {@link FusedStage}로 대체합니다.
+ * 디버깅 중에는 {@link #setFusionEnabled(boolean)}로 끌 수 있습니다. 구성원 노드가 런타임에 연결되어 있으면 융합 단계도 같은 런타임의 우편함에서 실행됩니다.
+ *
+ * <p>실행 중에는 {@link #reconfigure(Runnable)} 안에서만 노드와 연결을 바꿀 수 있으며,
+ * 바뀌지 않은 노드는 멈추지 않고 계속 실행됩니다.
+ *
+ * <p>노드에서 발생한 에러는 파이프라인의 {@link ErrorBus}가 받아 해당 노드를 대상으로 하는 {@link CatchNode}에 비동기로 전달합니다.
+ */
+@Slf4j
 public class Pipeline {
-    
+    /** 파이프라인의 고유 식별자 */
+    private final String id;
+    /** 파이프라인에 속한 노드들 */
+    private final Map<UUID, Node> nodes = new LinkedHashMap<>();
+    /** 노드 사이의 연결 */
+    private final List<Connection> connections = new ArrayList<>();
+    /** 시작 시 생성된 융합 단계 */
+    private final List<FusedStage> fusedStages = new ArrayList<>();
+    /** 융합 단계별로 다시 연결된 입력/출력 연결 */
+    private final Map<FusedStage, Connection[]> fusedBoundaries = new HashMap<>();
+
+    /** 체인 융합 사용 여부 */
+    private boolean fusionEnabled = true;
+    /** 실행 여부 */
+    private boolean running;
+    /** 실행 중 재구성 여부 */
+    private boolean editing;
+    /** 재구성 중 추가되어 아직 시작하지 않은 노드 */
+    private final Set<Node> pendingStart = new LinkedHashSet<>();
+    /** 흐름 추적 설정, 추적하지 않으면 null */
+    private Tracer tracer;
+    /** 노드 에러를 CatchNode로 전달하는 에러 버스 */
+    private final ErrorBus errorBus;
+
+    /**
+     * 새로운 파이프라인을 생성합니다.
+     *
+     * @param id 파이프라인의 고유 식별자
+     */
+    public Pipeline(String id) {
+        this.id = id;
+        this.errorBus = new ErrorBus(id);
+    }
+
+    /**
+     * 파이프라인의 고유 식별자를 반환합니다.
+     *
+     * @return 파이프라인 ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * 노드를 파이프라인에 추가합니다.
+     *
+     * @param node 추가할 노드
+     */
+    public synchronized void addNode(Node node) {
+        checkEditable();
+        if (nodes.putIfAbsent(node.getId(), node) != null) {
+            return;
+        }
+        if (editing) {
+            pendingStart.add(node);
+        }
+        if (node instanceof CatchNode catchNode && catchNode.getPipelineId() == null) {
+            catchNode.setPipelineId(id);
+        }
+        node.setErrorListener(errorBus);
+        errorBus.index(nodes.values());
+    }
+
+    /**
+     * 두 노드를 동기 파이프로 연결합니다. 노드가 아직 추가되지 않았다면 함께 추가됩니다.
+     *
+     * @param source 메시지를 보내는 노드 (OutNode 또는 InOutNode)
+     * @param target 메시지를 받는 노드 (InNode 또는 InOutNode)
+     * @return 생성된 연결
+     */
+    public Connection connect(Node source, Node target) {
+        return connect(new Pipe(source.getId() + "->" + target.getId(), source), target);
+    }
+
+    /**
+     * 소스 노드의 출력 파이프를 대상 노드에 연결합니다.
+     * {@link com.samsa.core.AsyncPipe} 등 원하는 종류의 파이프를 연결별로 지정할 때 사용합니다.
+     *
+     * @param outputPipe 소스 노드를 주인으로 하는 출력 파이프
+     * @param target 메시지를 받는 노드 (InNode 또는 InOutNode)
+     * @return 생성된 연결
+     * @throws IllegalArgumentException 출력이나 입력을 가질 수 없는 노드인 경우
+     * @throws IllegalStateException 파이프라인이 실행 중이고 재구성 중이 아닌 경우
+     */
+    public synchronized Connection connect(Pipe outputPipe, Node target) {
+        checkEditable();
+        Node source = outputPipe.getNode();
+        Pipe inputPipe = new Pipe(outputPipe.getId(), target);
+        addOutputPipe(source, outputPipe);
+        addInputPipe(target, inputPipe);
+        outputPipe.connect(inputPipe);
+        addNode(source);
+        addNode(target);
+        Connection connection = new Connection(source, target, outputPipe, inputPipe);
+        connections.add(connection);
+        return connection;
+    }
+
+    /**
+     * 연결을 끊고 파이프라인에서 제거합니다. 양 끝 노드는 그대로 남습니다.
+     *
+     * @param connection 제거할 연결
+     * @throws IllegalStateException 파이프라인이 실행 중이고 재구성 중이 아닌 경우
+     */
+    public synchronized void disconnect(Connection connection) {
+        checkEditable();
+        if (!connections.remove(connection)) {
+            return;
+        }
+        connection.outputPipe().disconnect();
+        removeOutputPipe(connection.source(), connection.outputPipe());
+        removeInputPipe(connection.target(), connection.inputPipe());
+    }
+
+    /**
+     * 노드들과 그 노드들에 닿는 연결을 제거합니다.
+     * 실행 중이면 먼저 입력 연결을 모두 끊어 새 메시지를 막고, 메시지가 흐르는 순서대로 노드를 중지하여
+     * 처리 중이던 메시지의 출력이 하위 노드까지 전달된 뒤 출력 연결을 끊습니다.
+     *
+     * @param removed 제거할 노드
+     * @throws IllegalStateException 파이프라인이 실행 중이고 재구성 중이 아닌 경우
+     */
+    public synchronized void removeNodes(Collection<Node> removed) {
+        checkEditable();
+        Set<Node> targets = new HashSet<>(removed);
+        for (Connection connection : new ArrayList<>(connections)) {
+            if (targets.contains(connection.target())) {
+                disconnect(connection);
+            }
+        }
+        if (running) {
+            for (Node node : flowOrder()) {
+                if (targets.contains(node) && !pendingStart.contains(node)) {
+                    node.stop();
+                }
+            }
+        }
+        for (Connection connection : new ArrayList<>(connections)) {
+            if (targets.contains(connection.source())) {
+                disconnect(connection);
+            }
+        }
+        for (Node node : targets) {
+            if (nodes.remove(node.getId(), node) && node.getErrorListener() == errorBus) {
+                node.setErrorListener(null);
+            }
+            pendingStart.remove(node);
+        }
+        errorBus.index(nodes.values());
+    }
+
+    /**
+     * 실행 중인 파이프라인을 재구성합니다. edit 안에서 {@link #addNode(Node)}, {@link #connect(Node, Node)},
+     * {@link #disconnect(Connection)}, {@link #removeNodes(Collection)}를 호출할 수 있습니다.
+     * 재구성 동안 융합을 해제했다가 끝나면 다시 융합하며, 새로 추가된 노드는 시작 순서 규칙대로 시작합니다.
+     * 실행 중이 아니면 edit을 그대로 실행합니다.
+     *
+     * @param edit 노드와 연결을 바꾸는 작업
+     */
+    public synchronized void reconfigure(Runnable edit) {
+        if (!running) {
+            edit.run();
+            return;
+        }
+        List<FusedStage> stages = List.copyOf(fusedStages);
+        unfuseChains();
+        for (FusedStage stage : stages) {
+            stage.stop();
+        }
+        editing = true;
+        try {
+            edit.run();
+        } finally {
+            editing = false;
+            if (fusionEnabled) {
+                fuseChains();
+            }
+            for (FusedStage stage : fusedStages) {
+                stage.start();
+            }
+            startPending();
+            errorBus.index(nodes.values());
+        }
+        log.info("Pipeline[{}] reconfigured - nodes: {}, fused stages: {}", id, nodes.size(), fusedStages.size());
+    }
+
+    private void startPending() {
+        for (Node node : pendingStart) {
+            if (!(node instanceof OutNode)) {
+                node.start();
+            }
+        }
+        for (Node node : pendingStart) {
+            if (node instanceof OutNode out) {
+                out.setTracer(tracer);
+                node.start();
+            }
+        }
+        pendingStart.clear();
+    }
+
+    private void checkEditable() {
+        if (running && !editing) {
+            throw new IllegalStateException("Pipeline[" + id + "] is running");
+        }
+    }
+
+    private static void removeOutputPipe(Node node, Pipe pipe) {
+        if (node instanceof InOutNode inOut) {
+            inOut.removeOutputPipe(pipe);
+        } else if (node instanceof OutNode out) {
+            out.removePipe(pipe);
+        }
+    }
+
+    private static void removeInputPipe(Node node, Pipe pipe) {
+        if (node instanceof InOutNode inOut) {
+            inOut.removeInputPipe(pipe);
+        } else if (node instanceof InNode in) {
+            in.removePipe(pipe);
+        }
+    }
+
+    private static void addOutputPipe(Node node, Pipe pipe) {
+        if (node instanceof InOutNode inOut) {
+            inOut.addOutputPipe(pipe);
+        } else if (node instanceof OutNode out) {
+            out.addPipe(pipe);
+        } else {
+            throw new IllegalArgumentException("Node[" + node.getId() + "] cannot have output pipes");
+        }
+    }
+
+    private static void addInputPipe(Node node, Pipe pipe) {
+        if (node instanceof InOutNode inOut) {
+            inOut.addInputPipe(pipe);
+        } else if (node instanceof InNode in) {
+            in.addPipe(pipe);
+        } else {
+            throw new IllegalArgumentException("Node[" + node.getId() + "] cannot have input pipes");
+        }
+    }
+
+    /**
+     * 이 파이프라인의 에러 버스를 반환합니다. 반복 에러를 모으는 창 크기 설정과 전달 통계에 사용합니다.
+     *
+     * @return 에러 버스
+     */
+    public ErrorBus getErrorBus() {
+        return errorBus;
+    }
+
+    /**
+     * 체인 융합 사용 여부를 설정합니다. 기본값은 true이며, 다음 start()부터 적용됩니다.
+     *
+     * @param fusionEnabled 융합을 사용하려면 true
+     */
+    public void setFusionEnabled(boolean fusionEnabled) {
+        this.fusionEnabled = fusionEnabled;
+    }
+
+    /**
+     * 체인 융합 사용 여부를 반환합니다.
+     *
+     * @return 융합을 사용하면 true
+     */
+    public boolean isFusionEnabled() {
+        return fusionEnabled;
+    }
+
+    /**
+     * 이 파이프라인의 흐름 추적을 켭니다. 소스 노드가 내보내는 메시지 중 샘플러가 고른 메시지만 추적하며,
+     * 메시지가 지나는 노드마다 홉과 처리 시간을 기록기에 남깁니다. 실행 중에도 바로 적용됩니다.
+     *
+     * @param sampler 추적할 메시지를 고르는 샘플러
+     * @param recorder 이벤트를 모으는 기록기 (여러 파이프라인이 공유 가능)
+     */
+    public synchronized void enableTracing(TraceSampler sampler, TraceRecorder recorder) {
+        tracer = new Tracer(id, sampler, recorder);
+        applyTracer();
+    }
+
+    /**
+     * 이 파이프라인의 흐름 추적을 끕니다. 이미 추적 중인 메시지는 끝까지 기록됩니다.
+     */
+    public synchronized void disableTracing() {
+        tracer = null;
+        applyTracer();
+    }
+
+    private void applyTracer() {
+        for (Node node : nodes.values()) {
+            if (node instanceof OutNode out) {
+                out.setTracer(tracer);
+            }
+        }
+    }
+
+    /**
+     * 파이프라인을 시작합니다.
+     * 융합이 켜져 있으면 먼저 체인을 융합하고, 메시지를 받는 노드부터 시작한 뒤 소스 노드(OutNode)를 마지막에 시작합니다.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (fusionEnabled) {
+            fuseChains();
+        }
+        errorBus.index(nodes.values());
+        errorBus.start();
+        for (Node node : nodes.values()) {
+            if (!(node instanceof OutNode)) {
+                node.start();
+            }
+        }
+        for (FusedStage stage : fusedStages) {
+            stage.start();
+        }
+        applyTracer();
+        for (Node node : nodes.values()) {
+            if (node instanceof OutNode) {
+                node.start();
+            }
+        }
+        running = true;
+        log.info("Pipeline[{}] started - nodes: {}, fused stages: {}", id, nodes.size(), fusedStages.size());
+    }
+
+    /**
+     * 파이프라인을 중지합니다.
+     * 메시지가 흐르는 순서(위상 정렬)대로 노드를 중지하므로, 각 노드는 상위 노드가 보낸 메시지를 모두 처리한 뒤 멈춥니다.
+     * 마지막으로 융합을 해제합니다.
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        Map<Node, FusedStage> stageOf = new HashMap<>();
+        for (FusedStage stage : fusedStages) {
+            stageOf.put(stage.getNodes().get(0), stage);
+        }
+        for (Node node : flowOrder()) {
+            FusedStage stage = stageOf.get(node);
+            if (stage != null) {
+                // 융합 단계가 소진되면 그 안의 노드들도 더 이상 처리 중인 메시지가 없습니다.
+                stage.stop();
+            }
+            node.stop();
+        }
+        unfuseChains();
+        errorBus.stop();
+        running = false;
+        log.info("Pipeline[{}] stopped", id);
+    }
+
+    /**
+     * 파이프라인이 실행 중인지 확인합니다.
+     *
+     * @return 실행 중이면 true
+     */
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 연결을 따라 위상 정렬한 노드 순서를 반환합니다. 순환에 포함된 노드는 추가된 순서대로 뒤에 붙습니다.
+     *
+     * @return 메시지가 흐르는 순서의 노드 목록
+     */
+    private List<Node> flowOrder() {
+        Map<Node, Integer> indegree = new HashMap<>();
+        Map<Node, List<Node>> successors = new HashMap<>();
+        for (Connection connection : connections) {
+            indegree.merge(connection.target(), 1, Integer::sum);
+            successors.computeIfAbsent(connection.source(), key -> new ArrayList<>()).add(connection.target());
+        }
+        Deque<Node> ready = new ArrayDeque<>();
+        for (Node node : nodes.values()) {
+            if (!indegree.containsKey(node)) {
+                ready.add(node);
+            }
+        }
+        Set<Node> ordered = new LinkedHashSet<>();
+        while (!ready.isEmpty()) {
+            Node node = ready.poll();
+            ordered.add(node);
+            for (Node next : successors.getOrDefault(node, List.of())) {
+                if (indegree.merge(next, -1, Integer::sum) == 0) {
+                    ready.add(next);
+                }
+            }
+        }
+        ordered.addAll(nodes.values());
+        return new ArrayList<>(ordered);
+    }
+
+    /**
+     * 입력과 출력이 하나씩뿐인 융합 가능한 노드들이 동기 파이프로 연결된 구간을 찾아 융합합니다.
+     * 두 개 이상의 노드로 이루어진 구간만 융합하며, 구간의 앞뒤 연결은 융합 단계로 다시 연결합니다.
+     */
+    private void fuseChains() {
+        Map<Node, List<Connection>> incoming = new HashMap<>();
+        Map<Node, List<Connection>> outgoing = new HashMap<>();
+        for (Connection connection : connections) {
+            outgoing.computeIfAbsent(connection.source(), key -> new ArrayList<>()).add(connection);
+            incoming.computeIfAbsent(connection.target(), key -> new ArrayList<>()).add(connection);
+        }
+
+        for (Node head : nodes.values()) {
+            if (!isChainMember(head, incoming, outgoing)) {
+                continue;
+            }
+            Connection entry = incoming.get(head).get(0);
+            if (isFusibleLink(entry, incoming, outgoing)) {
+                // 앞 노드와 융합될 수 있으므로 체인의 시작이 아님
+                continue;
+            }
+            List<Node> chain = new ArrayList<>();
+            chain.add(head);
+            Connection exit = outgoing.get(head).get(0);
+            while (isFusibleLink(exit, incoming, outgoing)) {
+                chain.add(exit.target());
+                exit = outgoing.get(exit.target()).get(0);
+            }
+            if (chain.size() > 1) {
+                fuse(chain, entry, exit);
+            }
+        }
+    }
+
+    private static boolean isChainMember(Node node, Map<Node, List<Connection>> incoming,
+            Map<Node, List<Connection>> outgoing) {
+        return node instanceof InOutNode
+                && node instanceof FusibleNode
+                && incoming.getOrDefault(node, List.of()).size() == 1
+                && outgoing.getOrDefault(node, List.of()).size() == 1;
+    }
+
+    /**
+     * 연결의 양 끝이 모두 체인 구성원이고, 버퍼링 없는 동기 파이프로 연결되었는지 확인합니다.
+     */
+    private static boolean isFusibleLink(Connection connection, Map<Node, List<Connection>> incoming,
+            Map<Node, List<Connection>> outgoing) {
+        return connection.outputPipe().getClass() == Pipe.class
+                && connection.source() != connection.target()
+                && isChainMember(connection.source(), incoming, outgoing)
+                && isChainMember(connection.target(), incoming, outgoing);
+    }
+
+    private void fuse(List<Node> chain, Connection entry, Connection exit) {
+        FusedStage stage = new FusedStage(chain);
+        Mailbox mailbox = chain.get(0).getMailbox();
+        if (mailbox != null) {
+            mailbox.shareWith(stage);
+        }
+        Pipe stageInput = new Pipe(entry.inputPipe().getId(), stage);
+        stage.addInputPipe(stageInput);
+        // 마지막 노드의 출력 파이프를 그대로 사용하여 파이프 종류(비동기 등)를 유지합니다.
+        stage.addOutputPipe(exit.outputPipe());
+        entry.outputPipe().connect(stageInput);
+
+        fusedStages.add(stage);
+        fusedBoundaries.put(stage, new Connection[] { entry, exit });
+        log.debug("Pipeline[{}] fused {} nodes into stage {}", id, chain.size(), stage.getId());
+    }
+
+    private void unfuseChains() {
+        for (FusedStage stage : fusedStages) {
+            Connection[] boundary = fusedBoundaries.get(stage);
+            boundary[0].outputPipe().connect(boundary[0].inputPipe());
+            stage.removeOutputPipe(boundary[1].outputPipe());
+        }
+        fusedStages.clear();
+        fusedBoundaries.clear();
+    }
+
+    /**
+     * 파이프라인에 속한 노드들을 반환합니다.
+     *
+     * @return 노드들의 불변 목록
+     */
+    public synchronized List<Node> getNodes() {
+        return List.copyOf(nodes.values());
+    }
+
+    /**
+     * 노드 사이의 연결을 반환합니다.
+     *
+     * @return 연결들의 불변 목록
+     */
+    public synchronized List<Connection> getConnections() {
+        return Collections.unmodifiableList(new ArrayList<>(connections));
+    }
+
+    /**
+     * 현재 실행 중인 융합 단계를 반환합니다.
+     *
+     * @return 융합 단계들의 불변 목록
+     */
+    public synchronized List<FusedStage> getFusedStages() {
+        return List.copyOf(fusedStages);
+    }
+
+    /**
+     * 파이프라인에 속한 노드(실행 중인 융합 단계 포함)와 연결별 출력 파이프의 현재 통계를 반환합니다.
+     *
+     * @return 통계 스냅샷
+     */
+    public synchronized PipelineMetricsSnapshot getMetricsSnapshot() {
+        List<NodeMetricsSnapshot> nodeSnapshots = new ArrayList<>(nodes.size() + fusedStages.size());
+        for (Node node : nodes.values()) {
+            nodeSnapshots.add(node.getMetricsSnapshot());
+        }
+        for (FusedStage stage : fusedStages) {
+            nodeSnapshots.add(stage.getMetricsSnapshot());
+        }
+        List<PipeMetricsSnapshot> pipeSnapshots = new ArrayList<>(connections.size());
+        for (Connection connection : connections) {
+            pipeSnapshots.add(connection.outputPipe().getMetricsSnapshot());
+        }
+        return new PipelineMetricsSnapshot(id, List.copyOf(nodeSnapshots), List.copyOf(pipeSnapshots));
+    }
 }
@@ -1,5 +1,374 @@
 package com.samsa.pipeline;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.samsa.core.Node;
+import com.samsa.core.NodeRuntime;
+import com.samsa.metrics.MetricsJmx;
+import com.samsa.metrics.PipelineMetricsSnapshot;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 여러 파이프라인을 등록하여 관리합니다.
+ * 등록된 파이프라인의 노드와 파이프 통계는 {@link #snapshot()}으로 조회하거나,
+ * JMX가 켜져 있으면(기본값) {@link MetricsJmx}를 통해 MBean으로 조회할 수 있습니다.
+ *
+ * <p>{@link #deploy(FlowDefinition)}로 플로우 정의를 배포하면 {@link NodeRegistry}로 노드를 만들어 파이프라인을 구성하고 시작합니다.
+ * 런타임을 지정하면 모든 플로우의 노드가 같은 {@link NodeRuntime}을 공유하며, 설정에 {@link #PARALLEL_FAN_OUT_KEY}를
+ * true로 준 노드는 출력 분기들을 런타임의 실행기에서 병렬로 보냅니다.
+ * 같은 ID의 플로우를 다시 배포하면 이전 정의와 비교하여 종류나 설정이 바뀐 노드만 교체하고 바뀐 연결만 다시 잇습니다.
+ * 나머지 노드는 멈추지 않으므로 MQTT 연결 등도 그대로 유지됩니다.
+ */
+@Slf4j
 public class PipelineManager {
-    
+    /** 병렬 팬아웃을 켜는 노드 설정 키 */
+    public static final String PARALLEL_FAN_OUT_KEY = "parallelFanOut";
+
+    /** 등록된 파이프라인 (ID 기준) */
+    private final Map<String, Pipeline> pipelines = new ConcurrentHashMap<>();
+    /** 플로우 정의로 배포된 파이프라인 (ID 기준) */
+    private final Map<String, Deployment> deployments = new HashMap<>();
+
+    /** 배포된 노드가 공유하는 런타임, null이면 송신 스레드에서 직접 실행 */
+    private final NodeRuntime runtime;
+    /** 노드 종류별 팩토리 */
+    private final NodeRegistry registry;
+
+    /** 파이프라인 등록 시 통계 MBean도 등록할지 여부 */
+    private volatile boolean jmxEnabled = true;
+
+    /**
+     * 기본 노드 등록부를 사용하고, 노드를 런타임 없이 실행하는 관리자를 생성합니다.
+     */
+    public PipelineManager() {
+        this(null, NodeRegistry.withDefaults());
+    }
+
+    /**
+     * 관리자를 생성합니다. 런타임의 종료는 호출한 쪽이 책임집니다.
+     *
+     * @param runtime 배포된 노드가 공유할 런타임, null이면 송신 스레드에서 직접 실행
+     * @param registry 플로우 정의의 노드를 만들 등록부
+     */
+    public PipelineManager(NodeRuntime runtime, NodeRegistry registry) {
+        this.runtime = runtime;
+        this.registry = registry;
+    }
+
+    /**
+     * 배포된 플로우 하나의 현재 상태입니다.
+     */
+    private static final class Deployment {
+        private final Pipeline pipeline;
+        private FlowDefinition definition;
+        /** 노드 정의 ID별 노드 */
+        private final Map<String, Node> nodes;
+
+        Deployment(Pipeline pipeline, FlowDefinition definition, Map<String, Node> nodes) {
+            this.pipeline = pipeline;
+            this.definition = definition;
+            this.nodes = nodes;
+        }
+    }
+
+    /**
+     * 파이프라인 등록 시 통계 MBean도 등록할지 설정합니다. 이미 등록된 파이프라인에는 영향을 주지 않습니다.
+     *
+     * @param jmxEnabled true면 MBean 등록
+     */
+    public void setJmxEnabled(boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    /**
+     * 파이프라인을 등록합니다. 같은 ID의 파이프라인이 있으면 교체합니다.
+     * 노드와 연결은 등록 전에 모두 구성되어 있어야 MBean에 포함됩니다.
+     *
+     * @param pipeline 등록할 파이프라인
+     */
+    public void register(Pipeline pipeline) {
+        Pipeline previous = pipelines.put(pipeline.getId(), pipeline);
+        if (previous != null && previous != pipeline) {
+            MetricsJmx.unregisterAll(previous.getId());
+            synchronized (this) {
+                deployments.remove(pipeline.getId());
+            }
+        }
+        registerMetrics(pipeline);
+        log.info("Pipeline[{}] registered", pipeline.getId());
+    }
+
+    private void registerMetrics(Pipeline pipeline) {
+        if (jmxEnabled) {
+            for (Node node : pipeline.getNodes()) {
+                MetricsJmx.register(pipeline.getId(), node);
+            }
+            for (Connection connection : pipeline.getConnections()) {
+                MetricsJmx.register(pipeline.getId(), connection.outputPipe());
+            }
+        }
+    }
+
+    /**
+     * 플로우 정의를 배포합니다.
+     * 처음 배포하는 ID이면 파이프라인을 새로 만들어 등록하고 시작합니다. 같은 ID로 직접 등록된 파이프라인이 있으면 중지하고 대체합니다.
+     * 이미 배포된 ID이면 이전 정의와 비교하여 다음만 바꿉니다.
+     * <ul>
+     *   <li>없어지거나 종류 또는 설정이 바뀐 노드는 중지하고 제거합니다.</li>
+     *   <li>새로 생기거나 바뀐 노드는 새로 만들어 시작합니다.</li>
+     *   <li>출력 연결이 바뀌었거나 연결 대상이 교체된 노드는 출력 연결만 다시 잇습니다.</li>
+     * </ul>
+     * 새 노드는 실행 중인 파이프라인을 건드리기 전에 모두 만들어 두므로, 생성에 실패하면 이미 만든 노드를 런타임에서 분리하고
+     * 중지할 뿐 이전 플로우는 그대로 유지됩니다.
+     *
+     * @param flow 배포할 플로우 정의
+     * @return 배포된 파이프라인
+     * @throws IllegalArgumentException 노드를 만들 수 없는 경우
+     */
+    public synchronized Pipeline deploy(FlowDefinition flow) {
+        Deployment current = deployments.get(flow.id());
+        if (current == null) {
+            return deployNew(flow);
+        }
+        redeploy(current, flow);
+        return current.pipeline;
+    }
+
+    private Pipeline deployNew(FlowDefinition flow) {
+        Map<String, Node> nodes = createNodes(flow.id(), flow.nodes());
+        Pipeline pipeline = new Pipeline(flow.id());
+        for (NodeDefinition definition : flow.nodes()) {
+            pipeline.addNode(nodes.get(definition.id()));
+        }
+        for (NodeDefinition definition : flow.nodes()) {
+            for (String target : definition.wires()) {
+                pipeline.connect(nodes.get(definition.id()), nodes.get(target));
+            }
+        }
+        Pipeline previous = pipelines.get(flow.id());
+        if (previous != null) {
+            previous.stop();
+        }
+        register(pipeline);
+        pipeline.start();
+        deployments.put(flow.id(), new Deployment(pipeline, flow, nodes));
+        log.info("Pipeline[{}] deployed - nodes: {}", flow.id(), nodes.size());
+        return pipeline;
+    }
+
+    private void redeploy(Deployment current, FlowDefinition flow) {
+        FlowDefinition previous = current.definition;
+        Set<String> removed = new LinkedHashSet<>();
+        for (NodeDefinition old : previous.nodes()) {
+            NodeDefinition updated = flow.node(old.id());
+            if (updated == null || !updated.sameNode(old)) {
+                removed.add(old.id());
+            }
+        }
+        Set<String> added = new LinkedHashSet<>();
+        Set<String> rewired = new LinkedHashSet<>();
+        for (NodeDefinition definition : flow.nodes()) {
+            NodeDefinition old = previous.node(definition.id());
+            if (old == null || !old.sameNode(definition)) {
+                added.add(definition.id());
+            }
+        }
+        for (NodeDefinition definition : flow.nodes()) {
+            NodeDefinition old = previous.node(definition.id());
+            // 출력 파이프의 순서가 출력 번호이므로 하나라도 바뀌면 그 노드의 출력 연결을 모두 다시 잇습니다.
+            if (added.contains(definition.id()) || !old.wires().equals(definition.wires())
+                    || definition.wires().stream().anyMatch(added::contains)) {
+                rewired.add(definition.id());
+            }
+        }
+        if (removed.isEmpty() && added.isEmpty() && rewired.isEmpty()) {
+            current.definition = flow;
+            log.info("Pipeline[{}] unchanged", flow.id());
+            return;
+        }
+
+        Map<String, Node> created = createNodes(flow.id(), added.stream().map(flow::node).toList());
+        Pipeline pipeline = current.pipeline;
+        Map<String, Node> nodes = current.nodes;
+        pipeline.reconfigure(() -> {
+            List<Node> stale = new ArrayList<>();
+            for (String nodeId : removed) {
+                stale.add(nodes.remove(nodeId));
+            }
+            pipeline.removeNodes(stale);
+            for (String nodeId : rewired) {
+                Node source = nodes.get(nodeId);
+                if (source == null) {
+                    continue;
+                }
+                for (Connection connection : pipeline.getConnections()) {
+                    if (connection.source() == source) {
+                        pipeline.disconnect(connection);
+                    }
+                }
+            }
+            for (Map.Entry<String, Node> entry : created.entrySet()) {
+                nodes.put(entry.getKey(), entry.getValue());
+                pipeline.addNode(entry.getValue());
+            }
+            for (String nodeId : rewired) {
+                for (String target : flow.node(nodeId).wires()) {
+                    pipeline.connect(nodes.get(nodeId), nodes.get(target));
+                }
+            }
+        });
+        current.definition = flow;
+        if (jmxEnabled) {
+            MetricsJmx.unregisterAll(flow.id());
+            registerMetrics(pipeline);
+        }
+        log.info("Pipeline[{}] redeployed - replaced or added: {}, removed: {}, rewired: {}, unchanged: {}",
+                flow.id(), added.size(), removed.size(), rewired.size(), nodes.size() - added.size());
+    }
+
+    /**
+     * 정의 순서대로 노드를 만듭니다. 도중에 실패하면 이미 만든 노드를 버린 뒤 예외를 다시 던집니다.
+     *
+     * @return 노드 정의 ID별 노드
+     */
+    private Map<String, Node> createNodes(String flowId, Collection<NodeDefinition> definitions) {
+        Map<String, Node> created = new LinkedHashMap<>();
+        try {
+            for (NodeDefinition definition : definitions) {
+                created.put(definition.id(), createNode(flowId, definition));
+            }
+        } catch (RuntimeException e) {
+            created.values().forEach(this::discard);
+            throw e;
+        }
+        return created;
+    }
+
+    /**
+     * 노드를 만들고, 재배포 후에도 같은 노드 ID가 유지되도록 플로우와 노드 정의 ID로부터 ID를 지정합니다.
+     */
+    private Node createNode(String flowId, NodeDefinition definition) {
+        Node node = registry.create(definition);
+        node.setId(UUID.nameUUIDFromBytes((flowId + "/" + definition.id()).getBytes(StandardCharsets.UTF_8))
+                .toString());
+        if (runtime != null) {
+            runtime.attach(node);
+            try {
+                if (definition.getBoolean(PARALLEL_FAN_OUT_KEY, false)) {
+                    runtime.enableParallelFanOut(node);
+                }
+            } catch (RuntimeException e) {
+                discard(node);
+                throw e;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * 파이프라인에 넣지 못한 노드를 런타임에서 분리하고 중지합니다.
+     */
+    private void discard(Node node) {
+        if (runtime != null) {
+            runtime.detach(node);
+        }
+        node.stop();
+    }
+
+    /**
+     * 배포된 플로우를 중지하고 등록을 해제합니다.
+     *
+     * @param pipelineId 파이프라인 ID
+     * @return 중지된 파이프라인
+     */
+    public synchronized Optional<Pipeline> undeploy(String pipelineId) {
+        deployments.remove(pipelineId);
+        Optional<Pipeline> removed = unregister(pipelineId);
+        removed.ifPresent(Pipeline::stop);
+        return removed;
+    }
+
+    /**
+     * 배포된 플로우의 노드를 노드 정의 ID로 조회합니다.
+     *
+     * @param pipelineId 파이프라인 ID
+     * @param nodeId 노드 정의 ID
+     * @return 노드
+     */
+    public synchronized Optional<Node> getNode(String pipelineId, String nodeId) {
+        Deployment deployment = deployments.get(pipelineId);
+        return deployment == null ? Optional.empty() : Optional.ofNullable(deployment.nodes.get(nodeId));
+    }
+
+    /**
+     * 파이프라인의 등록을 해제합니다. 파이프라인을 중지하지는 않습니다.
+     *
+     * @param pipelineId 파이프라인 ID
+     * @return 해제된 파이프라인
+     */
+    public Optional<Pipeline> unregister(String pipelineId) {
+        synchronized (this) {
+            deployments.remove(pipelineId);
+        }
+        Pipeline removed = pipelines.remove(pipelineId);
+        if (removed != null) {
+            MetricsJmx.unregisterAll(pipelineId);
+            log.info("Pipeline[{}] unregistered", pipelineId);
+        }
+        return Optional.ofNullable(removed);
+    }
+
+    /**
+     * 등록된 파이프라인을 조회합니다.
+     *
+     * @param pipelineId 파이프라인 ID
+     * @return 파이프라인
+     */
+    public Optional<Pipeline> getPipeline(String pipelineId) {
+        return Optional.ofNullable(pipelines.get(pipelineId));
+    }
+
+    /**
+     * 등록된 모든 파이프라인을 반환합니다.
+     *
+     * @return 파이프라인 목록
+     */
+    public List<Pipeline> getPipelines() {
+        return List.copyOf(pipelines.values());
+    }
+
+    /**
+     * 등록된 모든 파이프라인의 현재 통계를 반환합니다.
+     *
+     * @return 파이프라인별 통계 스냅샷
+     */
+    public List<PipelineMetricsSnapshot> snapshot() {
+        List<PipelineMetricsSnapshot> snapshots = new ArrayList<>(pipelines.size());
+        for (Pipeline pipeline : pipelines.values()) {
+            snapshots.add(pipeline.getMetricsSnapshot());
+        }
+        return snapshots;
+    }
+
+    /**
+     * 파이프라인 하나의 현재 통계를 반환합니다.
+     *
+     * @param pipelineId 파이프라인 ID
+     * @return 통계 스냅샷
+     */
+    public Optional<PipelineMetricsSnapshot> snapshot(String pipelineId) {
+        return getPipeline(pipelineId).map(Pipeline::getMetricsSnapshot);
+    }
 }
@@ -0,0 +1,65 @@
+package com.samsa.trace;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.samsa.core.Node;
+
+/**
+ * 추적 중인 메시지 하나의 흐름입니다. 메시지에 붙어 다음 노드로 전달되며,
+ * 노드를 지날 때마다 {@link TraceEvent}를 기록기에 남깁니다.
+ * 노드가 원본 메시지로부터 만든 메시지(페이로드나 메타데이터 변경)도 같은 흐름을 이어받습니다.
+ */
+public final class FlowTrace {
+    private final String traceId;
+    private final String pipelineId;
+    private final long originNanos;
+    private final TraceRecorder recorder;
+    private final AtomicInteger hops = new AtomicInteger();
+
+    FlowTrace(String traceId, String pipelineId, TraceRecorder recorder) {
+        this.traceId = traceId;
+        this.pipelineId = pipelineId;
+        this.recorder = recorder;
+        this.originNanos = System.nanoTime();
+    }
+
+    /**
+     * 메시지가 노드에 도착했음을 알리고 홉 번호를 받습니다.
+     *
+     * @return 홉 번호
+     */
+    public int beginHop() {
+        return hops.getAndIncrement();
+    }
+
+    /**
+     * 노드의 처리가 끝났음을 기록합니다.
+     *
+     * @param hop {@link #beginHop()}으로 받은 홉 번호
+     * @param node 처리한 노드
+     * @param startNanos 처리를 시작한 시각 ({@link System#nanoTime()})
+     * @param durationNanos 처리 시간
+     */
+    public void endHop(int hop, Node node, long startNanos, long durationNanos) {
+        recorder.record(new TraceEvent(traceId, pipelineId, hop, node.getId(), node.getClass().getSimpleName(),
+                startNanos - originNanos, durationNanos));
+    }
+
+    /**
+     * 추적 ID를 반환합니다.
+     *
+     * @return 추적 ID
+     */
+    public String getTraceId() {
+        return traceId;
+    }
+
+    /**
+     * 파이프라인 ID를 반환합니다.
+     *
+     * @return 파이프라인 ID
+     */
+    public String getPipelineId() {
+        return pipelineId;
+    }
+}
@@ -0,0 +1,19 @@
+package com.samsa.trace;
+
+import java.util.UUID;
+
+/**
+ * 추적 중인 메시지가 노드 하나를 지난 기록(홉)입니다.
+ * 같은 traceId의 이벤트를 hop 순서로 정렬하면 메시지의 전체 경로가 됩니다.
+ *
+ * @param traceId 추적 ID (소스 노드가 내보낸 최초 메시지의 ID)
+ * @param pipelineId 파이프라인 ID
+ * @param hop 노드에 도착한 순서 (소스 노드가 0)
+ * @param nodeId 노드 ID
+ * @param nodeType 노드 클래스 이름
+ * @param offsetNanos 추적 시작부터 노드가 처리를 시작할 때까지의 시간
+ * @param durationNanos 노드의 처리 시간 (동기 파이프로 연결된 하위 노드의 처리 시간 포함)
+ */
+public record TraceEvent(String traceId, String pipelineId, int hop, UUID nodeId, String nodeType,
+        long offsetNanos, long durationNanos) {
+}
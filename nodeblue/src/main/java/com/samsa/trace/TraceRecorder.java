@@ -0,0 +1,115 @@
+package com.samsa.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.samsa.core.RingBuffer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 추적 이벤트를 고정 크기 링 버퍼에 모았다가 별도의 기록 스레드에서 {@link TraceSink}로 내보냅니다.
+ * 메시지를 처리하는 스레드는 버퍼에 넣기만 하며, 버퍼가 가득 차면 이벤트를 버리고 개수만 셉니다.
+ * 여러 파이프라인이 하나의 기록기를 공유할 수 있습니다.
+ */
+@Slf4j
+public class TraceRecorder implements AutoCloseable {
+    /** 기본 버퍼 용량 */
+    public static final int DEFAULT_CAPACITY = 8192;
+    /** 기본 기록 간격 */
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 100;
+
+    private final RingBuffer<TraceEvent> buffer;
+    private final TraceSink sink;
+    private final long flushIntervalNanos;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * 기본 용량과 기록 간격으로 로거에 기록하는 기록기를 생성합니다.
+     */
+    public TraceRecorder() {
+        this(DEFAULT_CAPACITY, DEFAULT_FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS, TraceSink.logging());
+    }
+
+    /**
+     * 기록기를 생성하고 기록 스레드를 시작합니다.
+     *
+     * @param capacity 버퍼 용량 (2의 거듭제곱으로 올림)
+     * @param flushInterval 기록 간격
+     * @param unit 기록 간격 단위
+     * @param sink 이벤트를 내보낼 곳
+     */
+    public TraceRecorder(int capacity, long flushInterval, TimeUnit unit, TraceSink sink) {
+        this.buffer = new RingBuffer<>(capacity);
+        this.sink = sink;
+        this.flushIntervalNanos = unit.toNanos(flushInterval);
+        this.writer = new Thread(this::writeLoop, "trace-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * 이벤트를 버퍼에 넣습니다. 버퍼가 가득 찼거나 닫힌 경우 버립니다.
+     *
+     * @param event 추적 이벤트
+     */
+    public void record(TraceEvent event) {
+        if (closed || !buffer.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * 버퍼가 가득 차서 버려진 이벤트 수를 반환합니다.
+     *
+     * @return 버려진 이벤트 수
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private void writeLoop() {
+        List<TraceEvent> batch = new ArrayList<>();
+        while (!closed) {
+            LockSupport.parkNanos(this, flushIntervalNanos);
+            drain(batch);
+        }
+        drain(batch);
+    }
+
+    private void drain(List<TraceEvent> batch) {
+        TraceEvent event;
+        while ((event = buffer.poll()) != null) {
+            batch.add(event);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            sink.write(batch);
+        } catch (RuntimeException e) {
+            log.warn("TraceRecorder failed to write {} event(s): {}", batch.size(), e.getMessage());
+        }
+        batch.clear();
+    }
+
+    /**
+     * 기록 스레드를 멈추고 남은 이벤트를 모두 내보냅니다.
+     * 기다리는 중 인터럽트되면 기다리지 않고 반환하며, 인터럽트 상태는 유지됩니다.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.samsa.trace;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.samsa.core.Message;
+
+/**
+ * 소스 노드가 내보내는 메시지 중 추적할 메시지를 고릅니다.
+ * 추적이 꺼진 파이프라인에서는 호출되지 않으며, 켜진 경우에도 메시지마다 한 번만 호출되므로 가볍게 구현해야 합니다.
+ */
+@FunctionalInterface
+public interface TraceSampler {
+
+    /**
+     * 메시지를 추적할지 결정합니다.
+     *
+     * @param message 소스 노드가 내보내는 메시지
+     * @return 추적하면 true
+     */
+    boolean sample(Message message);
+
+    /**
+     * 어떤 메시지도 추적하지 않는 샘플러를 반환합니다.
+     *
+     * @return 샘플러
+     */
+    static TraceSampler never() {
+        return message -> false;
+    }
+
+    /**
+     * N개의 메시지 중 하나를 추적하는 샘플러를 만듭니다.
+     *
+     * @param n 샘플링 간격 (1이면 모든 메시지)
+     * @return 샘플러
+     * @throws IllegalArgumentException n이 1보다 작은 경우
+     */
+    static TraceSampler everyNth(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("n must be positive: " + n);
+        }
+        AtomicLong counter = new AtomicLong();
+        return message -> counter.getAndIncrement() % n == 0;
+    }
+
+    /**
+     * 메타데이터에 지정된 키가 있는 메시지를 추적하는 샘플러를 만듭니다. (예: 디버깅용 "trace" 플래그)
+     *
+     * @param key 메타데이터 키
+     * @return 샘플러
+     */
+    static TraceSampler whenMetadata(String key) {
+        return message -> message.getMetadata().containsKey(key);
+    }
+
+    /**
+     * 두 샘플러 중 하나라도 선택하면 추적하는 샘플러를 만듭니다.
+     *
+     * @param other 다른 샘플러
+     * @return 샘플러
+     */
+    default TraceSampler or(TraceSampler other) {
+        return message -> sample(message) || other.sample(message);
+    }
+}
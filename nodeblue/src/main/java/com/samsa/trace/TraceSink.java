@@ -0,0 +1,37 @@
+package com.samsa.trace;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link TraceRecorder}의 기록 스레드가 모은 추적 이벤트를 내보내는 곳입니다.
+ * 항상 기록 스레드 하나에서만 호출됩니다.
+ */
+@FunctionalInterface
+public interface TraceSink {
+
+    /**
+     * 추적 이벤트를 내보냅니다.
+     *
+     * @param events 기록된 순서대로의 이벤트 (호출이 끝나면 재사용되므로 보관하려면 복사해야 함)
+     */
+    void write(List<TraceEvent> events);
+
+    /**
+     * "com.samsa.trace" 로거에 이벤트마다 한 줄씩 INFO로 기록하는 싱크를 반환합니다.
+     *
+     * @return 싱크
+     */
+    static TraceSink logging() {
+        Logger logger = LoggerFactory.getLogger("com.samsa.trace");
+        return events -> {
+            for (TraceEvent event : events) {
+                logger.info("trace={} pipeline={} hop={} node={}[{}] offset={}us duration={}us",
+                        event.traceId(), event.pipelineId(), event.hop(), event.nodeType(), event.nodeId(),
+                        event.offsetNanos() / 1000, event.durationNanos() / 1000);
+            }
+        };
+    }
+}
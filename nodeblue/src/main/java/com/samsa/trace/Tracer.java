@@ -0,0 +1,50 @@
+package com.samsa.trace;
+
+import java.util.Objects;
+
+import com.samsa.core.Message;
+
+/**
+ * 파이프라인 하나의 추적 설정입니다. 소스 노드는 메시지를 내보낼 때 {@link #start(Message)}를 호출하여
+ * 샘플러가 고른 메시지에만 {@link FlowTrace}를 붙입니다.
+ */
+public final class Tracer {
+    private final String pipelineId;
+    private final TraceSampler sampler;
+    private final TraceRecorder recorder;
+
+    /**
+     * 추적 설정을 생성합니다.
+     *
+     * @param pipelineId 파이프라인 ID
+     * @param sampler 추적할 메시지를 고르는 샘플러
+     * @param recorder 이벤트를 모으는 기록기
+     */
+    public Tracer(String pipelineId, TraceSampler sampler, TraceRecorder recorder) {
+        this.pipelineId = pipelineId;
+        this.sampler = Objects.requireNonNull(sampler, "sampler");
+        this.recorder = Objects.requireNonNull(recorder, "recorder");
+    }
+
+    /**
+     * 메시지가 샘플링되면 흐름 추적을 붙인 메시지를 반환합니다.
+     * 이미 추적 중인 메시지나 샘플링되지 않은 메시지는 그대로 반환합니다.
+     *
+     * @param message 소스 노드가 내보내는 메시지
+     * @return 추적이 붙은 메시지 또는 원래 메시지
+     */
+    public Message start(Message message) {
+        if (message.getTrace() != null || !sampler.sample(message)) {
+            return message;
+        }
+        return message.withTrace(new FlowTrace(message.getId(), pipelineId, recorder));
+    }
+
+    public String getPipelineId() {
+        return pipelineId;
+    }
+
+    public TraceRecorder getRecorder() {
+        return recorder;
+    }
+}
@@ -0,0 +1,129 @@
+package com.samsa.core;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.*;
+
+class AsyncPipeTest {
+
+    static class CollectingNode extends InNode {
+        final List<Object> received = new CopyOnWriteArrayList<>();
+        final CountDownLatch gate;
+
+        CollectingNode(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public void onMessage(Message message) {
+            try {
+                gate.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(message.getPayload());
+        }
+    }
+
+    @Test
+    void deliversInOrderOnConsumerThread() throws InterruptedException {
+        CollectingNode target = new CollectingNode(new CountDownLatch(0));
+        AsyncPipe out = new AsyncPipe("out", null, 16, OverflowPolicy.BLOCK);
+        Pipe in = new Pipe("in", target);
+        out.connect(in);
+
+        for (int i = 0; i < 1000; i++) {
+            out.send(new Message(i));
+        }
+        out.close();
+
+        Assertions.assertEquals(1000, target.received.size());
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals(i, target.received.get(i));
+        }
+        Assertions.assertEquals(0, out.getDroppedCount());
+    }
+
+    @Test
+    void dropNewestNeverBlocksProducer() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        CollectingNode target = new CollectingNode(gate);
+        AsyncPipe out = new AsyncPipe("out", null, 4, OverflowPolicy.DROP_NEWEST);
+        out.connect(new Pipe("in", target));
+
+        for (int i = 0; i < 10; i++) {
+            out.send(new Message(i));
+        }
+        gate.countDown();
+        out.close();
+
+        Assertions.assertTrue(out.getDroppedCount() > 0);
+        Assertions.assertEquals(10, target.received.size() + out.getDroppedCount());
+        Assertions.assertEquals(0, target.received.get(0));
+    }
+
+    @Test
+    void dropOldestKeepsLatestMessages() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        CollectingNode target = new CollectingNode(gate);
+        AsyncPipe out = new AsyncPipe("out", null, 4, OverflowPolicy.DROP_OLDEST);
+        out.connect(new Pipe("in", target));
+
+        for (int i = 0; i < 10; i++) {
+            out.send(new Message(i));
+        }
+        gate.countDown();
+        out.close();
+
+        Assertions.assertEquals(10, target.received.size() + out.getDroppedCount());
+        Assertions.assertEquals(9, target.received.get(target.received.size() - 1));
+    }
+
+    @Test
+    void sendsRacingCloseAreEitherDeliveredOrRejected() throws InterruptedException {
+        for (int round = 0; round < 200; round++) {
+            CollectingNode target = new CollectingNode(new CountDownLatch(0));
+            AsyncPipe out = new AsyncPipe("out", null, 64, OverflowPolicy.BLOCK);
+            out.connect(new Pipe("in", target));
+            out.start();
+            Thread[] producers = new Thread[4];
+            for (int p = 0; p < producers.length; p++) {
+                producers[p] = new Thread(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        out.send(new Message(i));
+                    }
+                });
+                producers[p].start();
+            }
+            Assertions.assertTrue(out.close(5, TimeUnit.SECONDS));
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            // 닫힌 뒤에 넣어져 전달되지 못한 채 버퍼에 남은 메시지가 없어야 합니다.
+            Assertions.assertEquals(0, out.getQueueSize(), "round " + round);
+            int delivered = target.received.size();
+            out.send(new Message("late"));
+            Assertions.assertEquals(delivered, target.received.size());
+            Assertions.assertEquals(0, out.getQueueSize());
+        }
+    }
+
+    @Test
+    void closeGivesUpAfterTimeout() throws InterruptedException {
+        CountDownLatch gate = new CountDownLatch(1);
+        CollectingNode target = new CollectingNode(gate);
+        AsyncPipe out = new AsyncPipe("out", null, 4, OverflowPolicy.BLOCK);
+        out.connect(new Pipe("in", target));
+        out.send(new Message(1));
+        out.send(new Message(2));
+
+        Assertions.assertFalse(out.close(50, TimeUnit.MILLISECONDS));
+        gate.countDown();
+        Assertions.assertTrue(out.close(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(List.of(1, 2), target.received);
+    }
+}
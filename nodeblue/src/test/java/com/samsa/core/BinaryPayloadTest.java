@@ -0,0 +1,97 @@
+package com.samsa.core;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.*;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.samsa.node.inout.ChangeNode;
+import com.samsa.node.inout.ChangeRule;
+import com.samsa.node.inout.PathExpression;
+
+class BinaryPayloadTest {
+
+    static final byte[] JSON = "{\"sensor\":{\"id\":\"plc-1\",\"temp\":21.5},\"tags\":[\"a\",\"b\"]}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void wrapsBytesWithoutCopying() {
+        BinaryPayload payload = BinaryPayload.wrap(JSON);
+
+        Assertions.assertSame(JSON, payload.bytes());
+        Assertions.assertEquals(JSON.length, payload.length());
+        Assertions.assertEquals(BinaryPayload.wrap(ByteBuffer.wrap(JSON)), payload);
+    }
+
+    @Test
+    void viewsAreDecodedOnceAndShared() {
+        BinaryPayload payload = BinaryPayload.wrap(JSON);
+
+        Assertions.assertSame(payload.asString(), payload.asString());
+        Assertions.assertSame(payload.asJson(), payload.asJson());
+        Assertions.assertEquals("plc-1", payload.asJson().path("sensor").path("id").asText());
+    }
+
+    @Test
+    void nonJsonIsParsedOnlyOnce() {
+        BinaryPayload payload = BinaryPayload.wrap("plain text".getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertFalse(payload.isJson());
+        Assertions.assertFalse(payload.isJson());
+        UncheckedIOException first = Assertions.assertThrows(UncheckedIOException.class, payload::asJson);
+        UncheckedIOException second = Assertions.assertThrows(UncheckedIOException.class, payload::asJson);
+        // 실패 원인이 캐시되어 있으므로 다시 파싱하지 않습니다.
+        Assertions.assertSame(first.getCause(), second.getCause());
+        Assertions.assertTrue(BinaryPayload.wrap(JSON).isJson());
+    }
+
+    @Test
+    void sliceAndStreamingParserReadOnlyTheWrappedRange() throws Exception {
+        byte[] framed = ("xx" + "{\"n\":1}" + "yy").getBytes(StandardCharsets.UTF_8);
+        BinaryPayload payload = BinaryPayload.wrap(framed, 2, 7);
+
+        Assertions.assertEquals("{\"n\":1}", payload.asString());
+        try (JsonParser parser = payload.parser()) {
+            Assertions.assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+            Assertions.assertEquals("n", parser.nextFieldName());
+            Assertions.assertEquals(JsonToken.VALUE_NUMBER_INT, parser.nextToken());
+            Assertions.assertEquals(1, parser.getIntValue());
+        }
+    }
+
+    @Test
+    void pathReadsNavigateCachedTree() {
+        BinaryPayload payload = BinaryPayload.wrap(JSON);
+
+        Assertions.assertEquals("plc-1", PathExpression.compile("sensor.id").get(payload));
+        Assertions.assertEquals(21.5, ((Number) PathExpression.compile("sensor.temp").get(payload)).doubleValue());
+        Assertions.assertEquals("b", PathExpression.compile("tags[1]").get(payload));
+        Assertions.assertNull(PathExpression.compile("sensor.missing").get(payload));
+    }
+
+    @Test
+    void metadataOnlyChangesKeepOriginalBytes() {
+        Message message = new Message(BinaryPayload.wrap(JSON));
+        ChangeNode node = new ChangeNode("00000000-0000-0000-0000-000000000001",
+                List.of(ChangeRule.set(ChangeRule.Target.METADATA, "topic", "out")));
+
+        MessageDraft draft = new MessageDraft(message);
+        node.applyTo(draft);
+
+        Assertions.assertSame(JSON, ((BinaryPayload) draft.toMessage().getPayload()).bytes());
+    }
+
+    @Test
+    void payloadChangesMaterializeJson() {
+        MessageDraft draft = new MessageDraft(new Message(BinaryPayload.wrap(JSON)));
+        new ChangeNode("00000000-0000-0000-0000-000000000002",
+                List.of(ChangeRule.delete(ChangeRule.Target.PAYLOAD, "sensor"))).applyTo(draft);
+
+        Assertions.assertEquals(Map.of("tags", List.of("a", "b")), draft.getPayload());
+    }
+}
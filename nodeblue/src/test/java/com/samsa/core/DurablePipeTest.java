@@ -0,0 +1,194 @@
+package com.samsa.core;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.*;
+
+class DurablePipeTest {
+
+    static class CollectingNode extends InNode {
+        final List<Message> received = new CopyOnWriteArrayList<>();
+        volatile boolean accepting = true;
+
+        @Override
+        public void onMessage(Message message) {
+            received.add(message);
+        }
+
+        @Override
+        public long demand() {
+            return accepting ? Long.MAX_VALUE : 0;
+        }
+    }
+
+    Path directory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("durable-pipe");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    static void awaitDelivered(CollectingNode node, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (node.received.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void deliversInOrder() throws Exception {
+        CollectingNode target = new CollectingNode();
+        DurablePipe out = new DurablePipe("out", null, directory, 4096);
+        out.connect(new Pipe("in", target));
+
+        for (int i = 0; i < 500; i++) {
+            out.send(new Message(i));
+        }
+        awaitDelivered(target, 500);
+        out.close();
+
+        Assertions.assertEquals(500, target.received.size());
+        for (int i = 0; i < 500; i++) {
+            Assertions.assertEquals(i, target.received.get(i).getPayload());
+        }
+        Assertions.assertEquals(0, out.getQueueSize());
+    }
+
+    @Test
+    void resumesUnacknowledgedMessagesAfterReopen() throws Exception {
+        CollectingNode stalled = new CollectingNode();
+        stalled.accepting = false;
+        DurablePipe out = new DurablePipe("out", null, directory, 4096);
+        out.connect(new Pipe("in", stalled));
+        Message first = new Message(Map.of("temp", 21.5, "tags", List.of("a", "b")),
+                Metadata.empty().with("topic", "sensors/1").with("qos", 1));
+        out.send(first);
+        for (int i = 1; i < 100; i++) {
+            out.send(new Message("message-" + i));
+        }
+        Assertions.assertEquals(100, out.getQueueSize());
+        out.close();
+        Assertions.assertTrue(stalled.received.isEmpty());
+
+        CollectingNode target = new CollectingNode();
+        DurablePipe reopened = new DurablePipe("out", null, directory, 4096);
+        Assertions.assertEquals(100, reopened.getQueueSize());
+        reopened.connect(new Pipe("in", target));
+        reopened.start();
+        awaitDelivered(target, 100);
+        reopened.close();
+
+        Assertions.assertEquals(100, target.received.size());
+        Message restored = target.received.get(0);
+        Assertions.assertEquals(first.getId(), restored.getId());
+        Assertions.assertEquals(first.getPayload(), restored.getPayload());
+        Assertions.assertEquals(first.getMetadata(), restored.getMetadata());
+        Assertions.assertEquals("message-99", target.received.get(99).getPayload());
+
+        DurablePipe drained = new DurablePipe("out", null, directory, 4096);
+        Assertions.assertEquals(0, drained.getQueueSize());
+        drained.close();
+    }
+
+    @Test
+    void messagesStillInTargetMailboxAreRedeliveredAfterReopen() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CollectingNode blocked = new CollectingNode() {
+            @Override
+            public void onMessage(Message message) {
+                super.onMessage(message);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        try (NodeRuntime runtime = new NodeRuntime(ExecutionMode.WORK_STEALING)) {
+            runtime.attach(blocked);
+            DurablePipe out = new DurablePipe("out", null, directory, 4096);
+            out.connect(new Pipe("in", blocked));
+            for (int i = 0; i < 10; i++) {
+                out.send(new Message(i));
+            }
+            awaitDelivered(blocked, 1);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (blocked.getMailbox().size() < 9 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            out.close();
+            // 우편함에 넘겼을 뿐 처리되지 않은 메시지는 확인되지 않습니다.
+            Assertions.assertEquals(10, out.getQueueSize());
+            release.countDown();
+        }
+
+        CollectingNode target = new CollectingNode();
+        DurablePipe reopened = new DurablePipe("out", null, directory, 4096);
+        Assertions.assertEquals(10, reopened.getQueueSize());
+        reopened.connect(new Pipe("in", target));
+        reopened.start();
+        awaitDelivered(target, 10);
+        reopened.close();
+
+        Assertions.assertEquals(0, target.received.get(0).getPayload());
+        Assertions.assertEquals(0, reopened.getQueueSize());
+    }
+
+    @Test
+    void reclaimsConsumedSegments() throws Exception {
+        CollectingNode target = new CollectingNode();
+        target.accepting = false;
+        DurablePipe out = new DurablePipe("out", null, directory, 1024);
+        out.connect(new Pipe("in", target));
+
+        for (int i = 0; i < 200; i++) {
+            out.send(new Message(BinaryPayload.wrap(new byte[100])));
+        }
+        Assertions.assertTrue(out.getSegmentCount() > 10);
+
+        target.accepting = true;
+        awaitDelivered(target, 200);
+        out.close();
+
+        Assertions.assertEquals(200, target.received.size());
+        Assertions.assertEquals(100, ((BinaryPayload) target.received.get(199).getPayload()).length());
+        try (Stream<Path> files = Files.list(directory)) {
+            Assertions.assertEquals(1, files.filter(path -> path.toString().endsWith(".seg")).count());
+        }
+    }
+
+    @Test
+    void maxSegmentsDropsNewestWhenFull() throws Exception {
+        CollectingNode target = new CollectingNode();
+        target.accepting = false;
+        DurablePipe out = new DurablePipe("out", null, directory, 1024);
+        out.setMaxSegments(2);
+        out.connect(new Pipe("in", target));
+
+        for (int i = 0; i < 100; i++) {
+            out.send(new Message(BinaryPayload.wrap(new byte[100])));
+        }
+        Assertions.assertEquals(2, out.getSegmentCount());
+        Assertions.assertEquals(0, out.demand());
+        out.close();
+
+        Assertions.assertTrue(out.getDroppedCount() > 0);
+        Assertions.assertEquals(100, out.getQueueSize() + out.getDroppedCount());
+    }
+}
@@ -0,0 +1,167 @@
+package com.samsa.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.*;
+
+class FanOutTest {
+
+    static class SourceNode extends OutNode {
+    }
+
+    static class BranchNode extends InNode {
+        final List<Object> received = new ArrayList<>();
+        final CyclicBarrier barrier;
+
+        BranchNode(CyclicBarrier barrier) {
+            this.barrier = barrier;
+        }
+
+        @Override
+        public void onMessage(Message message) {
+            if (barrier != null) {
+                try {
+                    // 모든 분기가 동시에 실행되어야만 통과합니다.
+                    barrier.await(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException("branches did not run concurrently", e);
+                }
+            }
+            received.add(message.getPayload());
+        }
+    }
+
+    static void connect(OutNode source, Node target) {
+        Pipe out = new Pipe("out", source);
+        Pipe in = new Pipe("in", target);
+        out.connect(in);
+        source.addPipe(out);
+    }
+
+    @Test
+    void branchesRunConcurrentlyAndJoin() throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(3);
+        SourceNode source = new SourceNode();
+        List<BranchNode> branches = List.of(new BranchNode(barrier), new BranchNode(barrier), new BranchNode(barrier));
+        for (BranchNode branch : branches) {
+            connect(source, branch);
+            branch.start();
+        }
+
+        try (NodeRuntime runtime = new NodeRuntime(ExecutionMode.WORK_STEALING, 4, NodeRuntime.DEFAULT_THROUGHPUT)) {
+            runtime.enableParallelFanOut(source);
+            source.start();
+            source.emitAndJoin(new Message("alert")).get(10, TimeUnit.SECONDS);
+        }
+
+        for (BranchNode branch : branches) {
+            Assertions.assertEquals(List.of("alert"), branch.received);
+        }
+    }
+
+    @Test
+    void keepsPerBranchOrderAndFreezesPayload() throws Exception {
+        SourceNode source = new SourceNode();
+        BranchNode db = new BranchNode(null);
+        BranchNode mqtt = new BranchNode(null);
+        connect(source, db);
+        connect(source, mqtt);
+        db.start();
+        mqtt.start();
+
+        try (NodeRuntime runtime = new NodeRuntime(ExecutionMode.WORK_STEALING, 4, NodeRuntime.DEFAULT_THROUGHPUT)) {
+            runtime.enableParallelFanOut(source);
+            source.start();
+            for (int i = 0; i < 1000; i++) {
+                Map<String, Object> payload = new HashMap<>();
+                payload.put("seq", i);
+                payload.put("tags", new ArrayList<>(List.of("a")));
+                source.emit(new Message(payload));
+            }
+            // 차선에 남은 메시지도 처리 중인 메시지로 세므로 stop()은 모든 분기에 전달될 때까지 기다립니다.
+            Assertions.assertTrue(source.stop(5, TimeUnit.SECONDS));
+        }
+
+        for (BranchNode branch : List.of(db, mqtt)) {
+            Assertions.assertEquals(1000, branch.received.size());
+            for (int i = 0; i < 1000; i++) {
+                Assertions.assertEquals(i, ((Map<?, ?>) branch.received.get(i)).get("seq"));
+            }
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> frozen = (Map<String, Object>) db.received.get(0);
+        Assertions.assertSame(frozen, mqtt.received.get(0));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> frozen.put("seq", -1));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> ((List<?>) frozen.get("tags")).clear());
+    }
+
+    @Test
+    void singleBranchDoesNotOvertakeDeliveryInProgress() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Object> finished = new CopyOnWriteArrayList<>();
+        InNode slow = new InNode() {
+            @Override
+            public void onMessage(Message message) {
+                if ("first".equals(message.getPayload())) {
+                    entered.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                finished.add(message.getPayload());
+            }
+        };
+        SourceNode source = new SourceNode();
+        connect(source, slow);
+        Pipe other = new Pipe("other", source);
+        other.connect(new Pipe("in", new BranchNode(null)));
+        source.addPipe(other);
+        slow.start();
+
+        try (NodeRuntime runtime = new NodeRuntime(ExecutionMode.WORK_STEALING, 4, NodeRuntime.DEFAULT_THROUGHPUT)) {
+            runtime.enableParallelFanOut(source);
+            source.start();
+            source.emit(new Message("first"));
+            Assertions.assertTrue(entered.await(5, TimeUnit.SECONDS));
+            // 분기가 하나만 남아도 차선에서 전달 중인 메시지가 있으면 빠른 경로를 타면 안 됩니다.
+            other.disconnect();
+            source.emit(new Message("second"));
+            release.countDown();
+            Assertions.assertTrue(source.stop(5, TimeUnit.SECONDS));
+        }
+
+        Assertions.assertEquals(List.of("first", "second"), finished);
+    }
+
+    @Test
+    void freezeDoesNotCopyFrozenOrImmutablePayloads() {
+        Message frozen = new Message(new HashMap<>(Map.of("tags", new ArrayList<>(List.of("a"))))).freeze();
+        Assertions.assertSame(frozen, frozen.freeze());
+        // 병렬 팬아웃을 거친 페이로드를 새 메시지로 다시 보내도 복사하지 않습니다.
+        Message forwarded = new Message(frozen.getPayload());
+        Assertions.assertSame(forwarded, forwarded.freeze());
+        Message immutable = new Message(List.of(1, 2, 3));
+        Assertions.assertSame(immutable, immutable.freeze());
+    }
+
+    @Test
+    void freezeKeepsImmutablePayloadsAndIdentity() {
+        Message text = new Message("text");
+        Assertions.assertSame(text, text.freeze());
+        Message map = new Message(new HashMap<>(Map.of("k", 1)), Metadata.empty().with("topic", "t"));
+        Message frozen = map.freeze();
+        Assertions.assertEquals(map.getId(), frozen.getId());
+        Assertions.assertEquals(map.getPayload(), frozen.getPayload());
+        Assertions.assertSame(map.getMetadata(), frozen.getMetadata());
+    }
+}
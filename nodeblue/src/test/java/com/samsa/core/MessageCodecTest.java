@@ -0,0 +1,115 @@
+package com.samsa.core;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.*;
+
+class MessageCodecTest {
+
+    static Message sample() {
+        Map<String, Object> reading = new LinkedHashMap<>();
+        reading.put("temp", 21.5);
+        reading.put("count", 42L);
+        reading.put("ratio", 0.25f);
+        reading.put("alarm", false);
+        reading.put("unit", null);
+        reading.put("tags", List.of("a", "온도", "😀"));
+        return new Message(reading, Metadata.empty()
+                .with("topic", "sensors/1")
+                .with("qos", -1)
+                .with("retain", true)
+                .with("raw", BinaryPayload.wrap(new byte[] {1, 2, 3})));
+    }
+
+    static void assertSameMessage(Message expected, Message actual) {
+        Assertions.assertEquals(expected.getId(), actual.getId());
+        Assertions.assertEquals(expected.getPayload(), actual.getPayload());
+        Assertions.assertEquals(expected.getMetadata().size(), actual.getMetadata().size());
+        expected.getMetadata().forEach((key, value) -> {
+            Object restored = actual.getMetadata().get(key);
+            if (value instanceof BinaryPayload binary) {
+                Assertions.assertArrayEquals(binary.bytes(), ((BinaryPayload) restored).bytes());
+            } else {
+                Assertions.assertEquals(value, restored, key);
+            }
+        });
+    }
+
+    @Test
+    void roundTripsAllValueTypesAndIdKinds() {
+        MessageCodec codec = new MessageCodec();
+        MessageIdGenerator original = Message.getIdGenerator();
+        try {
+            for (MessageIdGenerator generator : List.of(MessageIds.timeOrdered128(), MessageIds.timeOrdered64(),
+                    MessageIds.randomUuid())) {
+                Message.setIdGenerator(generator);
+                Message message = sample();
+                assertSameMessage(message, codec.decode(codec.encode(message)));
+            }
+        } finally {
+            Message.setIdGenerator(original);
+        }
+
+        Message named = new Message("custom-id", Long.MIN_VALUE, Map.of("n", Integer.MAX_VALUE));
+        assertSameMessage(named, codec.decode(codec.encode(named)));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(256);
+        Message message = sample();
+        codec.encode(message, direct);
+        Assertions.assertEquals(MessageCodec.FORMAT_VERSION, direct.get(0));
+        assertSameMessage(message, codec.decode(direct.flip()));
+        Assertions.assertFalse(direct.hasRemaining());
+    }
+
+    @Test
+    void streamCodecSendsRepeatedKeysOnce() {
+        MessageCodec writer = MessageCodec.stream();
+        MessageCodec reader = MessageCodec.stream();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        List<Integer> sizes = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int start = buffer.position();
+            writer.encode(new Message(i, Metadata.empty().with("device", "pump-7").with("sequence", i)), buffer);
+            sizes.add(buffer.position() - start);
+        }
+        Assertions.assertTrue(sizes.get(1) < sizes.get(0), "keys should be referenced after first use: " + sizes);
+        Assertions.assertEquals(sizes.get(1), sizes.get(2));
+
+        buffer.flip();
+        String firstKey = null;
+        for (int i = 0; i < 3; i++) {
+            Message restored = reader.decode(buffer);
+            Assertions.assertEquals(i, restored.getPayload());
+            Assertions.assertEquals(i, restored.getMetadata().get("sequence"));
+            String key = restored.getMetadata().keySet().iterator().next();
+            if (firstKey == null) {
+                firstKey = key;
+            }
+            Assertions.assertSame(firstKey, key);
+        }
+    }
+
+    @Test
+    void overflowLeavesBufferAndKeyTableUnchanged() {
+        MessageCodec writer = MessageCodec.stream();
+        MessageCodec reader = MessageCodec.stream();
+        Message large = new Message(BinaryPayload.wrap(new byte[100]), Metadata.empty().with("device", "a"));
+        ByteBuffer small = ByteBuffer.allocate(32);
+        small.put((byte) 7);
+        Assertions.assertThrows(BufferOverflowException.class, () -> writer.encode(large, small));
+        Assertions.assertEquals(1, small.position());
+
+        // 실패한 인코딩이 키 표에 남았다면 상대 코덱이 키 번호를 해석할 수 없습니다.
+        Message next = new Message(1, Metadata.empty().with("device", "b"));
+        Assertions.assertEquals("b", reader.decode(writer.encode(next)).getMetadata().get("device"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> writer.encode(new Message(new Object()), ByteBuffer.allocate(64)));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new MessageCodec().decode(ByteBuffer.wrap(new byte[] {MessageCodec.FORMAT_VERSION, 0, 9})));
+    }
+}
@@ -0,0 +1,134 @@
+package com.samsa.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.*;
+
+class MessageIdsTest {
+
+    static final int THREADS = 8;
+    static final int PER_THREAD = 20_000;
+
+    /**
+     * 여러 스레드에서 동시에 ID를 만들며, 스레드마다 ID가 엄격하게 증가하는지 확인하고 모든 ID 문자열을 모읍니다.
+     */
+    static Set<String> generateConcurrently(MessageIdGenerator generator) throws Exception {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        List<Throwable> failures = new ArrayList<>();
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await(5, TimeUnit.SECONDS);
+                    long salt = generator.salt();
+                    long previous = generator.next();
+                    ids.add(generator.format(previous, salt));
+                    for (int i = 1; i < PER_THREAD; i++) {
+                        long next = generator.next();
+                        Assertions.assertTrue(Long.compareUnsigned(next, previous) > 0, "ids must increase per thread");
+                        ids.add(generator.format(next, salt));
+                        previous = next;
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assertions.assertTrue(failures.isEmpty(), "generation failed: " + failures);
+        return ids;
+    }
+
+    @Test
+    void timeOrdered128IsMonotonicPerThreadAndUniqueAcrossThreads() throws Exception {
+        Set<String> ids = generateConcurrently(MessageIds.timeOrdered128());
+
+        Assertions.assertEquals(THREADS * PER_THREAD, ids.size());
+        String sample = ids.iterator().next();
+        Assertions.assertEquals(36, sample.length());
+        Assertions.assertEquals('7', sample.charAt(14));
+    }
+
+    @Test
+    void timeOrdered64IsMonotonicPerThreadAndUniqueAcrossThreads() throws Exception {
+        Set<String> ids = generateConcurrently(MessageIds.timeOrdered64());
+
+        Assertions.assertEquals(THREADS * PER_THREAD, ids.size());
+        Assertions.assertEquals(16, ids.iterator().next().length());
+    }
+
+    @Test
+    void timeOrdered64UsesTimestampSlotAndSequenceBits() {
+        MessageIdGenerator generator = MessageIds.timeOrdered64();
+        long before = System.currentTimeMillis();
+        long first = generator.next();
+        long second = generator.next();
+        long after = System.currentTimeMillis();
+
+        // 41비트 밀리초 | 10비트 스레드 슬롯 | 12비트 순번
+        Assertions.assertTrue(first > 0, "sign bit must stay clear");
+        long millis = (first >>> 22) + MessageIds.TimeOrdered64.EPOCH;
+        Assertions.assertTrue(millis >= before && millis <= after, "timestamp out of range: " + millis);
+        Assertions.assertEquals((first >>> 12) & 0x3FF, (second >>> 12) & 0x3FF);
+        if (second >>> 22 == first >>> 22) {
+            Assertions.assertEquals((first & 0xFFF) + 1, second & 0xFFF);
+        } else {
+            Assertions.assertEquals(0, second & 0xFFF);
+        }
+    }
+
+    @Test
+    void liveThreadsGetDistinctSlots() throws Exception {
+        int count = 64;
+        Set<Long> slots = ConcurrentHashMap.newKeySet();
+        CyclicBarrier alive = new CyclicBarrier(count);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < count; t++) {
+            Thread thread = new Thread(() -> {
+                slots.add((MessageIds.timeOrdered64().next() >>> 12) & 0x3FF);
+                try {
+                    // 모든 스레드가 살아 있는 동안 슬롯을 확인합니다.
+                    alive.await(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assertions.assertEquals(count, slots.size());
+    }
+
+    @Test
+    void sequenceOverflowRollsIntoNextMillisecond() {
+        MessageIds.Clock clock = new MessageIds.Clock(0);
+        // 현재 시각보다 앞선 밀리초에서 순번이 거의 찬 상태를 만듭니다.
+        long millis = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+        clock.lastMillis = millis;
+        clock.sequence = 0xFFE;
+
+        long last = clock.tick(12);
+        long rolled = clock.tick(12);
+        long next = clock.tick(12);
+
+        Assertions.assertEquals(millis << 12 | 0xFFF, last);
+        Assertions.assertEquals((millis + 1) << 12, rolled);
+        Assertions.assertEquals((millis + 1) << 12 | 1, next);
+        Assertions.assertTrue(last < rolled && rolled < next);
+    }
+}
@@ -0,0 +1,74 @@
+package com.samsa.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.*;
+
+class MetadataTest {
+
+    @Test
+    void withDoesNotModifyOriginal() {
+        Metadata original = Metadata.empty().with("a", 1);
+        Metadata updated = original.with("b", 2);
+
+        Assertions.assertEquals(1, original.size());
+        Assertions.assertNull(original.get("b"));
+        Assertions.assertEquals(2, updated.get("b"));
+        Assertions.assertSame(updated, updated.with("b", updated.get("b")));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> updated.put("c", 3));
+    }
+
+    @Test
+    void behavesLikeHashMapAcrossRepresentations() {
+        Random random = new Random(42);
+        Map<String, Object> expected = new HashMap<>();
+        Metadata actual = Metadata.empty();
+        for (int i = 0; i < 20000; i++) {
+            String key = "key" + random.nextInt(300);
+            if (random.nextInt(4) == 0) {
+                expected.remove(key);
+                actual = actual.without(key);
+            } else {
+                Object value = random.nextBoolean() ? null : i;
+                expected.put(key, value);
+                actual = actual.with(key, value);
+            }
+            Assertions.assertEquals(expected.size(), actual.size());
+        }
+        Assertions.assertEquals(expected, actual);
+        Assertions.assertEquals(expected, new HashMap<>(actual));
+        Assertions.assertEquals(expected.hashCode(), actual.hashCode());
+    }
+
+    @Test
+    void handlesFullHashCollisions() {
+        // "Aa"와 "BB"는 hashCode가 같으므로 이를 이어 붙인 문자열들은 모두 같은 해시를 가짐
+        String[] keys = { "AaAa", "AaBB", "BBAa", "BBBB", "AaAaAa", "AaAaBB" };
+        Metadata metadata = Metadata.empty();
+        for (int i = 0; i < 20; i++) {
+            metadata = metadata.with("filler" + i, i);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            metadata = metadata.with(keys[i], i);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            Assertions.assertEquals(i, metadata.get(keys[i]));
+        }
+        Metadata removed = metadata.without("AaBB");
+        Assertions.assertFalse(removed.containsKey("AaBB"));
+        Assertions.assertTrue(metadata.containsKey("AaBB"));
+        Assertions.assertEquals(metadata.size() - 1, removed.size());
+    }
+
+    @Test
+    void messageSharesMetadataWithoutCopying() {
+        Message message = new Message("payload", Metadata.empty().with("topic", "a/b"));
+        Message derived = new Message("other", message.getMetadata());
+
+        Assertions.assertSame(message.getMetadata(), derived.getMetadata());
+        Assertions.assertEquals("x", message.withMetadata("k", "x").getMetadata().get("k"));
+        Assertions.assertFalse(message.getMetadata().containsKey("k"));
+    }
+}
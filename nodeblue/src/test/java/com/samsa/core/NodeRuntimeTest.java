@@ -0,0 +1,176 @@
+package com.samsa.core;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.*;
+
+class NodeRuntimeTest {
+
+    static class ExclusiveNode extends InNode {
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger overlaps = new AtomicInteger();
+        final CountDownLatch done;
+        int count;
+
+        ExclusiveNode(int expected) {
+            this.done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onMessage(Message message) {
+            if (active.incrementAndGet() > 1) {
+                overlaps.incrementAndGet();
+            }
+            count++;
+            active.decrementAndGet();
+            done.countDown();
+        }
+    }
+
+    @Test
+    void mailboxRunsOneMessageAtATimePerNode() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 5000;
+        ExclusiveNode node = new ExclusiveNode(producers * perProducer);
+        try (NodeRuntime runtime = new NodeRuntime(ExecutionMode.WORK_STEALING)) {
+            runtime.attach(node);
+            Pipe out = new Pipe("out", null);
+            out.connect(new Pipe("in", node));
+
+            Thread[] threads = new Thread[producers];
+            for (int p = 0; p < producers; p++) {
+                threads[p] = new Thread(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        out.send(new Message(i));
+                    }
+                });
+                threads[p].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            Assertions.assertTrue(node.done.await(10, TimeUnit.SECONDS));
+            Assertions.assertEquals(0, node.overlaps.get());
+            Assertions.assertEquals(producers * perProducer, node.count);
+        }
+    }
+
+    @Test
+    void virtualThreadModeFallsBackOnOlderJvm() {
+        try (NodeRuntime runtime = new NodeRuntime(ExecutionMode.VIRTUAL_THREADS)) {
+            Assertions.assertNotNull(runtime.getExecutor());
+        }
+    }
+
+    @Test
+    void stopDrainsQueuedMessagesBeforeReportingStopped() {
+        ExclusiveNode node = new ExclusiveNode(200);
+        try (NodeRuntime runtime = new NodeRuntime(ExecutionMode.WORK_STEALING, 1, 1)) {
+            runtime.attach(node);
+            node.start();
+            for (int i = 0; i < 200; i++) {
+                node.receive(new Message(i));
+            }
+
+            Assertions.assertTrue(node.stop(10, TimeUnit.SECONDS));
+            Assertions.assertEquals(NodeStatus.STOPPED, node.getStatus());
+            Assertions.assertEquals(200, node.count);
+            Assertions.assertEquals(0, node.getInFlightCount());
+        }
+    }
+
+    @Test
+    void rejectedMailboxDiscardsQueuedMessagesSoStopDoesNotWait() {
+        ExclusiveNode node = new ExclusiveNode(3);
+        node.attachMailbox(new Mailbox(node, command -> {
+            throw new RejectedExecutionException("shut down");
+        }, NodeRuntime.DEFAULT_THROUGHPUT));
+        node.start();
+        for (int i = 0; i < 3; i++) {
+            node.receive(new Message(i));
+        }
+
+        Assertions.assertEquals(0, node.getMailbox().size());
+        Assertions.assertEquals(0, node.getInFlightCount());
+        Assertions.assertTrue(node.stop(100, TimeUnit.MILLISECONDS));
+        Assertions.assertEquals(0, node.count);
+    }
+
+    static class RelayNode extends InOutNode {
+        @Override
+        public void onMessage(Message message) {
+            emit(message);
+        }
+    }
+
+    @Test
+    void demandTerminatesOnCyclicFlow() {
+        RelayNode first = new RelayNode();
+        RelayNode second = new RelayNode();
+        for (RelayNode[] edge : new RelayNode[][] {{first, second}, {second, first}}) {
+            Pipe out = new Pipe("out", edge[0]);
+            Pipe in = new Pipe("in", edge[1]);
+            out.connect(in);
+            edge[0].addOutputPipe(out);
+            edge[1].addInputPipe(in);
+        }
+        try (NodeRuntime runtime = new NodeRuntime(ExecutionMode.WORK_STEALING)) {
+            runtime.setMailboxCapacity(8);
+            runtime.attach(second);
+
+            Assertions.assertEquals(8, first.demand());
+            Assertions.assertEquals(8, second.demand());
+        }
+    }
+
+    static class CountingSink extends InNode {
+        final AtomicInteger demandCalls = new AtomicInteger();
+
+        @Override
+        public void onMessage(Message message) {
+        }
+
+        @Override
+        public long demand() {
+            demandCalls.incrementAndGet();
+            return 5;
+        }
+    }
+
+    static void link(Node from, Node to) {
+        Pipe out = new Pipe("out", from);
+        out.connect(new Pipe("in", to));
+        if (from instanceof InOutNode node) {
+            node.addOutputPipe(out);
+        } else {
+            ((OutNode) from).addPipe(out);
+        }
+    }
+
+    @Test
+    void demandIsCachedPerPipeOnDiamondFlows() {
+        // 다이아몬드 20단: 캐시 없이 모든 경로를 따라가면 싱크의 수요를 2^20번 계산합니다.
+        OutNode source = new OutNode() {
+        };
+        CountingSink sink = new CountingSink();
+        Node join = source;
+        for (int level = 0; level < 20; level++) {
+            RelayNode left = new RelayNode();
+            RelayNode right = new RelayNode();
+            RelayNode next = new RelayNode();
+            link(join, left);
+            link(join, right);
+            link(left, next);
+            link(right, next);
+            join = next;
+        }
+        link(join, sink);
+
+        Assertions.assertEquals(5, source.demand());
+        Assertions.assertTrue(sink.demandCalls.get() < 100, "sink demand computed " + sink.demandCalls.get() + " times");
+    }
+}
@@ -0,0 +1,92 @@
+package com.samsa.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.*;
+
+class PartitionedNodeTest {
+
+    static class WorkerNode extends InOutNode {
+        @Override
+        public void onMessage(Message message) {
+            emit(message.withMetadata("worker", getId().toString()));
+        }
+    }
+
+    static class CollectingNode extends InNode {
+        final Map<Object, List<Object>> byDevice = new ConcurrentHashMap<>();
+        final CountDownLatch done;
+
+        CollectingNode(int expected) {
+            this.done = new CountDownLatch(expected);
+        }
+
+        @Override
+        public void onMessage(Message message) {
+            byDevice.computeIfAbsent(message.getMetadata().get("device"), key -> new ArrayList<>())
+                    .add(message.getPayload());
+            done.countDown();
+        }
+    }
+
+    static void connect(InOutNode source, Node target) {
+        Pipe out = new Pipe("out", source);
+        Pipe in = new Pipe("in", target);
+        out.connect(in);
+        source.addOutputPipe(out);
+    }
+
+    @Test
+    void keepsPerKeyOrderAcrossReplicas() throws InterruptedException {
+        int devices = 16;
+        int perDevice = 2000;
+        PartitionedNode node = new PartitionedNode("device", 4, WorkerNode::new);
+        CollectingNode sink = new CollectingNode(devices * perDevice);
+        connect(node, sink);
+
+        try (NodeRuntime runtime = new NodeRuntime(ExecutionMode.WORK_STEALING, 4, NodeRuntime.DEFAULT_THROUGHPUT)) {
+            runtime.attach(node);
+            runtime.attach(sink);
+            Assertions.assertNull(node.getMailbox());
+            node.start();
+            sink.start();
+
+            for (int i = 0; i < perDevice; i++) {
+                for (int d = 0; d < devices; d++) {
+                    node.receive(new Message(i, Metadata.empty().with("device", "device-" + d)));
+                }
+            }
+
+            Assertions.assertTrue(sink.done.await(10, TimeUnit.SECONDS));
+            Assertions.assertTrue(node.stop(5, TimeUnit.SECONDS));
+        }
+
+        Assertions.assertEquals(devices, sink.byDevice.size());
+        for (List<Object> values : sink.byDevice.values()) {
+            Assertions.assertEquals(perDevice, values.size());
+            for (int i = 0; i < perDevice; i++) {
+                Assertions.assertEquals(i, values.get(i));
+            }
+        }
+        long used = node.getReplicas().stream().filter(replica -> replica.getMetrics().getReceived() > 0).count();
+        Assertions.assertTrue(used > 1, "messages should spread over replicas: " + used);
+        Assertions.assertEquals((long) devices * perDevice, node.getMetrics().getEmitted());
+    }
+
+    @Test
+    void sameKeyAlwaysUsesSameReplica() {
+        PartitionedNode node = new PartitionedNode("device", 8, WorkerNode::new);
+        Message a = new Message(1, Metadata.empty().with("device", "pump-7"));
+        Message b = new Message(2, Metadata.empty().with("device", "pump-7"));
+        Assertions.assertEquals(node.partitionOf(a), node.partitionOf(b));
+        Assertions.assertEquals(0, node.partitionOf(new Message(3)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new PartitionedNode("device", 0, WorkerNode::new));
+        WorkerNode shared = new WorkerNode();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new PartitionedNode("device", 2, () -> shared));
+    }
+}
@@ -0,0 +1,142 @@
+package com.samsa.core;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.*;
+
+class RemotePipeTest {
+
+    static class CollectingNode extends InNode {
+        final List<Message> received = new CopyOnWriteArrayList<>();
+        volatile boolean accepting = true;
+
+        @Override
+        public void onMessage(Message message) {
+            received.add(message);
+        }
+
+        @Override
+        public long demand() {
+            return accepting ? Long.MAX_VALUE : 0;
+        }
+    }
+
+    static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    CollectingNode target;
+    RemoteInlet inlet;
+    RemotePipe out;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        target = new CollectingNode();
+        inlet = new RemoteInlet("inlet", new InetSocketAddress("localhost", 0), 64);
+        inlet.connect(new Pipe("in", target));
+        inlet.start();
+        out = new RemotePipe("out", null, "localhost", inlet.getPort());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        out.close();
+        inlet.close();
+    }
+
+    @Test
+    void deliversMessagesInOrder() throws Exception {
+        Message first = new Message(Map.of("temp", 21.5, "tags", List.of("a", "b")),
+                Metadata.empty().with("topic", "sensors/1").with("qos", 1));
+        out.send(first);
+        out.send(new Message(BinaryPayload.wrap(new byte[200_000])));
+        for (int i = 0; i < 10_000; i++) {
+            out.send(new Message(i));
+        }
+
+        awaitCondition(() -> target.received.size() == 10_002);
+
+        Assertions.assertEquals(10_002, target.received.size());
+        Message restored = target.received.get(0);
+        Assertions.assertEquals(first.getId(), restored.getId());
+        Assertions.assertEquals(first.getPayload(), restored.getPayload());
+        Assertions.assertEquals(first.getMetadata(), restored.getMetadata());
+        Assertions.assertEquals(200_000, ((BinaryPayload) target.received.get(1).getPayload()).length());
+        for (int i = 0; i < 10_000; i++) {
+            Assertions.assertEquals(i, target.received.get(i + 2).getPayload());
+        }
+        Assertions.assertEquals(10_002, out.getDeliveredCount());
+        Assertions.assertEquals(10_002, inlet.getDeliveredCount());
+    }
+
+    @Test
+    void creditsPropagateRemoteBackpressure() throws Exception {
+        target.accepting = false;
+        for (int i = 0; i < 500; i++) {
+            out.send(new Message(i));
+        }
+        awaitCondition(() -> out.getDeliveredCount() == 64);
+        Thread.sleep(100);
+
+        // 수신 측이 윈도 이상은 허락하지 않으므로 나머지는 송신 측 버퍼에 남습니다.
+        Assertions.assertEquals(64, out.getDeliveredCount());
+        Assertions.assertEquals(0, out.demand());
+        Assertions.assertTrue(target.received.isEmpty());
+
+        target.accepting = true;
+        awaitCondition(() -> target.received.size() == 500);
+        Assertions.assertEquals(500, target.received.size());
+        Assertions.assertEquals(499, target.received.get(499).getPayload());
+        awaitCondition(() -> out.demand() > 0);
+        Assertions.assertTrue(out.demand() > 0);
+    }
+
+    @Test
+    void connectTimesOutAgainstUnresponsiveListener() throws Exception {
+        // 대기열이 가득 찬 리스너는 SYN에 답하지 않으므로 제한 시간이 없으면 연결이 멈춥니다.
+        try (ServerSocket unresponsive = new ServerSocket(0, 1)) {
+            InetSocketAddress address = new InetSocketAddress("127.0.0.1", unresponsive.getLocalPort());
+            List<Socket> backlog = new ArrayList<>();
+            try {
+                while (true) {
+                    Socket socket = new Socket();
+                    try {
+                        socket.connect(address, 200);
+                    } catch (SocketTimeoutException e) {
+                        socket.close();
+                        break;
+                    }
+                    backlog.add(socket);
+                }
+                RemotePipe stalled = new RemotePipe("stalled", null, address, 16, OverflowPolicy.DROP_NEWEST);
+                stalled.setConnectTimeout(200);
+                stalled.start();
+                Thread.sleep(100);
+
+                Assertions.assertTimeoutPreemptively(Duration.ofSeconds(3), stalled::close);
+                Assertions.assertFalse(stalled.isRemoteConnected());
+            } finally {
+                for (Socket socket : backlog) {
+                    try {
+                        socket.close();
+                    } catch (IOException e) {
+                        // 무시
+                    }
+                }
+            }
+        }
+    }
+}
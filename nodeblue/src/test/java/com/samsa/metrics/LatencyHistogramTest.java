@@ -0,0 +1,48 @@
+package com.samsa.metrics;
+
+import org.junit.jupiter.api.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void bucketsAreContiguousAndBoundRelativeError() {
+        int previous = -1;
+        for (long value = 0; value < 1_000_000; value += 7) {
+            int index = LatencyHistogram.indexOf(value);
+            Assertions.assertTrue(index >= previous);
+            previous = index;
+            long highest = LatencyHistogram.highestValueAt(index);
+            Assertions.assertTrue(highest >= value);
+            Assertions.assertTrue(highest - value <= value / LatencyHistogram.SUB_BUCKETS);
+        }
+    }
+
+    @Test
+    void snapshotReportsPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        Assertions.assertEquals(1000, snapshot.count());
+        Assertions.assertEquals(500_500, snapshot.mean(), 1);
+        Assertions.assertEquals(500_000, snapshot.p50(), 500_000 * 0.04);
+        Assertions.assertEquals(990_000, snapshot.p99(), 990_000 * 0.04);
+        Assertions.assertEquals(1_000_000, snapshot.max());
+    }
+
+    @Test
+    void hugeValuesAreClampedIntoLastBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(Long.MAX_VALUE);
+        histogram.record(-5);
+
+        HistogramSnapshot snapshot = histogram.snapshot();
+
+        Assertions.assertEquals(2, snapshot.count());
+        Assertions.assertEquals(Long.MAX_VALUE, snapshot.max());
+        Assertions.assertEquals(0, snapshot.p50());
+    }
+}
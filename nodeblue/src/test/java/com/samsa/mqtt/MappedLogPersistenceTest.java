@@ -0,0 +1,126 @@
+package com.samsa.mqtt;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.paho.client.mqttv3.MqttPersistable;
+import org.eclipse.paho.client.mqttv3.MqttPersistenceException;
+import org.eclipse.paho.client.mqttv3.internal.MqttPersistentData;
+import org.junit.jupiter.api.*;
+
+class MappedLogPersistenceTest {
+
+    static final String CLIENT = "client1";
+    static final String SERVER = "tcp://localhost:1883";
+
+    Path directory;
+    MappedLogPersistence persistence;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("mapped-log");
+        persistence = open();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        persistence.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    MappedLogPersistence open() throws Exception {
+        MappedLogPersistence opened = new MappedLogPersistence(directory.toString(), 4096);
+        opened.open(CLIENT, SERVER);
+        return opened;
+    }
+
+    static MqttPersistable data(String key, String header, String payload) {
+        byte[] h = header.getBytes();
+        byte[] p = payload.getBytes();
+        return new MqttPersistentData(key, h, 0, h.length, p, 0, p.length);
+    }
+
+    static String payloadOf(MqttPersistable persistable) throws Exception {
+        return new String(persistable.getPayloadBytes(), persistable.getPayloadOffset(), persistable.getPayloadLength());
+    }
+
+    @Test
+    void putGetRemove() throws Exception {
+        persistence.put("s-1", data("s-1", "hdr", "hello"));
+        persistence.put("s-2", data("s-2", "hdr", "world"));
+        persistence.remove("s-1");
+
+        Assertions.assertNull(persistence.get("s-1"));
+        Assertions.assertEquals("world", payloadOf(persistence.get("s-2")));
+        Assertions.assertEquals(List.of("s-2"), Collections.list(persistence.keys()));
+    }
+
+    @Test
+    void reopenReplaysLogIncludingRemovals() throws Exception {
+        persistence.put("s-1", data("s-1", "hdr", "first"));
+        persistence.put("s-2", data("s-2", "hdr", "second"));
+        persistence.put("s-1", data("s-1", "hdr", "updated"));
+        persistence.remove("s-2");
+        persistence.close();
+
+        persistence = open();
+
+        Assertions.assertEquals("updated", payloadOf(persistence.get("s-1")));
+        Assertions.assertFalse(persistence.containsKey("s-2"));
+    }
+
+    @Test
+    void compactionReclaimsSegmentsOfAcknowledgedMessages() throws Exception {
+        String payload = "x".repeat(200);
+        persistence.put("stuck", data("stuck", "hdr", "in flight"));
+        for (int i = 0; i < 200; i++) {
+            persistence.put("s-" + i, data("s-" + i, "hdr", payload));
+            persistence.remove("s-" + i);
+        }
+
+        Assertions.assertTrue(persistence.getSegmentCount() <= 3, "segments " + persistence.getSegmentCount());
+        Assertions.assertEquals("in flight", payloadOf(persistence.get("stuck")));
+        persistence.close();
+
+        persistence = open();
+        Assertions.assertEquals(List.of("stuck"), Collections.list(persistence.keys()));
+    }
+
+    @Test
+    void secondOpenOfSameClientIsRejected() throws Exception {
+        MappedLogPersistence other = new MappedLogPersistence(directory.toString(), 4096);
+        Assertions.assertThrows(MqttPersistenceException.class, () -> other.open(CLIENT, SERVER));
+    }
+
+    @Test
+    void tornTailRecordIsIgnored() throws Exception {
+        persistence.put("s-1", data("s-1", "hdr", "kept"));
+        persistence.close();
+        Path segment;
+        try (Stream<Path> files = Files.list(directory.resolve("client1-tcplocalhost1883"))) {
+            segment = files.filter(path -> path.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        corruptAfterFirstRecord(segment);
+
+        persistence = open();
+
+        Assertions.assertEquals(List.of("s-1"), Collections.list(persistence.keys()));
+    }
+
+    static void corruptAfterFirstRecord(Path segment) throws IOException {
+        byte[] bytes = Files.readAllBytes(segment);
+        int next = 4 + ByteBuffer.wrap(bytes).getInt(0) + 4;
+        ByteBuffer.wrap(bytes).putInt(next, 40).put(next + 4, (byte) 1);
+        Files.write(segment, bytes);
+    }
+}
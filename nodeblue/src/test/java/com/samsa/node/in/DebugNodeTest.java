@@ -0,0 +1,42 @@
+package com.samsa.node.in;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.*;
+
+import com.samsa.core.Message;
+
+class DebugNodeTest {
+
+    static final String ID = "00000000-0000-0000-0000-000000000001";
+
+    @Test
+    void recentReturnsLastCapturedMessagesOldestFirst() {
+        DebugNode node = new DebugNode(ID, 4, 10);
+        for (int i = 0; i < 10; i++) {
+            node.onMessage(new Message(i));
+        }
+
+        Assertions.assertEquals(List.of(7, 8, 9), node.recent(3).stream().map(Message::getPayload).toList());
+        Assertions.assertEquals(4, node.recent(100).size());
+        Assertions.assertEquals(10, node.getCapturedCount());
+    }
+
+    @Test
+    void outputIsRateLimitedAndOverflowIsCountedAsDropped() throws Exception {
+        List<Object> printed = new CopyOnWriteArrayList<>();
+        DebugNode node = new DebugNode(ID, 8, 20);
+        node.setOutput(message -> printed.add(message.getPayload()));
+        node.start();
+        for (int i = 0; i < 1000; i++) {
+            node.onMessage(new Message(i));
+        }
+        Thread.sleep(300);
+        node.stop();
+
+        Assertions.assertFalse(printed.isEmpty());
+        Assertions.assertTrue(printed.size() <= 30, "printed " + printed.size());
+        Assertions.assertTrue(node.getDroppedCount() >= 1000 - 8 - printed.size(), "dropped " + node.getDroppedCount());
+    }
+}
@@ -0,0 +1,339 @@
+package com.samsa.node.in;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.MqttPersistenceException;
+import org.junit.jupiter.api.*;
+
+import com.samsa.core.Message;
+import com.samsa.mqtt.MappedLogPersistence;
+import com.samsa.mqtt.MqttPersistenceMode;
+
+class MqttOutNodeTest {
+
+    static final String CLIENT = "out-node";
+
+    /**
+     * 연결을 받아 CONNACK을 돌려주는 최소한의 MQTT 3.1.1 브로커입니다. PINGREQ에는 PINGRESP로 답하고,
+     * PUBLISH는 "토픽:페이로드" 형태로 기록한 뒤 QoS 1이면 PUBACK으로 답합니다. 나머지 패킷은 무시합니다.
+     */
+    static class LoopbackBroker implements AutoCloseable {
+        final ServerSocket server;
+        final Thread acceptor;
+        /** 받은 PUBLISH, "토픽:페이로드" */
+        final List<String> published = new CopyOnWriteArrayList<>();
+        final Set<Socket> sessions = ConcurrentHashMap.newKeySet();
+        /** true이면 PUBACK을 보내지 않고 쌓아 둡니다 (this로 보호) */
+        boolean holdAcks;
+        final List<Integer> heldAcks = new ArrayList<>();
+        OutputStream heldOut;
+
+        LoopbackBroker() throws IOException {
+            server = new ServerSocket(0);
+            acceptor = new Thread(this::acceptLoop, "loopback-broker");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        String uri() {
+            return "tcp://127.0.0.1:" + server.getLocalPort();
+        }
+
+        void acceptLoop() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    sessions.add(socket);
+                    Thread session = new Thread(() -> serve(socket), "loopback-session");
+                    session.setDaemon(true);
+                    session.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        void serve(Socket socket) {
+            try (socket) {
+                DataInputStream in = new DataInputStream(socket.getInputStream());
+                OutputStream out = socket.getOutputStream();
+                while (true) {
+                    int header = in.readUnsignedByte();
+                    int type = header >> 4;
+                    int length = 0;
+                    int shift = 0;
+                    int digit;
+                    do {
+                        digit = in.readUnsignedByte();
+                        length |= (digit & 0x7F) << shift;
+                        shift += 7;
+                    } while ((digit & 0x80) != 0);
+                    byte[] body = in.readNBytes(length);
+                    switch (type) {
+                        case 1 -> write(out, 0x20, 0x02, 0x00, 0x00); // CONNECT -> CONNACK
+                        case 3 -> received(out, (header >> 1) & 3, body);
+                        case 12 -> write(out, 0xD0, 0x00); // PINGREQ -> PINGRESP
+                        case 14 -> {
+                            return; // DISCONNECT
+                        }
+                        default -> {
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // 클라이언트가 연결을 끊음
+            }
+        }
+
+        void received(OutputStream out, int qos, byte[] body) throws IOException {
+            int topicLength = ((body[0] & 0xFF) << 8) | (body[1] & 0xFF);
+            int offset = 2 + topicLength;
+            String topic = new String(body, 2, topicLength, StandardCharsets.UTF_8);
+            int packetId = 0;
+            if (qos > 0) {
+                packetId = ((body[offset] & 0xFF) << 8) | (body[offset + 1] & 0xFF);
+                offset += 2;
+            }
+            published.add(topic + ":" + new String(body, offset, body.length - offset, StandardCharsets.UTF_8));
+            if (qos == 1) {
+                synchronized (this) {
+                    if (holdAcks) {
+                        heldAcks.add(packetId);
+                        heldOut = out;
+                        return;
+                    }
+                }
+                write(out, 0x40, 0x02, packetId >> 8, packetId & 0xFF); // PUBACK
+            }
+        }
+
+        synchronized void write(OutputStream out, int... bytes) throws IOException {
+            for (int b : bytes) {
+                out.write(b);
+            }
+            out.flush();
+        }
+
+        synchronized void holdAcks() {
+            holdAcks = true;
+        }
+
+        /**
+         * 쌓아 둔 PUBACK을 보내고 이후에는 바로 답합니다.
+         */
+        synchronized void releaseAcks() throws IOException {
+            holdAcks = false;
+            for (int packetId : heldAcks) {
+                write(heldOut, 0x40, 0x02, packetId >> 8, packetId & 0xFF);
+            }
+            heldAcks.clear();
+        }
+
+        /**
+         * 열린 세션을 모두 끊습니다.
+         */
+        void dropSessions() throws IOException {
+            for (Socket socket : sessions) {
+                socket.close();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+            dropSessions();
+        }
+    }
+
+    static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assertions.assertTrue(condition.getAsBoolean());
+    }
+
+    /**
+     * 발행 결과를 기록하는 리스너입니다.
+     */
+    static class RecordingListener implements PublishListener {
+        final List<Object> delivered = new CopyOnWriteArrayList<>();
+        final List<Throwable> failed = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onDelivered(Message message) {
+            delivered.add(message.getPayload());
+        }
+
+        @Override
+        public void onFailed(Message message, Throwable cause) {
+            failed.add(cause);
+        }
+    }
+
+    Path directory;
+    LoopbackBroker broker;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        directory = Files.createTempDirectory("mqtt-out");
+        broker = new LoopbackBroker();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        broker.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * 같은 clientId로 저장소를 열어 봅니다. 다른 클라이언트가 잠그고 있으면 false를 반환합니다.
+     */
+    boolean persistenceAvailable() throws Exception {
+        MappedLogPersistence probe = new MappedLogPersistence(directory.toString());
+        try {
+            probe.open(CLIENT, broker.uri());
+        } catch (MqttPersistenceException e) {
+            Assertions.assertEquals(MqttPersistenceException.REASON_CODE_PERSISTENCE_IN_USE, e.getReasonCode());
+            return false;
+        }
+        probe.close();
+        return true;
+    }
+
+    @Test
+    void stopReleasesMappedLogLockSoTheNodeCanRestart() throws Exception {
+        MqttOutNode node = new MqttOutNode(broker.uri(), CLIENT, "t");
+        node.setPersistence(MqttPersistenceMode.MAPPED_LOG, directory.toString());
+
+        node.start();
+        Assertions.assertTrue(node.mqttClient.isConnected());
+        // 연결된 동안에는 노드가 잠금을 쥐고 있으므로 stop()만이 잠금을 풀 수 있습니다.
+        Assertions.assertFalse(persistenceAvailable());
+        node.stop();
+        Assertions.assertTrue(persistenceAvailable());
+
+        node.start();
+        Assertions.assertTrue(node.mqttClient.isConnected());
+        Assertions.assertFalse(persistenceAvailable());
+        node.stop();
+        Assertions.assertTrue(persistenceAvailable());
+    }
+
+    MqttOutNode pipelined(String topic, int maxInFlight, RecordingListener listener) {
+        MqttOutNode node = new MqttOutNode(broker.uri(), CLIENT, topic);
+        node.setPersistence(MqttPersistenceMode.MEMORY, null);
+        node.setMaxInFlight(maxInFlight);
+        node.setPublishListener(listener);
+        return node;
+    }
+
+    @Test
+    void publishWindowBoundsUnacknowledgedPublishes() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        MqttOutNode node = pipelined("t", 2, listener);
+        node.start();
+        Assertions.assertEquals(2, node.demand());
+
+        broker.holdAcks();
+        node.onMessage(new Message("a"));
+        node.onMessage(new Message("b"));
+        await(() -> broker.published.size() == 2);
+        Assertions.assertEquals(0, node.demand());
+
+        Thread third = new Thread(() -> node.onMessage(new Message("c")));
+        third.start();
+        third.join(200);
+        // 창이 가득 차 있으므로 확인 응답이 오기 전에는 세 번째 메시지를 발행하지 않습니다.
+        Assertions.assertTrue(third.isAlive());
+        Assertions.assertEquals(2, broker.published.size());
+        Assertions.assertTrue(listener.delivered.isEmpty());
+
+        broker.releaseAcks();
+        third.join(5000);
+        await(() -> listener.delivered.size() == 3);
+        Assertions.assertEquals(List.of("t:a", "t:b", "t:c"), broker.published);
+        Assertions.assertEquals(List.of("a", "b", "c"), listener.delivered);
+        Assertions.assertTrue(listener.failed.isEmpty());
+        Assertions.assertTrue(node.stop(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, node.demand());
+    }
+
+    @Test
+    void coalescesSmallTextMessagesPerTopic() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        MqttOutNode node = pipelined(null, 4, listener);
+        node.setCoalescing(1024, 50);
+        node.start();
+
+        node.onMessage(new Message("x", Map.of(MqttOutNode.TOPIC_KEY, "a")));
+        node.onMessage(new Message("y", Map.of(MqttOutNode.TOPIC_KEY, "a")));
+        node.onMessage(new Message("w", Map.of(MqttOutNode.TOPIC_KEY, "b")));
+        node.onMessage(new Message("p\nq", Map.of(MqttOutNode.TOPIC_KEY, "a")));
+        node.onMessage(new Message("z", Map.of(MqttOutNode.TOPIC_KEY, "a")));
+
+        await(() -> listener.delivered.size() == 5);
+        // 줄바꿈이 있는 메시지는 바로 따로 발행되고, 나머지는 토픽별 묶음 하나로 발행됩니다.
+        Assertions.assertEquals(3, broker.published.size());
+        Assertions.assertEquals("a:p\nq", broker.published.get(0));
+        Assertions.assertEquals(Set.of("a:p\nq", "a:x\ny\nz", "b:w"), Set.copyOf(broker.published));
+        Assertions.assertEquals(Set.of("x", "y", "z", "w", "p\nq"), Set.copyOf(listener.delivered));
+        node.stop();
+    }
+
+    @Test
+    void stopFlushesPendingBatch() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        MqttOutNode node = pipelined("t", 4, listener);
+        node.setCoalescing(1024, 60_000);
+        node.start();
+
+        node.onMessage(new Message("x"));
+        node.onMessage(new Message("y"));
+        Assertions.assertTrue(broker.published.isEmpty());
+
+        Assertions.assertTrue(node.stop(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(List.of("t:x\ny"), broker.published);
+        Assertions.assertEquals(List.of("x", "y"), listener.delivered);
+    }
+
+    @Test
+    void listenerIsToldAboutFailedPublishes() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        MqttOutNode node = pipelined("t", 2, listener);
+        node.start();
+        broker.dropSessions();
+        await(() -> !node.asyncClient.isConnected());
+
+        node.onMessage(new Message("lost"));
+
+        Assertions.assertTrue(listener.delivered.isEmpty());
+        Assertions.assertEquals(1, listener.failed.size());
+        Assertions.assertInstanceOf(MqttException.class, listener.failed.get(0));
+        // 실패한 발행도 창을 반환합니다.
+        Assertions.assertEquals(2, node.demand());
+        node.stop();
+    }
+}
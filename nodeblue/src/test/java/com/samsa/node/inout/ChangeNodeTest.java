@@ -0,0 +1,166 @@
+package com.samsa.node.inout;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.*;
+
+import com.samsa.core.BinaryPayload;
+import com.samsa.core.Message;
+import com.samsa.core.MessageDraft;
+import com.samsa.core.NodeStatus;
+import com.samsa.node.inout.ChangeRule.Target;
+
+class ChangeNodeTest {
+
+    static Message apply(ChangeNode node, Message message) {
+        MessageDraft draft = new MessageDraft(message);
+        node.applyTo(draft);
+        return draft.toMessage();
+    }
+
+    @Test
+    void pathExpressionParsesKeysIndexesAndQuotedKeys() {
+        PathExpression path = PathExpression.compile("a.b[2][\"x.y\"].c");
+
+        Assertions.assertEquals(5, path.length());
+        Assertions.assertEquals("a", path.segment(0));
+        Assertions.assertEquals(2, path.segment(2));
+        Assertions.assertEquals("x.y", path.segment(3));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PathExpression.compile("a..b"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PathExpression.compile("a[x]"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> PathExpression.compile("a[1"));
+    }
+
+    @Test
+    void setCopiesOnlyContainersAlongThePath() {
+        Map<String, Object> untouched = Map.of("k", "v");
+        Map<String, Object> payload = Map.of(
+                "sensor", Map.of("readings", List.of(Map.of("value", 1), Map.of("value", 2))),
+                "other", untouched);
+        ChangeNode node = new ChangeNode("00000000-0000-0000-0000-000000000001",
+                List.of(ChangeRule.set(Target.PAYLOAD, "sensor.readings[1].unit", "C")));
+
+        Map<?, ?> result = (Map<?, ?>) apply(node, new Message(payload)).getPayload();
+
+        PathExpression unit = PathExpression.compile("sensor.readings[1].unit");
+        Assertions.assertEquals("C", unit.get(result));
+        Assertions.assertNull(unit.get(payload));
+        Assertions.assertSame(untouched, result.get("other"));
+        Assertions.assertSame(PathExpression.compile("sensor.readings[0]").get(payload),
+                PathExpression.compile("sensor.readings[0]").get(result));
+    }
+
+    @Test
+    void setCreatesMissingContainers() {
+        Object result = PathExpression.compile("a[0].b").set(null, 5);
+
+        Assertions.assertEquals(Map.of("a", List.of(Map.of("b", 5))), result);
+    }
+
+    @Test
+    void setRejectsIndexesPastTheEndOfAList() {
+        Map<String, Object> payload = Map.of("list", List.of(1));
+
+        Assertions.assertEquals(Map.of("list", List.of(1, 2)), PathExpression.compile("list[1]").set(payload, 2));
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> PathExpression.compile("list[100000]").set(payload, 2));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> PathExpression.compile("a[1].b").set(null, 5));
+    }
+
+    @Test
+    void copyFromBinaryPayloadDoesNotShareCachedTree() {
+        BinaryPayload binary = BinaryPayload.ofString("{\"sensor\":{\"id\":\"plc-1\",\"tags\":[\"a\"]}}");
+        ChangeNode node = new ChangeNode("00000000-0000-0000-0000-000000000005", List.of(
+                ChangeRule.copy(Target.PAYLOAD, "sensor", Target.METADATA, "snapshot"),
+                ChangeRule.set(Target.METADATA, "snapshot.id", "plc-2"),
+                ChangeRule.set(Target.METADATA, "snapshot.tags[1]", "b")));
+
+        Message result = apply(node, new Message(binary));
+
+        Assertions.assertEquals(Map.of("id", "plc-2", "tags", List.of("a", "b")), result.getMetadata().get("snapshot"));
+        Assertions.assertSame(binary, result.getPayload());
+        Assertions.assertEquals("plc-1", binary.asJson().get("sensor").get("id").textValue());
+        Assertions.assertEquals(1, binary.asJson().get("sensor").get("tags").size());
+    }
+
+    @Test
+    void nonJsonBinaryPayloadIsReplacedLikeOtherNonMapPayloads() {
+        ChangeNode node = new ChangeNode("00000000-0000-0000-0000-000000000007", List.of(
+                ChangeRule.delete(Target.PAYLOAD, "raw"),
+                ChangeRule.set(Target.PAYLOAD, "status", "ok")));
+        node.start();
+
+        Message result = apply(node, new Message(BinaryPayload.ofString("23.5 C")));
+        node.onMessage(new Message(BinaryPayload.ofString("plain text")));
+
+        Assertions.assertEquals(Map.of("status", "ok"), result.getPayload());
+        Assertions.assertNull(PathExpression.compile("a").get(BinaryPayload.ofString("plain text")));
+        Assertions.assertEquals(NodeStatus.RUNNING, node.getStatus());
+    }
+
+    @Test
+    void setAndDeleteBelowNestedBinaryPayload() {
+        Map<String, Object> payload = Map.of("raw", BinaryPayload.ofString("{\"a\":1,\"b\":{\"c\":2}}"));
+        ChangeNode node = new ChangeNode("00000000-0000-0000-0000-000000000006", List.of(
+                ChangeRule.delete(Target.PAYLOAD, "raw.a"),
+                ChangeRule.set(Target.PAYLOAD, "raw.b.d", 3)));
+
+        Message result = apply(node, new Message(payload));
+
+        Assertions.assertEquals(Map.of("raw", Map.of("b", Map.of("c", 2, "d", 3))), result.getPayload());
+    }
+
+    @Test
+    void setBelowBinaryPayloadCopiesOnlyThePath() {
+        BinaryPayload binary = BinaryPayload.ofString("{\"a\":{\"x\":1},\"big\":{\"k\":[1,2]}}");
+
+        Map<?, ?> result = (Map<?, ?>) PathExpression.compile("a.y").set(binary, 2);
+
+        Assertions.assertEquals(Map.of("a", Map.of("x", 1, "y", 2), "big", Map.of("k", List.of(1, 2))), result);
+        // 경로에서 벗어난 하위 트리는 변환하지 않고 캐시된 트리를 읽기 전용으로 공유합니다.
+        @SuppressWarnings("unchecked")
+        Map<String, Object> big = (Map<String, Object>) result.get("big");
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> big.put("z", 3));
+        Assertions.assertEquals(2, binary.asJson().get("a").size() + binary.asJson().get("big").size());
+    }
+
+    @Test
+    void deleteMissingPathBelowBinaryPayloadReturnsOriginal() {
+        BinaryPayload binary = BinaryPayload.ofString("{\"a\":{\"b\":1}}");
+
+        Assertions.assertSame(binary, PathExpression.compile("a.c.d").delete(binary));
+        Assertions.assertSame(binary, PathExpression.compile("x.y").delete(binary));
+        Assertions.assertEquals(Map.of("a", Map.of()), PathExpression.compile("a.b").delete(binary));
+    }
+
+    @Test
+    void deleteMissingPathKeepsMessageUnchanged() {
+        Message message = new Message(Map.of("a", Map.of("b", 1)));
+        ChangeNode node = new ChangeNode("00000000-0000-0000-0000-000000000002",
+                List.of(ChangeRule.delete(Target.PAYLOAD, "a.c"), ChangeRule.delete(Target.METADATA, "x.y")));
+
+        Assertions.assertSame(message, apply(node, message));
+    }
+
+    @Test
+    void moveAndCopyBetweenPayloadAndMetadata() {
+        Message message = new Message(Map.of("sensor", Map.of("id", "plc-1", "temp", 20)));
+        ChangeNode node = new ChangeNode("00000000-0000-0000-0000-000000000003", List.of(
+                ChangeRule.move(Target.PAYLOAD, "sensor.id", Target.METADATA, "source.device"),
+                ChangeRule.copy(Target.PAYLOAD, "sensor.temp", Target.PAYLOAD, "last"),
+                ChangeRule.delete(Target.PAYLOAD, "sensor.temp")));
+
+        Message result = apply(node, message);
+
+        Assertions.assertEquals(Map.of("sensor", Map.of(), "last", 20), result.getPayload());
+        Assertions.assertEquals(Map.of("device", "plc-1"), result.getMetadata().get("source"));
+    }
+
+    @Test
+    void legacyConstructorTreatsPropertyAsLiteralKey() {
+        ChangeNode node = new ChangeNode("00000000-0000-0000-0000-000000000004", "a.b", 1, false);
+
+        Assertions.assertEquals(Map.of("x", 0, "a.b", 1), apply(node, new Message(Map.of("x", 0))).getPayload());
+    }
+}
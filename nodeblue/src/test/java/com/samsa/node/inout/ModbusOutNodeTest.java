@@ -0,0 +1,180 @@
+package com.samsa.node.inout;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.*;
+
+import com.samsa.core.InNode;
+import com.samsa.core.Message;
+import com.samsa.core.Metadata;
+import com.samsa.core.Pipe;
+import com.samsa.modbus.DataType;
+import com.samsa.modbus.ModbusDevice;
+import com.samsa.modbus.ModbusPoint;
+import com.serotonin.modbus4j.BasicProcessImage;
+import com.serotonin.modbus4j.ip.tcp.TcpSlave;
+
+class ModbusOutNodeTest {
+
+    static class SinkNode extends InNode {
+        final List<Message> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onMessage(Message message) {
+            received.add(message);
+        }
+    }
+
+    TcpSlave slave;
+    BasicProcessImage image;
+    int port;
+    ModbusOutNode node;
+    SinkNode results;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        image = new BasicProcessImage(1);
+        for (int i = 0; i < 10; i++) {
+            image.setHoldingRegister(i, (short) 0);
+        }
+        image.setCoil(0, false);
+        image.setCoil(1, false);
+        slave = new TcpSlave(port, false);
+        slave.addProcessImage(image);
+        Thread listener = new Thread(() -> {
+            try {
+                slave.start();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, "modbus-test-slave");
+        listener.setDaemon(true);
+        listener.start();
+        Thread.sleep(100);
+
+        node = new ModbusOutNode();
+        node.addDevice(ModbusDevice.tcp("plc-1", "localhost", port), List.of(
+                ModbusPoint.holdingRegister("r0", 1, 0, DataType.INT16),
+                ModbusPoint.holdingRegister("r1", 1, 1, DataType.INT16),
+                ModbusPoint.holdingRegister("r2", 1, 2, DataType.INT16),
+                ModbusPoint.holdingRegister("setpoint", 1, 3, DataType.FLOAT32),
+                ModbusPoint.holdingRegister("missing", 1, 50, DataType.INT16),
+                ModbusPoint.coil("pump", 1, 0),
+                ModbusPoint.coil("valve", 1, 1)));
+        node.setWindowMillis(50);
+        results = new SinkNode();
+        Pipe out = new Pipe("out", node);
+        out.connect(new Pipe("in", results));
+        node.addOutputPipe(out);
+        node.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        node.stop();
+        slave.stop();
+    }
+
+    static Message write(String point, Object value) {
+        return new Message(value, Metadata.empty().with(ModbusOutNode.POINT_KEY, point));
+    }
+
+    void awaitResults(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (results.received.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    Object resultOf(Message request) {
+        return results.received.stream()
+                .filter(message -> message.getPayload() == request.getPayload())
+                .findFirst().orElseThrow()
+                .getMetadata().get(ModbusOutNode.RESULT_KEY);
+    }
+
+    @Test
+    void coalescesContiguousWritesAndKeepsLatestValue() throws Exception {
+        Message stale = write("r0", 1);
+        node.onMessage(stale);
+        node.onMessage(write("r1", 2));
+        node.onMessage(write("r2", 3));
+        node.onMessage(write("setpoint", 25.0));
+        Message latest = write("r0", 10);
+        node.onMessage(latest);
+        node.onMessage(new Message(Map.of("pump", true, "valve", 1)));
+
+        awaitResults(6);
+
+        Assertions.assertEquals(6, results.received.size());
+        Assertions.assertEquals("SUPERSEDED", resultOf(stale));
+        Assertions.assertEquals("WRITTEN", resultOf(latest));
+        Assertions.assertEquals(10, image.getHoldingRegister(0));
+        Assertions.assertEquals(2, image.getHoldingRegister(1));
+        Assertions.assertEquals(3, image.getHoldingRegister(2));
+        Assertions.assertEquals(0x41C8, image.getHoldingRegister(3));
+        Assertions.assertTrue(image.getCoil(0));
+        Assertions.assertTrue(image.getCoil(1));
+        // 0~4번 레지스터 한 번, 코일 두 개 한 번
+        Assertions.assertEquals(2, node.getRequestCount());
+    }
+
+    @Test
+    void reportsFailedWrites() throws Exception {
+        Message rejected = write("missing", 7);
+        node.onMessage(rejected);
+        Message unknown = write("nope", 1);
+        node.onMessage(unknown);
+
+        awaitResults(2);
+
+        Assertions.assertEquals("FAILED", resultOf(rejected));
+        Assertions.assertEquals("FAILED", resultOf(unknown));
+        Assertions.assertEquals(2, node.getMetrics().getErrors());
+    }
+
+    @Test
+    void splitsLongRunsOnlyBetweenPoints() throws Exception {
+        // 100번부터 INT32 포인트 62개 (레지스터 124개), 첫 레지스터만 장치에 없습니다.
+        List<ModbusPoint> points = new ArrayList<>();
+        for (int i = 0; i < 62; i++) {
+            points.add(ModbusPoint.holdingRegister("p" + i, 1, 100 + 2 * i, DataType.INT32));
+        }
+        for (int address = 101; address < 224; address++) {
+            image.setHoldingRegister(address, (short) 0);
+        }
+        ModbusOutNode wide = new ModbusOutNode();
+        wide.addDevice(ModbusDevice.tcp("plc-2", "localhost", port), points);
+        wide.setWindowMillis(50);
+        Pipe out = new Pipe("out", wide);
+        out.connect(new Pipe("in", results));
+        wide.addOutputPipe(out);
+        wide.start();
+        try {
+            List<Message> writes = new ArrayList<>();
+            for (int i = 0; i < 62; i++) {
+                Message message = write("p" + i, 0x10001);
+                writes.add(message);
+                wide.onMessage(message);
+            }
+
+            awaitResults(62);
+
+            // 123개 제한에서 자르면 마지막 포인트가 두 요청에 나뉘므로, 포인트 경계인 122개에서 자릅니다.
+            Assertions.assertEquals(2, wide.getRequestCount());
+            Assertions.assertEquals("FAILED", resultOf(writes.get(60)));
+            Assertions.assertEquals("WRITTEN", resultOf(writes.get(61)));
+            Assertions.assertEquals(1, image.getHoldingRegister(222));
+            Assertions.assertEquals(1, image.getHoldingRegister(223));
+        } finally {
+            wide.stop();
+        }
+    }
+}
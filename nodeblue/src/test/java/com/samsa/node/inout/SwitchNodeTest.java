@@ -0,0 +1,112 @@
+package com.samsa.node.inout;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.*;
+
+import com.samsa.core.InNode;
+import com.samsa.core.Message;
+import com.samsa.core.Metadata;
+import com.samsa.core.Pipe;
+import com.samsa.node.inout.SwitchRule.Source;
+
+class SwitchNodeTest {
+
+    static class SinkNode extends InNode {
+        final List<Message> received = new ArrayList<>();
+
+        @Override
+        public void onMessage(Message message) {
+            received.add(message);
+        }
+    }
+
+    static Message withDevice(Object device) {
+        return new Message("payload", Metadata.empty().with("device", device));
+    }
+
+    @Test
+    void firstMatchUsesRuleOrder() {
+        RoutingTable table = new RoutingTable(List.of(
+                SwitchRule.startsWith(Source.METADATA, "device", "plc-", 0),
+                SwitchRule.equalsTo(Source.METADATA, "device", "plc-7", 1),
+                SwitchRule.otherwise(2)));
+
+        Assertions.assertEquals(0, table.first(withDevice("plc-7")));
+        Assertions.assertEquals(2, table.first(withDevice("sensor-1")));
+        Assertions.assertEquals(2, table.first(new Message("no metadata")));
+    }
+
+    @Test
+    void allMatchesReturnsDistinctOutputsInRuleOrder() {
+        RoutingTable table = new RoutingTable(List.of(
+                SwitchRule.matches(Source.METADATA, "device", "plc-\\d+", 2),
+                SwitchRule.in(Source.METADATA, "device", Set.of("plc-1", "plc-2"), 0),
+                SwitchRule.startsWith(Source.METADATA, "device", "plc", 2)));
+
+        Assertions.assertArrayEquals(new int[] { 2, 0 }, table.all(withDevice("plc-1")));
+        Assertions.assertArrayEquals(new int[] { 2 }, table.all(withDevice("plc-9")));
+        Assertions.assertArrayEquals(new int[0], table.all(withDevice("x")));
+    }
+
+    @Test
+    void rangesAndNumericEqualityIgnoreNumberType() {
+        RoutingTable table = new RoutingTable(List.of(
+                SwitchRule.between(Source.PAYLOAD, "reading.temp", 0, 10, 0),
+                SwitchRule.between(Source.PAYLOAD, "reading.temp", 5, 20, 1),
+                SwitchRule.equalsTo(Source.PAYLOAD, "reading.temp", 42, 2)));
+
+        Assertions.assertEquals(0, table.first(new Message(Map.of("reading", Map.of("temp", 7)))));
+        Assertions.assertArrayEquals(new int[] { 0, 1 }, table.all(new Message(Map.of("reading", Map.of("temp", 7.5)))));
+        Assertions.assertEquals(1, table.first(new Message(Map.of("reading", Map.of("temp", 10)))));
+        Assertions.assertEquals(-1, table.first(new Message(Map.of("reading", Map.of("temp", 20)))));
+        Assertions.assertEquals(2, table.first(new Message(Map.of("reading", Map.of("temp", 42.0)))));
+    }
+
+    @Test
+    void fractionalKeysAreNotTruncated() {
+        RoutingTable table = new RoutingTable(List.of(
+                SwitchRule.equalsTo(Source.METADATA, "level", 1, 0),
+                SwitchRule.equalsTo(Source.METADATA, "level", 1.5, 1)));
+
+        Assertions.assertEquals(1, table.first(new Message("x", Metadata.empty().with("level", new BigDecimal("1.5")))));
+        Assertions.assertEquals(1, table.first(new Message("x", Metadata.empty().with("level", 1.5f))));
+        Assertions.assertEquals(0, table.first(new Message("x", Metadata.empty().with("level", new BigDecimal("1.0")))));
+        Assertions.assertEquals(0, table.first(new Message("x", Metadata.empty().with("level", BigInteger.ONE))));
+    }
+
+    @Test
+    void ruleModeRoutesToOutputPipes() {
+        SwitchNode node = new SwitchNode(UUID.randomUUID(), List.of(
+                SwitchRule.equalsTo(Source.METADATA, "device", "a", 0),
+                SwitchRule.equalsTo(Source.METADATA, "device", "b", 1)), SwitchNode.MatchMode.FIRST_MATCH);
+        SinkNode first = new SinkNode();
+        SinkNode second = new SinkNode();
+        Pipe out0 = new Pipe("out0", node);
+        Pipe out1 = new Pipe("out1", node);
+        out0.connect(new Pipe("in0", first));
+        out1.connect(new Pipe("in1", second));
+        node.addOutputPipe(out0);
+        node.addOutputPipe(out1);
+        node.start();
+
+        node.onMessage(withDevice("b"));
+        node.onMessage(withDevice("a"));
+        node.onMessage(withDevice("c"));
+
+        Assertions.assertEquals(1, first.received.size());
+        Assertions.assertEquals(1, second.received.size());
+    }
+
+    @Test
+    void invalidRegexFailsAtConstruction() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RoutingTable(List.of(
+                SwitchRule.matches(Source.METADATA, "device", "(", 0))));
+    }
+}
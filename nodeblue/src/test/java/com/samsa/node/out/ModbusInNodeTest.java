@@ -0,0 +1,147 @@
+package com.samsa.node.out;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.*;
+
+import com.samsa.core.InNode;
+import com.samsa.core.Message;
+import com.samsa.core.Pipe;
+import com.samsa.modbus.DataType;
+import com.samsa.modbus.ModbusDevice;
+import com.samsa.modbus.ModbusPoint;
+import com.samsa.modbus.ReadBlock;
+import com.samsa.modbus.RegisterType;
+import com.serotonin.modbus4j.BasicProcessImage;
+import com.serotonin.modbus4j.ip.tcp.TcpSlave;
+
+class ModbusInNodeTest {
+
+    static class SinkNode extends InNode {
+        final List<Message> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onMessage(Message message) {
+            received.add(message);
+        }
+    }
+
+    TcpSlave slave;
+    BasicProcessImage image;
+    int port;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        image = new BasicProcessImage(1);
+        image.setAllowInvalidAddress(true);
+        for (int i = 0; i < 10; i++) {
+            image.setHoldingRegister(i, (short) i);
+        }
+        image.setHoldingRegister(200, (short) 200);
+        image.setCoil(3, true);
+        slave = new TcpSlave(port, false);
+        slave.addProcessImage(image);
+        Thread listener = new Thread(() -> {
+            try {
+                slave.start();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }, "modbus-test-slave");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        slave.stop();
+    }
+
+    static void awaitReceived(SinkNode sink, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sink.received.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void planMergesNearbyAddressesWithinProtocolLimits() {
+        List<ModbusPoint> points = new ArrayList<>();
+        points.add(ModbusPoint.holdingRegister("a", 1, 0, DataType.INT16));
+        points.add(ModbusPoint.holdingRegister("b", 1, 2, DataType.FLOAT32));
+        points.add(ModbusPoint.holdingRegister("c", 1, 20, DataType.UINT16));
+        points.add(ModbusPoint.holdingRegister("far", 1, 200, DataType.INT16));
+        points.add(ModbusPoint.inputRegister("input", 1, 1, DataType.INT16));
+        points.add(ModbusPoint.coil("c1", 1, 1));
+        points.add(ModbusPoint.coil("c900", 1, 900));
+        points.add(ModbusPoint.holdingRegister("other-slave", 2, 1, DataType.INT16));
+
+        List<ReadBlock> blocks = ReadBlock.plan(points, 16, 1000);
+
+        Assertions.assertEquals(5, blocks.size());
+        ReadBlock first = blocks.get(0);
+        Assertions.assertEquals(RegisterType.COIL, first.getRegisterType());
+        Assertions.assertEquals(900, first.getCount());
+        ReadBlock registers = blocks.get(1);
+        Assertions.assertEquals(0, registers.getStart());
+        Assertions.assertEquals(21, registers.getCount());
+        Assertions.assertTrue(registers.hasGaps());
+
+        List<ModbusPoint> consecutive = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            consecutive.add(ModbusPoint.holdingRegister("r" + i, 1, i, DataType.INT16));
+        }
+        List<ReadBlock> limited = ReadBlock.plan(consecutive, 16, 16);
+        Assertions.assertEquals(List.of(125, 125, 50), limited.stream().map(ReadBlock::getCount).toList());
+        Assertions.assertFalse(limited.get(0).hasGaps());
+    }
+
+    @Test
+    void emitsOnlySignificantChanges() throws Exception {
+        image.setHoldingRegister(2, (short) 0x41C8);
+        image.setHoldingRegister(3, (short) 0x0000);
+        ModbusInNode node = new ModbusInNode();
+        node.addDevice(ModbusDevice.tcp("plc-1", "localhost", port), 20, List.of(
+                ModbusPoint.holdingRegister("level", 1, 0, DataType.INT16).withDeadband(5),
+                ModbusPoint.holdingRegister("temp", 1, 2, DataType.FLOAT32),
+                ModbusPoint.holdingRegister("far", 1, 200, DataType.UINT16),
+                ModbusPoint.coil("pump", 1, 3)));
+        SinkNode sink = new SinkNode();
+        Pipe out = new Pipe("out", node);
+        out.connect(new Pipe("in", sink));
+        node.addPipe(out);
+
+        node.start();
+        try {
+            awaitReceived(sink, 4);
+            Assertions.assertEquals(4, sink.received.size());
+            Message temp = sink.received.stream()
+                    .filter(message -> "temp".equals(message.getMetadata().get(ModbusInNode.POINT_KEY)))
+                    .findFirst().orElseThrow();
+            Assertions.assertEquals(25.0f, temp.getPayload());
+            Assertions.assertEquals("plc-1", temp.getMetadata().get(ModbusInNode.DEVICE_KEY));
+
+            image.setHoldingRegister(0, (short) 3);
+            image.setHoldingRegister(200, (short) 201);
+            awaitReceived(sink, 5);
+            Thread.sleep(100);
+            Assertions.assertEquals(5, sink.received.size());
+            Assertions.assertEquals(201, sink.received.get(4).getPayload());
+
+            image.setHoldingRegister(0, (short) 9);
+            awaitReceived(sink, 6);
+            Assertions.assertEquals(9, sink.received.get(5).getPayload());
+        } finally {
+            node.stop();
+        }
+        // 네 포인트를 세 요청(0~3번 레지스터, 200번 레지스터, 코일)으로 읽습니다.
+        Assertions.assertTrue(node.getRequestCount() > 0);
+        Assertions.assertEquals(0, node.getRequestCount() % 3);
+    }
+}
@@ -2,6 +2,8 @@ package com.samsa.node.out;
 
 import org.junit.jupiter.api.*;
 
+import com.samsa.mqtt.MqttPersistenceMode;
+
 
 class MqttIntNodeTest {
 
@@ -34,4 +36,14 @@ class MqttIntNodeTest {
         }
         Assertions.assertDoesNotThrow(()-> mqttInNode.start());
     }
+
+    @Test
+    void failedConnectDoesNotLeaveDispatcherRunning() {
+        MqttInNode unreachable = new MqttInNode("tcp://127.0.0.1:1", "unreachable", new String[] {"t"});
+        unreachable.setPersistence(MqttPersistenceMode.MEMORY, null);
+
+        Assertions.assertThrows(RuntimeException.class, unreachable::start);
+        Assertions.assertTrue(Thread.getAllStackTraces().keySet().stream()
+                .noneMatch(thread -> thread.getName().equals("mqtt-in-unreachable")));
+    }
 }
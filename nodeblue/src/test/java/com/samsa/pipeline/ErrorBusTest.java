@@ -0,0 +1,138 @@
+package com.samsa.pipeline;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.*;
+
+import com.samsa.core.InNode;
+import com.samsa.core.InOutNode;
+import com.samsa.core.Message;
+import com.samsa.core.OutNode;
+import com.samsa.node.out.CatchNode;
+import com.samsa.node.out.CatchNode.CatchScope;
+
+class ErrorBusTest {
+
+    static class SourceNode extends OutNode {
+    }
+
+    static class FailingNode extends InOutNode {
+        @Override
+        public void onMessage(Message message) {
+            handleError(new IllegalStateException("broker unavailable"));
+        }
+    }
+
+    static class SinkNode extends InNode {
+        final List<Message> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onMessage(Message message) {
+            received.add(message);
+        }
+    }
+
+    static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    SourceNode source;
+    FailingNode failing;
+    Pipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        source = new SourceNode();
+        failing = new FailingNode();
+        pipeline = new Pipeline("pipeline1");
+        pipeline.connect(source, failing);
+        pipeline.connect(failing, new SinkNode());
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    static long countOf(Message message) {
+        return ((Number) message.getMetadata().get(CatchNode.COUNT_KEY)).longValue();
+    }
+
+    @Test
+    void collapsesRepeatedErrorsIntoSummary() throws InterruptedException {
+        CatchNode selected = new CatchNode(UUID.randomUUID().toString(), CatchScope.SELECTED_NODES);
+        selected.addTargetNode(failing.getId().toString());
+        SinkNode caught = new SinkNode();
+        pipeline.connect(selected, caught);
+        pipeline.getErrorBus().setWindowMillis(1000);
+        pipeline.start();
+
+        for (int i = 0; i < 1000; i++) {
+            source.emit(new Message(i));
+        }
+        awaitCondition(() -> caught.received.stream().mapToLong(ErrorBusTest::countOf).sum() == 1000);
+
+        long total = caught.received.stream().mapToLong(ErrorBusTest::countOf).sum();
+        Assertions.assertEquals(1000, total);
+        Assertions.assertTrue(caught.received.size() <= 4, "repeated errors should be collapsed: " + caught.received.size());
+        Assertions.assertEquals(1, countOf(caught.received.get(0)));
+        Assertions.assertEquals(failing.getId().toString(), caught.received.get(0).getMetadata().get("sourceNode"));
+        Assertions.assertEquals(999, pipeline.getErrorBus().getSuppressedCount());
+    }
+
+    @Test
+    void routesOnlyToIndexedCatchNodes() throws InterruptedException {
+        CatchNode pipelineWide = new CatchNode(UUID.randomUUID().toString(), CatchScope.SAME_PIPELINE);
+        CatchNode unrelated = new CatchNode(UUID.randomUUID().toString(), CatchScope.SELECTED_NODES);
+        unrelated.addTargetNode(UUID.randomUUID().toString());
+        SinkNode caught = new SinkNode();
+        SinkNode ignored = new SinkNode();
+        pipeline.connect(pipelineWide, caught);
+        pipeline.connect(unrelated, ignored);
+        pipeline.start();
+
+        Assertions.assertEquals("pipeline1", pipelineWide.getPipelineId());
+        source.emit(new Message("x"));
+        awaitCondition(() -> caught.received.size() == 1);
+        pipeline.stop();
+
+        Assertions.assertEquals(1, caught.received.size());
+        Assertions.assertTrue(caught.received.get(0).getPayload() instanceof IllegalStateException);
+        Assertions.assertTrue(ignored.received.isEmpty());
+    }
+
+    @Test
+    void summaryGoesToCatchNodesIndexedAtFlush() throws InterruptedException {
+        String failingId = failing.getId().toString();
+        CatchNode before = new CatchNode(UUID.randomUUID().toString(), CatchScope.SELECTED_NODES);
+        before.addTargetNode(failingId);
+        CatchNode after = new CatchNode(UUID.randomUUID().toString(), CatchScope.SELECTED_NODES);
+        SinkNode caughtBefore = new SinkNode();
+        SinkNode caughtAfter = new SinkNode();
+        pipeline.connect(before, caughtBefore);
+        pipeline.connect(after, caughtAfter);
+        pipeline.getErrorBus().setWindowMillis(500);
+        pipeline.start();
+
+        for (int i = 0; i < 3; i++) {
+            source.emit(new Message(i));
+        }
+        awaitCondition(() -> caughtBefore.received.size() == 1);
+        // 창이 끝나기 전에 대상을 옮기면 요약은 새 CatchNode로 갑니다.
+        pipeline.reconfigure(() -> {
+            before.removeTargetNode(failingId);
+            after.addTargetNode(failingId);
+        });
+        awaitCondition(() -> caughtAfter.received.size() == 1);
+
+        Assertions.assertEquals(1, caughtBefore.received.size());
+        Assertions.assertEquals(1, caughtAfter.received.size());
+        Assertions.assertEquals(2, countOf(caughtAfter.received.get(0)));
+    }
+}
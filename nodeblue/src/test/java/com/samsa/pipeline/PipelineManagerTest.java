@@ -0,0 +1,176 @@
+package com.samsa.pipeline;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.*;
+
+import com.samsa.core.ExecutionMode;
+import com.samsa.core.InNode;
+import com.samsa.core.Message;
+import com.samsa.core.Node;
+import com.samsa.core.NodeRuntime;
+import com.samsa.core.NodeStatus;
+import com.samsa.core.OutNode;
+import com.samsa.metrics.MetricsJmx;
+import com.samsa.metrics.NodeMetricsSnapshot;
+import com.samsa.metrics.PipelineMetricsSnapshot;
+
+class PipelineManagerTest {
+
+    static class SourceNode extends OutNode {
+        final AtomicInteger starts = new AtomicInteger();
+
+        @Override
+        public void start() {
+            starts.incrementAndGet();
+            super.start();
+        }
+    }
+
+    static class SinkNode extends InNode {
+        final List<Message> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onMessage(Message message) {
+            received.add(message);
+        }
+    }
+
+    static class FailingSink extends InNode {
+        @Override
+        public void onMessage(Message message) {
+            if ("bad".equals(message.getPayload())) {
+                handleError(new IllegalStateException("bad payload"));
+            }
+        }
+    }
+
+    @Test
+    void snapshotCountsMessagesAndErrors() throws Exception {
+        SourceNode source = new SourceNode();
+        FailingSink sink = new FailingSink();
+        Pipeline pipeline = new Pipeline("metrics-test");
+        pipeline.connect(source, sink);
+        PipelineManager manager = new PipelineManager();
+        manager.register(pipeline);
+        pipeline.start();
+
+        source.emit(new Message("ok"));
+        source.emit(new Message("ok"));
+        source.emit(new Message("bad"));
+
+        PipelineMetricsSnapshot snapshot = manager.snapshot("metrics-test").orElseThrow();
+        NodeMetricsSnapshot sinkMetrics = snapshot.nodes().stream()
+                .filter(node -> node.nodeId().equals(sink.getId())).findFirst().orElseThrow();
+        Assertions.assertEquals(3, sinkMetrics.received());
+        Assertions.assertEquals(1, sinkMetrics.errors());
+        Assertions.assertEquals(3, sinkMetrics.latency().count());
+        Assertions.assertEquals(3, snapshot.pipes().get(0).delivered());
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(MetricsJmx.DOMAIN + ":type=Node,pipeline=\"metrics-test\",name=\""
+                + sink.getId() + "\"");
+        Assertions.assertEquals(3L, server.getAttribute(name, "Received"));
+
+        manager.unregister("metrics-test");
+        Assertions.assertFalse(server.isRegistered(name));
+        pipeline.stop();
+    }
+
+    static String flow(String tag, String wires) {
+        return "{\"id\": \"line-1\", \"nodes\": ["
+                + "{\"id\": \"src\", \"type\": \"source\", \"wires\": [\"tag\"]},"
+                + "{\"id\": \"tag\", \"type\": \"change\", \"property\": \"tag\", \"value\": \"" + tag
+                + "\", \"metadata\": true, \"wires\": [" + wires + "]},"
+                + "{\"id\": \"sink\", \"type\": \"sink\"},"
+                + "{\"id\": \"audit\", \"type\": \"sink\"}]}";
+    }
+
+    @Test
+    void redeployReplacesOnlyChangedNodes() {
+        NodeRegistry registry = NodeRegistry.withDefaults();
+        registry.register("source", definition -> new SourceNode());
+        registry.register("sink", definition -> new SinkNode());
+        PipelineManager manager = new PipelineManager(null, registry);
+        manager.setJmxEnabled(false);
+
+        Pipeline pipeline = manager.deploy(JsonToPipeline.parse(flow("a", "\"sink\"")).get(0));
+        SourceNode source = (SourceNode) manager.getNode("line-1", "src").orElseThrow();
+        SinkNode sink = (SinkNode) manager.getNode("line-1", "sink").orElseThrow();
+        Node tag = manager.getNode("line-1", "tag").orElseThrow();
+        source.emit(new Message("first"));
+
+        Assertions.assertSame(pipeline, manager.deploy(JsonToPipeline.parse(flow("b", "\"sink\"")).get(0)));
+        Node replaced = manager.getNode("line-1", "tag").orElseThrow();
+        Assertions.assertNotSame(tag, replaced);
+        Assertions.assertEquals(tag.getId(), replaced.getId());
+        Assertions.assertEquals(NodeStatus.STOPPED, tag.getStatus());
+        Assertions.assertTrue(replaced.isRunning());
+        Assertions.assertSame(source, manager.getNode("line-1", "src").orElseThrow());
+        Assertions.assertSame(sink, manager.getNode("line-1", "sink").orElseThrow());
+        Assertions.assertEquals(1, source.starts.get());
+        source.emit(new Message("second"));
+
+        manager.deploy(JsonToPipeline.parse(flow("b", "\"sink\", \"audit\"")).get(0));
+        Assertions.assertSame(replaced, manager.getNode("line-1", "tag").orElseThrow());
+        SinkNode audit = (SinkNode) manager.getNode("line-1", "audit").orElseThrow();
+        source.emit(new Message("third"));
+
+        Assertions.assertEquals(List.of("a", "b", "b"),
+                sink.received.stream().map(message -> message.getMetadata().get("tag")).toList());
+        Assertions.assertEquals(1, audit.received.size());
+        Assertions.assertEquals(4, pipeline.getNodes().size());
+        Assertions.assertEquals(3, pipeline.getConnections().size());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> manager.deploy(JsonToPipeline.parse(flow("c", "\"missing\"")).get(0)));
+        manager.undeploy("line-1");
+        Assertions.assertFalse(pipeline.isRunning());
+        Assertions.assertEquals(1, source.starts.get());
+    }
+
+    @Test
+    void failedRedeployDiscardsNodesCreatedSoFar() {
+        List<SinkNode> sinks = new CopyOnWriteArrayList<>();
+        NodeRegistry registry = NodeRegistry.withDefaults();
+        registry.register("source", definition -> new SourceNode());
+        registry.register("sink", definition -> {
+            SinkNode sink = new SinkNode();
+            sinks.add(sink);
+            return sink;
+        });
+        registry.register("broken", definition -> {
+            throw new IllegalStateException("cannot create");
+        });
+        try (NodeRuntime runtime = new NodeRuntime(ExecutionMode.WORK_STEALING)) {
+            PipelineManager manager = new PipelineManager(runtime, registry);
+            manager.setJmxEnabled(false);
+            Pipeline pipeline = manager.deploy(JsonToPipeline.parse("{\"id\": \"line-2\", \"nodes\": ["
+                    + "{\"id\": \"src\", \"type\": \"source\", \"wires\": [\"sink\"]},"
+                    + "{\"id\": \"sink\", \"type\": \"sink\"}]}").get(0));
+
+            Assertions.assertThrows(IllegalStateException.class, () -> manager.deploy(JsonToPipeline.parse(
+                    "{\"id\": \"line-2\", \"nodes\": ["
+                    + "{\"id\": \"src\", \"type\": \"source\", \"wires\": [\"sink\", \"extra\"]},"
+                    + "{\"id\": \"sink\", \"type\": \"sink\"},"
+                    + "{\"id\": \"extra\", \"type\": \"sink\"},"
+                    + "{\"id\": \"bad\", \"type\": \"broken\"}]}").get(0)));
+
+            // 새로 만든 노드는 런타임에서 분리되고 중지되며, 이전 플로우는 그대로 유지됩니다.
+            SinkNode extra = sinks.get(1);
+            Assertions.assertNull(extra.getMailbox());
+            Assertions.assertEquals(NodeStatus.STOPPED, extra.getStatus());
+            Assertions.assertTrue(manager.getNode("line-2", "extra").isEmpty());
+            Assertions.assertNotNull(sinks.get(0).getMailbox());
+            Assertions.assertEquals(2, pipeline.getNodes().size());
+            Assertions.assertTrue(pipeline.isRunning());
+            manager.undeploy("line-2");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.samsa.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.*;
+
+import com.samsa.core.ExecutionMode;
+import com.samsa.core.InNode;
+import com.samsa.core.Message;
+import com.samsa.core.Node;
+import com.samsa.core.NodeRuntime;
+import com.samsa.core.OutNode;
+import com.samsa.node.inout.ChangeNode;
+
+class PipelineTest {
+
+    static class SourceNode extends OutNode {
+    }
+
+    static class SinkNode extends InNode {
+        final List<Message> received = new ArrayList<>();
+
+        @Override
+        public void onMessage(Message message) {
+            received.add(message);
+        }
+    }
+
+    SourceNode source;
+    SinkNode sink;
+    Pipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        source = new SourceNode();
+        sink = new SinkNode();
+        pipeline = new Pipeline("pipeline1");
+        ChangeNode a = new ChangeNode(UUID.randomUUID(), "a", 1, true);
+        ChangeNode b = new ChangeNode(UUID.randomUUID(), "b", 2, true);
+        ChangeNode c = new ChangeNode(UUID.randomUUID(), "c", 3, true);
+        pipeline.connect(source, a);
+        pipeline.connect(a, b);
+        pipeline.connect(b, c);
+        pipeline.connect(c, sink);
+    }
+
+    @Test
+    void fusionIsOnByDefault() {
+        Assertions.assertTrue(pipeline.isFusionEnabled());
+    }
+
+    @Test
+    void fusesLinearChangeChain() {
+        pipeline.start();
+        Assertions.assertEquals(1, pipeline.getFusedStages().size());
+        Assertions.assertEquals(3, pipeline.getFusedStages().get(0).getNodes().size());
+
+        source.emit(new Message("payload"));
+
+        Assertions.assertEquals(1, sink.received.size());
+        Message result = sink.received.get(0);
+        Assertions.assertEquals("payload", result.getPayload());
+        Assertions.assertEquals(1, result.getMetadata().get("a"));
+        Assertions.assertEquals(2, result.getMetadata().get("b"));
+        Assertions.assertEquals(3, result.getMetadata().get("c"));
+        // 융합된 노드도 융합하지 않았을 때처럼 자신의 통계를 기록합니다.
+        for (Node member : pipeline.getFusedStages().get(0).getNodes()) {
+            Assertions.assertEquals(1, member.getMetrics().getReceived());
+            Assertions.assertEquals(1, member.getMetrics().getEmitted());
+            Assertions.assertEquals(1, member.getMetrics().getLatency().getCount());
+        }
+    }
+
+    @Test
+    void fusedStageRunsOnMembersRuntime() {
+        try (NodeRuntime runtime = new NodeRuntime(ExecutionMode.WORK_STEALING)) {
+            for (Node node : pipeline.getNodes()) {
+                runtime.attach(node);
+            }
+            pipeline.start();
+
+            Assertions.assertNotNull(pipeline.getFusedStages().get(0).getMailbox());
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void unfusedPipelineProducesSameResult() {
+        pipeline.setFusionEnabled(false);
+        pipeline.start();
+        Assertions.assertEquals(0, pipeline.getFusedStages().size());
+
+        source.emit(new Message("payload"));
+
+        Assertions.assertEquals(1, sink.received.size());
+        Assertions.assertEquals(3, sink.received.get(0).getMetadata().get("c"));
+    }
+
+    @Test
+    void stopRestoresOriginalWiring() {
+        pipeline.setFusionEnabled(true);
+        pipeline.start();
+        pipeline.stop();
+        pipeline.setFusionEnabled(false);
+        pipeline.start();
+
+        source.emit(new Message("payload"));
+
+        Assertions.assertEquals(1, sink.received.size());
+        Assertions.assertEquals(0, pipeline.getFusedStages().size());
+    }
+}
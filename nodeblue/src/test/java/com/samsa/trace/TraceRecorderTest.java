@@ -0,0 +1,101 @@
+package com.samsa.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.*;
+
+import com.samsa.core.InNode;
+import com.samsa.core.Message;
+import com.samsa.core.OutNode;
+import com.samsa.node.inout.ChangeNode;
+import com.samsa.pipeline.Pipeline;
+
+class TraceRecorderTest {
+
+    static class SourceNode extends OutNode {
+    }
+
+    static class SinkNode extends InNode {
+        final List<Message> received = new ArrayList<>();
+
+        @Override
+        public void onMessage(Message message) {
+            received.add(message);
+        }
+    }
+
+    final List<TraceEvent> events = new ArrayList<>();
+    SourceNode source;
+    ChangeNode change;
+    SinkNode sink;
+    Pipeline pipeline;
+    TraceRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        source = new SourceNode();
+        change = new ChangeNode(UUID.randomUUID(), "seen", true, true);
+        sink = new SinkNode();
+        pipeline = new Pipeline("trace-test");
+        pipeline.setFusionEnabled(false);
+        pipeline.connect(source, change);
+        pipeline.connect(change, sink);
+        recorder = new TraceRecorder(64, 10, TimeUnit.MILLISECONDS, batch -> {
+            synchronized (events) {
+                events.addAll(batch);
+            }
+        });
+    }
+
+    @Test
+    void sampledMessagesRecordEveryHopInOrder() throws Exception {
+        pipeline.enableTracing(TraceSampler.everyNth(2), recorder);
+        pipeline.start();
+        for (int i = 0; i < 4; i++) {
+            source.emit(new Message(i));
+        }
+        pipeline.stop();
+        recorder.close();
+
+        Map<String, List<TraceEvent>> traces = events.stream()
+                .collect(Collectors.groupingBy(TraceEvent::traceId));
+        Assertions.assertEquals(2, traces.size());
+        for (List<TraceEvent> hops : traces.values()) {
+            hops.sort((a, b) -> Integer.compare(a.hop(), b.hop()));
+            Assertions.assertEquals(List.of(source.getId(), change.getId(), sink.getId()),
+                    hops.stream().map(TraceEvent::nodeId).toList());
+            Assertions.assertTrue(hops.get(0).durationNanos() >= hops.get(1).durationNanos());
+        }
+        Assertions.assertNull(sink.received.get(1).getTrace());
+        Assertions.assertNotNull(sink.received.get(0).getTrace());
+    }
+
+    @Test
+    void metadataSamplerOnlyTracesFlaggedMessages() throws Exception {
+        pipeline.enableTracing(TraceSampler.whenMetadata("trace"), recorder);
+        pipeline.start();
+        source.emit(new Message("plain"));
+        source.emit(new Message("flagged", Map.of("trace", true)));
+        pipeline.stop();
+        recorder.close();
+
+        Assertions.assertEquals(3, events.size());
+        Assertions.assertEquals(0, recorder.getDroppedCount());
+    }
+
+    @Test
+    void disabledTracingLeavesMessagesUntouched() throws Exception {
+        pipeline.start();
+        source.emit(new Message("plain"));
+        pipeline.stop();
+        recorder.close();
+
+        Assertions.assertNull(sink.received.get(0).getTrace());
+        Assertions.assertTrue(events.isEmpty());
+    }
+}